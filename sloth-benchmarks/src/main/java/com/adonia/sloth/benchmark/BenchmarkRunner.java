@@ -0,0 +1,50 @@
+package com.adonia.sloth.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 运行调用端的压测，同时统计吞吐量、耗时分布及内存分配速率(gc profiler)
+ *
+ * <pre>
+ *     mvn -pl sloth-benchmarks -am package
+ *     java -jar sloth-benchmarks/target/benchmarks.jar [正则，只运行匹配的压测]
+ * </pre>
+ *
+ * N.B. 需要自定义 JMH 参数时，可直接使用 <code>java -cp target/benchmarks.jar org.openjdk.jmh.Main ...</code>
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .mode(Mode.Throughput)
+                .mode(Mode.SampleTime)
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(5)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(2))
+                .forks(1)
+                .addProfiler(GCProfiler.class);
+
+        if(0 == args.length) {
+            options.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+        } else {
+            for(String include: args) {
+                options.include(include);
+            }
+        }
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,53 @@
+package com.adonia.sloth.benchmark;
+
+import com.adonia.sloth.codec.ICodec;
+import com.adonia.sloth.codec.JacksonCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * 各编码下 Person 列表的序列化、反序列化
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+
+    @Param({JacksonCodec.JSON, JacksonCodec.SMILE})
+    private String codecName;
+
+    @Param({"10", "1000"})
+    private int persons;
+
+    private ICodec codec;
+
+    private Person[] personArray;
+
+    private byte[] personBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        codec = JacksonCodec.SMILE.equals(codecName) ? JacksonCodec.smile() : JacksonCodec.json();
+        personArray = SlothFixture.createPersons(persons).toArray(new Person[persons]);
+        personBytes = encodePersons();
+    }
+
+    @Benchmark
+    public byte[] encodePersons() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream((null == personBytes) ? 256 : personBytes.length);
+        codec.write(personArray, out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public Person[] decodePersons() throws Exception {
+        return codec.read(Person[].class, new ByteArrayInputStream(personBytes));
+    }
+}
@@ -0,0 +1,60 @@
+package com.adonia.sloth.benchmark;
+
+/**
+ * 压测使用的Model，与 sloth-examples 中的 Person 结构一致
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class Person {
+
+    private String id;
+
+    private String name;
+
+    private int age;
+
+    private String location;
+
+    public Person() {
+    }
+
+    public Person(String id, String name, int age, String location) {
+        this.id = id;
+        this.name = name;
+        this.age = age;
+        this.location = location;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    public void setAge(int age) {
+        this.age = age;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+}
@@ -0,0 +1,53 @@
+package com.adonia.sloth.benchmark;
+
+import com.adonia.sloth.annotation.SlothService;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 服务发现压测使用的 Controller，仅用于解析服务，不处理请求
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+@RestController
+@RequestMapping("/persons")
+@SlothService(namespace = "sloth.person", version = "v1", excludes = {"deletePerson"}, excludePattern = "internal.*")
+public class PersonController {
+
+    @RequestMapping(value = "/add", method = RequestMethod.POST)
+    public String addPerson() {
+        return null;
+    }
+
+    @RequestMapping
+    public List<Person> getPersons() {
+        return Collections.emptyList();
+    }
+
+    @SlothService(serviceName = "getPersonById")
+    @RequestMapping("/{id}")
+    public Person getPerson(@PathVariable("id") String id) {
+        return null;
+    }
+
+    @RequestMapping(value = "/{id}", method = RequestMethod.POST)
+    public String updatePerson(@PathVariable("id") String id) {
+        return null;
+    }
+
+    @RequestMapping(value = "/{id}", method = RequestMethod.DELETE)
+    public String deletePerson(@PathVariable("id") String id) {
+        return null;
+    }
+
+    @RequestMapping("/internal/stats")
+    public String internalStats() {
+        return null;
+    }
+}
@@ -0,0 +1,58 @@
+package com.adonia.sloth.benchmark;
+
+import com.adonia.sloth.model.InstanceDetail;
+import com.adonia.sloth.utils.RequestUriBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 请求uri组装: 调用端的 fetchRequestUri
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+@State(Scope.Benchmark)
+public class RequestUriBenchmark {
+
+    private InstanceDetail instance;
+
+    private Map<String, Object> params;
+
+    @Setup
+    public void setUp() {
+        instance = new InstanceDetail.InstanceDetailBuilder()
+                .listenAddress("localhost:8080")
+                .context("/platform")
+                .controllerRequestMapping("/persons")
+                .methodRequestMapping("/detail")
+                .build();
+
+        params = new LinkedHashMap<>();
+        params.put("id", "0f8fad5b-d9cb-469f-a165-70867728950e");
+        params.put("location", "NJ, JS");
+    }
+
+    @Benchmark
+    public String fetchRequestUri() {
+        return RequestUriBuilder.build(instance.encodedRequestUrl(), params, "1");
+    }
+
+    /**
+     * 基准: 使用 UriComponentsBuilder 组装并编码
+     */
+    @Benchmark
+    public String uriComponentsBuilder() {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(instance.getRequestUrl());
+        builder.path("/1");
+        for(Map.Entry<String, Object> entry: params.entrySet()) {
+            builder.queryParam(entry.getKey(), entry.getValue());
+        }
+        return builder.build().encode().toUriString();
+    }
+}
@@ -0,0 +1,88 @@
+package com.adonia.sloth.benchmark;
+
+import com.adonia.sloth.model.InstanceDetail;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.curator.x.discovery.ServiceInstance;
+import org.apache.curator.x.discovery.details.InstanceSerializer;
+import org.apache.curator.x.discovery.details.JsonInstanceSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * InstanceDetail 的构建、注册数据的序列化，以及 Person 列表的JSON序列化
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private static final TypeReference<List<Person>> PERSON_LIST = new TypeReference<List<Person>>() {
+    };
+
+    @Param({"10", "1000"})
+    private int persons;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final InstanceSerializer<InstanceDetail> serializer = new JsonInstanceSerializer<>(InstanceDetail.class);
+
+    private ServiceInstance<InstanceDetail> instance;
+
+    private byte[] instanceBytes;
+
+    private List<Person> personList;
+
+    private byte[] personBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        instance = ServiceInstance.<InstanceDetail>builder()
+                .address("localhost")
+                .port(8080)
+                .name("v1/getPerson")
+                .payload(buildInstanceDetail())
+                .build();
+        instanceBytes = serializer.serialize(instance);
+
+        personList = SlothFixture.createPersons(persons);
+        personBytes = mapper.writeValueAsBytes(personList);
+    }
+
+    @Benchmark
+    public InstanceDetail buildInstanceDetail() {
+        return new InstanceDetail.InstanceDetailBuilder()
+                .listenAddress("localhost:8080")
+                .context("/platform")
+                .controllerRequestMapping("/persons")
+                .methodRequestMapping("/detail")
+                .serviceName("getPersonById")
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializeInstance() throws Exception {
+        return serializer.serialize(instance);
+    }
+
+    @Benchmark
+    public ServiceInstance<InstanceDetail> deserializeInstance() throws Exception {
+        return serializer.deserialize(instanceBytes);
+    }
+
+    @Benchmark
+    public byte[] serializePersons() throws Exception {
+        return mapper.writeValueAsBytes(personList);
+    }
+
+    @Benchmark
+    public List<Person> deserializePersons() throws Exception {
+        return mapper.readValue(personBytes, PERSON_LIST);
+    }
+}
@@ -0,0 +1,30 @@
+package com.adonia.sloth.benchmark;
+
+import com.adonia.sloth.index.ServiceIndex;
+import com.adonia.sloth.index.ServiceRoute;
+import com.adonia.sloth.index.ServiceRouteScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * 启动时解析 Controller 中的服务: 反射扫描与读取编译期索引
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+@State(Scope.Benchmark)
+public class ServiceDiscoveryBenchmark {
+
+    @Benchmark
+    public List<ServiceRoute> scanByReflection() {
+        return ServiceRouteScanner.scan(PersonController.class);
+    }
+
+    @Benchmark
+    public List<ServiceRoute> loadIndex() throws Exception {
+        return ServiceIndex.load(getClass().getClassLoader()).getRoutes(PersonController.class.getName());
+    }
+}
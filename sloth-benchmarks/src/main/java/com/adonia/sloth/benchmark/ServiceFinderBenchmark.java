@@ -0,0 +1,56 @@
+package com.adonia.sloth.benchmark;
+
+import com.adonia.sloth.model.InstanceDetail;
+import com.adonia.sloth.model.ServiceException;
+import com.adonia.sloth.service.IServiceFinder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 服务查找: ZKServiceFinder.findService、findServices
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+@State(Scope.Benchmark)
+public class ServiceFinderBenchmark {
+
+    @Param({"1", "10"})
+    private int instances;
+
+    private SlothFixture fixture;
+
+    private static final List<String> SERVICE_NAMES = Arrays.asList("v1/getPerson", "v1/getPersonById");
+
+    private IServiceFinder finder;
+
+    @Setup
+    public void setUp() throws Exception {
+        fixture = new SlothFixture(1, instances);
+        finder = fixture.getBean(IServiceFinder.class);
+        finder.findServices(SERVICE_NAMES);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        fixture.close();
+    }
+
+    @Benchmark
+    public InstanceDetail findService() throws ServiceException {
+        return finder.findService("v1/getPerson");
+    }
+
+    @Benchmark
+    public Map<String, InstanceDetail> findServices() throws ServiceException {
+        return finder.findServices(SERVICE_NAMES);
+    }
+}
@@ -0,0 +1,63 @@
+package com.adonia.sloth.benchmark;
+
+import com.adonia.sloth.model.ServiceException;
+import com.adonia.sloth.service.IServiceTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 端到端调用: RestServiceTemplate 的 get/post，经过服务查找、HTTP请求及JSON解析
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+@State(Scope.Benchmark)
+public class ServiceTemplateBenchmark {
+
+    @Param({"100"})
+    private int persons;
+
+    private SlothFixture fixture;
+
+    private IServiceTemplate template;
+
+    private Map<String, ?> params;
+
+    private Person person;
+
+    @Setup
+    public void setUp() throws Exception {
+        fixture = new SlothFixture(persons, 1);
+        template = fixture.getBean(IServiceTemplate.class);
+        params = Collections.singletonMap("id", "0f8fad5b-d9cb-469f-a165-70867728950e");
+        person = new Person(null, "leo", 25, "NJ, JS");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        fixture.close();
+    }
+
+    @Benchmark
+    public List getPersons() throws ServiceException {
+        return template.get("v1/getPerson", List.class);
+    }
+
+    @Benchmark
+    public Person getPersonById() throws ServiceException {
+        return template.get("v1/getPersonById", params, Person.class);
+    }
+
+    @Benchmark
+    public String addPerson() throws ServiceException {
+        return template.post("v1/addPerson", person, String.class);
+    }
+}
@@ -0,0 +1,165 @@
+package com.adonia.sloth.benchmark;
+
+import com.adonia.sloth.model.InstanceDetail;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.TestingServer;
+import org.apache.curator.x.discovery.ServiceDiscovery;
+import org.apache.curator.x.discovery.ServiceDiscoveryBuilder;
+import org.apache.curator.x.discovery.ServiceInstance;
+import org.springframework.beans.factory.config.PropertyPlaceholderConfigurer;
+import org.springframework.context.support.GenericXmlApplicationContext;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * 压测环境: 内嵌的zookeeper，模拟 PersonService 的HTTP服务，以及加载了 sloth.service.xml 的调用端
+ *
+ * 注册的服务:
+ * <ul>
+ *     <li>v1/getPerson: GET /persons，返回 Person 列表</li>
+ *     <li>v1/getPersonById: GET /persons/detail?id=xx，返回单个 Person</li>
+ *     <li>v1/addPerson: POST /persons/add，返回新增的id</li>
+ * </ul>
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class SlothFixture implements Closeable {
+
+    public static final String SERVICE_PATH = "/sloth/service";
+
+    static {
+        // 响应头与响应体分开写出，未开启 TCP_NODELAY 时每次请求都会等待 delayed ACK (~40ms)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final TestingServer zkServer;
+
+    private final HttpServer httpServer;
+
+    private final CuratorFramework zkClient;
+
+    private final ServiceDiscovery<InstanceDetail> discovery;
+
+    private final GenericXmlApplicationContext context;
+
+    private final byte[] persons;
+
+    /**
+     * @param personCount  getPerson 返回的 Person 数量
+     * @param instanceCount  每个服务注册的实例数，均指向同一个HTTP服务
+     * @throws Exception
+     */
+    public SlothFixture(int personCount, int instanceCount) throws Exception {
+        this.persons = mapper.writeValueAsBytes(createPersons(personCount));
+
+        zkServer = new TestingServer();
+        httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        httpServer.createContext("/persons", this::handle);
+        httpServer.start();
+
+        zkClient = CuratorFrameworkFactory.newClient(zkServer.getConnectString(), new RetryOneTime(100));
+        zkClient.start();
+        discovery = ServiceDiscoveryBuilder.builder(InstanceDetail.class)
+                .client(zkClient)
+                .basePath(SERVICE_PATH)
+                .build();
+        discovery.start();
+
+        final int port = httpServer.getAddress().getPort();
+        for(int i = 0; i < instanceCount; i++) {
+            register(port, "getPerson", "");
+            register(port, "getPersonById", "/detail");
+            register(port, "addPerson", "/add");
+        }
+
+        context = new GenericXmlApplicationContext();
+        context.load("classpath:META-INF/spring/sloth.service.xml");
+
+        Properties properties = new Properties();
+        properties.setProperty("sloth.service.zkServerUri", zkServer.getConnectString());
+        properties.setProperty("sloth.service.path", SERVICE_PATH);
+        PropertyPlaceholderConfigurer configurer = new PropertyPlaceholderConfigurer();
+        configurer.setProperties(properties);
+        context.addBeanFactoryPostProcessor(configurer);
+        context.refresh();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public String getZkConnectString() {
+        return zkServer.getConnectString();
+    }
+
+    public static List<Person> createPersons(int count) {
+        List<Person> persons = new ArrayList<>(count);
+        for(int i = 0; i < count; i++) {
+            persons.add(new Person(UUID.randomUUID().toString(), "leo" + i, 20 + i % 50, "NJ, JS"));
+        }
+        return persons;
+    }
+
+    private void register(int port, String serviceName, String methodMapping) throws Exception {
+        InstanceDetail instanceDetail = new InstanceDetail.InstanceDetailBuilder()
+                .listenAddress("localhost:" + port)
+                .controllerRequestMapping("/persons")
+                .methodRequestMapping(methodMapping)
+                .serviceName(serviceName)
+                .build();
+
+        discovery.registerService(ServiceInstance.<InstanceDetail>builder()
+                .address("localhost")
+                .port(port)
+                .name("v1/" + serviceName)
+                .payload(instanceDetail)
+                .build());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        final String path = exchange.getRequestURI().getPath();
+        byte[] response;
+
+        if("POST".equals(exchange.getRequestMethod())) {
+            try(InputStream in = exchange.getRequestBody()) {
+                mapper.readValue(in, Person.class);
+            }
+            response = mapper.writeValueAsBytes(UUID.randomUUID().toString());
+        } else if(path.endsWith("/detail")) {
+            response = mapper.writeValueAsBytes(new Person(exchange.getRequestURI().getQuery(), "leo", 25, "NJ, JS"));
+        } else {
+            response = persons;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(200, response.length);
+        try(OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        discovery.close();
+        zkClient.close();
+        httpServer.stop(0);
+        zkServer.close();
+    }
+}
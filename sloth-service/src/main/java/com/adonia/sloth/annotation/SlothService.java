@@ -36,4 +36,12 @@ public @interface SlothService {
     String[] excludes() default {};
 
     String excludePattern() default "";
+
+    /**
+     * 服务实例可同时处理的请求数，作为服务端的容量注册到注册中心，调用端按剩余容量分配流量；0 表示未声明
+     * N.B. 方法上的声明优先于Class上的声明
+     *
+     * @return
+     */
+    int maxConcurrency() default 0;
 }
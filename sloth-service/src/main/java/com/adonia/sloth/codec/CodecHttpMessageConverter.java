@@ -0,0 +1,54 @@
+package com.adonia.sloth.codec;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+
+/**
+ * 使用{@link ICodec}读写请求/响应体
+ *
+ * 调用端由{@link CodecRegistry}注册到 RestTemplate；服务端需将其加入 Spring MVC 的 message converters，
+ * Spring Boot 应用中声明为 bean 即可。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class CodecHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private final ICodec codec;
+
+    public CodecHttpMessageConverter(ICodec codec) {
+        super(codec.getMediaType());
+        this.codec = codec;
+    }
+
+    public ICodec getCodec() {
+        return codec;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return true;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        try {
+            return codec.read(clazz, inputMessage.getBody());
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Could not read " + codec.getName() + " document: "
+                    + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        codec.write(value, outputMessage.getBody());
+    }
+}
@@ -0,0 +1,116 @@
+package com.adonia.sloth.codec;
+
+import com.adonia.sloth.model.InstanceDetail;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 调用端支持的编码，按优先顺序排列
+ *
+ * 对每个服务实例选择第一个该实例也声明支持的编码；实例未声明(旧版本服务端)或没有共同支持的编码时使用<code>json</code>。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class CodecRegistry {
+
+    private final List<ICodec> codecs;
+
+    private final ICodec defaultCodec;
+
+    public CodecRegistry(List<ICodec> codecs) {
+        List<ICodec> list = new ArrayList<>(codecs);
+
+        ICodec json = null;
+        for(ICodec codec: list) {
+            if(JacksonCodec.JSON.equals(codec.getName())) {
+                json = codec;
+                break;
+            }
+        }
+        if(null == json) {
+            json = JacksonCodec.json();
+            list.add(json);
+        }
+
+        this.codecs = Collections.unmodifiableList(list);
+        this.defaultCodec = json;
+    }
+
+    public List<ICodec> getCodecs() {
+        return codecs;
+    }
+
+    public ICodec getDefaultCodec() {
+        return defaultCodec;
+    }
+
+    /**
+     * 选择与服务实例都支持的编码
+     *
+     * @param instance  服务实例
+     * @return
+     */
+    public ICodec negotiate(InstanceDetail instance) {
+        final List<String> supported = (null == instance) ? null : instance.getCodecs();
+        if(null == supported || supported.isEmpty()) {
+            return defaultCodec;
+        }
+
+        for(ICodec codec: codecs) {
+            if(supported.contains(codec.getName())) {
+                return codec;
+            }
+        }
+        return defaultCodec;
+    }
+
+    /**
+     * 按响应的 Content-Type 查找编码，未知类型按<code>json</code>处理
+     *
+     * @param contentType
+     * @return
+     */
+    public ICodec getCodec(MediaType contentType) {
+        if(null != contentType) {
+            for(ICodec codec: codecs) {
+                if(codec.getMediaType().includes(contentType)) {
+                    return codec;
+                }
+            }
+        }
+        return defaultCodec;
+    }
+
+    /**
+     * 将各编码的 converter 注册到 RestTemplate，位于 Spring 默认的 Jackson converter 之前，
+     * 不影响<code>String</code>、<code>byte[]</code>等类型的读写
+     *
+     * @param template
+     */
+    public void registerConverters(RestTemplate template) {
+        List<HttpMessageConverter<?>> converters = template.getMessageConverters();
+
+        int index = converters.size();
+        for(int i = 0; i < converters.size(); i++) {
+            HttpMessageConverter<?> converter = converters.get(i);
+            if(converter instanceof CodecHttpMessageConverter) {
+                return;
+            }
+
+            if(converter instanceof AbstractJackson2HttpMessageConverter && index == converters.size()) {
+                index = i;
+            }
+        }
+
+        for(ICodec codec: codecs) {
+            converters.add(index++, new CodecHttpMessageConverter(codec));
+        }
+    }
+}
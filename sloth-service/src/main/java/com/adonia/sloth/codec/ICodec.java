@@ -0,0 +1,60 @@
+package com.adonia.sloth.codec;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * 服务请求/响应的序列化方式
+ *
+ * 服务端在注册的{@link com.adonia.sloth.model.InstanceDetail}中声明支持的编码名称，调用端按自身的优先顺序选择双方都支持的编码，
+ * 默认为<code>json</code>。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public interface ICodec {
+
+    /**
+     * 编码名称，例如: "json"、"smile"
+     *
+     * @return
+     */
+    String getName();
+
+    /**
+     * 请求头 Accept、Content-Type 中使用的类型
+     *
+     * @return
+     */
+    MediaType getMediaType();
+
+    <T> T read(Class<T> type, InputStream in) throws IOException;
+
+    void write(Object value, OutputStream out) throws IOException;
+
+    /**
+     * 逐个读取数组中的元素，或者没有外层数组、依次排列的多个元素(例如按行分隔的 JSON)
+     *
+     * N.B. 边读边解析，读完后关闭输入流
+     *
+     * @param type  元素类型
+     * @param in
+     * @param <T>
+     * @return
+     * @throws IOException
+     */
+    <T> Iterator<T> readValues(Class<T> type, InputStream in) throws IOException;
+
+    /**
+     * 以数组的形式逐个写出元素，每个元素写完后不缓存
+     *
+     * @param values
+     * @param out
+     * @throws IOException
+     */
+    void writeValues(Iterator<?> values, OutputStream out) throws IOException;
+}
@@ -0,0 +1,119 @@
+package com.adonia.sloth.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 基于 Jackson 的编码，包括文本的<code>json</code>和二进制的<code>smile</code>
+ *
+ * 按类型缓存{@link ObjectReader}、{@link ObjectWriter}，每次请求不再重新查找类型的序列化器。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class JacksonCodec implements ICodec {
+
+    public static final String JSON = "json";
+
+    public static final String SMILE = "smile";
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    private final String name;
+
+    private final MediaType mediaType;
+
+    private final ObjectMapper mapper;
+
+    private final ConcurrentMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    private final ObjectWriter sequenceWriter;
+
+    public JacksonCodec(String name, MediaType mediaType, ObjectMapper mapper) {
+        this.name = name;
+        this.mediaType = mediaType;
+        this.mapper = mapper;
+        this.sequenceWriter = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public static JacksonCodec json() {
+        return new JacksonCodec(JSON, MediaType.APPLICATION_JSON, createMapper(new ObjectMapper()));
+    }
+
+    public static JacksonCodec smile() {
+        return new JacksonCodec(SMILE, APPLICATION_SMILE, createMapper(new ObjectMapper(new SmileFactory())));
+    }
+
+    // 与 Spring 默认的 Jackson 配置保持一致，忽略未知的属性；写完后不关闭请求/响应的输出流
+    private static ObjectMapper createMapper(ObjectMapper mapper) {
+        mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        mapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return mapper;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    @Override
+    public <T> T read(Class<T> type, InputStream in) throws IOException {
+        return getReader(type).readValue(in);
+    }
+
+    @Override
+    public void write(Object value, OutputStream out) throws IOException {
+        final Class<?> type = value.getClass();
+        ObjectWriter writer = writers.get(type);
+        if(null == writer) {
+            writer = mapper.writerFor(type);
+            writers.putIfAbsent(type, writer);
+        }
+        writer.writeValue(out, value);
+    }
+
+    @Override
+    public <T> Iterator<T> readValues(Class<T> type, InputStream in) throws IOException {
+        return getReader(type).readValues(in);
+    }
+
+    @Override
+    public void writeValues(Iterator<?> values, OutputStream out) throws IOException {
+        // 写出每个元素时按其实际类型查找序列化器，由 Jackson 按类型缓存；输出流写满缓冲区时才写出
+        try (SequenceWriter sequence = sequenceWriter.writeValuesAsArray(out)) {
+            while(values.hasNext()) {
+                sequence.write(values.next());
+            }
+        }
+    }
+
+    private ObjectReader getReader(Class<?> type) {
+        ObjectReader reader = readers.get(type);
+        if(null == reader) {
+            reader = mapper.readerFor(type);
+            readers.putIfAbsent(type, reader);
+        }
+        return reader;
+    }
+}
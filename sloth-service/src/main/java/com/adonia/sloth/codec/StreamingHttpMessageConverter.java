@@ -0,0 +1,78 @@
+package com.adonia.sloth.codec;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 服务端逐个写出大量元素
+ *
+ * 服务方法返回{@link Stream}或{@link Iterator}时，按协商的编码以数组的形式边取边写，不设置 Content-Length，
+ * 由容器分块传输；调用端通过<code>IServiceTemplate.stream</code>边读边解析。写完后关闭返回的{@link Stream}。
+ *
+ * <pre>
+ *     @SlothService
+ *     @RequestMapping(value = "/all", method = RequestMethod.GET)
+ *     public Stream&lt;Person&gt; getAllPersons() {
+ *         return personDao.scan();
+ *     }
+ * </pre>
+ *
+ * N.B. 需位于 Spring 默认的 Jackson converter 之前，Spring Boot 应用中声明为 bean 即可
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class StreamingHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private final CodecRegistry codecRegistry;
+
+    public StreamingHttpMessageConverter(CodecRegistry codecRegistry) {
+        this.codecRegistry = codecRegistry;
+
+        List<MediaType> mediaTypes = new ArrayList<>();
+        for(ICodec codec: codecRegistry.getCodecs()) {
+            mediaTypes.add(codec.getMediaType());
+        }
+        setSupportedMediaTypes(mediaTypes);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Stream.class.isAssignableFrom(clazz) || Iterator.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("Streaming request body is not supported");
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        final ICodec codec = codecRegistry.getCodec(outputMessage.getHeaders().getContentType());
+
+        if(value instanceof Stream) {
+            try (Stream<?> stream = (Stream<?>) value) {
+                codec.writeValues(stream.iterator(), outputMessage.getBody());
+            }
+        } else {
+            codec.writeValues((Iterator<?>) value, outputMessage.getBody());
+        }
+    }
+}
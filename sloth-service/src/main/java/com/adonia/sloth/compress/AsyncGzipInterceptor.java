@@ -0,0 +1,141 @@
+package com.adonia.sloth.compress;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.AsyncClientHttpRequestExecution;
+import org.springframework.http.client.AsyncClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureAdapter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 异步调用端的压缩
+ *
+ * 异步客户端不会自动协商压缩，这里在请求中加上<code>Accept-Encoding: gzip</code>，并在读取响应体时边读边解压；
+ * 请求体不小于 threshold 字节时压缩后发送。
+ *
+ * N.B. 请求体的压缩不是边写边压缩: Spring 的异步请求在发送前将请求体整体缓存为 byte[]，拦截器只能拿到完整的请求体，
+ * 压缩后再生成一份完整的压缩副本交给连接发送。需要边写边压缩时使用同步调用({@link GzipRequestInterceptor} 在写入连接时压缩)。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class AsyncGzipInterceptor implements AsyncClientHttpRequestInterceptor {
+
+    public static final String GZIP = "gzip";
+
+    /**
+     * 压缩请求体的最小字节数，0 表示不压缩
+     */
+    private final int threshold;
+
+    public AsyncGzipInterceptor(int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public ListenableFuture<ClientHttpResponse> intercept(HttpRequest request, byte[] body,
+                                                          AsyncClientHttpRequestExecution execution) throws IOException {
+        HttpHeaders headers = request.getHeaders();
+        if(!headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, GZIP);
+        }
+
+        byte[] content = body;
+        if(threshold > 0 && body.length >= threshold && !headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            content = compress(body);
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+
+        ListenableFuture<ClientHttpResponse> future = execution.executeAsync(request, content);
+        return new ListenableFutureAdapter<ClientHttpResponse, ClientHttpResponse>(future) {
+            @Override
+            protected ClientHttpResponse adapt(ClientHttpResponse response) {
+                return GZIP.equalsIgnoreCase(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING))
+                        ? new GzipClientHttpResponse(response) : response;
+            }
+        };
+    }
+
+    private static byte[] compress(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(body.length / 4, 64));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 解压后的响应，去掉 Content-Encoding 与 Content-Length
+     */
+    private static final class GzipClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        private InputStream body;
+
+        private GzipClientHttpResponse(ClientHttpResponse response) {
+            this.response = response;
+            for(Map.Entry<String, List<String>> header: response.getHeaders().entrySet()) {
+                if(!HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(header.getKey())
+                        && !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.getKey())) {
+                    headers.put(header.getKey(), header.getValue());
+                }
+            }
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if(null == body) {
+                // 空的响应体不是合法的 gzip 数据
+                PushbackInputStream in = new PushbackInputStream(response.getBody());
+                final int first = in.read();
+                if(-1 == first) {
+                    body = new ByteArrayInputStream(new byte[0]);
+                } else {
+                    in.unread(first);
+                    body = new GZIPInputStream(in);
+                }
+            }
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return response.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public void close() {
+            response.close();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.adonia.sloth.compress;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 服务端的压缩
+ *
+ * <ul>
+ *     <li>请求头<code>Content-Encoding: gzip</code>的请求体，读取时边读边解压</li>
+ *     <li>请求头 Accept-Encoding 包含 gzip 时，响应体超过 minResponseSize 字节后边写边压缩，未超过时原样返回</li>
+ * </ul>
+ *
+ * 响应只缓存不超过 minResponseSize 字节的数据，不会整体缓存响应体。
+ *
+ * 异步请求需在响应提交前写出缓存的数据及 gzip 结尾: 应用调用{@link AsyncContext#complete()}时先结束压缩，
+ * 通过{@link AsyncContext#dispatch()}在 ASYNC 分派中写出响应时(例如 Spring MVC 的异步处理)在分派结束时结束压缩，
+ * 因此需要同时为 ASYNC 分派注册该 Filter 并开启 asyncSupported。
+ *
+ * Spring Boot 应用中可通过<code>FilterRegistrationBean</code>注册(dispatcherTypes 包含 REQUEST、ASYNC)，
+ * minResponseSize 也可由 init-param 指定。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class GzipFilter implements Filter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GzipFilter.class);
+
+    static final String GZIP = "gzip";
+
+    static final String CONTENT_ENCODING = "Content-Encoding";
+
+    static final String CONTENT_LENGTH = "Content-Length";
+
+    private static final String ACCEPT_ENCODING = "Accept-Encoding";
+
+    /**
+     * 异步请求的压缩响应，ASYNC 分派时继续使用
+     */
+    private static final String RESPONSE_ATTRIBUTE = GzipFilter.class.getName() + ".RESPONSE";
+
+    private int minResponseSize = 2048;
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        final String size = filterConfig.getInitParameter("minResponseSize");
+        if(StringUtils.isNotEmpty(size)) {
+            minResponseSize = Integer.parseInt(size.trim());
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse resp, FilterChain chain) throws IOException, ServletException {
+        if(!(req instanceof HttpServletRequest) || !(resp instanceof HttpServletResponse)) {
+            chain.doFilter(req, resp);
+            return;
+        }
+
+        HttpServletRequest request = (HttpServletRequest) req;
+        if(DispatcherType.ASYNC == request.getDispatcherType()) {
+            // startAsync(request, response) 时分派的是包装后的响应，startAsync() 时为原始响应
+            final GzipResponseWrapper response = (resp instanceof GzipResponseWrapper) ? (GzipResponseWrapper) resp
+                    : (GzipResponseWrapper) request.getAttribute(RESPONSE_ATTRIBUTE);
+            if(null == response) {
+                chain.doFilter(req, resp);
+            } else {
+                filter(request, response, chain);
+            }
+            return;
+        }
+
+        if(isGzip(request.getHeader(CONTENT_ENCODING))) {
+            request = new GzipRequestWrapper(request);
+        }
+
+        if(!isGzip(request.getHeader(ACCEPT_ENCODING))) {
+            chain.doFilter(request, resp);
+            return;
+        }
+
+        final GzipResponseWrapper response = new GzipResponseWrapper((HttpServletResponse) resp, minResponseSize);
+        request.setAttribute(RESPONSE_ATTRIBUTE, response);
+        filter(new AsyncRequestWrapper(request, response), response, chain);
+    }
+
+    // 同步请求在返回时结束压缩，异步请求在 complete() 或 ASYNC 分派结束时结束
+    private static void filter(HttpServletRequest request, GzipResponseWrapper response, FilterChain chain)
+            throws IOException, ServletException {
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+        } finally {
+            if(!async) {
+                response.finish();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    public void setMinResponseSize(int minResponseSize) {
+        this.minResponseSize = minResponseSize;
+    }
+
+    // Accept-Encoding 可能为 "gzip, deflate" 或 "gzip;q=1.0"，q 值为 0(包括 "0.0"、"0.000")时表示不接受
+    private static boolean isGzip(String encoding) {
+        if(StringUtils.isEmpty(encoding)) {
+            return false;
+        }
+
+        for(String item: StringUtils.split(encoding, ',')) {
+            String[] params = StringUtils.split(item, ';');
+            if(0 == params.length || !GZIP.equalsIgnoreCase(params[0].trim())) {
+                continue;
+            }
+            return !isRefused(params);
+        }
+        return false;
+    }
+
+    // 无法解析的 q 值忽略
+    private static boolean isRefused(String[] params) {
+        for(int i = 1; i < params.length; i++) {
+            String name = StringUtils.substringBefore(params[i], "=").trim();
+            if("q".equalsIgnoreCase(name)) {
+                try {
+                    return 0.0d == Double.parseDouble(StringUtils.substringAfter(params[i], "=").trim());
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 异步请求的{@link AsyncContext}在 complete() 前先结束压缩
+     */
+    private static final class AsyncRequestWrapper extends HttpServletRequestWrapper {
+
+        private final GzipResponseWrapper response;
+
+        private AsyncRequestWrapper(HttpServletRequest request, GzipResponseWrapper response) {
+            super(request);
+            this.response = response;
+        }
+
+        @Override
+        public AsyncContext startAsync() throws IllegalStateException {
+            return new FinishingAsyncContext(super.startAsync(), response);
+        }
+
+        @Override
+        public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse)
+                throws IllegalStateException {
+            return new FinishingAsyncContext(super.startAsync(servletRequest, servletResponse), response);
+        }
+
+        @Override
+        public AsyncContext getAsyncContext() {
+            final AsyncContext context = super.getAsyncContext();
+            return (null == context) ? null : new FinishingAsyncContext(context, response);
+        }
+    }
+
+    private static final class FinishingAsyncContext implements AsyncContext {
+
+        private final AsyncContext context;
+
+        private final GzipResponseWrapper response;
+
+        private FinishingAsyncContext(AsyncContext context, GzipResponseWrapper response) {
+            this.context = context;
+            this.response = response;
+        }
+
+        @Override
+        public void complete() {
+            try {
+                response.finish();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to finish gzip response.", e);
+            } finally {
+                context.complete();
+            }
+        }
+
+        @Override
+        public ServletRequest getRequest() {
+            return context.getRequest();
+        }
+
+        @Override
+        public ServletResponse getResponse() {
+            return context.getResponse();
+        }
+
+        @Override
+        public boolean hasOriginalRequestAndResponse() {
+            return context.hasOriginalRequestAndResponse();
+        }
+
+        @Override
+        public void dispatch() {
+            context.dispatch();
+        }
+
+        @Override
+        public void dispatch(String path) {
+            context.dispatch(path);
+        }
+
+        @Override
+        public void dispatch(ServletContext servletContext, String path) {
+            context.dispatch(servletContext, path);
+        }
+
+        @Override
+        public void start(Runnable run) {
+            context.start(run);
+        }
+
+        @Override
+        public void addListener(AsyncListener listener) {
+            context.addListener(listener);
+        }
+
+        @Override
+        public void addListener(AsyncListener listener, ServletRequest servletRequest, ServletResponse servletResponse) {
+            context.addListener(listener, servletRequest, servletResponse);
+        }
+
+        @Override
+        public <T extends AsyncListener> T createListener(Class<T> clazz) throws ServletException {
+            return context.createListener(clazz);
+        }
+
+        @Override
+        public void setTimeout(long timeout) {
+            context.setTimeout(timeout);
+        }
+
+        @Override
+        public long getTimeout() {
+            return context.getTimeout();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.adonia.sloth.compress;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * gzip 压缩的请求，读取请求体时边读边解压，并隐藏 Content-Encoding、Content-Length 请求头
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+class GzipRequestWrapper extends HttpServletRequestWrapper {
+
+    private ServletInputStream inputStream;
+
+    private BufferedReader reader;
+
+    GzipRequestWrapper(HttpServletRequest request) {
+        super(request);
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if(null != reader) {
+            throw new IllegalStateException("getReader() has already been called for this request");
+        }
+
+        if(null == inputStream) {
+            inputStream = new GzipInputStream(super.getInputStream());
+        }
+        return inputStream;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if(null != inputStream) {
+            throw new IllegalStateException("getInputStream() has already been called for this request");
+        }
+
+        if(null == reader) {
+            final String encoding = getCharacterEncoding();
+            reader = new BufferedReader(new InputStreamReader(new GzipInputStream(super.getInputStream()),
+                    (null == encoding) ? "ISO-8859-1" : encoding));
+        }
+        return reader;
+    }
+
+    @Override
+    public int getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return -1L;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return isHidden(name) ? null : super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+        return isHidden(name) ? Collections.<String>emptyEnumeration() : super.getHeaders(name);
+    }
+
+    @Override
+    public int getIntHeader(String name) {
+        return isHidden(name) ? -1 : super.getIntHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+        List<String> names = new ArrayList<>();
+        Enumeration<String> headerNames = super.getHeaderNames();
+        while(headerNames.hasMoreElements()) {
+            String name = headerNames.nextElement();
+            if(!isHidden(name)) {
+                names.add(name);
+            }
+        }
+        return Collections.enumeration(names);
+    }
+
+    private static boolean isHidden(String name) {
+        return GzipFilter.CONTENT_ENCODING.equalsIgnoreCase(name) || GzipFilter.CONTENT_LENGTH.equalsIgnoreCase(name);
+    }
+
+    private static final class GzipInputStream extends ServletInputStream {
+
+        private final ServletInputStream in;
+
+        private final GZIPInputStream gzip;
+
+        private boolean finished = false;
+
+        private GzipInputStream(ServletInputStream in) throws IOException {
+            this.in = in;
+            this.gzip = new GZIPInputStream(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = gzip.read();
+            finished = (-1 == b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int count = gzip.read(b, off, len);
+            finished = (-1 == count);
+            return count;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return gzip.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            gzip.close();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return in.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            in.setReadListener(readListener);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.adonia.sloth.compress;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 按响应体大小决定是否压缩的响应
+ *
+ * 先缓存最多 minSize 字节，超过后写出 Content-Encoding 响应头并开始边写边压缩；
+ * 响应结束时仍未超过的，原样写出并设置 Content-Length。应用自己设置了 Content-Encoding，
+ * 或声明的 Content-Length 小于 minSize 时不压缩。
+ * 应用使用非阻塞写出(Servlet 3.1 的{@link WriteListener})时不压缩，直接写到原始的响应流。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+class GzipResponseWrapper extends HttpServletResponseWrapper {
+
+    private final int minSize;
+
+    private GzipOutputStream outputStream;
+
+    private PrintWriter writer;
+
+    /**
+     * 不压缩时，应用设置的 Content-Length
+     */
+    private long contentLength = -1L;
+
+    private boolean compressible = true;
+
+    GzipResponseWrapper(HttpServletResponse response, int minSize) {
+        super(response);
+        this.minSize = minSize;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if(null != writer) {
+            throw new IllegalStateException("getWriter() has already been called for this response");
+        }
+        return getGzipOutputStream();
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if(null == writer) {
+            if(null != outputStream) {
+                throw new IllegalStateException("getOutputStream() has already been called for this response");
+            }
+            writer = new PrintWriter(new OutputStreamWriter(getGzipOutputStream(), getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void setContentLength(int len) {
+        setContentLengthLong(len);
+    }
+
+    @Override
+    public void setContentLengthLong(long len) {
+        if(len >= 0 && len < minSize) {
+            compressible = false;
+        }
+        contentLength = len;
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if(GzipFilter.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong((null == value) ? -1L : Long.parseLong(value));
+            return;
+        }
+        if(GzipFilter.CONTENT_ENCODING.equalsIgnoreCase(name)) {
+            compressible = false;
+        }
+        super.setHeader(name, value);
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if(GzipFilter.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong((null == value) ? -1L : Long.parseLong(value));
+            return;
+        }
+        if(GzipFilter.CONTENT_ENCODING.equalsIgnoreCase(name)) {
+            compressible = false;
+        }
+        super.addHeader(name, value);
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if(GzipFilter.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+            return;
+        }
+        super.setIntHeader(name, value);
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        if(GzipFilter.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+            return;
+        }
+        super.addIntHeader(name, value);
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if(null != writer) {
+            writer.flush();
+        }
+        if(null != outputStream) {
+            outputStream.flush();
+        }
+        if(null == outputStream || outputStream.isStarted()) {
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        if(null != outputStream) {
+            outputStream.resetBuffer();
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        if(null != outputStream) {
+            outputStream.resetBuffer();
+        }
+        contentLength = -1L;
+        compressible = true;
+    }
+
+    /**
+     * 响应结束，写出缓存的数据或 gzip 结尾
+     *
+     * @throws IOException
+     */
+    void finish() throws IOException {
+        if(null != writer) {
+            writer.flush();
+        }
+        if(null != outputStream) {
+            outputStream.finish();
+        } else if(contentLength >= 0) {
+            super.setContentLengthLong(contentLength);
+        }
+    }
+
+    private GzipOutputStream getGzipOutputStream() {
+        if(null == outputStream) {
+            outputStream = new GzipOutputStream();
+        }
+        return outputStream;
+    }
+
+    private final class GzipOutputStream extends ServletOutputStream {
+
+        private byte[] buffer = new byte[Math.min(Math.max(minSize, 0), 8192)];
+
+        private int count = 0;
+
+        /**
+         * 开始写出后的目标流，压缩时为 GZIPOutputStream
+         */
+        private OutputStream out;
+
+        private GZIPOutputStream gzip;
+
+        private boolean finished = false;
+
+        /**
+         * 非阻塞写出时的原始响应流
+         */
+        private ServletOutputStream nonBlocking;
+
+        boolean isStarted() {
+            return null != out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if(finished) {
+                throw new IOException("Response has already been finished");
+            }
+
+            if(null == out) {
+                if(count + len <= minSize) {
+                    ensureCapacity(count + len);
+                    System.arraycopy(b, off, buffer, count, len);
+                    count += len;
+                    return;
+                }
+
+                if(!compressible && contentLength >= 0) {
+                    GzipResponseWrapper.super.setContentLengthLong(contentLength);
+                }
+                start(compressible);
+            }
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // 未决定是否压缩时不写出，Spring 的 converter 写完后会先 flush 一次
+            if(null != out) {
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        @Override
+        public boolean isReady() {
+            return null == nonBlocking || nonBlocking.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            // GZIPOutputStream 一次写入可能多次写出到原始流，无法遵守 isReady() 的约定
+            if(null != gzip) {
+                throw new IllegalStateException("Response has already been compressed, non-blocking write is not allowed");
+            }
+
+            if(null == out) {
+                compressible = false;
+                if(contentLength >= 0) {
+                    GzipResponseWrapper.super.setContentLengthLong(contentLength);
+                }
+                try {
+                    // 设置 WriteListener 之前仍是阻塞写出，先写出缓存的数据
+                    start(false);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            nonBlocking = (ServletOutputStream) out;
+            nonBlocking.setWriteListener(writeListener);
+        }
+
+        void resetBuffer() {
+            if(null == out) {
+                count = 0;
+            }
+        }
+
+        void finish() throws IOException {
+            if(finished) {
+                return;
+            }
+            finished = true;
+
+            if(null == out) {
+                GzipResponseWrapper.super.setContentLengthLong(count);
+                start(false);
+            }
+
+            if(null != gzip) {
+                gzip.finish();
+            }
+            // 非阻塞写出时由容器在请求结束时写出
+            if(null == nonBlocking) {
+                out.flush();
+            }
+        }
+
+        private void start(boolean compress) throws IOException {
+            final ServletOutputStream target = GzipResponseWrapper.super.getOutputStream();
+            if(compress) {
+                GzipResponseWrapper.super.setHeader(GzipFilter.CONTENT_ENCODING, GzipFilter.GZIP);
+                GzipResponseWrapper.super.addHeader("Vary", "Accept-Encoding");
+                gzip = new GZIPOutputStream(target, 8192);
+                out = gzip;
+            } else {
+                out = target;
+            }
+
+            if(count > 0) {
+                out.write(buffer, 0, count);
+                count = 0;
+            }
+            buffer = null;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if(capacity > buffer.length) {
+                byte[] expanded = new byte[Math.min(Math.max(buffer.length * 2, capacity), minSize)];
+                System.arraycopy(buffer, 0, expanded, 0, count);
+                buffer = expanded;
+            }
+        }
+    }
+}
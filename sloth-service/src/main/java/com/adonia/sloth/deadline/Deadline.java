@@ -0,0 +1,102 @@
+package com.adonia.sloth.deadline;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务调用的截止时间，不可变
+ *
+ * 服务端由{@link DeadlineFilter}按调用端传递的剩余时间设置当前线程的截止时间；在该线程中调用其它服务时，
+ * 请求的超时不超过剩余的时间，剩余时间随请求头继续传递给下游，截止时间已过时不再发出请求。
+ *
+ * <pre>
+ *     Deadline previous = Deadline.set(Deadline.after(200, TimeUnit.MILLISECONDS));
+ *     try {
+ *         template.get("sloth.person/v1/getPerson", Person.class);
+ *     } finally {
+ *         Deadline.set(previous);
+ *     }
+ * </pre>
+ *
+ * N.B. 截止时间与线程绑定，切换到其它线程处理请求时需在该线程中重新设置
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 基于{@link System#nanoTime()}，不受系统时钟调整的影响
+     */
+    private final long deadline;
+
+    private Deadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    public static Deadline after(long timeout, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * 当前线程的截止时间
+     *
+     * @return 没有设置时返回<code>null</code>
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 设置当前线程的截止时间
+     *
+     * @param deadline  为<code>null</code>时清除
+     * @return 之前的截止时间，用于恢复
+     */
+    public static Deadline set(Deadline deadline) {
+        final Deadline previous = CURRENT.get();
+        if(null == deadline) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(deadline);
+        }
+        return previous;
+    }
+
+    /**
+     * 较早的截止时间，均可为<code>null</code>
+     *
+     * @param first
+     * @param second
+     * @return
+     */
+    public static Deadline earlier(Deadline first, Deadline second) {
+        if(null == first) {
+            return second;
+        }
+        if(null == second) {
+            return first;
+        }
+        return (first.deadline - second.deadline <= 0) ? first : second;
+    }
+
+    /**
+     * 剩余的时间，截止时间已过时为负数
+     *
+     * @param unit
+     * @return
+     */
+    public long remaining(TimeUnit unit) {
+        return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    public boolean isExpired() {
+        return deadline - System.nanoTime() <= 0L;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining=" + remaining(TimeUnit.MILLISECONDS) + "ms}";
+    }
+}
@@ -0,0 +1,71 @@
+package com.adonia.sloth.deadline;
+
+import com.adonia.sloth.utils.IServiceConstant;
+import com.adonia.sloth.utils.ServicePaths;
+import org.apache.commons.lang.StringUtils;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务端按调用端传递的剩余时间设置处理请求的线程的{@link Deadline}，服务中再调用其它服务时继承逐级缩短的截止时间
+ *
+ * 只处理已注册的服务({@link ServicePaths})，其他请求直接放行；到达时剩余时间已经用完的请求直接返回<code>504</code>，不再处理。
+ * Spring Boot 应用中可通过<code>FilterRegistrationBean</code>注册。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class DeadlineFilter implements Filter {
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse resp, FilterChain chain) throws IOException, ServletException {
+        final long remaining = (req instanceof HttpServletRequest) ? getRemaining((HttpServletRequest) req) : -1L;
+        if(remaining < 0L) {
+            chain.doFilter(req, resp);
+            return;
+        }
+
+        if(0L == remaining) {
+            ((HttpServletResponse) resp).sendError(HttpServletResponse.SC_GATEWAY_TIMEOUT, "Deadline exceeded");
+            return;
+        }
+
+        final Deadline previous = Deadline.set(Deadline.after(remaining, TimeUnit.MILLISECONDS));
+        try {
+            chain.doFilter(req, resp);
+        } finally {
+            Deadline.set(previous);
+        }
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    // 请求头中的剩余时间(毫秒)，不是已注册的服务或没有传递时返回 -1
+    private static long getRemaining(HttpServletRequest req) {
+        final String header = req.getHeader(IServiceConstant.DEADLINE_HEADER);
+        if(StringUtils.isBlank(header) || !ServicePaths.contains(req.getRequestURI())) {
+            return -1L;
+        }
+
+        try {
+            return Math.max(Long.parseLong(header.trim()), 0L);
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
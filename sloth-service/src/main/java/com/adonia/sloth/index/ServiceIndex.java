@@ -0,0 +1,113 @@
+package com.adonia.sloth.index;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 编译期生成的服务索引
+ *
+ * 由{@link SlothServiceProcessor}在编译时写入 classpath 下的{@link #LOCATION}，启动时合并所有 jar 中的索引，
+ * 按 Controller 的类名查找需注册的服务，不必再反射扫描每个方法。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class ServiceIndex {
+
+    public static final String LOCATION = "META-INF/sloth.services";
+
+    /**
+     * 以 # 开头的行为注释
+     */
+    static final String COMMENT = "#";
+
+    private final Map<String, List<ServiceRoute>> routes;
+
+    ServiceIndex(Map<String, List<ServiceRoute>> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * 加载 classpath 下的所有索引
+     *
+     * @param classLoader
+     * @return 不存在索引时返回 null
+     * @throws IOException
+     */
+    public static ServiceIndex load(ClassLoader classLoader) throws IOException {
+        Enumeration<URL> urls = (null == classLoader) ? ClassLoader.getSystemResources(LOCATION)
+                : classLoader.getResources(LOCATION);
+        if(!urls.hasMoreElements()) {
+            return null;
+        }
+
+        Map<String, List<ServiceRoute>> routes = new HashMap<>();
+        while(urls.hasMoreElements()) {
+            try (InputStream in = urls.nextElement().openStream()) {
+                for(ServiceRoute route: read(in)) {
+                    List<ServiceRoute> classRoutes = routes.get(route.getClassName());
+                    if(null == classRoutes) {
+                        classRoutes = new ArrayList<>();
+                        routes.put(route.getClassName(), classRoutes);
+                    }
+                    classRoutes.add(route);
+                }
+            }
+        }
+
+        return new ServiceIndex(routes);
+    }
+
+    /**
+     * 读取一个索引文件
+     *
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    static List<ServiceRoute> read(InputStream in) throws IOException {
+        List<ServiceRoute> routes = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while(null != (line = reader.readLine())) {
+            if(StringUtils.isBlank(line) || line.startsWith(COMMENT)) {
+                continue;
+            }
+            routes.add(ServiceRoute.parse(line));
+        }
+        return routes;
+    }
+
+    /**
+     * 是否为索引中的 Controller
+     *
+     * @param className
+     * @return
+     */
+    public boolean contains(String className) {
+        return routes.containsKey(className);
+    }
+
+    /**
+     * 获取 Controller 下需注册的服务
+     *
+     * @param className
+     * @return 不在索引中时返回空列表
+     */
+    public List<ServiceRoute> getRoutes(String className) {
+        List<ServiceRoute> classRoutes = routes.get(className);
+        return (null == classRoutes) ? Collections.<ServiceRoute>emptyList() : classRoutes;
+    }
+}
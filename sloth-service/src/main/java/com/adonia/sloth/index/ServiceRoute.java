@@ -0,0 +1,155 @@
+package com.adonia.sloth.index;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * 一个需注册的服务: 所在的 Controller、方法，以及注册到 ZooKeeper 时使用的属性
+ *
+ * 在索引文件中占一行，各字段以制表符分隔:
+ * <pre>
+ *     className    methodName    namespace    version    serviceName    controllerMapping    methodMapping    maxConcurrency
+ * </pre>
+ * 旧版本生成的索引没有 maxConcurrency，解析时按 0 处理。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class ServiceRoute {
+
+    private static final char SEPARATOR = '\t';
+
+    private static final int FIELDS = 7;
+
+    private static final int MAX_CONCURRENCY_FIELD = 7;
+
+    private final String className;
+
+    private final String methodName;
+
+    private final String namespace;
+
+    private final String version;
+
+    private final String serviceName;
+
+    private final String controllerMapping;
+
+    private final String methodMapping;
+
+    private final int maxConcurrency;
+
+    public ServiceRoute(String className, String methodName, String namespace, String version, String serviceName,
+                        String controllerMapping, String methodMapping) {
+        this(className, methodName, namespace, version, serviceName, controllerMapping, methodMapping, 0);
+    }
+
+    public ServiceRoute(String className, String methodName, String namespace, String version, String serviceName,
+                        String controllerMapping, String methodMapping, int maxConcurrency) {
+        this.className = className;
+        this.methodName = methodName;
+        this.namespace = StringUtils.defaultString(namespace);
+        this.version = StringUtils.defaultString(version);
+        this.serviceName = serviceName;
+        this.controllerMapping = StringUtils.defaultString(controllerMapping);
+        this.methodMapping = StringUtils.defaultString(methodMapping);
+        this.maxConcurrency = Math.max(maxConcurrency, 0);
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getControllerMapping() {
+        return controllerMapping;
+    }
+
+    public String getMethodMapping() {
+        return methodMapping;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * 转换为索引文件中的一行
+     *
+     * @return
+     */
+    public String toLine() {
+        return StringUtils.join(new String[]{className, methodName, namespace, version, serviceName,
+                controllerMapping, methodMapping, String.valueOf(maxConcurrency)}, SEPARATOR);
+    }
+
+    /**
+     * 解析索引文件中的一行
+     *
+     * @param line
+     * @return
+     * @throws IllegalArgumentException 字段数或 maxConcurrency 不正确
+     */
+    public static ServiceRoute parse(String line) {
+        String[] fields = StringUtils.splitPreserveAllTokens(line, SEPARATOR);
+        if(null == fields || fields.length < FIELDS) {
+            throw new IllegalArgumentException("Invalid sloth service index entry: " + line);
+        }
+
+        int maxConcurrency = 0;
+        if(fields.length > MAX_CONCURRENCY_FIELD && StringUtils.isNotEmpty(fields[MAX_CONCURRENCY_FIELD])) {
+            try {
+                maxConcurrency = Integer.parseInt(fields[MAX_CONCURRENCY_FIELD]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid sloth service index entry: " + line, e);
+            }
+        }
+
+        return new ServiceRoute(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], fields[6],
+                maxConcurrency);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) {
+            return true;
+        }
+        if(!(o instanceof ServiceRoute)) {
+            return false;
+        }
+        return toLine().equals(((ServiceRoute) o).toLine());
+    }
+
+    @Override
+    public int hashCode() {
+        return toLine().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ServiceRoute{" +
+                "className='" + className + '\'' +
+                ", methodName='" + methodName + '\'' +
+                ", namespace='" + namespace + '\'' +
+                ", version='" + version + '\'' +
+                ", serviceName='" + serviceName + '\'' +
+                ", controllerMapping='" + controllerMapping + '\'' +
+                ", methodMapping='" + methodMapping + '\'' +
+                ", maxConcurrency=" + maxConcurrency +
+                '}';
+    }
+}
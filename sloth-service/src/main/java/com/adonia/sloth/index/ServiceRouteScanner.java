@@ -0,0 +1,103 @@
+package com.adonia.sloth.index;
+
+import com.adonia.sloth.annotation.SlothService;
+import org.apache.commons.lang.ArrayUtils;
+import org.apache.commons.lang.StringUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 启动时反射扫描 Controller 中需注册的服务，classpath 下没有{@link ServiceIndex}时使用
+ *
+ * 方法满足以下条件时注册为服务:
+ * 1. 必须是 @RequestMapping 注解的
+ * 2. 所在的Class是 @SlothService 注解的，或者方法自身是 @SlothService 注解的
+ * 3. 未被Class上 @SlothService 注解的 excludes 和 excludePattern 排除
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public final class ServiceRouteScanner {
+
+    private ServiceRouteScanner() {
+    }
+
+    public static List<ServiceRoute> scan(Class<?> clazz) {
+        final List<ServiceRoute> routes = new ArrayList<>();
+
+        final String controllerMapping = getRequestMapping(clazz);
+
+        SlothService controllerSlothService = AnnotationUtils.findAnnotation(clazz, SlothService.class);
+        final String namespace = (null == controllerSlothService) ? StringUtils.EMPTY : controllerSlothService.namespace();
+        final String version = (null == controllerSlothService) ? StringUtils.EMPTY : controllerSlothService.version();
+        final int controllerMaxConcurrency = (null == controllerSlothService) ? 0 : controllerSlothService.maxConcurrency();
+        final Pattern excludePattern = (null == controllerSlothService
+                || StringUtils.isEmpty(controllerSlothService.excludePattern()))
+                ? null : Pattern.compile(controllerSlothService.excludePattern());
+
+        for(Method method: clazz.getMethods()) {
+            RequestMapping methodMapping = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class);
+            if(null == methodMapping) {
+                continue;
+            }
+
+            SlothService methodSlothService = AnnotationUtils.findAnnotation(method, SlothService.class);
+            if(null == controllerSlothService && null == methodSlothService) {
+                continue;
+            }
+
+            if(isMethodExclude(method.getName(), controllerSlothService, excludePattern)) {
+                continue;
+            }
+
+            // 如果方法上没有 @SlothService 注解，或者注解中的 serviceName 为空，都已方法名称作为服务标志名
+            final String serviceName = (null == methodSlothService || StringUtils.isEmpty(methodSlothService.serviceName()))
+                    ? method.getName() : methodSlothService.serviceName();
+
+            final int maxConcurrency = (null == methodSlothService || methodSlothService.maxConcurrency() <= 0)
+                    ? controllerMaxConcurrency : methodSlothService.maxConcurrency();
+
+            routes.add(new ServiceRoute(clazz.getName(), method.getName(), namespace, version, serviceName,
+                    controllerMapping, getPath(methodMapping), maxConcurrency));
+        }
+
+        return routes;
+    }
+
+    // 根据Class上的 @SlothService 注解中的 excludes 和 excludePattern 配置，过滤需要注册为服务的方法
+    private static boolean isMethodExclude(final String methodName, SlothService controllerSlothService,
+                                           Pattern excludePattern) {
+        if(null == controllerSlothService) {
+            return false;
+        }
+
+        if(ArrayUtils.contains(controllerSlothService.excludes(), methodName)) {
+            return true;
+        }
+
+        return null != excludePattern && excludePattern.matcher(methodName).matches();
+    }
+
+    // 获取Class上标注的请求路径，@RequestMapping("/xxx/xx")
+    private static String getRequestMapping(AnnotatedElement element) {
+        RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(element, RequestMapping.class);
+        return (null == mapping) ? StringUtils.EMPTY : getPath(mapping);
+    }
+
+    // N.B. 对于"@RequestMapping"的情况(即采用跟路径)，"value"和"path"属性均为空，需要注意 IndexOutOfBoundsException
+    private static String getPath(RequestMapping mapping) {
+        String[] values = mapping.value();
+        if(ArrayUtils.isEmpty(values)) {
+            values = mapping.path();
+        }
+
+        return ArrayUtils.isEmpty(values) ? StringUtils.EMPTY : values[0];
+    }
+}
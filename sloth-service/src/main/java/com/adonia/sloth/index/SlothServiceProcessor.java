@@ -0,0 +1,364 @@
+package com.adonia.sloth.index;
+
+import com.adonia.sloth.annotation.SlothService;
+import org.apache.commons.lang.ArrayUtils;
+import org.apache.commons.lang.StringUtils;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 编译时生成{@link ServiceIndex}
+ *
+ * 按照与{@link ServiceRouteScanner}相同的规则，找出 @SlothService 注解的 Controller 中需注册的服务(已排除 excludes 和
+ * excludePattern 匹配的方法)，写入{@link ServiceIndex#LOCATION}。sloth-service 在 classpath 中时由 javac 自动发现。
+ * 与运行时的 AnnotationUtils 一致，Class 及方法上的注解依次从自身、实现的接口、父类中查找。
+ *
+ * 没有需注册的服务时不生成索引文件。不需要索引的模块可通过编译参数<code>-proc:none</code>(Maven 中为
+ * maven-compiler-plugin 的<code>&lt;proc&gt;none&lt;/proc&gt;</code>)关闭注解处理，启动时仍反射扫描。
+ *
+ * N.B. 增量编译时保留未重新编译的 Controller 的索引
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+@SupportedAnnotationTypes("com.adonia.sloth.annotation.SlothService")
+public class SlothServiceProcessor extends AbstractProcessor {
+
+    private static final String REQUEST_MAPPING = "org.springframework.web.bind.annotation.RequestMapping";
+
+    /**
+     * 按类名排序，保证生成的索引稳定
+     */
+    private final Map<String, List<ServiceRoute>> routes = new TreeMap<>();
+
+    /**
+     * 本次编译的所有类，其原有索引不再保留
+     */
+    private final Set<String> compiled = new HashSet<>();
+
+    private final List<Element> originatingElements = new ArrayList<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for(TypeElement type: ElementFilter.typesIn(roundEnv.getRootElements())) {
+            addCompiled(type);
+        }
+
+        for(Element element: roundEnv.getElementsAnnotatedWith(SlothService.class)) {
+            TypeElement type = (element instanceof TypeElement) ? (TypeElement) element
+                    : (TypeElement) element.getEnclosingElement();
+            final String className = getClassName(type);
+            if(!routes.containsKey(className)) {
+                routes.put(className, scan(type));
+                originatingElements.add(type);
+            }
+        }
+
+        if(roundEnv.processingOver()) {
+            writeIndex();
+        }
+
+        return false;
+    }
+
+    private void addCompiled(TypeElement type) {
+        compiled.add(getClassName(type));
+        for(TypeElement nested: ElementFilter.typesIn(type.getEnclosedElements())) {
+            addCompiled(nested);
+        }
+    }
+
+    private List<ServiceRoute> scan(TypeElement type) {
+        final List<ServiceRoute> classRoutes = new ArrayList<>();
+
+        final String className = getClassName(type);
+        final String controllerMapping = StringUtils.defaultString(getClassRequestMapping(type));
+
+        SlothService controllerSlothService = getClassSlothService(type);
+        final String namespace = (null == controllerSlothService) ? StringUtils.EMPTY : controllerSlothService.namespace();
+        final String version = (null == controllerSlothService) ? StringUtils.EMPTY : controllerSlothService.version();
+        final int controllerMaxConcurrency = (null == controllerSlothService) ? 0 : controllerSlothService.maxConcurrency();
+        Pattern excludePattern = null;
+        if(null != controllerSlothService && StringUtils.isNotEmpty(controllerSlothService.excludePattern())) {
+            try {
+                excludePattern = Pattern.compile(controllerSlothService.excludePattern());
+            } catch (PatternSyntaxException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Invalid excludePattern of @SlothService: " + e.getMessage(), type);
+                return classRoutes;
+            }
+        }
+
+        for(ExecutableElement method: ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if(!method.getModifiers().contains(Modifier.PUBLIC)) {
+                continue;
+            }
+
+            final List<ExecutableElement> hierarchy = getMethodHierarchy(method);
+            final String methodMapping = getMethodRequestMapping(hierarchy);
+            if(null == methodMapping) {
+                continue;
+            }
+
+            SlothService methodSlothService = getMethodSlothService(hierarchy);
+            if(null == controllerSlothService && null == methodSlothService) {
+                continue;
+            }
+
+            final String methodName = method.getSimpleName().toString();
+            if(null != controllerSlothService && (ArrayUtils.contains(controllerSlothService.excludes(), methodName)
+                    || (null != excludePattern && excludePattern.matcher(methodName).matches()))) {
+                continue;
+            }
+
+            final String serviceName = (null == methodSlothService || StringUtils.isEmpty(methodSlothService.serviceName()))
+                    ? methodName : methodSlothService.serviceName();
+
+            final int maxConcurrency = (null == methodSlothService || methodSlothService.maxConcurrency() <= 0)
+                    ? controllerMaxConcurrency : methodSlothService.maxConcurrency();
+
+            classRoutes.add(new ServiceRoute(className, methodName, namespace, version, serviceName, controllerMapping,
+                    methodMapping, maxConcurrency));
+        }
+
+        return classRoutes;
+    }
+
+    // 与 AnnotationUtils.findAnnotation 一致，Class 上的注解可从接口、父类继承
+    private SlothService getClassSlothService(TypeElement type) {
+        for(TypeElement current: getHierarchy(type)) {
+            SlothService slothService = current.getAnnotation(SlothService.class);
+            if(null != slothService) {
+                return slothService;
+            }
+        }
+        return null;
+    }
+
+    private String getClassRequestMapping(TypeElement type) {
+        for(TypeElement current: getHierarchy(type)) {
+            String mapping = getRequestMapping(current);
+            if(null != mapping) {
+                return mapping;
+            }
+        }
+        return null;
+    }
+
+    private static SlothService getMethodSlothService(List<ExecutableElement> hierarchy) {
+        for(ExecutableElement method: hierarchy) {
+            SlothService slothService = method.getAnnotation(SlothService.class);
+            if(null != slothService) {
+                return slothService;
+            }
+        }
+        return null;
+    }
+
+    private String getMethodRequestMapping(List<ExecutableElement> hierarchy) {
+        for(ExecutableElement method: hierarchy) {
+            String mapping = getRequestMapping(method);
+            if(null != mapping) {
+                return mapping;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 方法自身及其覆盖的接口、父类中的方法，顺序与 AnnotationUtils.findAnnotation(Method) 的查找顺序相同
+     *
+     * @param method
+     * @return
+     */
+    private List<ExecutableElement> getMethodHierarchy(ExecutableElement method) {
+        final List<ExecutableElement> methods = new ArrayList<>();
+        methods.add(method);
+
+        final TypeElement declaring = (TypeElement) method.getEnclosingElement();
+        for(TypeElement type: getHierarchy(declaring)) {
+            if(type == declaring) {
+                continue;
+            }
+            for(ExecutableElement candidate: ElementFilter.methodsIn(type.getEnclosedElements())) {
+                if(processingEnv.getElementUtils().overrides(method, candidate, declaring)) {
+                    methods.add(candidate);
+                }
+            }
+        }
+        return methods;
+    }
+
+    /**
+     * Class 自身、实现的接口(含父接口)、父类，依次递归，与 AnnotationUtils.findAnnotation(Class) 的查找顺序相同
+     *
+     * @param type
+     * @return
+     */
+    private static List<TypeElement> getHierarchy(TypeElement type) {
+        final Set<TypeElement> types = new LinkedHashSet<>();
+        addHierarchy(type, types);
+        return new ArrayList<>(types);
+    }
+
+    private static void addHierarchy(TypeElement type, Set<TypeElement> types) {
+        if(null == type || !types.add(type)) {
+            return;
+        }
+        for(TypeMirror ifc: type.getInterfaces()) {
+            addHierarchy(asTypeElement(ifc), types);
+        }
+        addHierarchy(asTypeElement(type.getSuperclass()), types);
+    }
+
+    private static TypeElement asTypeElement(TypeMirror type) {
+        if(type.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        return (TypeElement) ((DeclaredType) type).asElement();
+    }
+
+    /**
+     * 获取 @RequestMapping，或以其为元注解的 @GetMapping 等注解中的第一个路径
+     *
+     * @param element
+     * @return 没有标注时返回 null，未指定路径时返回空串
+     */
+    private String getRequestMapping(Element element) {
+        for(AnnotationMirror annotation: element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if(isRequestMapping(annotationType)) {
+                return getPath(annotation);
+            }
+            for(AnnotationMirror meta: annotationType.getAnnotationMirrors()) {
+                if(isRequestMapping((TypeElement) meta.getAnnotationType().asElement())) {
+                    return getPath(annotation);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isRequestMapping(TypeElement annotationType) {
+        return annotationType.getQualifiedName().contentEquals(REQUEST_MAPPING);
+    }
+
+    // 依次取 value、path 属性中的第一个路径
+    private String getPath(AnnotationMirror annotation) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                processingEnv.getElementUtils().getElementValuesWithDefaults(annotation);
+        for(String name: new String[]{"value", "path"}) {
+            for(Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry: values.entrySet()) {
+                if(!entry.getKey().getSimpleName().contentEquals(name)) {
+                    continue;
+                }
+                Object value = entry.getValue().getValue();
+                if(value instanceof List && !((List<?>) value).isEmpty()) {
+                    return String.valueOf(((AnnotationValue) ((List<?>) value).get(0)).getValue());
+                }
+            }
+        }
+        return StringUtils.EMPTY;
+    }
+
+    private String getClassName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    private void writeIndex() {
+        final List<ServiceRoute> previous = readPreviousIndex();
+        for(ServiceRoute route: previous) {
+            final String className = route.getClassName();
+            if(compiled.contains(className)
+                    || null == processingEnv.getElementUtils().getTypeElement(className.replace('$', '.'))) {
+                continue;
+            }
+
+            List<ServiceRoute> classRoutes = routes.get(className);
+            if(null == classRoutes) {
+                classRoutes = new ArrayList<>();
+                routes.put(className, classRoutes);
+            }
+            classRoutes.add(route);
+        }
+
+        // 增量编译时上次生成了索引的，仍需覆盖以移除已删除的服务
+        if(isEmpty() && previous.isEmpty()) {
+            return;
+        }
+
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    ServiceIndex.LOCATION, originatingElements.toArray(new Element[originatingElements.size()]));
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                writer.write(ServiceIndex.COMMENT + " Generated by " + getClass().getName() + "\n");
+                for(List<ServiceRoute> classRoutes: routes.values()) {
+                    for(ServiceRoute route: classRoutes) {
+                        writer.write(route.toLine());
+                        writer.write('\n');
+                    }
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write sloth service index: " + e.getMessage());
+        }
+    }
+
+    private boolean isEmpty() {
+        for(List<ServiceRoute> classRoutes: routes.values()) {
+            if(!classRoutes.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 增量编译时，上次生成的索引
+    private List<ServiceRoute> readPreviousIndex() {
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "",
+                    ServiceIndex.LOCATION);
+            try (InputStream in = file.openInputStream()) {
+                return ServiceIndex.read(in);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            return new ArrayList<>();
+        }
+    }
+}
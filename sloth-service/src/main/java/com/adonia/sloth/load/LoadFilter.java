@@ -0,0 +1,85 @@
+package com.adonia.sloth.load;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+/**
+ * 服务端统计各服务进行中的请求数及处理耗时，由{@link com.adonia.sloth.service.zk.ZKServiceRegistry}定期发布到注册中心
+ *
+ * 只统计已注册的服务，其他请求直接放行；异步请求在完成时才计入耗时。
+ * Spring Boot 应用中可通过<code>FilterRegistrationBean</code>注册。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class LoadFilter implements Filter {
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse resp, FilterChain chain) throws IOException, ServletException {
+        final ServiceLoad load = (req instanceof HttpServletRequest)
+                ? ServerLoad.find(((HttpServletRequest) req).getRequestURI()) : null;
+        if(null == load) {
+            chain.doFilter(req, resp);
+            return;
+        }
+
+        final long start = System.nanoTime();
+        load.onRequestStart();
+        boolean async = false;
+        try {
+            chain.doFilter(req, resp);
+            async = req.isAsyncStarted();
+        } finally {
+            if(async) {
+                req.getAsyncContext().addListener(new EndListener(load, start));
+            } else {
+                load.onRequestEnd(System.nanoTime() - start);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    private static final class EndListener implements AsyncListener {
+
+        private final ServiceLoad load;
+
+        private final long start;
+
+        private EndListener(ServiceLoad load, long start) {
+            this.load = load;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) throws IOException {
+            load.onRequestEnd(System.nanoTime() - start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) throws IOException {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) throws IOException {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) throws IOException {
+        }
+    }
+}
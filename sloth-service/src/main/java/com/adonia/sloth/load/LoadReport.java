@@ -0,0 +1,92 @@
+package com.adonia.sloth.load;
+
+import com.adonia.sloth.model.InstanceDetail;
+
+/**
+ * 服务端上报的一次负载
+ *
+ * 负载变化不明显时不再更新注册中心: 各项指标的变化都小于 changePercent(百分比)，或小于各自的最小变化量
+ * (进行中的请求数 2、p99 2 毫秒、CPU 5%)。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public final class LoadReport {
+
+    private static final int MIN_IN_FLIGHT_CHANGE = 2;
+
+    private static final int MIN_LATENCY_CHANGE = 2;
+
+    private static final int MIN_CPU_CHANGE = 5;
+
+    private final int inFlight;
+
+    private final int p99Latency;
+
+    private final int cpuLoad;
+
+    public LoadReport(int inFlight, int p99Latency, int cpuLoad) {
+        this.inFlight = inFlight;
+        this.p99Latency = p99Latency;
+        this.cpuLoad = cpuLoad;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public int getP99Latency() {
+        return p99Latency;
+    }
+
+    public int getCpuLoad() {
+        return cpuLoad;
+    }
+
+    /**
+     * 与上次发布的负载相比是否需要重新发布
+     *
+     * @param previous  上次发布的负载，可为空
+     * @param changePercent  变化比例的阈值(百分比)
+     * @return
+     */
+    public boolean differsFrom(LoadReport previous, int changePercent) {
+        if(null == previous) {
+            return true;
+        }
+
+        return changed(previous.inFlight, inFlight, MIN_IN_FLIGHT_CHANGE, changePercent)
+                || changed(previous.p99Latency, p99Latency, MIN_LATENCY_CHANGE, changePercent)
+                || changed(previous.cpuLoad, cpuLoad, MIN_CPU_CHANGE, changePercent);
+    }
+
+    /**
+     * 写入注册的服务实例信息
+     *
+     * @param instance
+     */
+    public void applyTo(InstanceDetail instance) {
+        instance.setInFlight(inFlight);
+        instance.setP99Latency(p99Latency);
+        instance.setCpuLoad(cpuLoad);
+    }
+
+    private static boolean changed(int previous, int current, int minChange, int changePercent) {
+        // 从未知变为已知，或者反之
+        if((previous < 0) != (current < 0)) {
+            return true;
+        }
+
+        final long delta = Math.abs((long) current - previous);
+        return delta >= minChange && delta * 100 >= (long) Math.max(current, previous) * changePercent;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadReport{" +
+                "inFlight=" + inFlight +
+                ", p99Latency=" + p99Latency +
+                ", cpuLoad=" + cpuLoad +
+                '}';
+    }
+}
@@ -0,0 +1,70 @@
+package com.adonia.sloth.load;
+
+import com.adonia.sloth.utils.ServicePathTable;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+/**
+ * 服务端进程内所有服务的负载
+ *
+ * 注册服务时按请求路径登记，{@link LoadFilter}按请求的 URI 找到对应的服务并统计；
+ * 路径的匹配规则见{@link ServicePathTable}。
+ *
+ * N.B. LoadFilter 由 Servlet 容器创建，因此使用进程内共享的静态实例
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public final class ServerLoad {
+
+    private static final ServicePathTable<ServiceLoad> LOADS = new ServicePathTable<>();
+
+    private ServerLoad() {
+    }
+
+    /**
+     * 登记服务的请求路径，相同路径的服务共用统计
+     *
+     * @param path  服务的请求路径，包含 context，例如: "/platform/api/hello"
+     * @return
+     */
+    public static ServiceLoad register(String path) {
+        return LOADS.register(path, new ServiceLoad());
+    }
+
+    /**
+     * 查找请求对应的服务
+     *
+     * @param requestUri  请求的 URI，包含 context
+     * @return 不是已登记的服务时返回 null
+     */
+    public static ServiceLoad find(String requestUri) {
+        return LOADS.find(requestUri);
+    }
+
+    /**
+     * 所在主机的 CPU 使用率(百分比)；JVM 不支持时按系统平均负载估算，仍无法获取时为 -1
+     *
+     * @return
+     */
+    public static int getCpuLoad() {
+        final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if(os instanceof com.sun.management.OperatingSystemMXBean) {
+            final double load = ((com.sun.management.OperatingSystemMXBean) os).getSystemCpuLoad();
+            if(load >= 0) {
+                return (int) Math.round(load * 100);
+            }
+        }
+
+        final double average = os.getSystemLoadAverage();
+        if(average < 0) {
+            return -1;
+        }
+        return (int) Math.min(Math.round(average * 100 / os.getAvailableProcessors()), 100L);
+    }
+
+    static void clear() {
+        LOADS.clear();
+    }
+}
@@ -0,0 +1,60 @@
+package com.adonia.sloth.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 服务端单个服务的负载: 进行中的请求数及处理耗时
+ *
+ * 耗时使用无锁的{@link Recorder}记录，每次{@link #sample(int)}只统计上次采样之后的请求；期间没有请求时沿用上次的 p99。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class ServiceLoad {
+
+    private static final long MAX_VALUE = TimeUnit.MINUTES.toNanos(10);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Recorder recorder = new Recorder(MAX_VALUE, 2);
+
+    private Histogram interval;
+
+    private int p99Latency = -1;
+
+    public void onRequestStart() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * 请求处理完成
+     *
+     * @param nanos  处理耗时，单位纳秒
+     */
+    public void onRequestEnd(long nanos) {
+        inFlight.decrementAndGet();
+        recorder.recordValue(Math.min(Math.max(nanos, 0L), MAX_VALUE));
+    }
+
+    public int getInFlight() {
+        return Math.max(inFlight.get(), 0);
+    }
+
+    /**
+     * 采样当前负载
+     *
+     * @param cpuLoad  所在主机的 CPU 使用率(百分比)，-1 表示未知
+     * @return
+     */
+    public synchronized LoadReport sample(int cpuLoad) {
+        interval = recorder.getIntervalHistogram(interval);
+        if(interval.getTotalCount() > 0) {
+            p99Latency = (int) TimeUnit.NANOSECONDS.toMillis(interval.getValueAtPercentile(99.0));
+        }
+        return new LoadReport(getInFlight(), p99Latency, cpuLoad);
+    }
+}
@@ -0,0 +1,51 @@
+package com.adonia.sloth.metrics;
+
+import org.apache.http.pool.PoolStats;
+
+import java.util.Map;
+
+/**
+ * 连接池统计的JMX MBean，读取时从连接池获取
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class ConnectionPoolMetrics implements ConnectionPoolMetricsMBean {
+
+    private final ConnectionPoolStats pool;
+
+    public ConnectionPoolMetrics(ConnectionPoolStats pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public int getLeased() {
+        return pool.getTotalStats().getLeased();
+    }
+
+    @Override
+    public int getPending() {
+        return pool.getTotalStats().getPending();
+    }
+
+    @Override
+    public int getAvailable() {
+        return pool.getTotalStats().getAvailable();
+    }
+
+    @Override
+    public int getMax() {
+        return pool.getTotalStats().getMax();
+    }
+
+    @Override
+    public String[] getRouteStats() {
+        final Map<String, PoolStats> stats = pool.getRouteStats();
+        final String[] result = new String[stats.size()];
+        int i = 0;
+        for(Map.Entry<String, PoolStats> entry: stats.entrySet()) {
+            result[i++] = entry.getKey() + " " + entry.getValue();
+        }
+        return result;
+    }
+}
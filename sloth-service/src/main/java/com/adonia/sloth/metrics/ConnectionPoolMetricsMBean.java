@@ -0,0 +1,32 @@
+package com.adonia.sloth.metrics;
+
+/**
+ * 连接池统计的JMX接口
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public interface ConnectionPoolMetricsMBean {
+
+    /**
+     * 正在使用的连接数
+     */
+    int getLeased();
+
+    /**
+     * 等待获取连接的请求数
+     */
+    int getPending();
+
+    /**
+     * 空闲的连接数
+     */
+    int getAvailable();
+
+    int getMax();
+
+    /**
+     * 每个服务实例的连接统计，例如 "http://localhost:8080 [leased: 1; pending: 0; available: 2; max: 50]"
+     */
+    String[] getRouteStats();
+}
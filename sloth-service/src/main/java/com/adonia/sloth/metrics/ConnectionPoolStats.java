@@ -0,0 +1,28 @@
+package com.adonia.sloth.metrics;
+
+import org.apache.http.pool.PoolStats;
+
+import java.util.Map;
+
+/**
+ * 连接池的统计信息，由调用端的请求工厂提供，通过{@link ServiceMetricsRegistry#setConnectionPools(Map)}注册为JMX MBean
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public interface ConnectionPoolStats {
+
+    /**
+     * 连接池整体的统计信息
+     *
+     * @return
+     */
+    PoolStats getTotalStats();
+
+    /**
+     * 每个服务实例的连接统计，key为 {scheme}://{host}:{port}
+     *
+     * @return
+     */
+    Map<String, PoolStats> getRouteStats();
+}
@@ -0,0 +1,83 @@
+package com.adonia.sloth.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 耗时分布统计
+ *
+ * 记录时使用无锁的{@link Recorder}，读取时才将新记录合并到累计的直方图中，记录端不会被读取端阻塞。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class LatencyHistogram {
+
+    /**
+     * 记录的最大耗时，超过时按最大值记录
+     */
+    private static final long MAX_VALUE = TimeUnit.MINUTES.toNanos(10);
+
+    private final Recorder recorder = new Recorder(MAX_VALUE, 2);
+
+    private final Histogram accumulated = new Histogram(MAX_VALUE, 2);
+
+    private Histogram interval;
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos  耗时，单位纳秒
+     */
+    public void record(long nanos) {
+        recorder.recordValue(Math.min(Math.max(nanos, 0L), MAX_VALUE));
+    }
+
+    /**
+     * 累计的记录次数
+     *
+     * @return
+     */
+    public synchronized long getCount() {
+        refresh();
+        return accumulated.getTotalCount();
+    }
+
+    /**
+     * 获取指定百分位的耗时，单位毫秒
+     *
+     * @param percentile  百分位，例如 99.9
+     * @return
+     */
+    public synchronized double getPercentile(double percentile) {
+        refresh();
+        return toMillis(accumulated.getValueAtPercentile(percentile));
+    }
+
+    public synchronized double getMean() {
+        refresh();
+        return accumulated.getMean() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public synchronized double getMax() {
+        refresh();
+        return toMillis(accumulated.getMaxValue());
+    }
+
+    public synchronized void reset() {
+        refresh();
+        accumulated.reset();
+    }
+
+    // 将上次读取之后的记录合并到累计的直方图中
+    private void refresh() {
+        interval = recorder.getIntervalHistogram(interval);
+        accumulated.add(interval);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,51 @@
+package com.adonia.sloth.metrics;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * 记录发出请求到收到响应头的耗时，供同一线程中的服务调用读取
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class RequestTimingInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final ThreadLocal<long[]> ELAPSED = new ThreadLocal<long[]>() {
+        @Override
+        protected long[] initialValue() {
+            return new long[]{-1L};
+        }
+    };
+
+    /**
+     * 清除当前线程上次请求的耗时，在发出请求前调用
+     */
+    public static void reset() {
+        ELAPSED.get()[0] = -1L;
+    }
+
+    /**
+     * 当前线程最近一次请求的耗时，单位纳秒；未记录时为 -1
+     *
+     * @return
+     */
+    public static long elapsed() {
+        return ELAPSED.get()[0];
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        final long start = System.nanoTime();
+        try {
+            return execution.execute(request, body);
+        } finally {
+            ELAPSED.get()[0] = System.nanoTime() - start;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.adonia.sloth.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 服务调用统计，按服务或者服务实例分别统计
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class ServiceMetrics implements ServiceMetricsMBean {
+
+    private final LatencyHistogram lookup = new LatencyHistogram();
+
+    private final LatencyHistogram request = new LatencyHistogram();
+
+    private final LatencyHistogram decode = new LatencyHistogram();
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * 记录一次调用，未能区分的阶段耗时传入负数，不做统计
+     *
+     * @param lookupNanos  服务查找耗时
+     * @param requestNanos  发出请求到收到响应头的耗时
+     * @param decodeNanos  响应体解析耗时
+     * @param totalNanos  总耗时
+     * @param success  是否成功
+     */
+    public void record(long lookupNanos, long requestNanos, long decodeNanos, long totalNanos, boolean success) {
+        requests.increment();
+        if(!success) {
+            errors.increment();
+        }
+
+        if(lookupNanos >= 0) {
+            lookup.record(lookupNanos);
+        }
+        if(requestNanos >= 0) {
+            request.record(requestNanos);
+        }
+        if(decodeNanos >= 0) {
+            decode.record(decodeNanos);
+        }
+        latency.record(totalNanos);
+    }
+
+    /**
+     * 总耗时分布，供需要参考历史耗时的调用策略使用
+     *
+     * @return
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    @Override
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    @Override
+    public double getErrorRate() {
+        long count = requests.sum();
+        return (0 == count) ? 0D : errors.sum() / (double) count;
+    }
+
+    @Override
+    public double getLookupP50() {
+        return lookup.getPercentile(50D);
+    }
+
+    @Override
+    public double getLookupP99() {
+        return lookup.getPercentile(99D);
+    }
+
+    @Override
+    public double getLookupP999() {
+        return lookup.getPercentile(99.9D);
+    }
+
+    @Override
+    public double getRequestP50() {
+        return request.getPercentile(50D);
+    }
+
+    @Override
+    public double getRequestP99() {
+        return request.getPercentile(99D);
+    }
+
+    @Override
+    public double getRequestP999() {
+        return request.getPercentile(99.9D);
+    }
+
+    @Override
+    public double getDecodeP50() {
+        return decode.getPercentile(50D);
+    }
+
+    @Override
+    public double getDecodeP99() {
+        return decode.getPercentile(99D);
+    }
+
+    @Override
+    public double getDecodeP999() {
+        return decode.getPercentile(99.9D);
+    }
+
+    @Override
+    public double getLatencyMean() {
+        return latency.getMean();
+    }
+
+    @Override
+    public double getLatencyP50() {
+        return latency.getPercentile(50D);
+    }
+
+    @Override
+    public double getLatencyP99() {
+        return latency.getPercentile(99D);
+    }
+
+    @Override
+    public double getLatencyP999() {
+        return latency.getPercentile(99.9D);
+    }
+
+    @Override
+    public double getLatencyMax() {
+        return latency.getMax();
+    }
+
+    @Override
+    public void reset() {
+        requests.reset();
+        errors.reset();
+        lookup.reset();
+        request.reset();
+        decode.reset();
+        latency.reset();
+    }
+}
@@ -0,0 +1,66 @@
+package com.adonia.sloth.metrics;
+
+/**
+ * 服务调用统计的JMX接口，耗时单位均为毫秒
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public interface ServiceMetricsMBean {
+
+    long getRequestCount();
+
+    long getErrorCount();
+
+    /**
+     * 失败请求占比
+     *
+     * @return
+     */
+    double getErrorRate();
+
+    /**
+     * 服务查找耗时
+     */
+    double getLookupP50();
+
+    double getLookupP99();
+
+    double getLookupP999();
+
+    /**
+     * 发出请求到收到响应头的耗时，包括获取连接
+     */
+    double getRequestP50();
+
+    double getRequestP99();
+
+    double getRequestP999();
+
+    /**
+     * 响应体解析耗时
+     */
+    double getDecodeP50();
+
+    double getDecodeP99();
+
+    double getDecodeP999();
+
+    /**
+     * 从开始查找服务到得到结果的总耗时
+     */
+    double getLatencyMean();
+
+    double getLatencyP50();
+
+    double getLatencyP99();
+
+    double getLatencyP999();
+
+    double getLatencyMax();
+
+    /**
+     * 清空统计
+     */
+    void reset();
+}
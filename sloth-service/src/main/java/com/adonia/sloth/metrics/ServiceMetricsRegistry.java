@@ -0,0 +1,199 @@
+package com.adonia.sloth.metrics;
+
+import com.adonia.sloth.model.InstanceDetail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 服务调用统计
+ *
+ * 按服务 {namespace}/{version}/{serviceName} 以及服务实例分别统计，并注册为JMX MBean:
+ * <ul>
+ *     <li>com.adonia.sloth:type=ServiceMetrics,service="{serviceName}"</li>
+ *     <li>com.adonia.sloth:type=InstanceMetrics,service="{serviceName}",instance="{listenAddress}"</li>
+ *     <li>com.adonia.sloth:type=ConnectionPool,name="{beanName}": 调用端的连接池，见{@link #setConnectionPools(Map)}</li>
+ * </ul>
+ * 实例离开服务后由服务发现调用{@link #retainInstances(String, Collection)}注销其统计。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class ServiceMetricsRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServiceMetricsRegistry.class);
+
+    private static final String DOMAIN = "com.adonia.sloth";
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    private final ConcurrentMap<String, ServiceMetrics> services = new ConcurrentHashMap<>();
+
+    /**
+     * 服务实例的统计，key为服务名称，及实例的监听地址
+     */
+    private final ConcurrentMap<String, ConcurrentMap<String, ServiceMetrics>> instances = new ConcurrentHashMap<>();
+
+    /**
+     * 服务的调用统计
+     *
+     * @param serviceName  服务标志名 {namespace}/{version}/{serviceName}
+     * @return
+     */
+    public ServiceMetrics getServiceMetrics(String serviceName) {
+        ServiceMetrics metrics = services.get(serviceName);
+        if(null != metrics) {
+            return metrics;
+        }
+
+        return register(services, serviceName, serviceObjectName(serviceName));
+    }
+
+    /**
+     * 服务实例的调用统计
+     *
+     * @param serviceName  服务标志名 {namespace}/{version}/{serviceName}
+     * @param instance  服务实例
+     * @return
+     */
+    public ServiceMetrics getInstanceMetrics(String serviceName, InstanceDetail instance) {
+        ConcurrentMap<String, ServiceMetrics> serviceInstances = instances.get(serviceName);
+        if(null == serviceInstances) {
+            serviceInstances = instances.computeIfAbsent(serviceName, key -> new ConcurrentHashMap<>());
+        }
+
+        final String address = instance.getListenAddress();
+        ServiceMetrics metrics = serviceInstances.get(address);
+        if(null != metrics) {
+            return metrics;
+        }
+
+        // 与注销互斥，避免注销后又注册了同名的 MBean
+        synchronized (serviceInstances) {
+            return register(serviceInstances, address, instanceObjectName(serviceName, address));
+        }
+    }
+
+    /**
+     * 注销服务中已不存在的实例的统计
+     *
+     * @param serviceName  服务标志名 {namespace}/{version}/{serviceName}
+     * @param current  服务当前的实例，为空时注销该服务所有实例的统计
+     */
+    public void retainInstances(String serviceName, Collection<InstanceDetail> current) {
+        final ConcurrentMap<String, ServiceMetrics> serviceInstances = instances.get(serviceName);
+        if(null == serviceInstances) {
+            return;
+        }
+
+        final Set<String> addresses = new HashSet<>();
+        for(InstanceDetail instance: current) {
+            addresses.add(instance.getListenAddress());
+        }
+
+        synchronized (serviceInstances) {
+            for(String address: serviceInstances.keySet()) {
+                if(!addresses.contains(address) && null != serviceInstances.remove(address)) {
+                    unregister(instanceObjectName(serviceName, address));
+                }
+            }
+        }
+    }
+
+    /**
+     * 记录一次调用，同时计入服务和服务实例的统计
+     *
+     * @param serviceName  服务标志名
+     * @param instance  服务实例，未找到服务实例时为<code>null</code>
+     * @param lookupNanos  服务查找耗时
+     * @param requestNanos  发出请求到收到响应头的耗时，无法区分时为负数
+     * @param decodeNanos  响应体解析耗时，无法区分时为负数
+     * @param totalNanos  总耗时
+     * @param success  是否成功
+     */
+    public void record(String serviceName, InstanceDetail instance, long lookupNanos, long requestNanos,
+                       long decodeNanos, long totalNanos, boolean success) {
+        getServiceMetrics(serviceName).record(lookupNanos, requestNanos, decodeNanos, totalNanos, success);
+        if(null != instance) {
+            getInstanceMetrics(serviceName, instance).record(lookupNanos, requestNanos, decodeNanos, totalNanos, success);
+        }
+    }
+
+    /**
+     * 将调用端请求工厂的连接池统计注册为JMX MBean
+     *
+     * @param pools  key为名称，例如请求工厂的 bean id
+     */
+    public void setConnectionPools(Map<String, ConnectionPoolStats> pools) {
+        for(Map.Entry<String, ConnectionPoolStats> entry: pools.entrySet()) {
+            final String objectName = DOMAIN + ":type=ConnectionPool,name=" + ObjectName.quote(entry.getKey());
+            try {
+                mBeanServer.registerMBean(new ConnectionPoolMetrics(entry.getValue()), new ObjectName(objectName));
+            } catch (JMException e) {
+                LOGGER.warn("Failed to register connection pool MBean {}.", objectName, e);
+            }
+        }
+    }
+
+    private static String serviceObjectName(String serviceName) {
+        return DOMAIN + ":type=ServiceMetrics,service=" + ObjectName.quote(serviceName);
+    }
+
+    private static String instanceObjectName(String serviceName, String address) {
+        return DOMAIN + ":type=InstanceMetrics,service=" + ObjectName.quote(serviceName)
+                + ",instance=" + ObjectName.quote(address);
+    }
+
+    private ServiceMetrics register(ConcurrentMap<String, ServiceMetrics> metricsMap, String key, String objectName) {
+        ServiceMetrics created = new ServiceMetrics();
+        ServiceMetrics exists = metricsMap.putIfAbsent(key, created);
+        if(null != exists) {
+            return exists;
+        }
+
+        try {
+            mBeanServer.registerMBean(created, new ObjectName(objectName));
+        } catch (JMException e) {
+            LOGGER.warn("Failed to register metrics MBean {}.", objectName, e);
+        }
+        return created;
+    }
+
+    private void unregister(String objectName) {
+        try {
+            mBeanServer.unregisterMBean(new ObjectName(objectName));
+        } catch (JMException e) {
+            LOGGER.warn("Failed to unregister metrics MBean {}.", objectName, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            for(ObjectName name: mBeanServer.queryNames(new ObjectName(DOMAIN + ":type=ServiceMetrics,*"), null)) {
+                mBeanServer.unregisterMBean(name);
+            }
+            for(ObjectName name: mBeanServer.queryNames(new ObjectName(DOMAIN + ":type=InstanceMetrics,*"), null)) {
+                mBeanServer.unregisterMBean(name);
+            }
+            for(ObjectName name: mBeanServer.queryNames(new ObjectName(DOMAIN + ":type=ConnectionPool,*"), null)) {
+                mBeanServer.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            LOGGER.warn("Failed to unregister metrics MBeans.", e);
+        }
+        services.clear();
+        instances.clear();
+    }
+}
@@ -0,0 +1,113 @@
+package com.adonia.sloth.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 最近一段时间内的耗时分布统计
+ *
+ * 与{@link LatencyHistogram}相同，记录时使用无锁的{@link Recorder}；统计窗口均分为若干个区间，读取时将新记录合并到当前区间，
+ * 区间到期后丢弃最旧的区间，因此只反映最近 window 毫秒内的耗时，不需要显式重置。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class SlidingLatencyHistogram {
+
+    /**
+     * 记录的最大耗时，超过时按最大值记录
+     */
+    private static final long MAX_VALUE = TimeUnit.MINUTES.toNanos(10);
+
+    private final Recorder recorder = new Recorder(MAX_VALUE, 2);
+
+    private final Histogram[] intervals;
+
+    /**
+     * 每个区间的时长，单位毫秒
+     */
+    private final long intervalMillis;
+
+    /**
+     * 所有区间合并后的直方图，读取时重建
+     */
+    private final Histogram window = new Histogram(MAX_VALUE, 2);
+
+    private Histogram recorded;
+
+    /**
+     * 当前区间的下标及开始时间
+     */
+    private int current;
+
+    private long currentStart = System.currentTimeMillis();
+
+    /**
+     * @param window  统计窗口，单位毫秒
+     * @param intervals  窗口均分的区间数
+     */
+    public SlidingLatencyHistogram(long window, int intervals) {
+        if(window <= 0L || intervals <= 0) {
+            throw new IllegalArgumentException("Window and intervals must be positive: " + window + ", " + intervals);
+        }
+
+        this.intervals = new Histogram[intervals];
+        for(int i = 0; i < intervals; i++) {
+            this.intervals[i] = new Histogram(MAX_VALUE, 2);
+        }
+        this.intervalMillis = Math.max(window / intervals, 1L);
+    }
+
+    /**
+     * 记录一次耗时
+     *
+     * @param nanos  耗时，单位纳秒
+     */
+    public void record(long nanos) {
+        recorder.recordValue(Math.min(Math.max(nanos, 0L), MAX_VALUE));
+    }
+
+    /**
+     * 窗口内的记录次数
+     *
+     * @return
+     */
+    public synchronized long getCount() {
+        refresh();
+        return window.getTotalCount();
+    }
+
+    /**
+     * 获取窗口内指定百分位的耗时，单位毫秒
+     *
+     * @param percentile  百分位，例如 99.9
+     * @return
+     */
+    public synchronized double getPercentile(double percentile) {
+        refresh();
+        return window.getValueAtPercentile(percentile) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    // 上次读取之后的记录计入当前区间，再丢弃已到期的区间
+    private void refresh() {
+        recorded = recorder.getIntervalHistogram(recorded);
+        intervals[current].add(recorded);
+
+        final long now = System.currentTimeMillis();
+        final long elapsed = (now - currentStart) / intervalMillis;
+        if(elapsed > 0L) {
+            for(long i = 0L; i < Math.min(elapsed, intervals.length); i++) {
+                current = (current + 1) % intervals.length;
+                intervals[current].reset();
+            }
+            currentStart += elapsed * intervalMillis;
+        }
+
+        window.reset();
+        for(Histogram interval: intervals) {
+            window.add(interval);
+        }
+    }
+}
@@ -3,16 +3,29 @@ package com.adonia.sloth.model;
 import com.adonia.sloth.utils.IServiceConstant;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.builder.ReflectionToStringBuilder;
+import org.codehaus.jackson.annotate.JsonIgnoreProperties;
+import org.codehaus.jackson.map.annotate.JsonSerialize;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.List;
+
 /**
  * 服务实例
  *
+ * N.B. 早期版本的调用端遇到未知属性时无法解析，因此<code>requestUrl</code>之后新增的属性取默认值时不写入注册中心；
+ * 服务端声明这些属性的非默认值之前，需先升级全部调用端。
+ *
  * @author loulou.liu
  * @create 2016/8/16
  */
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class InstanceDetail {
 
+    /**
+     * 默认权重
+     */
+    public static final int DEFAULT_WEIGHT = 100;
+
     /**
      * 将服务注册到服务中心时，用于标识的名称
      */
@@ -44,6 +57,61 @@ public class InstanceDetail {
      */
     private String requestUrl;
 
+    /**
+     * 实例权重，用于按权重的负载均衡
+     */
+    @JsonSerialize(include = JsonSerialize.Inclusion.NON_DEFAULT)
+    private int weight = DEFAULT_WEIGHT;
+
+    /**
+     * 服务端支持的编码名称，例如: ["smile", "json"]，为空表示只支持<code>json</code>
+     */
+    @JsonSerialize(include = JsonSerialize.Inclusion.NON_DEFAULT)
+    private List<String> codecs;
+
+    /**
+     * 注册时间(服务端时钟，毫秒)，调用端据此对新注册的实例逐步增加流量；为0表示未知。
+     * 服务端不写入该属性，由调用端取自注册中心的{@link org.apache.curator.x.discovery.ServiceInstance#getRegistrationTimeUTC()}
+     */
+    @JsonSerialize(include = JsonSerialize.Inclusion.NON_DEFAULT)
+    private long registrationTime;
+
+    /**
+     * 所在的可用区、机架及主机，调用端据此优先选择距离较近的实例，可为空；主机为空时按监听地址中的主机判断
+     */
+    @JsonSerialize(include = JsonSerialize.Inclusion.NON_DEFAULT)
+    private String zone;
+
+    @JsonSerialize(include = JsonSerialize.Inclusion.NON_DEFAULT)
+    private String rack;
+
+    @JsonSerialize(include = JsonSerialize.Inclusion.NON_DEFAULT)
+    private String host;
+
+    /**
+     * 服务端声明的可同时处理的请求数，0 表示未声明
+     */
+    @JsonSerialize(include = JsonSerialize.Inclusion.NON_DEFAULT)
+    private int maxConcurrency;
+
+    /**
+     * 服务端定期上报的负载: 进行中的请求数、最近一个上报周期内处理耗时的 p99(毫秒)、所在主机的 CPU 使用率(百分比)；
+     * -1 表示未上报
+     */
+    @JsonSerialize(include = JsonSerialize.Inclusion.NON_DEFAULT)
+    private int inFlight = -1;
+
+    @JsonSerialize(include = JsonSerialize.Inclusion.NON_DEFAULT)
+    private int p99Latency = -1;
+
+    @JsonSerialize(include = JsonSerialize.Inclusion.NON_DEFAULT)
+    private int cpuLoad = -1;
+
+    /**
+     * 编码后的请求地址，首次使用时根据<code>requestUrl</code>生成并缓存，不注册到服务中心
+     */
+    private transient volatile String encodedRequestUrl;
+
     private InstanceDetail() {
     }
 
@@ -89,6 +157,41 @@ public class InstanceDetail {
             return this;
         }
 
+        public InstanceDetailBuilder weight(final int weight) {
+            instanceDetail.weight = weight;
+            return this;
+        }
+
+        public InstanceDetailBuilder codecs(final List<String> codecs) {
+            instanceDetail.codecs = codecs;
+            return this;
+        }
+
+        public InstanceDetailBuilder registrationTime(final long registrationTime) {
+            instanceDetail.registrationTime = registrationTime;
+            return this;
+        }
+
+        public InstanceDetailBuilder zone(final String zone) {
+            instanceDetail.zone = zone;
+            return this;
+        }
+
+        public InstanceDetailBuilder rack(final String rack) {
+            instanceDetail.rack = rack;
+            return this;
+        }
+
+        public InstanceDetailBuilder host(final String host) {
+            instanceDetail.host = host;
+            return this;
+        }
+
+        public InstanceDetailBuilder maxConcurrency(final int maxConcurrency) {
+            instanceDetail.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
         public InstanceDetail build() {
             instanceDetail.requestUrl = buildRequestUri();
             return instanceDetail;
@@ -138,6 +241,47 @@ public class InstanceDetail {
 
     public void setRequestUrl(String requestUrl) {
         this.requestUrl = requestUrl;
+        this.encodedRequestUrl = null;
+    }
+
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+
+    public void setCodecs(List<String> codecs) {
+        this.codecs = codecs;
+    }
+
+    public void setRegistrationTime(long registrationTime) {
+        this.registrationTime = registrationTime;
+    }
+
+    public void setZone(String zone) {
+        this.zone = zone;
+    }
+
+    public void setRack(String rack) {
+        this.rack = rack;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public void setInFlight(int inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    public void setP99Latency(int p99Latency) {
+        this.p99Latency = p99Latency;
+    }
+
+    public void setCpuLoad(int cpuLoad) {
+        this.cpuLoad = cpuLoad;
     }
 
     public String getServiceName() {
@@ -164,6 +308,60 @@ public class InstanceDetail {
         return requestUrl;
     }
 
+    public int getWeight() {
+        return weight;
+    }
+
+    public List<String> getCodecs() {
+        return codecs;
+    }
+
+    public long getRegistrationTime() {
+        return registrationTime;
+    }
+
+    public String getZone() {
+        return zone;
+    }
+
+    public String getRack() {
+        return rack;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public int getP99Latency() {
+        return p99Latency;
+    }
+
+    public int getCpuLoad() {
+        return cpuLoad;
+    }
+
+    /**
+     * 编码后的请求地址，用于组装每次请求的uri
+     *
+     * @return
+     */
+    public String encodedRequestUrl() {
+        String url = this.encodedRequestUrl;
+        if(null == url) {
+            url = UriComponentsBuilder.fromHttpUrl(requestUrl).build().encode().toUriString();
+            this.encodedRequestUrl = url;
+        }
+        return url;
+    }
+
     @Override
     public String toString() {
         return ReflectionToStringBuilder.toString(this);
@@ -29,4 +29,8 @@ public class ServiceException extends Exception {
         super(t);
         this.errorCode = 500L;
     }
+
+    public long getErrorCode() {
+        return errorCode;
+    }
 }
@@ -0,0 +1,33 @@
+package com.adonia.sloth.service;
+
+import com.adonia.sloth.model.InstanceDetail;
+
+import java.util.List;
+
+/**
+ * 负载均衡策略，从同一服务的多个实例中选择一个
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public interface ILoadBalancer {
+
+    /**
+     * 从服务实例列表中选择一个实例
+     *
+     * N.B. 实例列表为服务发现的只读快照，不为空，实现中不能修改
+     *
+     * @param serviceName  服务标志名，{namespace}/{version}/{serviceName}
+     * @param instances  可用的服务实例列表
+     * @return
+     */
+    InstanceDetail choose(final String serviceName, final List<InstanceDetail> instances);
+
+    /**
+     * 服务发现不再缓存该服务的实例时调用，释放按服务保存的状态
+     *
+     * @param serviceName  服务标志名，{namespace}/{version}/{serviceName}
+     */
+    default void remove(final String serviceName) {
+    }
+}
@@ -3,9 +3,20 @@ package com.adonia.sloth.service;
 import com.adonia.sloth.model.InstanceDetail;
 import com.adonia.sloth.model.ServiceException;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * 从服务注册中心查找服务
  *
+ * 除{@link #findService(String)}外均有基于它的默认实现，便于已有的实现类升级；默认实现中的异步查找在
+ * {@link java.util.concurrent.ForkJoinPool#commonPool()}中同步查找，批量查找逐个查找。
+ *
  * @author loulou.liu
  * @create 2016/8/16
  */
@@ -14,11 +25,138 @@ public interface IServiceFinder {
     /**
      * 根据服务标志名称，查找服务实例
      *
-     * N.B. 对于分布式集群场景，同一服务名称，会存在多个实例，这时，会随机从服务列表中选择一个
+     * N.B. 对于分布式集群场景，同一服务名称，会存在多个实例，这时，由负载均衡策略{@link ILoadBalancer}从服务列表中选择一个
      *
      * @param serviceName  服务实例名
      * @return
      * @throws ServiceException
      */
     InstanceDetail findService(final String serviceName) throws ServiceException;
+
+    /**
+     * 根据服务标志名称，查找服务实例，跳过指定的实例(按监听地址区分)，用于失败后换一个实例重试
+     *
+     * N.B. 默认实现不会换一个实例，{@link #findService(String)}选择的实例在excludes中时返回<code>null</code>(不重试)
+     *
+     * @param serviceName  服务实例名
+     * @param excludes  不再选择的服务实例
+     * @return 除excludes外没有可用实例时返回<code>null</code>
+     * @throws ServiceException
+     */
+    default InstanceDetail findService(final String serviceName, final Collection<InstanceDetail> excludes)
+            throws ServiceException {
+        final InstanceDetail instance = findService(serviceName);
+        if(null == instance || null == excludes) {
+            return instance;
+        }
+
+        for(InstanceDetail exclude: excludes) {
+            if(instance.getListenAddress().equals(exclude.getListenAddress())) {
+                return null;
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 根据服务标志名称，异步查找服务实例，不阻塞调用线程
+     *
+     * N.B. 未找到服务实例时，返回的结果为<code>null</code>；查找失败时，以{@link ServiceException}结束
+     *
+     * @param serviceName  服务实例名
+     * @return
+     */
+    default CompletableFuture<InstanceDetail> findServiceAsync(final String serviceName) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return findService(serviceName);
+            } catch (ServiceException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * 异步查找服务实例，跳过指定的实例，用于异步请求失败后换一个实例重试，不阻塞发起重试的I/O线程
+     *
+     * @param serviceName  服务实例名
+     * @param excludes  不再选择的服务实例
+     * @return 除excludes外没有可用实例时结果为<code>null</code>
+     */
+    default CompletableFuture<InstanceDetail> findServiceAsync(final String serviceName,
+                                                              final Collection<InstanceDetail> excludes) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return findService(serviceName, excludes);
+            } catch (ServiceException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * 查找服务的所有实例，用于向每个实例发出请求(例如汇总各分片的统计、清除各实例的缓存)
+     *
+     * N.B. 不经过负载均衡，也不排除被剔除的异常实例；默认实现只能返回{@link #findService(String)}选择的实例
+     *
+     * @param serviceName  服务实例名
+     * @return 不可修改，没有实例时为空
+     * @throws ServiceException
+     */
+    default List<InstanceDetail> findAllServices(final String serviceName) throws ServiceException {
+        final InstanceDetail instance = findService(serviceName);
+        return (null == instance) ? Collections.<InstanceDetail>emptyList() : Collections.singletonList(instance);
+    }
+
+    /**
+     * 异步查找服务的所有实例，不阻塞调用线程
+     *
+     * @param serviceName  服务实例名
+     * @return
+     */
+    default CompletableFuture<List<InstanceDetail>> findAllServicesAsync(final String serviceName) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return findAllServices(serviceName);
+            } catch (ServiceException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * 批量查找多个服务的实例，尚未加载的服务同时从注册中心读取，总耗时约为一次查找
+     *
+     * @param serviceNames  服务实例名
+     * @return key为服务实例名，未找到服务实例的服务不在其中
+     * @throws ServiceException  任一服务查找失败(例如超时)
+     */
+    default Map<String, InstanceDetail> findServices(final Collection<String> serviceNames) throws ServiceException {
+        final Map<String, InstanceDetail> result = new LinkedHashMap<>();
+        for(String serviceName: serviceNames) {
+            final InstanceDetail instance = findService(serviceName);
+            if(null != instance) {
+                result.put(serviceName, instance);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 异步批量查找多个服务的实例，不阻塞调用线程
+     *
+     * N.B. 未找到服务实例的服务不在结果中；任一服务查找失败时，以{@link ServiceException}结束
+     *
+     * @param serviceNames  服务实例名
+     * @return
+     */
+    default CompletableFuture<Map<String, InstanceDetail>> findServicesAsync(final Collection<String> serviceNames) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return findServices(serviceNames);
+            } catch (ServiceException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
 }
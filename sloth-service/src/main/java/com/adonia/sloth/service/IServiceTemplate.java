@@ -1,8 +1,12 @@
 package com.adonia.sloth.service;
 
 import com.adonia.sloth.model.ServiceException;
+import com.adonia.sloth.service.scatter.ScatterPolicy;
+import com.adonia.sloth.service.scatter.ScatterResult;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 /**
  * 服务调用
@@ -105,4 +109,169 @@ public interface IServiceTemplate {
      */
     <T> T post(final String serviceName, Object body, Map<String, ?> params, String pathVariable, Class<T> responseType)
             throws ServiceException;
+
+    /**
+     *
+     * 使用<code>GET</code>方法异步请求服务，服务查找、请求及响应解析均不阻塞调用线程
+     *
+     * N.B. 请求失败时，返回的<code>CompletableFuture</code>以{@link ServiceException}结束
+     *
+     * @param serviceName  服务标志名
+     * @param responseType  响应类型
+     * @param <T>
+     * @return
+     */
+    <T> CompletableFuture<T> getAsync(final String serviceName, Class<T> responseType);
+
+    /**
+     *
+     * 使用<code>GET</code>方法异步请求服务
+     *
+     * @param serviceName  服务标志名
+     * @param params  参数列表
+     * @param responseType  响应类型
+     * @param <T>
+     * @return
+     */
+    <T> CompletableFuture<T> getAsync(final String serviceName, Map<String, ?> params, Class<T> responseType);
+
+    /**
+     *
+     * 使用<code>GET</code>方法异步请求服务
+     *
+     * @param serviceName  服务标志名
+     * @param params  参数列表
+     * @param pathVariable  路径参数
+     * @param responseType  响应类型
+     * @param <T>
+     * @return
+     */
+    <T> CompletableFuture<T> getAsync(final String serviceName, Map<String, ?> params, String pathVariable,
+                                      Class<T> responseType);
+
+    /**
+     *
+     * 使用<code>POST</code>方法异步请求服务
+     *
+     * @param serviceName  服务标志名
+     * @param body  请求体
+     * @param responseType  响应类型
+     * @param <T>
+     * @return
+     */
+    <T> CompletableFuture<T> postAsync(final String serviceName, Object body, Class<T> responseType);
+
+    /**
+     *
+     * 使用<code>POST</code>方法异步请求服务
+     *
+     * @param serviceName  服务标志名
+     * @param body  请求体
+     * @param params  参数列表
+     * @param pathVariable  路径参数
+     * @param responseType  响应类型
+     * @param <T>
+     * @return
+     */
+    <T> CompletableFuture<T> postAsync(final String serviceName, Object body, Map<String, ?> params, String pathVariable,
+                                       Class<T> responseType);
+
+    /**
+     *
+     * 使用<code>GET</code>方法请求返回数组的服务，边读边解析，不会将整个响应体读入内存
+     *
+     * N.B. 返回的<code>Stream</code>读完时释放连接，未读完时需要调用方关闭，例如使用 try-with-resources
+     *
+     * @param serviceName  服务标志名
+     * @param elementType  数组元素类型
+     * @param <T>
+     * @return
+     * @throws ServiceException
+     */
+    <T> Stream<T> stream(final String serviceName, Class<T> elementType) throws ServiceException;
+
+    /**
+     *
+     * 使用<code>GET</code>方法请求返回数组的服务，边读边解析
+     *
+     * @param serviceName  服务标志名
+     * @param params  参数列表
+     * @param pathVariable  路径参数
+     * @param elementType  数组元素类型
+     * @param <T>
+     * @return
+     * @throws ServiceException
+     */
+    <T> Stream<T> stream(final String serviceName, Map<String, ?> params, String pathVariable, Class<T> elementType)
+            throws ServiceException;
+
+    /**
+     *
+     * 使用<code>GET</code>方法同时请求服务的所有实例(scatter-gather)，按策略等待所有实例或达到 quorum 后返回
+     *
+     * N.B. 单个实例失败或超时不会抛出异常，而是记录在结果中
+     *
+     * @param serviceName  服务标志名
+     * @param params  参数列表
+     * @param pathVariable  路径参数
+     * @param responseType  响应类型
+     * @param policy  并发数、单个实例的超时时间及 quorum
+     * @param <T>
+     * @return
+     * @throws ServiceException  查找服务实例失败
+     */
+    <T> ScatterResult<T> getAll(final String serviceName, Map<String, ?> params, String pathVariable,
+                                Class<T> responseType, ScatterPolicy policy) throws ServiceException;
+
+    /**
+     *
+     * 使用<code>POST</code>方法同时请求服务的所有实例(scatter-gather)
+     *
+     * @param serviceName  服务标志名
+     * @param body  请求体
+     * @param params  参数列表
+     * @param pathVariable  路径参数
+     * @param responseType  响应类型
+     * @param policy  并发数、单个实例的超时时间及 quorum
+     * @param <T>
+     * @return
+     * @throws ServiceException  查找服务实例失败
+     */
+    <T> ScatterResult<T> postAll(final String serviceName, Object body, Map<String, ?> params, String pathVariable,
+                                 Class<T> responseType, ScatterPolicy policy) throws ServiceException;
+
+    /**
+     *
+     * 使用<code>GET</code>方法异步请求服务的所有实例，不阻塞调用线程
+     *
+     * N.B. 查找服务实例失败时，返回的<code>CompletableFuture</code>以{@link ServiceException}结束
+     *
+     * @param serviceName  服务标志名
+     * @param params  参数列表
+     * @param pathVariable  路径参数
+     * @param responseType  响应类型
+     * @param policy  并发数、单个实例的超时时间及 quorum
+     * @param <T>
+     * @return
+     */
+    <T> CompletableFuture<ScatterResult<T>> getAllAsync(final String serviceName, Map<String, ?> params,
+                                                         String pathVariable, Class<T> responseType,
+                                                         ScatterPolicy policy);
+
+    /**
+     *
+     * 使用<code>POST</code>方法异步请求服务的所有实例，不阻塞调用线程
+     *
+     * @param serviceName  服务标志名
+     * @param body  请求体
+     * @param params  参数列表
+     * @param pathVariable  路径参数
+     * @param responseType  响应类型
+     * @param policy  并发数、单个实例的超时时间及 quorum
+     * @param <T>
+     * @return
+     */
+    <T> CompletableFuture<ScatterResult<T>> postAllAsync(final String serviceName, Object body, Map<String, ?> params,
+                                                          String pathVariable, Class<T> responseType,
+                                                          ScatterPolicy policy);
 }
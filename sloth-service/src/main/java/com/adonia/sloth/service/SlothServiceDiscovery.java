@@ -1,9 +1,11 @@
 package com.adonia.sloth.service;
 
-import com.adonia.sloth.annotation.SlothService;
-import com.adonia.sloth.model.ServiceException;
+import com.adonia.sloth.index.ServiceIndex;
+import com.adonia.sloth.index.ServiceRoute;
+import com.adonia.sloth.index.ServiceRouteScanner;
+import com.adonia.sloth.service.local.LocalServiceRegistry;
 import com.adonia.sloth.service.zk.ZKServiceRegistry;
-import org.apache.commons.lang.ArrayUtils;
+import com.adonia.sloth.utils.NetUtils;
 import org.apache.commons.lang.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,17 +15,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
-import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.stereotype.Controller;
 import org.springframework.stereotype.Service;
-import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.lang.reflect.Method;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * 服务自动发现
@@ -31,12 +30,16 @@ import java.util.regex.Pattern;
  * <code>
  *     @SlothService(namespace = "namespace", version = "version", excludes = {"methodName1"}, excludePattern = "method*")
  *     Public Class ClazzName {
- *         @SlothService(serviceName = "serviceName")
+ *         @SlothService(serviceName = "serviceName", maxConcurrency = 200)
  *         public <T> T methodName() {
  *         }
  *     }
  * </code>
  *
+ * 编译时由{@link com.adonia.sloth.index.SlothServiceProcessor}生成服务索引，启动时直接读取；不在索引中的 Controller
+ * (classpath 下没有索引、编译时未执行注解处理器，或仅在接口、父类上标注)反射扫描。
+ * 开启进程内调用时，服务同时登记到{@link LocalServiceRegistry}。
+ *
  * @author loulou.liu
  * @create 2016/8/17
  */
@@ -48,16 +51,42 @@ public class SlothServiceDiscovery implements ApplicationContextAware, Initializ
     @Value("${sloth.service.port:8080}")
     private int port;
 
+    /**
+     * 注册的服务端地址(IP或者域名)，为空时取本机的内网地址
+     */
+    @Value("${sloth.service.host:}")
+    private String host;
+
+    /**
+     * 是否使用编译期生成的服务索引，关闭时总是反射扫描
+     */
+    @Value("${sloth.service.index.enabled:true}")
+    private boolean indexEnabled;
+
     private final Map<String, Object> beans = new HashMap<>();
 
     @Autowired
     private ZKServiceRegistry serviceRegistry;
 
+    @Autowired
+    private LocalServiceRegistry localServiceRegistry;
+
     @Override
     public void afterPropertiesSet() throws Exception {
 
+        final ServiceIndex index = indexEnabled ? ServiceIndex.load(ClassUtils.getDefaultClassLoader()) : null;
+        if(null == index) {
+            LOGGER.info("No sloth service index found, scan controllers by reflection.");
+        }
+
         for(Object bean: beans.values()) {
-            parseService(bean);
+            for(ServiceRoute route: getRoutes(ClassUtils.getUserClass(bean), index)) {
+                localServiceRegistry.register(serviceRegistry.getServiceName(route.getNamespace(), route.getVersion(),
+                        route.getServiceName()), bean, route.getMethodName());
+                serviceRegistry.register(getLocalIp(), port, route.getNamespace(), route.getVersion(),
+                        route.getServiceName(), route.getControllerMapping(), route.getMethodMapping(),
+                        route.getMaxConcurrency());
+            }
         }
     }
 
@@ -69,93 +98,20 @@ public class SlothServiceDiscovery implements ApplicationContextAware, Initializ
     }
 
     private String getLocalIp() {
-        return "localhost";
-    }
-
-    private void parseService(Object bean) throws ServiceException {
-
-        final String controllerMapping = getControllerMapping(bean);
-
-        SlothService controllerSlothService = AnnotationUtils.findAnnotation(bean.getClass(), SlothService.class);
-        final String namespace = (null == controllerSlothService) ? StringUtils.EMPTY : controllerSlothService.namespace();
-        final String version = (null == controllerSlothService) ? StringUtils.EMPTY : controllerSlothService.version();
-
-        Method[] methods = bean.getClass().getMethods();
-        for(Method method: methods) {
-            // 方法满足SlothService的条件: 1. 必须是 @RequestMapping 注解的 2. 所在的Class是 @SlothService 注解的，或者方法自身是 @SlothService 注解的
-            RequestMapping methodMapping = AnnotationUtils.findAnnotation(method, RequestMapping.class);
-            if(null == methodMapping) {
-                continue;
-            }
-
-            SlothService methodSlothService = AnnotationUtils.findAnnotation(method, SlothService.class);
-            if(null == controllerSlothService && null == methodSlothService) {
-                continue;
-            }
-
-            if(isMethodExclude(method.getName(), controllerSlothService)) {
-                continue;
-            }
-
-            // 如果方法上没有 @SlothService 注解，或者注解中的 serviceName 为空，都已方法名称作为服务标志名
-            final String serviceName = (null == methodSlothService || StringUtils.isEmpty(methodSlothService.serviceName()))
-                    ? method.getName() : methodSlothService.serviceName();
-
-            serviceRegistry.register(getLocalIp(), port, namespace, version, serviceName, controllerMapping,
-                    getMethodRequestMapping(methodMapping));
-        }
-    }
-
-    // 根据Class上的 @SlothService 注解中的 excludes 和 excludePattern 配置，过滤需要注册为服务的方法
-    private boolean isMethodExclude(final String methodName, SlothService controllerSlothService) {
-
-        if(null == controllerSlothService) {
-            return false;
-        }
-
-        final String[] excludes = controllerSlothService.excludes();
-        if(ArrayUtils.contains(excludes, methodName)) {
-            return true;
-        }
-
-        final String excludePattern = controllerSlothService.excludePattern();
-        if(StringUtils.isEmpty(excludePattern)) {
-            return false;
-        }
-
-        Pattern pattern = Pattern.compile(excludePattern);
-        Matcher matcher = pattern.matcher(methodName);
-        if(matcher.matches()) {
-            return true;
-        }
-
-        return false;
-    }
-
-    // 获取Class上标注的请求路径，@RequestMapping("/xxx/xx")
-    private String getControllerMapping(Object bean) {
-        RequestMapping mapping = AnnotationUtils.findAnnotation(bean.getClass(), RequestMapping.class);
-
-        if(null == mapping) {
-            return StringUtils.EMPTY;
-        }
-
-        String[] values = mapping.value();
-        if(ArrayUtils.isEmpty(values)) {
-            values = mapping.path();
-        }
-
-        return ArrayUtils.isEmpty(values) ? StringUtils.EMPTY : values[0];
+        return StringUtils.isBlank(host) ? NetUtils.getLocalAddress() : host.trim();
     }
 
-    // 获取方法上的路径映射
-    // N.B. 对于"@RequestMapping"的情况(即采用跟路径)，"value"和"path"属性均为空，需要注意 IndexOutOfBoundsException
-    private String getMethodRequestMapping(RequestMapping mapping) {
-        String[] values = mapping.value();
-        if(ArrayUtils.isEmpty(values)) {
-            values = mapping.path();
+    /**
+     * 获取 Controller 中需注册的服务，优先使用编译期生成的索引
+     *
+     * N.B. 索引只记录编译时执行了注解处理器的 Controller，其他 Controller 仍需反射扫描，
+     * 否则仅在方法上标注 @SlothService 的服务会被遗漏
+     */
+    static List<ServiceRoute> getRoutes(Class<?> clazz, ServiceIndex index) {
+        if(null != index && index.contains(clazz.getName())) {
+            return index.getRoutes(clazz.getName());
         }
 
-        return ArrayUtils.isEmpty(values) ? StringUtils.EMPTY : values[0];
+        return ServiceRouteScanner.scan(clazz);
     }
 }
@@ -0,0 +1,270 @@
+package com.adonia.sloth.service.balance;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个服务实例(服务端监听地址)的调用统计
+ *
+ * 除正在进行中的请求数外，还记录连续失败次数、统计窗口内的请求数/失败数以及平均耗时，
+ * 由{@link OutlierDetector}据此剔除异常实例；剔除状态同样保存在这里。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class InstanceStats {
+
+    /**
+     * 正常
+     */
+    static final int HEALTHY = 0;
+
+    /**
+     * 已剔除，在{@link #getEjectedUntil()}之前不会被选中
+     */
+    static final int EJECTED = 1;
+
+    /**
+     * 剔除时间已到，正在发出探测请求(half-open)，只由探测请求的结果决定恢复或再次剔除
+     */
+    static final int PROBING = 2;
+
+    /**
+     * 探测请求成功，等待恢复
+     */
+    static final int PROBE_SUCCEEDED = 3;
+
+    /**
+     * 探测请求失败，等待再次剔除
+     */
+    static final int PROBE_FAILED = 4;
+
+    /**
+     * 正在进行中的请求数
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * 连续失败次数，成功一次即清零
+     */
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    /**
+     * 当前统计窗口的开始时间，及窗口内的请求数、失败数
+     */
+    private final AtomicLong windowStart = new AtomicLong(System.currentTimeMillis());
+
+    private final AtomicInteger windowRequests = new AtomicInteger();
+
+    private final AtomicInteger windowFailures = new AtomicInteger();
+
+    /**
+     * 请求耗时的指数加权平均值，单位纳秒
+     */
+    private final AtomicLong latency = new AtomicLong();
+
+    private final AtomicInteger state = new AtomicInteger(HEALTHY);
+
+    /**
+     * 剔除截止时间
+     */
+    private volatile long ejectedUntil;
+
+    /**
+     * 探测请求的发出时间
+     */
+    private volatile long probeStart;
+
+    /**
+     * 已放行探测请求、尚未开始；放行后开始的第一个请求即为探测请求
+     */
+    private final AtomicBoolean probeAdmitted = new AtomicBoolean();
+
+    /**
+     * 连续被剔除的次数，用于计算剔除时长，恢复后清零
+     */
+    private volatile int ejections;
+
+    /**
+     * 最近一次看到的实例注册时间，及调用端首次看到该注册时间的时刻，用于慢启动
+     */
+    private volatile long registrationTime;
+
+    private volatile long firstSeen;
+
+    /**
+     * 请求开始
+     *
+     * @return 是否为探测请求，请求结束时传给{@link #onRequestComplete(boolean, long, boolean)}
+     */
+    public boolean onRequestStart() {
+        inFlight.incrementAndGet();
+        return PROBING == state.get() && probeAdmitted.compareAndSet(true, false);
+    }
+
+    /**
+     * 请求结束
+     *
+     * @param success  服务实例是否正常响应，服务端返回的 4xx 错误也视为正常响应
+     * @param latencyNanos  请求耗时，单位纳秒
+     * @param probe  是否为探测请求，即{@link #onRequestStart()}的返回值
+     */
+    public void onRequestComplete(boolean success, long latencyNanos, boolean probe) {
+        inFlight.decrementAndGet();
+
+        if(success) {
+            consecutiveFailures.set(0);
+        } else {
+            consecutiveFailures.incrementAndGet();
+            windowFailures.incrementAndGet();
+        }
+        windowRequests.incrementAndGet();
+
+        long current;
+        do {
+            current = latency.get();
+        } while(!latency.compareAndSet(current, (0L == current) ? latencyNanos : current + ((latencyNanos - current) >> 3)));
+
+        // 剔除前已发出、探测期间才结束的请求不影响探测结果
+        if(probe) {
+            state.compareAndSet(PROBING, success ? PROBE_SUCCEEDED : PROBE_FAILED);
+        }
+    }
+
+    /**
+     * 请求没有发往服务实例(例如直接由本地缓存返回)，只撤销{@link #onRequestStart()}，不计入统计
+     *
+     * @param probe  是否为探测请求，即{@link #onRequestStart()}的返回值；是时重新放行探测请求
+     */
+    public void onRequestSkipped(boolean probe) {
+        inFlight.decrementAndGet();
+        if(probe && PROBING == state.get()) {
+            probeAdmitted.set(true);
+        }
+    }
+
+    /**
+     * 慢启动的起始时间: 实例注册时间与调用端首次发现该实例的时间中较早的一个，
+     * 避免服务端时钟超前时实例一直处于预热期
+     *
+     * @param registrationTime  实例注册时间
+     * @param now
+     * @return
+     */
+    public long getWarmupStart(long registrationTime, long now) {
+        if(registrationTime != this.registrationTime) {
+            // 实例重启后注册时间改变，重新开始预热
+            this.firstSeen = now;
+            this.registrationTime = registrationTime;
+        }
+        return Math.min(registrationTime, firstSeen);
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public int getWindowRequests() {
+        return windowRequests.get();
+    }
+
+    public int getWindowFailures() {
+        return windowFailures.get();
+    }
+
+    /**
+     * @return 平均耗时，单位毫秒
+     */
+    public double getLatency() {
+        return latency.get() / 1e6;
+    }
+
+    public boolean isEjected() {
+        return HEALTHY != state.get();
+    }
+
+    public long getEjectedUntil() {
+        return ejectedUntil;
+    }
+
+    int getState() {
+        return state.get();
+    }
+
+    long getWindowStart() {
+        return windowStart.get();
+    }
+
+    long getProbeStart() {
+        return probeStart;
+    }
+
+    int getEjections() {
+        return ejections;
+    }
+
+    /**
+     * 统计窗口到期时开始新的窗口
+     */
+    void rollWindow(long now, long interval) {
+        final long start = windowStart.get();
+        if(now - start >= interval && windowStart.compareAndSet(start, now)) {
+            windowRequests.set(0);
+            windowFailures.set(0);
+        }
+    }
+
+    /**
+     * 剔除实例
+     *
+     * @param expect  当前状态
+     * @param until  剔除截止时间
+     * @return 是否成功，并发时只有一个线程能剔除
+     */
+    boolean eject(int expect, long until) {
+        if(!state.compareAndSet(expect, EJECTED)) {
+            return false;
+        }
+
+        // 探测超时时，放行的探测请求可能尚未开始
+        probeAdmitted.set(false);
+        ejectedUntil = until;
+        ejections++;
+        return true;
+    }
+
+    /**
+     * 剔除时间已到，尝试发出探测请求
+     */
+    boolean tryProbe(long now) {
+        if(!state.compareAndSet(EJECTED, PROBING)) {
+            return false;
+        }
+
+        probeStart = now;
+        probeAdmitted.set(true);
+        return true;
+    }
+
+    /**
+     * 探测成功后恢复，清空之前的统计数据
+     */
+    boolean recover(long now) {
+        if(!state.compareAndSet(PROBE_SUCCEEDED, HEALTHY)) {
+            return false;
+        }
+
+        consecutiveFailures.set(0);
+        windowStart.set(now);
+        windowRequests.set(0);
+        windowFailures.set(0);
+        latency.set(0L);
+        ejections = 0;
+        return true;
+    }
+}
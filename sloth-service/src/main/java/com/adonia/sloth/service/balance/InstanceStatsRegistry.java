@@ -0,0 +1,44 @@
+package com.adonia.sloth.service.balance;
+
+import com.adonia.sloth.model.InstanceDetail;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 服务实例调用统计，由服务调用端记录，供负载均衡策略使用
+ *
+ * N.B. 以服务端的监听地址区分实例，同一进程中发布的多个服务共享同一份统计；实例从服务发现的所有缓存中消失后移除
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class InstanceStatsRegistry {
+
+    private final ConcurrentMap<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public InstanceStats getStats(InstanceDetail instance) {
+        final String address = instance.getListenAddress();
+
+        InstanceStats stat = stats.get(address);
+        if(null == stat) {
+            InstanceStats created = new InstanceStats();
+            stat = stats.putIfAbsent(address, created);
+            if(null == stat) {
+                stat = created;
+            }
+        }
+
+        return stat;
+    }
+
+    /**
+     * 只保留给定监听地址的实例统计
+     *
+     * @param addresses  服务发现当前缓存的所有实例的监听地址
+     */
+    public void retain(Set<String> addresses) {
+        stats.keySet().retainAll(addresses);
+    }
+}
@@ -0,0 +1,96 @@
+package com.adonia.sloth.service.balance;
+
+import com.adonia.sloth.model.InstanceDetail;
+import com.adonia.sloth.service.ILoadBalancer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按服务端上报的负载加权随机选择
+ *
+ * 实例的权重为{@link InstanceDetail#getWeight()}依次乘以:
+ * <ul>
+ *     <li>容量: 声明了 maxConcurrency 时为 maxConcurrency / 各实例声明的平均值，硬件不同的实例按容量分担流量</li>
+ *     <li>余量: 1 - 使用率，使用率取 inFlight / maxConcurrency 与 CPU 使用率中较大的一个</li>
+ *     <li>耗时: 各实例 p99 的最小值 / 该实例的 p99(毫秒，各加 1)</li>
+ * </ul>
+ * 未上报的指标不参与计算；后两项不低于{@link #MIN_FACTOR}，负载较高的实例仍能分到少量流量。
+ * 使用随机而不是总选负载最低的实例，避免调用端根据同一份上报同时涌向一个实例。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class LoadAwareLoadBalancer implements ILoadBalancer {
+
+    static final double MIN_FACTOR = 0.05;
+
+    @Override
+    public InstanceDetail choose(String serviceName, List<InstanceDetail> instances) {
+        final int size = instances.size();
+        if(1 == size) {
+            return instances.get(0);
+        }
+
+        long totalCapacity = 0;
+        int declared = 0;
+        int minLatency = Integer.MAX_VALUE;
+        for(int i = 0; i < size; i++) {
+            InstanceDetail instance = instances.get(i);
+            if(instance.getMaxConcurrency() > 0) {
+                totalCapacity += instance.getMaxConcurrency();
+                declared++;
+            }
+            if(instance.getP99Latency() >= 0) {
+                minLatency = Math.min(minLatency, instance.getP99Latency());
+            }
+        }
+        final double meanCapacity = (0 == declared) ? 0 : (double) totalCapacity / declared;
+
+        final double[] weights = new double[size];
+        double total = 0;
+        for(int i = 0; i < size; i++) {
+            weights[i] = getWeight(instances.get(i), meanCapacity, minLatency);
+            total += weights[i];
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if(total <= 0) {
+            return instances.get(random.nextInt(size));
+        }
+
+        double offset = random.nextDouble() * total;
+        for(int i = 0; i < size; i++) {
+            offset -= weights[i];
+            if(offset < 0) {
+                return instances.get(i);
+            }
+        }
+
+        return instances.get(size - 1);
+    }
+
+    double getWeight(InstanceDetail instance, double meanCapacity, int minLatency) {
+        double weight = Math.max(instance.getWeight(), 0);
+
+        final int maxConcurrency = instance.getMaxConcurrency();
+        double utilization = 0;
+        if(maxConcurrency > 0) {
+            weight *= maxConcurrency / meanCapacity;
+            if(instance.getInFlight() >= 0) {
+                utilization = (double) instance.getInFlight() / maxConcurrency;
+            }
+        }
+        if(instance.getCpuLoad() >= 0) {
+            utilization = Math.max(utilization, instance.getCpuLoad() / 100.0);
+        }
+        weight *= Math.max(1 - utilization, MIN_FACTOR);
+
+        // p99 不足 1 毫秒时为 0，各加 1 毫秒后再比较
+        if(instance.getP99Latency() >= 0) {
+            weight *= Math.max((minLatency + 1.0) / (instance.getP99Latency() + 1.0), MIN_FACTOR);
+        }
+
+        return weight;
+    }
+}
@@ -0,0 +1,213 @@
+package com.adonia.sloth.service.balance;
+
+import com.adonia.sloth.model.InstanceDetail;
+import com.adonia.sloth.utils.NetUtils;
+import org.apache.commons.lang.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 就近选择服务实例(locality-aware routing)
+ *
+ * 按服务端注册的{@link InstanceDetail#getZone()}、{@link InstanceDetail#getRack()}、{@link InstanceDetail#getHost()}
+ * 与调用端所在位置比较，将实例依次划分为同主机、同机架、同可用区及全部实例，后一层包含前一层。
+ * 从最近的一层开始，满足以下条件时只在该层中选择，否则扩大到下一层:
+ * <ul>
+ *     <li>该层中可用(未被剔除、未被排除)的实例占比不低于 minHealthyPercent(百分比)</li>
+ *     <li>maxInFlight 大于0时，可用实例上本调用端正在进行中的平均请求数不超过 maxInFlight</li>
+ * </ul>
+ *
+ * 服务实例快照不变时，分层结果按服务名称缓存。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class LocalityPolicy {
+
+    private final InstanceStatsRegistry statsRegistry;
+
+    private final ConcurrentMap<String, Levels> levels = new ConcurrentHashMap<>();
+
+    private boolean enabled = false;
+
+    /**
+     * 调用端所在的可用区、机架、主机；主机为空时取本机的内网地址
+     */
+    private String zone;
+
+    private String rack;
+
+    private String host = NetUtils.getLocalAddress();
+
+    private int minHealthyPercent = 70;
+
+    /**
+     * 单个实例上进行中请求数的上限，超过时扩大选择范围，0 表示不限制
+     */
+    private int maxInFlight = 0;
+
+    public LocalityPolicy(InstanceStatsRegistry statsRegistry) {
+        this.statsRegistry = statsRegistry;
+    }
+
+    /**
+     * 选出距离最近且可承担流量的实例
+     *
+     * @param serviceName  服务名称
+     * @param instances  服务实例快照
+     * @param available  快照中可选的实例(已剔除异常实例和排除的实例)
+     * @return
+     */
+    public List<InstanceDetail> filter(String serviceName, List<InstanceDetail> instances, List<InstanceDetail> available) {
+        if(!enabled || available.size() <= 1) {
+            return available;
+        }
+
+        Levels current = levels.get(serviceName);
+        if(null == current || current.instances != instances) {
+            current = new Levels(instances, split(instances));
+            levels.put(serviceName, current);
+        }
+
+        Set<InstanceDetail> availableSet = null;
+        for(List<InstanceDetail> level: current.levels) {
+            List<InstanceDetail> usable;
+            if(available == instances) {
+                usable = level;
+            } else {
+                if(null == availableSet) {
+                    availableSet = Collections.newSetFromMap(new IdentityHashMap<InstanceDetail, Boolean>());
+                    availableSet.addAll(available);
+                }
+                usable = new ArrayList<>(level.size());
+                for(InstanceDetail instance: level) {
+                    if(availableSet.contains(instance)) {
+                        usable.add(instance);
+                    }
+                }
+            }
+
+            if(usable.isEmpty() || usable.size() * 100 < level.size() * minHealthyPercent || isOverloaded(usable)) {
+                continue;
+            }
+            return usable;
+        }
+
+        return available;
+    }
+
+    /**
+     * 服务发现不再缓存该服务的实例时，移除缓存的分层结果
+     */
+    public void remove(String serviceName) {
+        levels.remove(serviceName);
+    }
+
+    /**
+     * 实例与调用端的距离: 0 同主机，1 同机架，2 同可用区，3 其他
+     *
+     * @param instance
+     * @return
+     */
+    public int getDistance(InstanceDetail instance) {
+        // 服务端未声明主机标识时按监听地址中的主机判断
+        final String instanceHost = StringUtils.isNotEmpty(instance.getHost()) ? instance.getHost()
+                : StringUtils.substringBeforeLast(instance.getListenAddress(), ":");
+        if(StringUtils.isNotEmpty(host) && host.equals(instanceHost)) {
+            return 0;
+        }
+
+        if(StringUtils.isEmpty(zone) || !zone.equals(instance.getZone())) {
+            return 3;
+        }
+
+        return (StringUtils.isNotEmpty(rack) && rack.equals(instance.getRack())) ? 1 : 2;
+    }
+
+    // 由近到远划分为包含关系的各层，不包含与全部实例相同的层
+    private List<List<InstanceDetail>> split(List<InstanceDetail> instances) {
+        List<List<InstanceDetail>> result = new ArrayList<>(3);
+
+        int[] distances = new int[instances.size()];
+        for(int i = 0; i < distances.length; i++) {
+            distances[i] = getDistance(instances.get(i));
+        }
+
+        int previous = 0;
+        for(int distance = 0; distance < 3; distance++) {
+            List<InstanceDetail> level = new ArrayList<>();
+            for(int i = 0; i < distances.length; i++) {
+                if(distances[i] <= distance) {
+                    level.add(instances.get(i));
+                }
+            }
+
+            if(level.size() == instances.size()) {
+                break;
+            }
+            if(level.size() > previous) {
+                result.add(level);
+                previous = level.size();
+            }
+        }
+
+        return result;
+    }
+
+    private boolean isOverloaded(List<InstanceDetail> instances) {
+        if(maxInFlight <= 0) {
+            return false;
+        }
+
+        long inFlight = 0;
+        for(InstanceDetail instance: instances) {
+            inFlight += statsRegistry.getStats(instance).getInFlight();
+        }
+        return inFlight > (long) maxInFlight * instances.size();
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setZone(String zone) {
+        this.zone = StringUtils.trimToNull(zone);
+    }
+
+    public void setRack(String rack) {
+        this.rack = StringUtils.trimToNull(rack);
+    }
+
+    public void setHost(String host) {
+        this.host = StringUtils.isBlank(host) ? NetUtils.getLocalAddress() : host.trim();
+    }
+
+    public void setMinHealthyPercent(int minHealthyPercent) {
+        this.minHealthyPercent = minHealthyPercent;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    private static final class Levels {
+
+        /**
+         * 分层所依据的实例快照
+         */
+        private final List<InstanceDetail> instances;
+
+        private final List<List<InstanceDetail>> levels;
+
+        private Levels(List<InstanceDetail> instances, List<List<InstanceDetail>> levels) {
+            this.instances = instances;
+            this.levels = levels;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.adonia.sloth.service.balance;
+
+import com.adonia.sloth.model.InstanceDetail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 异常实例剔除(outlier ejection)
+ *
+ * 根据调用端记录的{@link InstanceStats}，在查找服务时剔除以下实例:
+ * <ul>
+ *     <li>连续失败次数达到 consecutiveErrors</li>
+ *     <li>统计窗口内请求数不少于 minRequests，且失败率达到 errorRate(百分比)</li>
+ *     <li>统计窗口内请求数不少于 minRequests，且平均耗时超过 latencyThreshold(毫秒)</li>
+ * </ul>
+ *
+ * 剔除时长为 baseEjectionTime * 连续剔除次数，不超过 maxEjectionTime。到期后只放行一个探测请求(half-open)，
+ * 探测成功则恢复，失败则再次剔除；探测请求超过 probeTimeout 仍未返回时视为失败。剔除前已发出的请求不作为探测结果。
+ *
+ * 同一服务下被剔除的实例不超过 maxEjectionPercent(百分比)，超出时仍保留在可选列表中。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class OutlierDetector {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutlierDetector.class);
+
+    private final InstanceStatsRegistry statsRegistry;
+
+    /**
+     * 连续失败次数阈值，0 表示不启用
+     */
+    private int consecutiveErrors = 5;
+
+    /**
+     * 失败率阈值(百分比)，0 表示不启用
+     */
+    private int errorRate = 50;
+
+    /**
+     * 平均耗时阈值，单位毫秒，0 表示不启用
+     */
+    private long latencyThreshold = 0L;
+
+    /**
+     * 按失败率、耗时剔除时，统计窗口内的最少请求数
+     */
+    private int minRequests = 20;
+
+    /**
+     * 统计窗口，单位毫秒
+     */
+    private long interval = 10000L;
+
+    private long baseEjectionTime = 30000L;
+
+    private long maxEjectionTime = 300000L;
+
+    private long probeTimeout = 10000L;
+
+    /**
+     * 同一服务下最多剔除的实例比例(百分比)，0 表示不剔除
+     */
+    private int maxEjectionPercent = 50;
+
+    public OutlierDetector(InstanceStatsRegistry statsRegistry) {
+        this.statsRegistry = statsRegistry;
+    }
+
+    /**
+     * 过滤掉被剔除的实例
+     *
+     * 有实例可以发出探测请求时，仅返回该实例，由本次调用完成探测；没有实例被剔除时直接返回原列表。
+     *
+     * @param serviceName  服务名称
+     * @param instances  服务实例快照
+     * @return 可选的服务实例
+     */
+    public List<InstanceDetail> filter(String serviceName, List<InstanceDetail> instances) {
+        final int size = instances.size();
+        if(size <= 1 || maxEjectionPercent <= 0) {
+            return instances;
+        }
+
+        final long now = System.currentTimeMillis();
+        final int allowed = size * maxEjectionPercent / 100;
+
+        int ejected = 0;
+        for(InstanceDetail instance: instances) {
+            if(statsRegistry.getStats(instance).isEjected()) {
+                ejected++;
+            }
+        }
+
+        List<InstanceDetail> available = null;
+        int excludedCount = 0;
+        for(int i = 0; i < size; i++) {
+            final InstanceDetail instance = instances.get(i);
+            final InstanceStats stats = statsRegistry.getStats(instance);
+            boolean excluded;
+
+            switch (stats.getState()) {
+                case InstanceStats.HEALTHY:
+                    excluded = ejected < allowed && shouldEject(stats, now)
+                            && eject(serviceName, instance, stats, InstanceStats.HEALTHY, now);
+                    if(excluded) {
+                        ejected++;
+                    }
+                    break;
+                case InstanceStats.EJECTED:
+                    if(now >= stats.getEjectedUntil() && stats.tryProbe(now)) {
+                        LOGGER.info("Probing ejected service instance {} of service {}.", instance.getListenAddress(),
+                                serviceName);
+                        return Collections.singletonList(instance);
+                    }
+                    excluded = excludedCount < allowed;
+                    break;
+                case InstanceStats.PROBING:
+                    if(now - stats.getProbeStart() >= probeTimeout) {
+                        eject(serviceName, instance, stats, InstanceStats.PROBING, now);
+                    }
+                    excluded = excludedCount < allowed;
+                    break;
+                case InstanceStats.PROBE_SUCCEEDED:
+                    if(stats.recover(now)) {
+                        LOGGER.info("Service instance {} of service {} recovered.", instance.getListenAddress(),
+                                serviceName);
+                    }
+                    excluded = false;
+                    break;
+                default:
+                    eject(serviceName, instance, stats, InstanceStats.PROBE_FAILED, now);
+                    excluded = excludedCount < allowed;
+                    break;
+            }
+
+            if(excluded) {
+                excludedCount++;
+                if(null == available) {
+                    available = new ArrayList<>(instances.subList(0, i));
+                }
+            } else if(null != available) {
+                available.add(instance);
+            }
+        }
+
+        if(null == available) {
+            return instances;
+        }
+
+        // 剔除比例受限，超出部分仍可被选中
+        return available.isEmpty() ? instances : available;
+    }
+
+    private boolean shouldEject(InstanceStats stats, long now) {
+        stats.rollWindow(now, interval);
+
+        if(consecutiveErrors > 0 && stats.getConsecutiveFailures() >= consecutiveErrors) {
+            return true;
+        }
+
+        final int requests = stats.getWindowRequests();
+        if(requests < minRequests || 0 == requests) {
+            return false;
+        }
+
+        if(errorRate > 0 && stats.getWindowFailures() * 100L >= (long) errorRate * requests) {
+            return true;
+        }
+
+        return latencyThreshold > 0 && stats.getLatency() > latencyThreshold;
+    }
+
+    private boolean eject(String serviceName, InstanceDetail instance, InstanceStats stats, int expect, long now) {
+        final long ejectionTime = Math.min(baseEjectionTime * (stats.getEjections() + 1), maxEjectionTime);
+        if(!stats.eject(expect, now + ejectionTime)) {
+            return false;
+        }
+
+        LOGGER.warn("Service instance {} of service {} ejected for {}ms, consecutive failures: {}, "
+                        + "failures: {}/{}, latency: {}ms.", instance.getListenAddress(), serviceName, ejectionTime,
+                stats.getConsecutiveFailures(), stats.getWindowFailures(), stats.getWindowRequests(), stats.getLatency());
+        return true;
+    }
+
+    public void setConsecutiveErrors(int consecutiveErrors) {
+        this.consecutiveErrors = consecutiveErrors;
+    }
+
+    public void setErrorRate(int errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public void setLatencyThreshold(long latencyThreshold) {
+        this.latencyThreshold = latencyThreshold;
+    }
+
+    public void setMinRequests(int minRequests) {
+        this.minRequests = minRequests;
+    }
+
+    public void setInterval(long interval) {
+        this.interval = interval;
+    }
+
+    public void setBaseEjectionTime(long baseEjectionTime) {
+        this.baseEjectionTime = baseEjectionTime;
+    }
+
+    public void setMaxEjectionTime(long maxEjectionTime) {
+        this.maxEjectionTime = maxEjectionTime;
+    }
+
+    public void setProbeTimeout(long probeTimeout) {
+        this.probeTimeout = probeTimeout;
+    }
+
+    public void setMaxEjectionPercent(int maxEjectionPercent) {
+        this.maxEjectionPercent = maxEjectionPercent;
+    }
+}
@@ -0,0 +1,41 @@
+package com.adonia.sloth.service.balance;
+
+import com.adonia.sloth.model.InstanceDetail;
+import com.adonia.sloth.service.ILoadBalancer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 随机选取两个实例，取正在进行中的请求数较少的一个(power of two choices)
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class PowerOfTwoChoicesLoadBalancer implements ILoadBalancer {
+
+    private final InstanceStatsRegistry statsRegistry;
+
+    public PowerOfTwoChoicesLoadBalancer(InstanceStatsRegistry statsRegistry) {
+        this.statsRegistry = statsRegistry;
+    }
+
+    @Override
+    public InstanceDetail choose(String serviceName, List<InstanceDetail> instances) {
+        final int size = instances.size();
+        if(1 == size) {
+            return instances.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if(second >= first) {
+            second++;
+        }
+
+        InstanceDetail a = instances.get(first);
+        InstanceDetail b = instances.get(second);
+        return statsRegistry.getStats(a).getInFlight() <= statsRegistry.getStats(b).getInFlight() ? a : b;
+    }
+}
@@ -0,0 +1,59 @@
+package com.adonia.sloth.service.balance;
+
+import com.adonia.sloth.model.InstanceDetail;
+import com.adonia.sloth.service.ILoadBalancer;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 轮询
+ *
+ * 每个服务维护一组游标，按线程分散到不同的游标上，避免高并发下所有线程竞争同一个计数器；
+ * 各游标的起始位置错开，整体上仍均匀地轮询所有实例。服务发现关闭某个服务的缓存时移除该服务的游标。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class RoundRobinLoadBalancer implements ILoadBalancer {
+
+    private static final int STRIPES = stripes();
+
+    private final ConcurrentMap<String, AtomicInteger[]> cursors = new ConcurrentHashMap<>();
+
+    @Override
+    public InstanceDetail choose(String serviceName, List<InstanceDetail> instances) {
+        AtomicInteger[] stripes = cursors.get(serviceName);
+        if(null == stripes) {
+            AtomicInteger[] created = new AtomicInteger[STRIPES];
+            for(int i = 0; i < STRIPES; i++) {
+                created[i] = new AtomicInteger(i);
+            }
+
+            stripes = cursors.putIfAbsent(serviceName, created);
+            if(null == stripes) {
+                stripes = created;
+            }
+        }
+
+        AtomicInteger cursor = stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)];
+        int index = (cursor.getAndIncrement() & Integer.MAX_VALUE) % instances.size();
+        return instances.get(index);
+    }
+
+    @Override
+    public void remove(String serviceName) {
+        cursors.remove(serviceName);
+    }
+
+    // 游标数为不小于CPU核数的2的幂
+    private static int stripes() {
+        int n = 1;
+        while(n < Runtime.getRuntime().availableProcessors()) {
+            n <<= 1;
+        }
+        return n;
+    }
+}
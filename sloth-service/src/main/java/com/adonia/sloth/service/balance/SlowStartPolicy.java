@@ -0,0 +1,110 @@
+package com.adonia.sloth.service.balance;
+
+import com.adonia.sloth.model.InstanceDetail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 新实例慢启动(slow start)
+ *
+ * 新注册的实例 JIT 未预热、缓存为空、连接池中没有连接，立即承担与其他实例相同的流量时耗时会明显升高。
+ * 在注册后的 window(毫秒) 内，新实例的流量比例按以下系数逐步增加到正常水平:
+ * <pre>
+ *     max(minWeightPercent / 100, (elapsed / window) ^ (1 / aggression))
+ * </pre>
+ * aggression 为 1 时线性增加，越大前期增加越快。
+ *
+ * 负载均衡策略选中预热中的实例后，按上述系数决定是否放行，未放行时改为随机选择一个已预热的实例，对任意负载均衡策略均有效；
+ * 所有实例都在预热期时不做限制。
+ *
+ * N.B. 不再调用负载均衡策略重新选择，轮询策略的游标会因此偏移，使预热中的实例被连续选中
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class SlowStartPolicy {
+
+    private final InstanceStatsRegistry statsRegistry;
+
+    /**
+     * 预热时长，单位毫秒，0 表示不启用
+     */
+    private long window = 0L;
+
+    private double aggression = 1.0;
+
+    /**
+     * 预热开始时的最小流量比例(百分比)
+     */
+    private int minWeightPercent = 10;
+
+    public SlowStartPolicy(InstanceStatsRegistry statsRegistry) {
+        this.statsRegistry = statsRegistry;
+    }
+
+    /**
+     * 对负载均衡策略选中的实例做慢启动控制
+     *
+     * @param instances  可选的服务实例
+     * @param chosen  负载均衡策略选中的实例
+     * @return 最终选择的实例
+     */
+    public InstanceDetail admit(List<InstanceDetail> instances, InstanceDetail chosen) {
+        if(window <= 0L || null == chosen || instances.size() <= 1) {
+            return chosen;
+        }
+
+        final long now = System.currentTimeMillis();
+        final double factor = getWeightFactor(chosen, now);
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        if(factor >= 1.0 || random.nextDouble() < factor) {
+            return chosen;
+        }
+
+        List<InstanceDetail> warm = new ArrayList<>(instances.size());
+        for(InstanceDetail instance: instances) {
+            if(getWeightFactor(instance, now) >= 1.0) {
+                warm.add(instance);
+            }
+        }
+
+        return warm.isEmpty() ? chosen : warm.get(random.nextInt(warm.size()));
+    }
+
+    /**
+     * 实例当前的流量系数
+     *
+     * @param instance
+     * @param now
+     * @return (0, 1]，1 表示已预热完成
+     */
+    public double getWeightFactor(InstanceDetail instance, long now) {
+        final long registrationTime = instance.getRegistrationTime();
+        // 旧版本服务端未注册该时间
+        if(window <= 0L || registrationTime <= 0L || now - registrationTime >= window) {
+            return 1.0;
+        }
+
+        final long elapsed = now - statsRegistry.getStats(instance).getWarmupStart(registrationTime, now);
+        if(elapsed >= window) {
+            return 1.0;
+        }
+
+        final double factor = Math.pow(Math.max(elapsed, 0L) / (double) window, 1.0 / aggression);
+        return Math.min(Math.max(factor, minWeightPercent / 100.0), 1.0);
+    }
+
+    public void setWindow(long window) {
+        this.window = window;
+    }
+
+    public void setAggression(double aggression) {
+        this.aggression = (aggression > 0) ? aggression : 1.0;
+    }
+
+    public void setMinWeightPercent(int minWeightPercent) {
+        this.minWeightPercent = minWeightPercent;
+    }
+}
@@ -0,0 +1,41 @@
+package com.adonia.sloth.service.balance;
+
+import com.adonia.sloth.model.InstanceDetail;
+import com.adonia.sloth.service.ILoadBalancer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按服务端注册时声明的权重({@link InstanceDetail#getWeight()})随机选择
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class WeightedRandomLoadBalancer implements ILoadBalancer {
+
+    @Override
+    public InstanceDetail choose(String serviceName, List<InstanceDetail> instances) {
+        final int size = instances.size();
+
+        long total = 0;
+        for(int i = 0; i < size; i++) {
+            total += Math.max(instances.get(i).getWeight(), 0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if(0 == total) {
+            return instances.get(random.nextInt(size));
+        }
+
+        long offset = random.nextLong(total);
+        for(int i = 0; i < size; i++) {
+            offset -= Math.max(instances.get(i).getWeight(), 0);
+            if(offset < 0) {
+                return instances.get(i);
+            }
+        }
+
+        return instances.get(size - 1);
+    }
+}
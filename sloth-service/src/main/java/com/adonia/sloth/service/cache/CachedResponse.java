@@ -0,0 +1,109 @@
+package com.adonia.sloth.service.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+/**
+ * 缓存的响应，创建后不再修改，可被多个线程同时读取
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class CachedResponse {
+
+    /**
+     * 响应头等额外开销的估算值，用于计算缓存占用
+     */
+    private static final int OVERHEAD = 256;
+
+    private final int statusCode;
+
+    private final String statusText;
+
+    private final HttpHeaders headers;
+
+    private final byte[] body;
+
+    private final String etag;
+
+    private final long expiresAt;
+
+    public CachedResponse(HttpStatus status, HttpHeaders headers, byte[] body, long expiresAt) {
+        this(status.value(), status.getReasonPhrase(), copyOf(headers), body, headers.getETag(), expiresAt);
+    }
+
+    private CachedResponse(int statusCode, String statusText, HttpHeaders headers, byte[] body, String etag,
+                           long expiresAt) {
+        this.statusCode = statusCode;
+        this.statusText = statusText;
+        this.headers = headers;
+        this.body = body;
+        this.etag = etag;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * 是否在有效期内，有效期内直接使用，无需请求服务端
+     */
+    public boolean isFresh(long now) {
+        return now < expiresAt;
+    }
+
+    /**
+     * 服务端返回 304 时，延长有效期
+     */
+    public CachedResponse refresh(long expiresAt) {
+        return new CachedResponse(statusCode, statusText, headers, body, etag, expiresAt);
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public int getWeight() {
+        return body.length + OVERHEAD;
+    }
+
+    /**
+     * 以缓存的数据构造响应，每次调用返回新的响应对象
+     */
+    public ClientHttpResponse toResponse() {
+        return new AbstractClientHttpResponse() {
+
+            @Override
+            public int getRawStatusCode() {
+                return statusCode;
+            }
+
+            @Override
+            public String getStatusText() {
+                return statusText;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(body);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static HttpHeaders copyOf(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(headers);
+        return HttpHeaders.readOnlyHttpHeaders(copy);
+    }
+}
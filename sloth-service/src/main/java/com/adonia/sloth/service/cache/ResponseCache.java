@@ -0,0 +1,244 @@
+package com.adonia.sloth.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 调用端的<code>GET</code>响应缓存
+ *
+ * 以 {服务名称} {请求路径及参数} 为key，按响应体大小限制总容量，由 Caffeine 按 W-TinyLFU 淘汰。
+ * 有效期优先取响应头<code>Cache-Control</code>(no-store 不缓存，no-cache 每次校验，max-age 指定有效期)，
+ * 其次取按服务名称配置的ttl，最后取默认ttl。过期后如果有<code>ETag</code>，携带<code>If-None-Match</code>向服务端校验。
+ *
+ * 统计数据注册为JMX MBean: <code>com.adonia.sloth:type=ResponseCache</code>
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class ResponseCache implements ResponseCacheMBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResponseCache.class);
+
+    private static final String OBJECT_NAME = "com.adonia.sloth:type=ResponseCache";
+
+    private final Cache<String, CachedResponse> cache;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder revalidations = new LongAdder();
+
+    private final LongAdder notModified = new LongAdder();
+
+    private boolean enabled = false;
+
+    /**
+     * 默认的缓存有效期，单位毫秒；为 0 时只缓存带有<code>ETag</code>的响应，每次使用前校验
+     */
+    private long ttl = 0L;
+
+    /**
+     * 按服务名称指定的缓存有效期，key为服务名称 {namespace}/{version}/{serviceName}
+     */
+    private Map<String, Long> ttls = Collections.emptyMap();
+
+    /**
+     * @param maxWeight  缓存的最大容量，按响应体字节数计算
+     */
+    public ResponseCache(long maxWeight) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((String key, CachedResponse response) -> response.getWeight())
+                .recordStats()
+                .build();
+    }
+
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, CachedResponse response) {
+        cache.put(key, response);
+    }
+
+    public void invalidate(String key) {
+        cache.invalidate(key);
+    }
+
+    /**
+     * 计算响应的缓存有效期
+     *
+     * @param serviceName  服务名称
+     * @param headers  响应头
+     * @return 有效期，单位毫秒；不可缓存时返回 -1
+     */
+    public long getTtl(String serviceName, HttpHeaders headers) {
+        final String cacheControl = headers.getCacheControl();
+        if(null != cacheControl) {
+            for(String directive: StringUtils.commaDelimitedListToStringArray(cacheControl)) {
+                directive = directive.trim().toLowerCase();
+                if("no-store".equals(directive)) {
+                    return -1L;
+                }
+                if("no-cache".equals(directive)) {
+                    return 0L;
+                }
+                if(directive.startsWith("max-age=")) {
+                    try {
+                        return TimeUnit.SECONDS.toMillis(Long.parseLong(directive.substring("max-age=".length()).trim()));
+                    } catch (NumberFormatException e) {
+                        LOGGER.debug("Invalid Cache-Control header of service {}: {}", serviceName, cacheControl);
+                    }
+                }
+            }
+        }
+
+        Long serviceTtl = ttls.get(serviceName);
+        return (null == serviceTtl) ? ttl : serviceTtl;
+    }
+
+    void onHit() {
+        hits.increment();
+    }
+
+    void onMiss() {
+        misses.increment();
+    }
+
+    void onRevalidate() {
+        revalidations.increment();
+    }
+
+    void onNotModified() {
+        notModified.increment();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 开启缓存时，将{@link ResponseCacheInterceptor}注册为 RestTemplate 的第一个拦截器；
+     * 未开启时不注册，请求不经过缓存
+     *
+     * @param template
+     */
+    public void registerInterceptor(RestTemplate template) {
+        if(!enabled) {
+            return;
+        }
+
+        List<ClientHttpRequestInterceptor> interceptors = template.getInterceptors();
+        for(ClientHttpRequestInterceptor interceptor: interceptors) {
+            if(interceptor instanceof ResponseCacheInterceptor) {
+                return;
+            }
+        }
+        interceptors.add(0, new ResponseCacheInterceptor(this));
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+
+    public void setTtls(Map<String, Long> ttls) {
+        this.ttls = (null == ttls) ? Collections.<String, Long>emptyMap() : ttls;
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getRevalidationCount() {
+        return revalidations.sum();
+    }
+
+    @Override
+    public long getNotModifiedCount() {
+        return notModified.sum();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    @Override
+    public double getHitRate() {
+        final long hit = hits.sum() + notModified.sum();
+        final long total = hits.sum() + misses.sum() + revalidations.sum();
+        return (0L == total) ? 0.0D : (double) hit / total;
+    }
+
+    @Override
+    public long getSize() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @PostConstruct
+    public void register() {
+        if(!enabled) {
+            return;
+        }
+
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if(!mBeanServer.isRegistered(name)) {
+                mBeanServer.registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            LOGGER.warn("Failed to register response cache MBean.", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        cache.invalidateAll();
+
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if(mBeanServer.isRegistered(name)) {
+                mBeanServer.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            LOGGER.warn("Failed to unregister response cache MBean.", e);
+        }
+    }
+}
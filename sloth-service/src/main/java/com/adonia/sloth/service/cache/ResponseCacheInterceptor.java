@@ -0,0 +1,120 @@
+package com.adonia.sloth.service.cache;
+
+import com.adonia.sloth.utils.IServiceConstant;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * 按{@link ResponseCache}缓存<code>GET</code>请求的响应
+ *
+ * 服务名称取自请求头{@link IServiceConstant#SERVICE_NAME_HEADER}，没有该请求头的请求不缓存。
+ * 在有效期内直接返回缓存时没有发出请求，通过{@link #isHit()}告知同一线程中的服务调用，不计入调用统计。
+ * 只在开启缓存时由{@link ResponseCache#registerInterceptor(org.springframework.web.client.RestTemplate)}注册。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class ResponseCacheInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final ThreadLocal<boolean[]> HIT = new ThreadLocal<boolean[]>() {
+        @Override
+        protected boolean[] initialValue() {
+            return new boolean[1];
+        }
+    };
+
+    private final ResponseCache cache;
+
+    /**
+     * 清除当前线程上次请求的命中状态，在发出请求前调用
+     */
+    public static void reset() {
+        HIT.get()[0] = false;
+    }
+
+    /**
+     * 当前线程最近一次请求是否直接由缓存返回，未发往服务端
+     *
+     * @return
+     */
+    public static boolean isHit() {
+        return HIT.get()[0];
+    }
+
+    public ResponseCacheInterceptor(ResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        final String serviceName = request.getHeaders().getFirst(IServiceConstant.SERVICE_NAME_HEADER);
+        if(!cache.isEnabled() || HttpMethod.GET != request.getMethod() || null == serviceName) {
+            return execution.execute(request, body);
+        }
+
+        final String key = key(serviceName, request.getURI());
+        final long now = System.currentTimeMillis();
+        final CachedResponse cached = cache.get(key);
+        if(null != cached && cached.isFresh(now)) {
+            cache.onHit();
+            HIT.get()[0] = true;
+            return cached.toResponse();
+        }
+
+        final boolean revalidate = null != cached && null != cached.getEtag();
+        if(revalidate) {
+            cache.onRevalidate();
+            request.getHeaders().setIfNoneMatch(cached.getEtag());
+        } else {
+            cache.onMiss();
+        }
+
+        ClientHttpResponse response = execution.execute(request, body);
+        if(revalidate && HttpStatus.NOT_MODIFIED.value() == response.getRawStatusCode()) {
+            final long ttl = cache.getTtl(serviceName, response.getHeaders());
+            response.close();
+
+            cache.onNotModified();
+            CachedResponse refreshed = cached.refresh(now + Math.max(ttl, 0L));
+            cache.put(key, refreshed);
+            return refreshed.toResponse();
+        }
+
+        if(HttpStatus.OK.value() != response.getRawStatusCode()) {
+            return response;
+        }
+
+        final long ttl = cache.getTtl(serviceName, response.getHeaders());
+        if(ttl < 0L || (0L == ttl && null == response.getHeaders().getETag())) {
+            if(null != cached) {
+                cache.invalidate(key);
+            }
+            return response;
+        }
+
+        byte[] bytes;
+        try {
+            bytes = StreamUtils.copyToByteArray(response.getBody());
+        } finally {
+            response.close();
+        }
+
+        CachedResponse created = new CachedResponse(HttpStatus.OK, response.getHeaders(), bytes, now + ttl);
+        cache.put(key, created);
+        return created.toResponse();
+    }
+
+    private static String key(String serviceName, URI uri) {
+        final String query = uri.getRawQuery();
+        return (null == query) ? serviceName + " " + uri.getRawPath() : serviceName + " " + uri.getRawPath() + "?" + query;
+    }
+}
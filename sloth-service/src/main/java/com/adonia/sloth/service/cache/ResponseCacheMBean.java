@@ -0,0 +1,41 @@
+package com.adonia.sloth.service.cache;
+
+/**
+ * 调用端响应缓存的JMX接口
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public interface ResponseCacheMBean {
+
+    /**
+     * 在有效期内直接返回的次数
+     */
+    long getHitCount();
+
+    /**
+     * 未缓存或缓存已过期且无法校验的次数
+     */
+    long getMissCount();
+
+    /**
+     * 缓存过期后，携带 If-None-Match 向服务端校验的次数
+     */
+    long getRevalidationCount();
+
+    /**
+     * 校验时服务端返回 304 的次数
+     */
+    long getNotModifiedCount();
+
+    long getEvictionCount();
+
+    /**
+     * 命中率，304 也计为命中
+     */
+    double getHitRate();
+
+    long getSize();
+
+    void invalidateAll();
+}
@@ -0,0 +1,380 @@
+package com.adonia.sloth.service.local;
+
+import com.adonia.sloth.model.ServiceException;
+import com.adonia.sloth.utils.IServiceConstant;
+import com.fasterxml.jackson.databind.JavaType;
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ValueConstants;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 同一进程内的一个服务，直接调用 Controller 中的方法
+ *
+ * 按 Spring MVC 的规则绑定参数:
+ * <ul>
+ *     <li>@RequestParam 及没有注解的简单类型参数取自请求参数，类型为 Map 时为全部请求参数</li>
+ *     <li>@PathVariable 取自路径参数，最多一个</li>
+ *     <li>@RequestBody 取自请求体，类型不一致时按 json 转换</li>
+ * </ul>
+ * 其它参数(例如 HttpServletRequest、@RequestHeader)、返回 ResponseEntity 或异步结果、返回视图的方法无法在进程内调用，
+ * 由{@link #create(String, Object, String, LocalValueConverter)}返回<code>null</code>，仍通过 HTTP 调用。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class LocalService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalService.class);
+
+    private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    private static final ConversionService CONVERSION_SERVICE = new DefaultConversionService();
+
+    private final String serviceName;
+
+    private final Object bean;
+
+    private final Method method;
+
+    private final Set<HttpMethod> httpMethods;
+
+    private final Argument[] arguments;
+
+    private final LocalValueConverter converter;
+
+    private LocalService(String serviceName, Object bean, Method method, Set<HttpMethod> httpMethods,
+                         Argument[] arguments, LocalValueConverter converter) {
+        this.serviceName = serviceName;
+        this.bean = bean;
+        this.method = method;
+        this.httpMethods = httpMethods;
+        this.arguments = arguments;
+        this.converter = converter;
+    }
+
+    /**
+     * 解析 Controller 中的服务方法
+     *
+     * @param serviceName  服务标志名 {namespace}/{version}/{serviceName}
+     * @param bean  Controller
+     * @param methodName  方法名称
+     * @param converter
+     * @return 方法不存在、有重载或者无法在进程内调用时返回<code>null</code>
+     */
+    static LocalService create(String serviceName, Object bean, String methodName, LocalValueConverter converter) {
+        final Class<?> clazz = AopUtils.getTargetClass(bean);
+
+        Method method = null;
+        for(Method candidate: clazz.getMethods()) {
+            if(!candidate.getName().equals(methodName)
+                    || null == AnnotatedElementUtils.findMergedAnnotation(candidate, RequestMapping.class)) {
+                continue;
+            }
+            if(null != method) {
+                LOGGER.info("Service {} is overloaded, call it over HTTP.", serviceName);
+                return null;
+            }
+            method = candidate;
+        }
+        if(null == method) {
+            return null;
+        }
+
+        if(!AnnotatedElementUtils.hasAnnotation(method, ResponseBody.class)
+                && !AnnotatedElementUtils.hasAnnotation(clazz, ResponseBody.class)) {
+            LOGGER.info("Service {} does not return a response body, call it over HTTP.", serviceName);
+            return null;
+        }
+
+        if(!isSupportedReturnType(method.getReturnType())) {
+            LOGGER.info("Return type of service {} is not supported locally, call it over HTTP.", serviceName);
+            return null;
+        }
+
+        final Argument[] arguments = new Argument[method.getParameterCount()];
+        boolean pathVariable = false;
+        for(int i = 0; i < arguments.length; i++) {
+            MethodParameter parameter = new MethodParameter(method, i);
+            parameter.initParameterNameDiscovery(PARAMETER_NAME_DISCOVERER);
+            if(parameter.hasParameterAnnotation(PathVariable.class)) {
+                if(pathVariable) {
+                    LOGGER.info("Service {} has more than one path variable, call it over HTTP.", serviceName);
+                    return null;
+                }
+                pathVariable = true;
+            }
+
+            arguments[i] = createArgument(parameter, converter);
+            if(null == arguments[i]) {
+                LOGGER.info("Parameter {} of service {} is not supported locally, call it over HTTP.",
+                        parameter.getParameterIndex(), serviceName);
+                return null;
+            }
+        }
+
+        final RequestMethod[] requestMethods = AnnotatedElementUtils.findMergedAnnotation(method, RequestMapping.class).method();
+        final Set<HttpMethod> httpMethods = EnumSet.noneOf(HttpMethod.class);
+        for(RequestMethod requestMethod: requestMethods) {
+            httpMethods.add(HttpMethod.valueOf(requestMethod.name()));
+        }
+
+        // 代理(例如 @Transactional)需要调用代理对象上的方法
+        final Method invocable = AopUtils.selectInvocableMethod(method, bean.getClass());
+        ReflectionUtils.makeAccessible(invocable);
+        return new LocalService(serviceName, bean, invocable, httpMethods, arguments, converter);
+    }
+
+    private static boolean isSupportedReturnType(Class<?> type) {
+        return !HttpEntity.class.isAssignableFrom(type)
+                && !Callable.class.isAssignableFrom(type)
+                && !Future.class.isAssignableFrom(type)
+                && !CompletionStage.class.isAssignableFrom(type)
+                && !type.getName().startsWith("org.springframework.web.");
+    }
+
+    private static Argument createArgument(MethodParameter parameter, LocalValueConverter converter) {
+        final Class<?> type = parameter.getParameterType();
+
+        RequestParam requestParam = parameter.getParameterAnnotation(RequestParam.class);
+        if(null != requestParam) {
+            final String name = StringUtils.defaultIfEmpty(requestParam.name(), requestParam.value());
+            if(Map.class.isAssignableFrom(type) && StringUtils.isEmpty(name)) {
+                return (params, pathVariable, body) -> toStringMap(params);
+            }
+            return createValueArgument(parameter, name, requestParam.required(), requestParam.defaultValue(),
+                    (params, pathVariable, parameterName) -> (null == params) ? null : params.get(parameterName));
+        }
+
+        PathVariable path = parameter.getParameterAnnotation(PathVariable.class);
+        if(null != path) {
+            return createValueArgument(parameter, path.value(), true, ValueConstants.DEFAULT_NONE,
+                    (params, pathVariable, parameterName) -> pathVariable);
+        }
+
+        RequestBody requestBody = parameter.getParameterAnnotation(RequestBody.class);
+        if(null != requestBody) {
+            final Type genericType = parameter.getGenericParameterType();
+            return (params, pathVariable, body) -> {
+                if(null == body && requestBody.required()) {
+                    throw new ServiceException("Required request body is missing", IServiceConstant.SERVICE_INTERNAL_ERROR);
+                }
+                return converter.convert(body, genericType);
+            };
+        }
+
+        // 没有注解的简单类型参数，与 Spring MVC 一样按参数名称取请求参数
+        if(0 == parameter.getParameterAnnotations().length && BeanUtils.isSimpleProperty(type)) {
+            return createValueArgument(parameter, null, false, ValueConstants.DEFAULT_NONE,
+                    (params, pathVariable, parameterName) -> (null == params) ? null : params.get(parameterName));
+        }
+
+        return null;
+    }
+
+    // 请求参数、路径参数: 缺省时使用默认值，并转换为参数类型
+    private static Argument createValueArgument(MethodParameter parameter, String name, boolean required,
+                                                String defaultValue, ValueSource source) {
+        final String parameterName = StringUtils.defaultIfEmpty(name, parameter.getParameterName());
+        if(null == parameterName) {
+            // 编译时没有保留参数名称
+            return null;
+        }
+
+        final TypeDescriptor targetType = new TypeDescriptor(parameter);
+        final boolean hasDefault = !ValueConstants.DEFAULT_NONE.equals(defaultValue);
+        final boolean optional = !required || Optional.class == parameter.getParameterType();
+        return (params, pathVariable, body) -> {
+            Object value = source.get(params, pathVariable, parameterName);
+            if(hasDefault && (null == value || "".equals(value))) {
+                value = defaultValue;
+            }
+
+            if(null != value) {
+                try {
+                    value = CONVERSION_SERVICE.convert(value, TypeDescriptor.forObject(value), targetType);
+                } catch (ConversionException e) {
+                    throw new ServiceException("Failed to convert parameter '" + parameterName + "': " + e.getMessage(),
+                            IServiceConstant.SERVICE_INTERNAL_ERROR);
+                }
+            } else if(Optional.class == parameter.getParameterType()) {
+                value = Optional.empty();
+            }
+
+            // 转换后为 null 的情况例如空字符串转换为数字
+            if(null == value && (!optional || parameter.getParameterType().isPrimitive())) {
+                throw new ServiceException("Required parameter '" + parameterName + "' is not present",
+                        IServiceConstant.SERVICE_INTERNAL_ERROR);
+            }
+            return value;
+        };
+    }
+
+    // 与通过 HTTP 调用时一致，参数值均为字符串
+    private static Map<String, String> toStringMap(Map<String, ?> params) {
+        final Map<String, String> values = new LinkedHashMap<>();
+        if(null != params) {
+            for(Map.Entry<String, ?> entry: params.entrySet()) {
+                values.put(entry.getKey(), CONVERSION_SERVICE.convert(entry.getValue(), String.class));
+            }
+        }
+        return values;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    /**
+     * 是否支持该请求方法，@RequestMapping 未指定 method 时支持所有方法
+     *
+     * @param httpMethod
+     * @return
+     */
+    public boolean supports(HttpMethod httpMethod) {
+        return httpMethods.isEmpty() || httpMethods.contains(httpMethod);
+    }
+
+    /**
+     * 调用服务方法
+     *
+     * @param params  参数列表
+     * @param pathVariable  路径参数
+     * @param body  请求体
+     * @return 方法的返回值，未转换
+     * @throws ServiceException  参数绑定失败，或者方法抛出的异常
+     */
+    public Object invoke(Map<String, ?> params, String pathVariable, Object body) throws ServiceException {
+        final Object[] args = new Object[arguments.length];
+        for(int i = 0; i < args.length; i++) {
+            args[i] = arguments[i].resolve(params, pathVariable, body);
+        }
+
+        try {
+            return method.invoke(bean, args);
+        } catch (InvocationTargetException e) {
+            final Throwable cause = e.getTargetException();
+            if(cause instanceof ServiceException) {
+                throw (ServiceException) cause;
+            }
+            LOGGER.error("Exception happens, local service name: {}", serviceName, cause);
+            throw new ServiceException(cause.getMessage(), IServiceConstant.SERVICE_INTERNAL_ERROR);
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            throw new ServiceException(e);
+        }
+    }
+
+    /**
+     * 调用服务方法，返回值转换为调用端的响应类型
+     *
+     * @param params  参数列表
+     * @param pathVariable  路径参数
+     * @param body  请求体
+     * @param responseType  响应类型
+     * @param <T>
+     * @return
+     * @throws ServiceException
+     */
+    public <T> T invoke(Map<String, ?> params, String pathVariable, Object body, Class<T> responseType)
+            throws ServiceException {
+        return converter.convert(invoke(params, pathVariable, body), responseType);
+    }
+
+    /**
+     * 调用服务方法，返回值(Stream、Iterator、Iterable 或数组)中的元素逐个转换为调用端的元素类型
+     *
+     * N.B. 元素转换失败时以{@link UncheckedIOException}抛出
+     *
+     * @param params  参数列表
+     * @param pathVariable  路径参数
+     * @param elementType  元素类型
+     * @param <T>
+     * @return
+     * @throws ServiceException
+     */
+    public <T> Stream<T> stream(Map<String, ?> params, String pathVariable, Class<T> elementType)
+            throws ServiceException {
+        final Object result = invoke(params, pathVariable, null);
+
+        final Stream<?> elements;
+        if(null == result) {
+            elements = Stream.empty();
+        } else if(result instanceof Stream) {
+            elements = (Stream<?>) result;
+        } else if(result instanceof Iterator) {
+            elements = StreamSupport.stream(Spliterators.spliteratorUnknownSize((Iterator<?>) result,
+                    Spliterator.ORDERED), false);
+        } else if(result instanceof Iterable) {
+            elements = StreamSupport.stream(((Iterable<?>) result).spliterator(), false);
+        } else if(result.getClass().isArray()) {
+            elements = Arrays.stream(ObjectUtils.toObjectArray(result));
+        } else {
+            elements = Stream.of(result);
+        }
+
+        final JavaType type = converter.constructType(elementType);
+        return elements.map(element -> {
+            try {
+                return elementType.cast(converter.doConvert(element, type));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * 方法的一个参数
+     */
+    private interface Argument {
+
+        Object resolve(Map<String, ?> params, String pathVariable, Object body) throws ServiceException;
+    }
+
+    /**
+     * 请求参数或路径参数的原始值
+     */
+    private interface ValueSource {
+
+        Object get(Map<String, ?> params, String pathVariable, String parameterName);
+    }
+}
@@ -0,0 +1,91 @@
+package com.adonia.sloth.service.local;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 同一进程内注册的服务
+ *
+ * 启动时由{@link com.adonia.sloth.service.SlothServiceDiscovery}与注册到 zookeeper 的服务一起登记；调用的服务在本进程中时，
+ * {@link com.adonia.sloth.service.rest.RestServiceTemplate}直接调用 Controller 中的方法，不查找服务实例，也没有 HTTP 请求和序列化。
+ *
+ * N.B. 不经过 Servlet 容器，Filter、HandlerInterceptor、@ControllerAdvice 以及参数校验均不生效
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class LocalServiceRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalServiceRegistry.class);
+
+    private final ConcurrentMap<String, LocalService> services = new ConcurrentHashMap<>();
+
+    private final LocalValueConverter converter = new LocalValueConverter();
+
+    private boolean enabled = false;
+
+    /**
+     * 是否在进程内调用，默认不开启
+     *
+     * @param enabled
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 是否复制请求体和返回值，开启后调用双方修改对象不会相互影响；字符串、数字等不可变的值不复制
+     *
+     * @param copy
+     */
+    public void setCopy(boolean copy) {
+        converter.setCopy(copy);
+    }
+
+    /**
+     * 登记服务
+     *
+     * @param serviceName  服务标志名 {namespace}/{version}/{serviceName}
+     * @param bean  Controller
+     * @param methodName  方法名称
+     * @return 未开启或者该方法无法在进程内调用时返回<code>false</code>
+     */
+    public boolean register(String serviceName, Object bean, String methodName) {
+        if(!enabled) {
+            return false;
+        }
+
+        LocalService service = LocalService.create(serviceName, bean, methodName, converter);
+        if(null == service) {
+            return false;
+        }
+
+        LOGGER.info("Register local service {}.", serviceName);
+        services.put(serviceName, service);
+        return true;
+    }
+
+    /**
+     * 查找本进程中的服务
+     *
+     * @param serviceName  服务标志名
+     * @param method  请求方法
+     * @return 不在本进程中，或者不支持该请求方法时返回<code>null</code>
+     */
+    public LocalService find(String serviceName, HttpMethod method) {
+        if(services.isEmpty()) {
+            return null;
+        }
+
+        LocalService service = services.get(serviceName);
+        return (null != service && service.supports(method)) ? service : null;
+    }
+}
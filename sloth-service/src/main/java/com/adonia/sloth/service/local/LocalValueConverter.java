@@ -0,0 +1,119 @@
+package com.adonia.sloth.service.local;
+
+import com.adonia.sloth.model.ServiceException;
+import com.adonia.sloth.utils.IServiceConstant;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 进程内调用时请求体、返回值的转换
+ *
+ * 值已经是目标类型时直接使用，否则与通过 HTTP 调用一样按 json 转换(不生成字节，经由{@link TokenBuffer})；
+ * 开启防御性复制时，可变的值总是转换一次，调用双方不共享对象。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+class LocalValueConverter {
+
+    private final ObjectMapper mapper;
+
+    private volatile boolean copy;
+
+    LocalValueConverter() {
+        // 与 JacksonCodec 一致，忽略未知的属性
+        this.mapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    void setCopy(boolean copy) {
+        this.copy = copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T convert(Object value, Class<T> type) throws ServiceException {
+        return (T) convert(value, (Type) type);
+    }
+
+    Object convert(Object value, Type type) throws ServiceException {
+        try {
+            return doConvert(value, constructType(type));
+        } catch (IOException e) {
+            throw new ServiceException("Failed to convert " + value.getClass().getName() + " to " + type.getTypeName()
+                    + ": " + e.getMessage(), IServiceConstant.SERVICE_INTERNAL_ERROR);
+        }
+    }
+
+    JavaType constructType(Type type) {
+        return mapper.constructType(type);
+    }
+
+    Object doConvert(Object value, JavaType type) throws IOException {
+        final Class<?> raw = type.getRawClass();
+        if(null == value || Void.class == raw || void.class == raw) {
+            return null;
+        }
+
+        if(isInstance(value, type) && (!copy || isImmutable(value))) {
+            return value;
+        }
+
+        // 与 HTTP 调用时的字符串、字节数组响应一致: 为 json 本身
+        if(String.class == raw) {
+            return (value instanceof CharSequence) ? value.toString() : mapper.writeValueAsString(value);
+        }
+        if(byte[].class == raw) {
+            return (value instanceof byte[]) ? ((byte[]) value).clone() : mapper.writeValueAsBytes(value);
+        }
+        if(value instanceof CharSequence) {
+            return mapper.readValue(value.toString(), type);
+        }
+
+        TokenBuffer buffer = new TokenBuffer(mapper, false);
+        mapper.writeValue(buffer, value);
+        return mapper.readValue(buffer.asParser(), type);
+    }
+
+    // 容器类型逐个检查元素，例如 List<Person> 中的元素不能是 Map
+    private static boolean isInstance(Object value, JavaType type) {
+        if(null == value) {
+            return true;
+        }
+        if(!type.getRawClass().isInstance(value)) {
+            return false;
+        }
+
+        if(type.isArrayType() && !type.getContentType().isPrimitive()) {
+            for(int i = 0, length = Array.getLength(value); i < length; i++) {
+                if(!isInstance(Array.get(value, i), type.getContentType())) {
+                    return false;
+                }
+            }
+        } else if(type.isCollectionLikeType() && value instanceof Collection) {
+            for(Object element: (Collection<?>) value) {
+                if(!isInstance(element, type.getContentType())) {
+                    return false;
+                }
+            }
+        } else if(type.isMapLikeType() && value instanceof Map) {
+            for(Map.Entry<?, ?> entry: ((Map<?, ?>) value).entrySet()) {
+                if(!isInstance(entry.getKey(), type.getKeyType()) || !isInstance(entry.getValue(), type.getContentType())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value instanceof String || value instanceof Number || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum;
+    }
+}
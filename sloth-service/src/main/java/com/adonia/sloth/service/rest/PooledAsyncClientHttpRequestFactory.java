@@ -0,0 +1,102 @@
+package com.adonia.sloth.service.rest;
+
+import com.adonia.sloth.metrics.ConnectionPoolStats;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsAsyncClientHttpRequestFactory;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 基于NIO连接池的异步请求工厂，少量I/O线程即可支撑大量并发中的请求
+ *
+ * <ul>
+ *     <li>maxTotal: 连接池最大连接数</li>
+ *     <li>maxPerRoute: 每个服务实例(host:port)的最大连接数</li>
+ *     <li>ioThreads: I/O线程数</li>
+ *     <li>connectTimeout: 默认的建立连接超时，单位毫秒，0 表示不限制</li>
+ *     <li>connectionRequestTimeout: 默认的从连接池获取连接的超时，单位毫秒，0 表示不限制</li>
+ * </ul>
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class PooledAsyncClientHttpRequestFactory extends HttpComponentsAsyncClientHttpRequestFactory
+        implements ConnectionPoolStats {
+
+    /**
+     * I/O线程按该间隔(毫秒)检查连接、读取超时，默认的 1 秒无法支持更短的超时
+     */
+    private static final long SELECT_INTERVAL = 50L;
+
+    private final PoolingNHttpClientConnectionManager connectionManager;
+
+    private final RequestConfig defaultRequestConfig;
+
+    public PooledAsyncClientHttpRequestFactory(int maxTotal, int maxPerRoute, int ioThreads) throws IOReactorException {
+        this(maxTotal, maxPerRoute, ioThreads,
+                RequestConfigHolder.DEFAULT_CONNECT_TIMEOUT, RequestConfigHolder.DEFAULT_CONNECTION_REQUEST_TIMEOUT);
+    }
+
+    public PooledAsyncClientHttpRequestFactory(int maxTotal, int maxPerRoute, int ioThreads, int connectTimeout,
+                                               int connectionRequestTimeout) throws IOReactorException {
+        this(createConnectionManager(maxTotal, maxPerRoute, ioThreads),
+                RequestConfigHolder.createDefault(connectTimeout, connectionRequestTimeout));
+    }
+
+    private PooledAsyncClientHttpRequestFactory(PoolingNHttpClientConnectionManager connectionManager,
+                                                RequestConfig defaultRequestConfig) {
+        super(HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(defaultRequestConfig)
+                .build());
+        this.connectionManager = connectionManager;
+        this.defaultRequestConfig = defaultRequestConfig;
+    }
+
+    private static PoolingNHttpClientConnectionManager createConnectionManager(int maxTotal, int maxPerRoute, int ioThreads)
+            throws IOReactorException {
+        IOReactorConfig config = IOReactorConfig.custom()
+                .setIoThreadCount(ioThreads)
+                .setSelectInterval(SELECT_INTERVAL)
+                .build();
+
+        PoolingNHttpClientConnectionManager manager = new PoolingNHttpClientConnectionManager(
+                new DefaultConnectingIOReactor(config));
+        manager.setMaxTotal(maxTotal);
+        manager.setDefaultMaxPerRoute(maxPerRoute);
+        return manager;
+    }
+
+    /**
+     * 使用{@link RestServiceTemplate}按本次调用设置的超时
+     */
+    @Override
+    protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+        return RequestConfigHolder.createContext(defaultRequestConfig);
+    }
+
+    @Override
+    public PoolStats getTotalStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    @Override
+    public Map<String, PoolStats> getRouteStats() {
+        Map<String, PoolStats> stats = new LinkedHashMap<>();
+        for(HttpRoute route: connectionManager.getRoutes()) {
+            stats.put(route.getTargetHost().toURI(), connectionManager.getStats(route));
+        }
+        return stats;
+    }
+}
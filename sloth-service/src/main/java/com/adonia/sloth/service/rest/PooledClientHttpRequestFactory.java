@@ -0,0 +1,112 @@
+package com.adonia.sloth.service.rest;
+
+import com.adonia.sloth.compress.GzipRequestInterceptor;
+import com.adonia.sloth.metrics.ConnectionPoolStats;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于连接池的请求工厂，服务调用端共用，保持与服务实例之间的长连接
+ *
+ * <ul>
+ *     <li>maxTotal: 连接池最大连接数</li>
+ *     <li>maxPerRoute: 每个服务实例(host:port)的最大连接数</li>
+ *     <li>idleTimeout: 空闲连接的回收时间，单位毫秒</li>
+ *     <li>validateAfterInactivity: 连接空闲超过该时间后，复用前先校验是否可用，单位毫秒</li>
+ *     <li>compressThreshold: 请求体不小于该字节数时使用 gzip 压缩，0 表示不压缩；响应默认按 Accept-Encoding 协商并自动解压</li>
+ *     <li>connectTimeout: 默认的建立连接超时，单位毫秒，0 表示不限制</li>
+ *     <li>connectionRequestTimeout: 默认的从连接池获取连接的超时，单位毫秒，0 表示不限制</li>
+ * </ul>
+ *
+ * 调用没有指定超时时使用默认的超时，避免连接池耗尽或服务实例不可达时无限等待。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class PooledClientHttpRequestFactory extends HttpComponentsClientHttpRequestFactory
+        implements ConnectionPoolStats {
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    private final RequestConfig defaultRequestConfig;
+
+    public PooledClientHttpRequestFactory(int maxTotal, int maxPerRoute, long idleTimeout, int validateAfterInactivity) {
+        this(maxTotal, maxPerRoute, idleTimeout, validateAfterInactivity, 0);
+    }
+
+    public PooledClientHttpRequestFactory(int maxTotal, int maxPerRoute, long idleTimeout, int validateAfterInactivity,
+                                          int compressThreshold) {
+        this(maxTotal, maxPerRoute, idleTimeout, validateAfterInactivity, compressThreshold,
+                RequestConfigHolder.DEFAULT_CONNECT_TIMEOUT, RequestConfigHolder.DEFAULT_CONNECTION_REQUEST_TIMEOUT);
+    }
+
+    public PooledClientHttpRequestFactory(int maxTotal, int maxPerRoute, long idleTimeout, int validateAfterInactivity,
+                                          int compressThreshold, int connectTimeout, int connectionRequestTimeout) {
+        this(createConnectionManager(maxTotal, maxPerRoute, validateAfterInactivity), idleTimeout, compressThreshold,
+                RequestConfigHolder.createDefault(connectTimeout, connectionRequestTimeout));
+    }
+
+    private PooledClientHttpRequestFactory(PoolingHttpClientConnectionManager connectionManager, long idleTimeout,
+                                           int compressThreshold, RequestConfig defaultRequestConfig) {
+        super(HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(defaultRequestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout, TimeUnit.MILLISECONDS)
+                .addInterceptorFirst(new GzipRequestInterceptor(compressThreshold))
+                .build());
+        this.connectionManager = connectionManager;
+        this.defaultRequestConfig = defaultRequestConfig;
+    }
+
+    private static PoolingHttpClientConnectionManager createConnectionManager(int maxTotal, int maxPerRoute,
+                                                                              int validateAfterInactivity) {
+        PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager();
+        manager.setMaxTotal(maxTotal);
+        manager.setDefaultMaxPerRoute(maxPerRoute);
+        manager.setValidateAfterInactivity(validateAfterInactivity);
+        return manager;
+    }
+
+    /**
+     * 使用{@link RestServiceTemplate}按本次调用设置的超时
+     */
+    @Override
+    protected HttpContext createHttpContext(HttpMethod httpMethod, URI uri) {
+        return RequestConfigHolder.createContext(defaultRequestConfig);
+    }
+
+    /**
+     * 登记创建的请求，整个调用的截止时间到达时由{@link RestServiceTemplate}中止
+     */
+    @Override
+    protected void postProcessHttpRequest(HttpUriRequest request) {
+        RequestConfigHolder.register(request);
+    }
+
+    @Override
+    public PoolStats getTotalStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    @Override
+    public Map<String, PoolStats> getRouteStats() {
+        Map<String, PoolStats> stats = new LinkedHashMap<>();
+        for(HttpRoute route: connectionManager.getRoutes()) {
+            stats.put(route.getTargetHost().toURI(), connectionManager.getStats(route));
+        }
+        return stats;
+    }
+}
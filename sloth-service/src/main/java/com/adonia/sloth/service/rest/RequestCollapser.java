@@ -0,0 +1,243 @@
+package com.adonia.sloth.service.rest;
+
+import com.adonia.sloth.model.ServiceException;
+import com.adonia.sloth.service.timeout.RequestTimeout;
+import com.adonia.sloth.utils.IServiceConstant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 合并相同的并发<code>GET</code>请求(single flight)
+ *
+ * 服务名称、路径参数、请求参数及响应类型都相同的<code>GET</code>请求，在前一个请求返回之前，
+ * 后续请求不再发往服务端，而是等待并共享前一个请求的结果(包括异常，合并的请求抛出同一个异常)；
+ * 同步调用时最多等待到自身的截止时间。
+ *
+ * N.B. 合并的请求得到的是同一个响应对象，调用方不应修改；因此默认不开启，需按服务名称配置。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class RequestCollapser {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestCollapser.class);
+
+    /**
+     * 合并所有服务的<code>GET</code>请求
+     */
+    public static final String ALL_SERVICES = "*";
+
+    private final ConcurrentMap<RequestKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder collapsed = new LongAdder();
+
+    private Set<String> services = Collections.emptySet();
+
+    private boolean allServices = false;
+
+    /**
+     * 同步执行服务调用的接口
+     */
+    public interface ServiceCall<T> {
+
+        T call() throws ServiceException;
+    }
+
+    /**
+     * 是否合并该请求
+     *
+     * @param method  请求方法，只合并<code>GET</code>请求
+     * @param serviceName  服务名称
+     * @return
+     */
+    public boolean isCollapsible(HttpMethod method, String serviceName) {
+        return HttpMethod.GET == method && (allServices || services.contains(serviceName));
+    }
+
+    /**
+     * 同步调用: 已有相同的请求正在进行时，等待其结果，否则由当前线程发出请求
+     *
+     * @param key
+     * @param timeout  本次调用的超时，等待其它请求的结果时不超过其截止时间
+     * @param call
+     * @return
+     * @throws ServiceException
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(RequestKey key, RequestTimeout timeout, ServiceCall<T> call) throws ServiceException {
+        final CompletableFuture<Object> created = new CompletableFuture<>();
+        final CompletableFuture<Object> exists = inFlight.putIfAbsent(key, created);
+        if(null != exists) {
+            collapsed.increment();
+            LOGGER.debug("Collapse request {} to the in-flight one.", key);
+            return (T) await(key, exists, timeout);
+        }
+
+        // 任何异常(包括 Error)都要结束等待中的请求
+        try {
+            T result = call.call();
+            created.complete(result);
+            return result;
+        } catch (Throwable e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    /**
+     * 异步调用: 已有相同的请求正在进行时，返回其结果，否则发出请求
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(RequestKey key, Supplier<CompletableFuture<T>> call) {
+        final CompletableFuture<Object> created = new CompletableFuture<>();
+        final CompletableFuture<Object> exists = inFlight.putIfAbsent(key, created);
+        if(null != exists) {
+            collapsed.increment();
+            LOGGER.debug("Collapse request {} to the in-flight one.", key);
+            return (CompletableFuture<T>) exists.thenApply(result -> result);
+        }
+
+        final CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (Throwable e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+
+        future.whenComplete((result, e) -> {
+            inFlight.remove(key, created);
+            if(null == e) {
+                created.complete(result);
+            } else {
+                created.completeExceptionally(e);
+            }
+        });
+
+        // 各调用方得到独立的future，取消其中一个不影响其它调用方
+        return (CompletableFuture<T>) created.thenApply(result -> result);
+    }
+
+    private static Object await(RequestKey key, CompletableFuture<Object> future, RequestTimeout timeout)
+            throws ServiceException {
+        try {
+            if(null == timeout.getDeadline()) {
+                return future.get();
+            }
+            return future.get(timeout.getDeadline().remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException(e);
+        } catch (TimeoutException e) {
+            LOGGER.error("Deadline exceeded when waiting for the in-flight request {}.", key);
+            throw new ServiceException("Deadline exceeded when waiting for collapsed request " + key,
+                    IServiceConstant.SERVICE_TIMEOUT);
+        } catch (ExecutionException e) {
+            // 与发出请求的线程得到同一个异常，只包装受检异常
+            Throwable cause = e.getCause();
+            if(cause instanceof ServiceException) {
+                throw (ServiceException) cause;
+            }
+            if(cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if(cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ServiceException(cause);
+        }
+    }
+
+    /**
+     * @return 被合并(未发往服务端)的请求数
+     */
+    public long getCollapsedCount() {
+        return collapsed.sum();
+    }
+
+    public void setServices(String[] services) {
+        Set<String> names = new HashSet<>();
+        if(null != services) {
+            for(String service: services) {
+                if(!service.trim().isEmpty()) {
+                    names.add(service.trim());
+                }
+            }
+        }
+
+        this.allServices = names.contains(ALL_SERVICES);
+        this.services = names;
+    }
+
+    /**
+     * 请求的标识: 服务名称、路径参数、请求参数及响应类型
+     */
+    public static final class RequestKey {
+
+        private final String serviceName;
+
+        private final String pathVariable;
+
+        private final Map<String, ?> params;
+
+        private final Class<?> responseType;
+
+        private final int hash;
+
+        public RequestKey(String serviceName, Map<String, ?> params, String pathVariable, Class<?> responseType) {
+            this.serviceName = serviceName;
+            this.pathVariable = pathVariable;
+            this.params = (null == params || params.isEmpty()) ? Collections.<String, Object>emptyMap()
+                    : new HashMap<>(params);
+            this.responseType = responseType;
+            this.hash = Objects.hash(serviceName, pathVariable, this.params, responseType);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) {
+                return true;
+            }
+            if(!(o instanceof RequestKey)) {
+                return false;
+            }
+
+            RequestKey other = (RequestKey) o;
+            return hash == other.hash
+                    && serviceName.equals(other.serviceName)
+                    && Objects.equals(pathVariable, other.pathVariable)
+                    && params.equals(other.params)
+                    && Objects.equals(responseType, other.responseType);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return serviceName + (null == pathVariable ? "" : "/" + pathVariable) + params + " -> "
+                    + (null == responseType ? null : responseType.getName());
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.adonia.sloth.service.rest;
+
+import com.adonia.sloth.service.timeout.RequestTimeout;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.HttpContext;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 当前线程发出的请求的超时
+ *
+ * {@link RestServiceTemplate}发出请求前按本次调用剩余的时间设置，连接池的请求工厂创建请求时读取，
+ * 在请求工厂的默认配置上覆盖本次调用指定的超时；没有设置或超时均未指定时直接使用请求工厂的默认配置。
+ *
+ * 超时只限制建立连接和两次读取之间的时间，因此有截止时间时还通过{@link #abortAtDeadline(RequestTimeout, ScheduledExecutorService)}
+ * 在截止时间到达时中止请求，保证单次请求不超过整个调用剩余的时间。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+final class RequestConfigHolder {
+
+    /**
+     * 请求工厂默认的建立连接超时，单位毫秒
+     */
+    static final int DEFAULT_CONNECT_TIMEOUT = 3000;
+
+    /**
+     * 请求工厂默认的从连接池获取连接的超时，单位毫秒
+     */
+    static final int DEFAULT_CONNECTION_REQUEST_TIMEOUT = 1000;
+
+    private static final ThreadLocal<RequestConfig> CONFIG = new ThreadLocal<>();
+
+    private static final ThreadLocal<Abort> ABORT = new ThreadLocal<>();
+
+    private RequestConfigHolder() {
+    }
+
+    /**
+     * 请求工厂的默认配置
+     *
+     * @param connectTimeout  建立连接的超时，单位毫秒，0 表示不限制
+     * @param connectionRequestTimeout  从连接池获取连接的超时，单位毫秒，0 表示不限制
+     * @return
+     */
+    static RequestConfig createDefault(int connectTimeout, int connectionRequestTimeout) {
+        return RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setConnectionRequestTimeout(connectionRequestTimeout)
+                .build();
+    }
+
+    /**
+     * 设置当前线程发出的请求的超时，只记录本次调用指定的超时，创建请求时再与请求工厂的默认配置合并
+     *
+     * @param timeout
+     * @return 之前的配置，发出请求后通过{@link #reset(RequestConfig)}恢复
+     */
+    static RequestConfig set(RequestTimeout timeout) {
+        final RequestConfig previous = CONFIG.get();
+        final int connectTimeout = timeout.getConnectTimeout();
+        final int readTimeout = timeout.getReadTimeout();
+        if(0 == connectTimeout && 0 == readTimeout) {
+            CONFIG.remove();
+        } else {
+            // 未指定的超时保持为 -1，由默认配置决定
+            CONFIG.set(RequestConfig.custom()
+                    .setConnectTimeout(connectTimeout > 0 ? connectTimeout : -1)
+                    .setConnectionRequestTimeout(connectTimeout > 0 ? connectTimeout : -1)
+                    .setSocketTimeout(readTimeout > 0 ? readTimeout : -1)
+                    .build());
+        }
+        return previous;
+    }
+
+    /**
+     * 在截止时间到达时中止当前线程接下来创建的请求，需在{@link #set(RequestTimeout)}之后、创建请求之前调用
+     *
+     * @param timeout
+     * @param scheduler
+     * @return 请求结束后需取消；没有截止时间时返回<code>null</code>
+     */
+    static ScheduledFuture<?> abortAtDeadline(RequestTimeout timeout, ScheduledExecutorService scheduler) {
+        if(null == timeout.getDeadline()) {
+            return null;
+        }
+
+        final Abort abort = track();
+        return scheduler.schedule(abort, timeout.getDeadline().remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录当前线程接下来创建的请求，返回的{@link Abort}可随时中止该请求，需在创建请求之前调用
+     *
+     * @return
+     */
+    static Abort track() {
+        Abort abort = ABORT.get();
+        if(null == abort) {
+            abort = new Abort();
+            ABORT.set(abort);
+        }
+        return abort;
+    }
+
+    /**
+     * 连接池的请求工厂创建请求后登记，截止时间已到时立即中止
+     *
+     * @param request
+     */
+    static void register(HttpUriRequest request) {
+        final Abort abort = ABORT.get();
+        if(null != abort) {
+            abort.setRequest(request);
+        }
+    }
+
+    static void reset(RequestConfig previous) {
+        ABORT.remove();
+        if(null == previous) {
+            CONFIG.remove();
+        } else {
+            CONFIG.set(previous);
+        }
+    }
+
+    /**
+     * @param defaults  请求工厂的默认配置
+     * @return 没有设置时返回<code>null</code>，使用请求工厂的默认配置
+     */
+    static HttpContext createContext(RequestConfig defaults) {
+        final RequestConfig config = CONFIG.get();
+        if(null == config) {
+            return null;
+        }
+
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(merge(defaults, config));
+        return context;
+    }
+
+    // 在默认配置上覆盖指定了的超时，获取连接的超时只会缩短
+    static RequestConfig merge(RequestConfig defaults, RequestConfig config) {
+        final RequestConfig.Builder builder = RequestConfig.copy(defaults);
+        if(config.getConnectTimeout() > 0) {
+            builder.setConnectTimeout(config.getConnectTimeout());
+        }
+        if(config.getConnectionRequestTimeout() > 0 && (defaults.getConnectionRequestTimeout() <= 0
+                || config.getConnectionRequestTimeout() < defaults.getConnectionRequestTimeout())) {
+            builder.setConnectionRequestTimeout(config.getConnectionRequestTimeout());
+        }
+        if(config.getSocketTimeout() > 0) {
+            builder.setSocketTimeout(config.getSocketTimeout());
+        }
+        return builder.build();
+    }
+
+    /**
+     * 中止登记的请求，请求登记前已到期时在登记时中止
+     */
+    static final class Abort implements Runnable {
+
+        private HttpUriRequest request;
+
+        private boolean aborted;
+
+        synchronized void setRequest(HttpUriRequest request) {
+            this.request = request;
+            if(aborted) {
+                request.abort();
+            }
+        }
+
+        @Override
+        public synchronized void run() {
+            aborted = true;
+            if(null != request) {
+                request.abort();
+            }
+        }
+    }
+}
@@ -1,26 +1,80 @@
 package com.adonia.sloth.service.rest;
 
+import com.adonia.sloth.codec.CodecRegistry;
+import com.adonia.sloth.codec.ICodec;
+import com.adonia.sloth.metrics.RequestTimingInterceptor;
+import com.adonia.sloth.metrics.ServiceMetricsRegistry;
 import com.adonia.sloth.model.InstanceDetail;
 import com.adonia.sloth.model.ServiceException;
 import com.adonia.sloth.service.IServiceFinder;
+import com.adonia.sloth.service.balance.InstanceStats;
+import com.adonia.sloth.service.balance.InstanceStatsRegistry;
+import com.adonia.sloth.service.cache.ResponseCache;
+import com.adonia.sloth.service.cache.ResponseCacheInterceptor;
+import com.adonia.sloth.service.local.LocalService;
+import com.adonia.sloth.service.local.LocalServiceRegistry;
 import com.adonia.sloth.service.IServiceTemplate;
+import com.adonia.sloth.service.retry.HedgePolicy;
+import com.adonia.sloth.service.rest.RequestCollapser.RequestKey;
+import com.adonia.sloth.service.retry.RetryPolicy;
+import com.adonia.sloth.service.scatter.ScatterPolicy;
+import com.adonia.sloth.service.scatter.ScatterResult;
+import com.adonia.sloth.service.timeout.RequestTimeout;
+import com.adonia.sloth.service.timeout.TimeoutPolicy;
 import com.adonia.sloth.utils.IServiceConstant;
-import org.apache.commons.collections4.MapUtils;
-import org.apache.commons.lang.StringUtils;
+import com.adonia.sloth.utils.RequestUriBuilder;
+import org.apache.curator.utils.ThreadUtils;
+import org.apache.http.client.config.RequestConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.stereotype.Service;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseErrorHandler;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.AsyncRestTemplate;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * 使用RestTemplate实现服务调用
  *
+ * 调用的服务注册在本进程中且开启了进程内调用时，直接调用{@link LocalService}。
+ *
  * @author loulou.liu
  * @create 2016/8/16
  */
@@ -29,13 +83,64 @@ public class RestServiceTemplate implements IServiceTemplate {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RestServiceTemplate.class);
 
+    @Resource(name = "slothRestTemplate")
     private RestTemplate template;
 
+    @Resource(name = "slothAsyncRestTemplate")
+    private AsyncRestTemplate asyncTemplate;
+
+    /**
+     * 流式读取响应时直接使用连接池，不经过 RestTemplate 的拦截器(响应缓存会整体读取响应体)
+     */
+    @Resource(name = "slothRequestFactory")
+    private ClientHttpRequestFactory requestFactory;
+
     @Autowired
     private IServiceFinder serviceFinder;
 
-    public RestServiceTemplate() throws ServiceException {
-        this.template = new RestTemplate();
+    @Autowired
+    private InstanceStatsRegistry statsRegistry;
+
+    @Autowired
+    private ServiceMetricsRegistry metricsRegistry;
+
+    @Autowired
+    private RetryPolicy retryPolicy;
+
+    @Autowired
+    private HedgePolicy hedgePolicy;
+
+    @Autowired
+    private RequestCollapser requestCollapser;
+
+    @Autowired
+    private CodecRegistry codecRegistry;
+
+    @Autowired
+    private LocalServiceRegistry localServiceRegistry;
+
+    @Autowired
+    private TimeoutPolicy timeoutPolicy;
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    /**
+     * scatter-gather 中单个实例的超时、整个调用的截止时间控制
+     */
+    private final ScheduledExecutorService timeoutScheduler = ThreadUtils.newSingleThreadScheduledExecutor(
+            "SlothScatterTimeout");
+
+    @PostConstruct
+    public void init() {
+        // AsyncRestTemplate 与 slothRestTemplate 共用 converters
+        codecRegistry.registerConverters(template);
+        responseCache.registerInterceptor(template);
+    }
+
+    @PreDestroy
+    public void close() {
+        timeoutScheduler.shutdownNow();
     }
 
     /**
@@ -77,32 +182,13 @@ public class RestServiceTemplate implements IServiceTemplate {
      */
     @Override
     public <T> T get(String serviceName, Map<String, ?> params, String pathVariable, Class<T> responseType) throws ServiceException {
-        InstanceDetail instance = this.serviceFinder.findService(serviceName);
-        if(null == instance) {
-            throw new ServiceException("Service Not Found!", IServiceConstant.SERVICE_NOT_FOUND);
+        if(requestCollapser.isCollapsible(HttpMethod.GET, serviceName)) {
+            return requestCollapser.execute(new RequestKey(serviceName, params, pathVariable, responseType),
+                    timeoutPolicy.resolve(serviceName),
+                    () -> exchange(HttpMethod.GET, serviceName, null, params, pathVariable, responseType));
         }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Accept", MediaType.APPLICATION_JSON_VALUE);
-        HttpEntity entry = new HttpEntity(headers);
-
-        String requestUri = instance.getRequestUrl();
-        requestUri = fetchRequestUri(requestUri, params, pathVariable);
-
-        LOGGER.info("SlothRequest method: GET, service name: {}, request uri: {}", serviceName, requestUri);
-        ResponseEntity<T> response;
-        try {
-            response = this.template.exchange(requestUri, HttpMethod.GET, entry, responseType);
-        } catch (RestClientException e) {
-            LOGGER.error("Exception happens, request method: GET, service name: {}, request uri: {}", serviceName, requestUri, e);
-            throw new ServiceException(e.getMessage(), IServiceConstant.SERVICE_INTERNAL_ERROR);
-        }
-
-        if(null != response) {
-            return response.getBody();
-        }
-
-        return null;
+        return exchange(HttpMethod.GET, serviceName, null, params, pathVariable, responseType);
     }
 
     /**
@@ -160,25 +246,189 @@ public class RestServiceTemplate implements IServiceTemplate {
      */
     @Override
     public <T> T post(String serviceName, Object body, Map<String, ?> params, String pathVariable, Class<T> responseType) throws ServiceException {
-        InstanceDetail instance = this.serviceFinder.findService(serviceName);
+        return exchange(HttpMethod.POST, serviceName, body, params, pathVariable, responseType);
+    }
+
+    /**
+     * 使用<code>GET</code>方法请求服务，边读边解析响应中的数组元素
+     *
+     * @param serviceName  服务标志名
+     * @param elementType  元素类型
+     * @return
+     * @throws ServiceException
+     */
+    @Override
+    public <T> Stream<T> stream(String serviceName, Class<T> elementType) throws ServiceException {
+        return stream(serviceName, null, null, elementType);
+    }
+
+    /**
+     * 使用<code>GET</code>方法请求服务，边读边解析响应中的数组元素
+     *
+     * 只在收到响应头之前失败时重试；解析元素时的异常以{@link RuntimeException}抛出。
+     *
+     * @param serviceName  服务标志名
+     * @param params       参数列表
+     * @param pathVariable 路径参数
+     * @param elementType  元素类型
+     * @return
+     * @throws ServiceException
+     */
+    @Override
+    public <T> Stream<T> stream(String serviceName, Map<String, ?> params, String pathVariable, Class<T> elementType)
+            throws ServiceException {
+        final LocalService local = localServiceRegistry.find(serviceName, HttpMethod.GET);
+        if(null != local) {
+            return invokeLocal(serviceName, () -> local.stream(params, pathVariable, elementType));
+        }
+
+        final RequestTimeout timeout = resolveTimeout(serviceName);
+        return invoke(HttpMethod.GET, serviceName, timeout, (instance, start, lookup) ->
+                openStream(serviceName, instance, params, pathVariable, elementType, timeout, start, lookup));
+    }
+
+    // 同步请求服务
+    private <T> T exchange(HttpMethod method, String serviceName, Object body, Map<String, ?> params, String pathVariable,
+                           Class<T> responseType) throws ServiceException {
+        final LocalService local = localServiceRegistry.find(serviceName, method);
+        if(null != local) {
+            return invokeLocal(serviceName, () -> local.invoke(params, pathVariable, body, responseType));
+        }
+
+        final RequestTimeout timeout = resolveTimeout(serviceName);
+        final boolean hedged = hedgePolicy.onRequest(method, serviceName);
+        return invoke(method, serviceName, timeout, (instance, start, lookup) -> hedged
+                ? executeHedged(serviceName, instance, params, pathVariable, responseType, timeout, start, lookup)
+                : execute(method, serviceName, instance, body, params, pathVariable, responseType, timeout, start,
+                        lookup));
+    }
+
+    // 直接调用本进程中的服务，不查找服务实例，也不重试
+    private <T> T invokeLocal(String serviceName, LocalCall<T> call) throws ServiceException {
+        final long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = call.call();
+            success = true;
+            return result;
+        } finally {
+            metricsRegistry.record(serviceName, null, 0L, -1L, -1L, System.nanoTime() - start, success);
+        }
+    }
+
+    // 确定本次调用的超时，截止时间已过时不再发出请求
+    private RequestTimeout resolveTimeout(String serviceName) throws ServiceException {
+        final RequestTimeout timeout = timeoutPolicy.resolve(serviceName);
+        if(timeout.isExpired()) {
+            metricsRegistry.record(serviceName, null, 0L, -1L, -1L, 0L, false);
+            throw new ServiceException("Deadline exceeded before requesting service " + serviceName,
+                    IServiceConstant.SERVICE_TIMEOUT);
+        }
+        return timeout;
+    }
+
+    // 查找服务实例并发出请求，失败时按重试策略换一个实例重试
+    private <T> T invoke(HttpMethod method, String serviceName, RequestTimeout timeout, InstanceCall<T> call)
+            throws ServiceException {
+        retryPolicy.onRequest();
+
+        long start = System.nanoTime();
+        InstanceDetail instance;
+        try {
+            instance = this.serviceFinder.findService(serviceName);
+        } catch (ServiceException e) {
+            final long elapsed = System.nanoTime() - start;
+            metricsRegistry.record(serviceName, null, elapsed, -1L, -1L, elapsed, false);
+            throw e;
+        }
+
+        long lookup = System.nanoTime() - start;
         if(null == instance) {
-            throw new ServiceException("Service Not Found!", 404);
+            metricsRegistry.record(serviceName, null, lookup, -1L, -1L, lookup, false);
+            throw new ServiceException("Service Not Found!", IServiceConstant.SERVICE_NOT_FOUND);
         }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Accept", MediaType.APPLICATION_JSON_VALUE);
-        HttpEntity entry = (null == body) ? new HttpEntity(headers) : new HttpEntity(body, headers);
+        List<InstanceDetail> tried = null;
+        for(int retries = 0; ; retries++) {
+            try {
+                return call.call(instance, start, lookup);
+            } catch (RestClientException e) {
+                if(null == tried) {
+                    tried = new ArrayList<>(2);
+                }
+                tried.add(instance);
+
+                start = System.nanoTime();
+                final long backoff = retryPolicy.backoff(retries);
+                InstanceDetail next = findRetryInstance(method, serviceName, tried, e, retries, timeout, backoff);
+                lookup = System.nanoTime() - start;
+                if(null == next) {
+                    LOGGER.error("Exception happens, request method: {}, service name: {}, request instance: {}",
+                            method, serviceName, instance.getListenAddress(), e);
+                    throw failure(serviceName, e, timeout);
+                }
 
-        String requestUri = instance.getRequestUrl();
-        requestUri = fetchRequestUri(requestUri, params, pathVariable);
+                LOGGER.warn("Request of service {} failed on {}, retry on {}: {}", serviceName,
+                        instance.getListenAddress(), next.getListenAddress(), e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new ServiceException(ie);
+                }
 
-        LOGGER.info("SlothRequest method: POST, service name: {}, request uri: {}", serviceName, requestUri);
+                start = System.nanoTime() - lookup;
+                instance = next;
+            }
+        }
+    }
+
+    // 向选定的服务实例发出一次请求，并记录服务查找、请求、响应解析各阶段的耗时
+    private <T> T execute(HttpMethod method, String serviceName, InstanceDetail instance, Object body,
+                          Map<String, ?> params, String pathVariable, Class<T> responseType, RequestTimeout timeout,
+                          long start, long lookup) {
+        HttpEntity<?> entry = createEntity(serviceName, instance, body, timeout);
+
+        URI requestUri = fetchRequestUri(instance, params, pathVariable);
+
+        LOGGER.debug("SlothRequest method: {}, service name: {}, request uri: {}", method, serviceName, requestUri);
         ResponseEntity<T> response;
+        boolean success = false;
+        boolean available = false;
+        InstanceStats stats = statsRegistry.getStats(instance);
+        final boolean probe = stats.onRequestStart();
+        RequestTimingInterceptor.reset();
+        ResponseCacheInterceptor.reset();
+        final RequestConfig previous = RequestConfigHolder.set(timeout);
+        final ScheduledFuture<?> abort = RequestConfigHolder.abortAtDeadline(timeout, timeoutScheduler);
+        final long requestStart = System.nanoTime();
         try {
-            response = this.template.exchange(requestUri, HttpMethod.POST, entry, responseType);
+            response = this.template.exchange(requestUri, method, entry, responseType);
+            success = true;
+            available = true;
         } catch (RestClientException e) {
-            LOGGER.error("Exception happens, request method: POST, service name: {}, request uri: {}", serviceName, requestUri, e);
-            throw new ServiceException(e.getMessage(), IServiceConstant.SERVICE_INTERNAL_ERROR);
+            available = isAvailable(e);
+            throw e;
+        } catch (HttpMessageNotReadableException e) {
+            // 读取响应体时到达截止时间被中止，与其它I/O错误一样处理
+            if(timeout.isExpired()) {
+                throw new RestClientException("Deadline exceeded when reading response of " + requestUri, e);
+            }
+            throw e;
+        } finally {
+            cancel(abort);
+            RequestConfigHolder.reset(previous);
+            if(ResponseCacheInterceptor.isHit()) {
+                // 由本地缓存返回，没有请求服务实例，不计入实例和服务的调用统计
+                stats.onRequestSkipped(probe);
+            } else {
+                stats.onRequestComplete(available, System.nanoTime() - requestStart, probe);
+
+                final long total = System.nanoTime() - start;
+                final long request = RequestTimingInterceptor.elapsed();
+                final long decode = (request < 0) ? -1L : Math.max(total - lookup - request, 0L);
+                metricsRegistry.record(serviceName, instance, lookup, request, decode, total, success);
+            }
         }
 
         if(null != response) {
@@ -188,31 +438,829 @@ public class RestServiceTemplate implements IServiceTemplate {
         return null;
     }
 
+    // 收到响应头后返回，响应体由返回的 Stream 边读边解析，读完或关闭 Stream 时释放连接；
+    // 截止时间只限制到收到响应头为止，之后读取响应体只受读取超时的限制
+    private <T> Stream<T> openStream(String serviceName, InstanceDetail instance, Map<String, ?> params,
+                                     String pathVariable, Class<T> elementType, RequestTimeout timeout, long start,
+                                     long lookup) {
+        URI requestUri = fetchRequestUri(instance, params, pathVariable);
+
+        LOGGER.debug("SlothRequest method: GET, service name: {}, request uri: {}", serviceName, requestUri);
+        ClientHttpResponse response = null;
+        boolean success = false;
+        boolean available = false;
+        InstanceStats stats = statsRegistry.getStats(instance);
+        final boolean probe = stats.onRequestStart();
+        final long requestStart = System.nanoTime();
+        ScheduledFuture<?> abort = null;
+        try {
+            ClientHttpRequest request;
+            final RequestConfigHolder.Abort connection;
+            final RequestConfig previous = RequestConfigHolder.set(timeout);
+            try {
+                connection = RequestConfigHolder.track();
+                abort = RequestConfigHolder.abortAtDeadline(timeout, timeoutScheduler);
+                request = this.requestFactory.createRequest(requestUri, HttpMethod.GET);
+            } finally {
+                RequestConfigHolder.reset(previous);
+            }
+            request.getHeaders().putAll(createEntity(serviceName, instance, null, timeout).getHeaders());
+            response = request.execute();
+
+            ResponseErrorHandler errorHandler = this.template.getErrorHandler();
+            if(errorHandler.hasError(response)) {
+                errorHandler.handleError(response);
+            }
+            available = true;
+
+            ICodec codec = codecRegistry.getCodec(response.getHeaders().getContentType());
+            final InputStream body = response.getBody();
+            Iterator<T> elements = codec.readValues(elementType, body);
+            success = true;
+
+            final ClientHttpResponse opened = response;
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(elements, Spliterator.ORDERED), false)
+                    .onClose(() -> closeStream(opened, connection));
+        } catch (RestClientException e) {
+            available = available || isAvailable(e);
+            throw e;
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on GET request for \"" + requestUri + "\": "
+                    + e.getMessage(), e);
+        } finally {
+            cancel(abort);
+            final long request = System.nanoTime() - requestStart;
+            stats.onRequestComplete(available, request, probe);
+            metricsRegistry.record(serviceName, instance, lookup, request, -1L, System.nanoTime() - start, success);
+
+            if(!success && null != response) {
+                response.close();
+            }
+        }
+    }
+
+    /**
+     * 未读完就关闭时中止请求、直接断开连接，否则关闭响应会读完剩余的响应体；读完的连接已归还连接池，中止不再生效
+     *
+     * N.B. 中止的是请求而不是响应体: 压缩的响应体由 HttpClient 自动解压，包装后的流不能断开连接
+     */
+    private static void closeStream(ClientHttpResponse response, RequestConfigHolder.Abort connection) {
+        connection.run();
+        response.close();
+    }
+
+    /**
+     * 对冲请求: 在对冲延迟内未返回时，向另一个实例发出相同的<code>GET</code>请求，取先成功返回的结果并取消另一个
+     *
+     * N.B. 两个请求都失败时，抛出先失败的请求的异常
+     */
+    private <T> T executeHedged(String serviceName, InstanceDetail instance, Map<String, ?> params,
+                                String pathVariable, Class<T> responseType, RequestTimeout timeout, long start,
+                                long lookup) throws ServiceException {
+        final long delay = hedgePolicy.getDelay(serviceName);
+        if(delay < 0L) {
+            // 样本不足时不对冲，只记录耗时
+            final long requestStart = System.nanoTime();
+            final T result = execute(HttpMethod.GET, serviceName, instance, null, params, pathVariable, responseType,
+                    timeout, start, lookup);
+            if(!ResponseCacheInterceptor.isHit()) {
+                hedgePolicy.record(serviceName, System.nanoTime() - requestStart);
+            }
+            return result;
+        }
+
+        final CompletableFuture<HedgedRequest<T>> winner = new CompletableFuture<>();
+        final AtomicInteger pending = new AtomicInteger(1);
+        HedgedRequest<T> primary = new HedgedRequest<>(instance, winner, pending);
+        HedgedRequest<T> secondary = null;
+        boolean success = false;
+        try {
+            primary.send(serviceName, params, pathVariable, responseType, timeout);
+
+            HedgedRequest<T> result;
+            try {
+                final long remaining = timeout.getRemaining();
+                result = winner.get((remaining < 0L) ? delay : Math.min(delay, Math.max(remaining, 1L)),
+                        TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if(timeout.isExpired()) {
+                    throw e;
+                }
+                // 查找实例会推进轮询等负载均衡的状态，预算已耗尽时不查找
+                InstanceDetail other = hedgePolicy.hasBudget()
+                        ? findHedgeInstance(serviceName, instance) : null;
+                // 先计入对冲请求，首个请求已经失败(winner 已结束)时不再对冲；取不到预算时撤回
+                if(null != other && retain(pending)) {
+                    if(hedgePolicy.tryAcquire()) {
+                        LOGGER.debug("No response of service {} from {} within {}ms, hedge to {}.", serviceName,
+                                instance.getListenAddress(), delay, other.getListenAddress());
+                        secondary = new HedgedRequest<>(other, winner, pending);
+                        secondary.send(serviceName, params, pathVariable, responseType, timeout);
+                    } else {
+                        primary.release();
+                    }
+                }
+                // 截止时间到达时结束等待，未完成的请求在 finally 中取消
+                final long remaining = timeout.getRemaining();
+                result = (remaining < 0L) ? winner.get() : winner.get(Math.max(remaining, 1L), TimeUnit.MILLISECONDS);
+            }
+
+            success = true;
+            metricsRegistry.record(serviceName, result.instance, lookup, -1L, -1L, System.nanoTime() - start, true);
+            // 对冲请求先返回时，首个请求的耗时至少为已等待的时间
+            hedgePolicy.record(serviceName, System.nanoTime() - primary.requestStart);
+            ResponseEntity<T> response = result.future.get();
+            return (null == response) ? null : response.getBody();
+        } catch (TimeoutException e) {
+            throw new ServiceException("Deadline exceeded when requesting service " + serviceName,
+                    IServiceConstant.SERVICE_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw (cause instanceof RestClientException) ? (RestClientException) cause
+                    : new RestClientException(cause.getMessage(), cause);
+        } finally {
+            if(!success) {
+                metricsRegistry.record(serviceName, instance, lookup, -1L, -1L, System.nanoTime() - start, false);
+            }
+            primary.cancel();
+            if(null != secondary) {
+                secondary.cancel();
+            }
+        }
+    }
+
+    // 未结束的请求数大于 0 时加一
+    private static boolean retain(AtomicInteger pending) {
+        for(;;) {
+            final int current = pending.get();
+            if(current <= 0) {
+                return false;
+            }
+            if(pending.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private InstanceDetail findHedgeInstance(String serviceName, InstanceDetail instance) {
+        try {
+            return this.serviceFinder.findService(serviceName, Collections.singletonList(instance));
+        } catch (ServiceException e) {
+            LOGGER.warn("Failed to find another instance of service {} to hedge.", serviceName, e);
+            return null;
+        }
+    }
+
+    /**
+     * 请求失败后，查找用于重试的服务实例
+     *
+     * @param tried  已经请求失败的实例
+     * @param backoff  重试前等待的时间，单位毫秒
+     * @return 不可重试、等待后已过截止时间、没有其它实例或重试预算不足时返回<code>null</code>
+     */
+    private InstanceDetail findRetryInstance(HttpMethod method, String serviceName, List<InstanceDetail> tried,
+                                             Throwable e, int retries, RequestTimeout timeout, long backoff) {
+        if(!isRetryable(method, e, retries, timeout, backoff)) {
+            return null;
+        }
+
+        InstanceDetail next;
+        try {
+            next = this.serviceFinder.findService(serviceName, tried);
+        } catch (ServiceException se) {
+            LOGGER.warn("Failed to find another instance of service {} to retry.", serviceName, se);
+            return null;
+        }
+
+        return (null != next && retryPolicy.tryAcquire()) ? next : null;
+    }
+
+    /**
+     * 异步请求失败后，查找用于重试的服务实例；失败回调在I/O线程中执行，因此使用异步查找，不阻塞I/O线程
+     *
+     * @return 结果为<code>null</code>的情况同{@link #findRetryInstance}
+     */
+    private CompletableFuture<InstanceDetail> findRetryInstanceAsync(HttpMethod method, String serviceName,
+                                                                     List<InstanceDetail> tried, Throwable e,
+                                                                     int retries, RequestTimeout timeout,
+                                                                     long backoff) {
+        if(!isRetryable(method, e, retries, timeout, backoff)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return this.serviceFinder.findServiceAsync(serviceName, tried).handle((next, se) -> {
+            if(null != se) {
+                LOGGER.warn("Failed to find another instance of service {} to retry.", serviceName, se);
+                return null;
+            }
+            return (null != next && retryPolicy.tryAcquire()) ? next : null;
+        });
+    }
+
+    // 等待后未过截止时间，且按重试策略可以重试
+    private boolean isRetryable(HttpMethod method, Throwable e, int retries, RequestTimeout timeout, long backoff) {
+        return !timeout.isExpiredAfter(backoff) && retryPolicy.isRetryable(method, e, retries);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(String serviceName, Class<T> responseType) {
+        return getAsync(serviceName, null, responseType);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(String serviceName, Map<String, ?> params, Class<T> responseType) {
+        return getAsync(serviceName, params, null, responseType);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> getAsync(String serviceName, Map<String, ?> params, String pathVariable,
+                                             Class<T> responseType) {
+        if(requestCollapser.isCollapsible(HttpMethod.GET, serviceName)) {
+            return requestCollapser.executeAsync(new RequestKey(serviceName, params, pathVariable, responseType),
+                    () -> exchangeAsync(HttpMethod.GET, serviceName, null, params, pathVariable, responseType));
+        }
+
+        return exchangeAsync(HttpMethod.GET, serviceName, null, params, pathVariable, responseType);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> postAsync(String serviceName, Object body, Class<T> responseType) {
+        return postAsync(serviceName, body, null, null, responseType);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> postAsync(String serviceName, Object body, Map<String, ?> params, String pathVariable,
+                                              Class<T> responseType) {
+        return exchangeAsync(HttpMethod.POST, serviceName, body, params, pathVariable, responseType);
+    }
+
+    // 异步请求服务: 服务查找完成后发出请求，响应在I/O线程中解析，全程不阻塞调用线程
+    private <T> CompletableFuture<T> exchangeAsync(final HttpMethod method, final String serviceName, final Object body,
+                                                   final Map<String, ?> params, final String pathVariable,
+                                                   final Class<T> responseType) {
+        final LocalService local = localServiceRegistry.find(serviceName, method);
+        if(null != local) {
+            // 在调用线程中执行
+            final CompletableFuture<T> future = new CompletableFuture<>();
+            try {
+                future.complete(invokeLocal(serviceName, () -> local.invoke(params, pathVariable, body, responseType)));
+            } catch (ServiceException e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+
+        final RequestTimeout timeout;
+        try {
+            timeout = resolveTimeout(serviceName);
+        } catch (ServiceException e) {
+            final CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        retryPolicy.onRequest();
+
+        final long start = System.nanoTime();
+        return this.serviceFinder.findServiceAsync(serviceName).thenCompose(instance -> {
+            final long lookup = System.nanoTime() - start;
+            if(null == instance) {
+                metricsRegistry.record(serviceName, null, lookup, -1L, -1L, lookup, false);
+                throw new CompletionException(new ServiceException("Service Not Found!", IServiceConstant.SERVICE_NOT_FOUND));
+            }
+
+            final CompletableFuture<T> future = new CompletableFuture<>();
+            executeAsync(method, serviceName, instance, body, params, pathVariable, responseType, timeout, start,
+                    lookup, 0, null, future);
+            return future;
+        });
+    }
+
+    // 向选定的服务实例异步发出一次请求，失败时按重试策略换一个实例重试
+    private <T> void executeAsync(final HttpMethod method, final String serviceName, final InstanceDetail instance,
+                                  final Object body, final Map<String, ?> params, final String pathVariable,
+                                  final Class<T> responseType, final RequestTimeout timeout, final long start,
+                                  final long lookup, final int retries, final List<InstanceDetail> tried,
+                                  final CompletableFuture<T> future) {
+        HttpEntity<?> entry = createEntity(serviceName, instance, body, timeout);
+
+        final URI requestUri = fetchRequestUri(instance, params, pathVariable);
+
+        LOGGER.debug("SlothRequest method: {}, service name: {}, request uri: {}", method, serviceName, requestUri);
+        final InstanceStats stats = statsRegistry.getStats(instance);
+        final boolean probe = stats.onRequestStart();
+        final long requestStart = System.nanoTime();
+
+        // 截止时间到达时与回调只有一个生效
+        final AtomicBoolean completed = new AtomicBoolean();
+        final Consumer<Throwable> onFailure = e -> {
+            if(!completed.compareAndSet(false, true)) {
+                return;
+            }
+            stats.onRequestComplete(isAvailable(e), System.nanoTime() - requestStart, probe);
+            metricsRegistry.record(serviceName, instance, lookup, -1L, -1L, System.nanoTime() - start, false);
+
+            final List<InstanceDetail> failed = (null == tried) ? new ArrayList<>(2) : tried;
+            failed.add(instance);
+
+            final long retryStart = System.nanoTime();
+            final long backoff = retryPolicy.backoff(retries);
+            findRetryInstanceAsync(method, serviceName, failed, e, retries, timeout, backoff).thenAccept(next -> {
+                if(null == next) {
+                    LOGGER.error("Exception happens, request method: {}, service name: {}, request uri: {}",
+                            method, serviceName, requestUri, e);
+                    future.completeExceptionally(failure(serviceName, e, timeout));
+                    return;
+                }
+
+                LOGGER.warn("Request of service {} failed on {}, retry on {}: {}", serviceName,
+                        instance.getListenAddress(), next.getListenAddress(), e.getMessage());
+                final long retryLookup = System.nanoTime() - retryStart;
+                retryPolicy.schedule(() -> executeAsync(method, serviceName, next, body, params, pathVariable,
+                        responseType, timeout, System.nanoTime() - retryLookup, retryLookup, retries + 1, failed,
+                        future), backoff);
+            });
+        };
+
+        final ListenableFuture<ResponseEntity<T>> response;
+        final RequestConfig previous = RequestConfigHolder.set(timeout);
+        try {
+            response = this.asyncTemplate.exchange(requestUri, method, entry, responseType);
+        } catch (RestClientException e) {
+            onFailure.accept(e);
+            return;
+        } finally {
+            RequestConfigHolder.reset(previous);
+        }
+
+        // 截止时间到达时以超时结束并取消请求，取消的请求不会再回调
+        final ScheduledFuture<?> deadline = (null == timeout.getDeadline()) ? null : timeoutScheduler.schedule(() -> {
+            onFailure.accept(new ServiceException("Deadline exceeded when requesting service " + serviceName
+                    + " on " + instance.getListenAddress(), IServiceConstant.SERVICE_TIMEOUT));
+            response.cancel(true);
+        }, timeout.getDeadline().remaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        response.addCallback(
+                entity -> {
+                    cancel(deadline);
+                    if(!completed.compareAndSet(false, true)) {
+                        return;
+                    }
+                    stats.onRequestComplete(true, System.nanoTime() - requestStart, probe);
+                    metricsRegistry.record(serviceName, instance, lookup, -1L, -1L, System.nanoTime() - start, true);
+                    future.complete((null == entity) ? null : entity.getBody());
+                },
+                e -> {
+                    cancel(deadline);
+                    onFailure.accept(e);
+                });
+    }
+
+    // 不再重试时的异常，已过截止时间时为超时
+    private static ServiceException failure(String serviceName, Throwable e, RequestTimeout timeout) {
+        if(timeout.isExpired()) {
+            return new ServiceException("Deadline exceeded when requesting service " + serviceName,
+                    IServiceConstant.SERVICE_TIMEOUT);
+        }
+        return new ServiceException(e.getMessage(), IServiceConstant.SERVICE_INTERNAL_ERROR);
+    }
+
+    private static void cancel(ScheduledFuture<?> future) {
+        if(null != future) {
+            future.cancel(false);
+        }
+    }
+
+    @Override
+    public <T> ScatterResult<T> getAll(String serviceName, Map<String, ?> params, String pathVariable,
+                                       Class<T> responseType, ScatterPolicy policy) throws ServiceException {
+        return await(getAllAsync(serviceName, params, pathVariable, responseType, policy));
+    }
+
+    @Override
+    public <T> ScatterResult<T> postAll(String serviceName, Object body, Map<String, ?> params, String pathVariable,
+                                        Class<T> responseType, ScatterPolicy policy) throws ServiceException {
+        return await(postAllAsync(serviceName, body, params, pathVariable, responseType, policy));
+    }
+
+    @Override
+    public <T> CompletableFuture<ScatterResult<T>> getAllAsync(String serviceName, Map<String, ?> params,
+                                                                String pathVariable, Class<T> responseType,
+                                                                ScatterPolicy policy) {
+        return scatter(HttpMethod.GET, serviceName, null, params, pathVariable, responseType, policy);
+    }
+
+    @Override
+    public <T> CompletableFuture<ScatterResult<T>> postAllAsync(String serviceName, Object body, Map<String, ?> params,
+                                                                 String pathVariable, Class<T> responseType,
+                                                                 ScatterPolicy policy) {
+        return scatter(HttpMethod.POST, serviceName, body, params, pathVariable, responseType, policy);
+    }
+
+    // 查找服务的所有实例后，按策略同时发出请求，不重试
+    private <T> CompletableFuture<ScatterResult<T>> scatter(final HttpMethod method, final String serviceName,
+                                                            final Object body, final Map<String, ?> params,
+                                                            final String pathVariable, final Class<T> responseType,
+                                                            final ScatterPolicy policy) {
+        final CompletableFuture<ScatterResult<T>> future = new CompletableFuture<>();
+        final RequestTimeout timeout;
+        try {
+            timeout = resolveTimeout(serviceName);
+        } catch (ServiceException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        final long start = System.nanoTime();
+        this.serviceFinder.findAllServicesAsync(serviceName).whenComplete((instances, e) -> {
+            final long lookup = System.nanoTime() - start;
+            if(null != e) {
+                metricsRegistry.record(serviceName, null, lookup, -1L, -1L, lookup, false);
+                future.completeExceptionally(e);
+                return;
+            }
+
+            new ScatterRequest<>(method, serviceName, body, params, pathVariable, responseType, policy, timeout,
+                    instances, start, lookup, future).start();
+        });
+        return future;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws ServiceException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw (cause instanceof ServiceException) ? (ServiceException) cause : new ServiceException(cause);
+        }
+    }
+
+    /**
+     * 一次 scatter-gather: 按并发数上限依次向各实例发出异步请求，所有实例结束、或成功的响应达到 quorum 时返回，
+     * 并取消其余的请求
+     */
+    private final class ScatterRequest<T> {
+
+        private final HttpMethod method;
+
+        private final String serviceName;
+
+        private final Object body;
+
+        private final Map<String, ?> params;
+
+        private final String pathVariable;
+
+        private final Class<T> responseType;
+
+        private final ScatterPolicy policy;
+
+        private final RequestTimeout timeout;
+
+        private final List<InstanceDetail> instances;
+
+        private final int required;
+
+        private final long start;
+
+        private final long lookup;
+
+        private final CompletableFuture<ScatterResult<T>> future;
+
+        private final Map<InstanceDetail, T> responses = new LinkedHashMap<>();
+
+        private final Map<InstanceDetail, Throwable> failures = new LinkedHashMap<>();
+
+        private final List<Target> sent = new ArrayList<>();
+
+        private int next;
+
+        private int inFlight;
+
+        private boolean finished;
+
+        private ScatterRequest(HttpMethod method, String serviceName, Object body, Map<String, ?> params,
+                               String pathVariable, Class<T> responseType, ScatterPolicy policy,
+                               RequestTimeout timeout, List<InstanceDetail> instances, long start, long lookup,
+                               CompletableFuture<ScatterResult<T>> future) {
+            this.method = method;
+            this.serviceName = serviceName;
+            this.body = body;
+            this.params = params;
+            this.pathVariable = pathVariable;
+            this.responseType = responseType;
+            this.policy = policy;
+            this.timeout = timeout;
+            this.instances = instances;
+            this.required = policy.getRequired(instances.size());
+            this.start = start;
+            this.lookup = lookup;
+            this.future = future;
+        }
+
+        private void start() {
+            proceed();
+        }
+
+        // 结束或者在并发数上限内继续发出请求；发出、取消请求均在锁外进行，避免与连接池的锁及其回调线程相互等待
+        private void proceed() {
+            List<Target> targets = new ArrayList<>();
+            ScatterResult<T> result = null;
+            synchronized (this) {
+                if(finished) {
+                    return;
+                }
+
+                if(responses.size() >= required || responses.size() + failures.size() == instances.size()) {
+                    finished = true;
+                    targets.addAll(sent);
+                    result = new ScatterResult<>(instances, responses, failures, required);
+                } else {
+                    while(inFlight < policy.getParallelism() && next < instances.size()) {
+                        Target target = new Target(instances.get(next++));
+                        sent.add(target);
+                        inFlight++;
+                        targets.add(target);
+                    }
+                }
+            }
+
+            if(null != result) {
+                for(Target target: targets) {
+                    target.cancel();
+                }
+                future.complete(result);
+                return;
+            }
+
+            for(Target target: targets) {
+                target.send();
+            }
+        }
+
+        private void onComplete(Target target, T response, Throwable e) {
+            synchronized (this) {
+                if(finished) {
+                    return;
+                }
+
+                inFlight--;
+                if(null == e) {
+                    responses.put(target.instance, response);
+                } else {
+                    failures.put(target.instance, e);
+                }
+            }
+            proceed();
+        }
+
+        /**
+         * 发往单个实例的请求
+         */
+        private final class Target {
+
+            private final InstanceDetail instance;
+
+            private final InstanceStats stats;
+
+            private final boolean probe;
+
+            private final AtomicBoolean completed = new AtomicBoolean();
+
+            private final long requestStart;
+
+            private volatile ListenableFuture<ResponseEntity<T>> response;
+
+            private volatile ScheduledFuture<?> timeoutFuture;
+
+            private Target(InstanceDetail instance) {
+                this.instance = instance;
+                this.stats = statsRegistry.getStats(instance);
+                this.probe = this.stats.onRequestStart();
+                this.requestStart = System.nanoTime();
+            }
+
+            private void send() {
+                URI requestUri = fetchRequestUri(instance, params, pathVariable);
+                LOGGER.debug("SlothRequest method: {}, service name: {}, request uri: {}", method, serviceName, requestUri);
+
+                final RequestConfig previous = RequestConfigHolder.set(timeout);
+                try {
+                    response = asyncTemplate.exchange(requestUri, method,
+                            createEntity(serviceName, instance, body, timeout), responseType);
+                } catch (RestClientException e) {
+                    complete(null, e);
+                    return;
+                } finally {
+                    RequestConfigHolder.reset(previous);
+                }
+
+                // 发出请求时已经结束
+                if(completed.get()) {
+                    response.cancel(true);
+                    return;
+                }
+                // 单个实例的超时不超过整个调用剩余的时间
+                long instanceTimeout = policy.getTimeout();
+                final long remaining = timeout.getRemaining();
+                if(remaining >= 0L && (0L == instanceTimeout || instanceTimeout > remaining)) {
+                    instanceTimeout = Math.max(remaining, 1L);
+                }
+                if(instanceTimeout > 0L) {
+                    timeoutFuture = timeoutScheduler.schedule(this::onTimeout, instanceTimeout, TimeUnit.MILLISECONDS);
+                }
+                response.addCallback(entity -> complete((null == entity) ? null : entity.getBody(), null),
+                        e -> complete(null, e));
+            }
+
+            private void onTimeout() {
+                complete(null, new ServiceException("Timeout when requesting service " + serviceName
+                        + " on " + instance.getListenAddress(), IServiceConstant.SERVICE_TIMEOUT));
+                response.cancel(true);
+            }
+
+            private void complete(T body, Throwable e) {
+                if(!completed.compareAndSet(false, true)) {
+                    return;
+                }
+                if(null != timeoutFuture) {
+                    timeoutFuture.cancel(false);
+                }
+
+                final boolean success = (null == e);
+                stats.onRequestComplete(success || isAvailable(e), System.nanoTime() - requestStart, probe);
+                metricsRegistry.record(serviceName, instance, lookup, -1L, -1L, System.nanoTime() - start, success);
+                if(!success) {
+                    LOGGER.warn("Request of service {} failed on {}: {}", serviceName, instance.getListenAddress(),
+                            e.getMessage());
+                }
+                onComplete(this, body, e);
+            }
+
+            // 达到 quorum 后取消未完成的请求，被取消的实例不计入失败次数，也不作为探测结果
+            private void cancel() {
+                if(!completed.compareAndSet(false, true)) {
+                    return;
+                }
+                if(null != timeoutFuture) {
+                    timeoutFuture.cancel(false);
+                }
+                if(null != response) {
+                    response.cancel(true);
+                }
+                stats.onRequestComplete(true, System.nanoTime() - requestStart, false);
+            }
+        }
+    }
+
+    /**
+     * 对冲请求中发往单个实例的异步请求，先成功的请求结束 winner，全部失败时以异常结束 winner
+     */
+    private final class HedgedRequest<T> {
+
+        private final InstanceDetail instance;
+
+        private final CompletableFuture<HedgedRequest<T>> winner;
+
+        private final AtomicInteger pending;
+
+        private final InstanceStats stats;
+
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private boolean probe;
+
+        private long requestStart;
+
+        private ListenableFuture<ResponseEntity<T>> future;
+
+        private volatile Throwable failure;
+
+        private HedgedRequest(InstanceDetail instance, CompletableFuture<HedgedRequest<T>> winner, AtomicInteger pending) {
+            this.instance = instance;
+            this.winner = winner;
+            this.pending = pending;
+            this.stats = statsRegistry.getStats(instance);
+        }
+
+        private void send(String serviceName, Map<String, ?> params, String pathVariable, Class<T> responseType,
+                          RequestTimeout timeout) {
+            URI requestUri = fetchRequestUri(instance, params, pathVariable);
+            LOGGER.debug("SlothRequest method: GET, service name: {}, request uri: {}", serviceName, requestUri);
+
+            probe = stats.onRequestStart();
+            requestStart = System.nanoTime();
+            final RequestConfig previous = RequestConfigHolder.set(timeout);
+            try {
+                future = asyncTemplate.exchange(requestUri, HttpMethod.GET,
+                        createEntity(serviceName, instance, null, timeout), responseType);
+            } catch (RestClientException e) {
+                onFailure(e);
+                return;
+            } finally {
+                RequestConfigHolder.reset(previous);
+            }
+
+            future.addCallback(response -> {
+                complete(true, false);
+                winner.complete(this);
+            }, this::onFailure);
+        }
+
+        private void onFailure(Throwable e) {
+            failure = e;
+            complete(isAvailable(e), false);
+            release();
+        }
+
+        /**
+         * 减少一个未结束的请求，全部结束时以本请求的异常结束 winner；
+         * 对冲请求未能发出时由首个请求撤回已计入的数量，此时首个请求若已失败则由这里结束 winner
+         */
+        private void release() {
+            if(0 == pending.decrementAndGet()) {
+                winner.completeExceptionally(failure);
+            }
+        }
+
+        private void complete(boolean available, boolean cancelled) {
+            if(completed.compareAndSet(false, true)) {
+                stats.onRequestComplete(available, System.nanoTime() - requestStart, probe && !cancelled);
+            }
+        }
+
+        // 取消未完成的请求，被取消的请求只是较慢，不计入实例的失败次数，也不作为探测结果
+        private void cancel() {
+            if(null != future && !future.isDone()) {
+                future.cancel(true);
+                complete(true, true);
+            }
+        }
+    }
+
+    /**
+     * 按与服务实例协商的编码设置 Accept，并同时接受<code>json</code>；请求体为字符串、字节数组时不指定 Content-Type。
+     * 有截止时间时，将剩余的时间传递给服务端
+     */
+    private HttpEntity<?> createEntity(String serviceName, InstanceDetail instance, Object body, RequestTimeout timeout) {
+        final ICodec codec = codecRegistry.negotiate(instance);
+        final ICodec defaultCodec = codecRegistry.getDefaultCodec();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept((codec == defaultCodec) ? Collections.singletonList(codec.getMediaType())
+                : Arrays.asList(codec.getMediaType(), defaultCodec.getMediaType()));
+        headers.set(IServiceConstant.SERVICE_NAME_HEADER, serviceName);
+        if(null != timeout.getDeadline()) {
+            headers.set(IServiceConstant.DEADLINE_HEADER, String.valueOf(timeout.getRemaining()));
+        }
+        if(null == body) {
+            return new HttpEntity<>(headers);
+        }
+
+        if(!(body instanceof CharSequence || body instanceof byte[])) {
+            headers.setContentType(codec.getMediaType());
+        }
+        return new HttpEntity<>(body, headers);
+    }
+
+    /**
+     * 服务端返回 4xx 错误时，说明服务实例本身可以正常响应，不计入实例的失败次数
+     */
+    private static boolean isAvailable(Throwable e) {
+        return e instanceof HttpClientErrorException;
+    }
+
     /**
      * 封装请求uri
      *
-     * @param uri  基础uri，例如 http://localhost:8081/platform
+     * @param instance  服务实例，基础uri例如 http://localhost:8081/platform
      * @param params 参数列表，例如 {"id": "123456", "type": "2"}
      * @param pathVariable  路径参数，例如 shops
      * @return  http://localhost:8081/platform/shops?id=123456&type=2
      *
      */
-    private String fetchRequestUri(String uri, Map<String, ?> params, String pathVariable) {
+    private URI fetchRequestUri(InstanceDetail instance, Map<String, ?> params, String pathVariable) {
+        return URI.create(RequestUriBuilder.build(instance.encodedRequestUrl(), params, pathVariable));
+    }
 
-        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(uri);
+    /**
+     * 向选定的服务实例发出一次请求
+     */
+    private interface InstanceCall<T> {
 
-        if(StringUtils.isNotEmpty(pathVariable)) {
-            pathVariable = StringUtils.startsWith(pathVariable, IServiceConstant.URI_SPLIT_CHAR) ?
-                    pathVariable : IServiceConstant.URI_SPLIT_CHAR + pathVariable;
-            builder.path(pathVariable);
-        }
+        T call(InstanceDetail instance, long start, long lookup) throws ServiceException;
+    }
 
-        if (MapUtils.isNotEmpty(params)) {
-            for(Map.Entry<String, ?> entry: params.entrySet()) {
-                builder.queryParam(entry.getKey(), entry.getValue());
-            }
-        }
+    /**
+     * 调用本进程中的服务
+     */
+    private interface LocalCall<T> {
 
-        return builder.build().encode().toUriString();
+        T call() throws ServiceException;
     }
 }
@@ -1,22 +1,23 @@
 package com.adonia.sloth.service.rest;
 
-import com.adonia.sloth.model.InstanceDetail;
 import com.adonia.sloth.model.ServiceException;
-import com.adonia.sloth.service.IServiceFinder;
+import com.adonia.sloth.service.IServiceTemplate;
+import com.adonia.sloth.service.scatter.ScatterPolicy;
+import com.adonia.sloth.service.scatter.ScatterResult;
+import com.adonia.sloth.service.timeout.RequestTimeout;
+import com.adonia.sloth.service.timeout.TimeoutPolicy;
 import com.adonia.sloth.utils.IServiceConstant;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang.StringUtils;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * 服务调用端
@@ -34,194 +35,292 @@ import java.util.Map;
  *             .get(String.class);
  * </pre>
  *
+ * N.B. <code>namespace</code>、<code>version</code>、<code>request</code>均返回一个新的、不可变的{@link SlothCall}，
+ * 本身不保存任何请求相关的状态，可被多个线程同时使用。
+ *
  * @author loulou.liu
  * @create 2016/8/19
  */
 @Service
 public class SlothServiceTemplate {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(SlothServiceTemplate.class);
-
     @Autowired
-    private IServiceFinder serviceFinder;
+    private IServiceTemplate serviceTemplate;
 
-    // @Autowired
-    private RestTemplate restTemplate = new RestTemplate();
+    public SlothCall namespace(final String namespace) {
+        return new SlothCall(serviceTemplate, namespace, null, null);
+    }
 
-    /**
-     * 服务命名空间，可为空
-     */
-    private String namespace;
+    public SlothCall version(final String version) {
+        return new SlothCall(serviceTemplate, null, version, null);
+    }
 
-    /**
-     * 服务版本，可为空
-     */
-    private String version;
+    public SlothCall request(SlothRequest request) {
+        return new SlothCall(serviceTemplate, null, null, null).request(request);
+    }
 
     /**
-     * 服务标志名
+     * 一次服务调用，不可变
+     *
+     * 每次设置<code>namespace</code>、<code>version</code>或<code>request</code>都会返回一个新的对象；
+     * 设置<code>request</code>时，会复制其当前的参数列表，之后对{@link SlothRequest}的修改不会影响本次调用。
      */
-    private String serviceName;
+    public static final class SlothCall {
 
-    /**
-     * 请求参数列表
-     */
-    private Map<String, Object> params;
+        private final IServiceTemplate serviceTemplate;
 
-    /**
-     * 请求体,可为空
-     */
-    private Object body;
+        /**
+         * 服务命名空间，可为空
+         */
+        private final String namespace;
 
-    /**
-     * 路径参数,例如: http://127.0.0.1/8080/sloth/:id 其中的<b>id</b>
-     */
-    private String pathVariable;
+        /**
+         * 服务版本，可为空
+         */
+        private final String version;
 
-    public SlothServiceTemplate namespace(final String namespace) {
-        this.namespace = namespace;
-        return this;
-    }
+        /**
+         * 服务标志名
+         */
+        private final String serviceName;
 
-    public SlothServiceTemplate version(final String version) {
-        this.version = version;
-        return this;
-    }
+        /**
+         * 请求参数列表
+         */
+        private final Map<String, Object> params;
 
-    public SlothServiceTemplate request(SlothRequest request) {
-        this.pathVariable = request.getPathVariable();
-        this.body = request.getBody();
-        this.params = request.getParams();
-        this.serviceName = request.getServiceName();
+        /**
+         * 请求体,可为空
+         */
+        private final Object body;
 
-        return this;
-    }
+        /**
+         * 路径参数,例如: http://127.0.0.1/8080/sloth/:id 其中的<b>id</b>
+         */
+        private final String pathVariable;
 
-    /**
-     *  使用<code>GET</code>方法请求服务
-     *
-     * @param responseType
-     * @param <T>
-     * @return
-     * @throws ServiceException
-     */
-    public <T> T get(Class<T> responseType) throws ServiceException {
-        InstanceDetail instance = serviceFinder.findService(getServiceName());
-        if(null == instance) {
-            throw new ServiceException("Service Not Found!", IServiceConstant.SERVICE_NOT_FOUND);
+        /**
+         * 本次调用的超时，单位毫秒，0 表示使用{@link TimeoutPolicy}中的配置
+         */
+        private final int connectTimeout;
+
+        private final int readTimeout;
+
+        private final long timeout;
+
+        private SlothCall(IServiceTemplate serviceTemplate, String namespace, String version, SlothRequest request) {
+            this.serviceTemplate = serviceTemplate;
+            this.namespace = namespace;
+            this.version = version;
+
+            if(null == request) {
+                this.serviceName = null;
+                this.params = null;
+                this.body = null;
+                this.pathVariable = null;
+                this.connectTimeout = 0;
+                this.readTimeout = 0;
+                this.timeout = 0L;
+            } else {
+                this.serviceName = request.getServiceName();
+                this.params = MapUtils.isEmpty(request.getParams()) ? null
+                        : Collections.unmodifiableMap(new HashMap<>(request.getParams()));
+                this.body = request.getBody();
+                this.pathVariable = request.getPathVariable();
+                this.connectTimeout = request.getConnectTimeout();
+                this.readTimeout = request.getReadTimeout();
+                this.timeout = request.getTimeout();
+            }
         }
 
-        String requestUri = instance.getRequestUrl();
-        requestUri = fetchRequestUri(requestUri, this.params, this.pathVariable);
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Accept", MediaType.APPLICATION_JSON_VALUE);
-
-        HttpEntity entry = new HttpEntity(headers);
+        private SlothCall(SlothCall call, String namespace, String version) {
+            this.serviceTemplate = call.serviceTemplate;
+            this.namespace = namespace;
+            this.version = version;
+            this.serviceName = call.serviceName;
+            this.params = call.params;
+            this.body = call.body;
+            this.pathVariable = call.pathVariable;
+            this.connectTimeout = call.connectTimeout;
+            this.readTimeout = call.readTimeout;
+            this.timeout = call.timeout;
+        }
 
-        LOGGER.info("SlothRequest method: GET, namespace: {}, version: {}, service name: {}, request url: {}.",
-                namespace, version, serviceName, requestUri);
+        public SlothCall namespace(final String namespace) {
+            return new SlothCall(this, namespace, this.version);
+        }
 
-        try {
-            ResponseEntity<T> response = restTemplate.exchange(requestUri, HttpMethod.GET, entry, responseType);
-            LOGGER.info("Complete SlothRequest, method: GET, namespace: {}, version: {}, service name: {}, request uri: {}.",
-                    namespace, version, serviceName, requestUri);
+        public SlothCall version(final String version) {
+            return new SlothCall(this, this.namespace, version);
+        }
 
-            if(null != response) {
-                return response.getBody();
-            }
-        } catch (RestClientException e) {
-            LOGGER.error("Exception happens, SlothRequest method: GET, namespace: {}, version: {}, service name: {}, request uri: {}.",
-                    namespace, version, serviceName, requestUri);
-            throw new ServiceException(e);
+        public SlothCall request(SlothRequest request) {
+            return new SlothCall(serviceTemplate, namespace, version, request);
         }
 
-        return null;
-    }
+        /**
+         *  使用<code>GET</code>方法请求服务
+         *
+         * @param responseType
+         * @param <T>
+         * @return
+         * @throws ServiceException
+         */
+        public <T> T get(Class<T> responseType) throws ServiceException {
+            return call(() -> serviceTemplate.get(getServiceName(), params, pathVariable, responseType));
+        }
 
-    /**
-     *
-     * 使用<code>POST</code>方法请求服务
-     *
-     * @param responseType
-     * @param <T>
-     * @return
-     * @throws ServiceException
-     */
-    public <T> T post(Class<T> responseType) throws ServiceException {
-        InstanceDetail instance = serviceFinder.findService(getServiceName());
-        if(null == instance) {
-            throw new ServiceException("Service Not Found!", IServiceConstant.SERVICE_NOT_FOUND);
+        /**
+         *
+         * 使用<code>POST</code>方法请求服务
+         *
+         * @param responseType
+         * @param <T>
+         * @return
+         * @throws ServiceException
+         */
+        public <T> T post(Class<T> responseType) throws ServiceException {
+            return call(() -> serviceTemplate.post(getServiceName(), body, params, pathVariable, responseType));
         }
 
-        String requestUri = instance.getRequestUrl();
-        requestUri = fetchRequestUri(requestUri, params, pathVariable);
+        /**
+         *  使用<code>GET</code>方法异步请求服务
+         *
+         * @param responseType
+         * @param <T>
+         * @return
+         */
+        public <T> CompletableFuture<T> getAsync(Class<T> responseType) {
+            return callAsync(() -> serviceTemplate.getAsync(getServiceName(), params, pathVariable, responseType));
+        }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("Accept", MediaType.APPLICATION_JSON_VALUE);
+        /**
+         *  使用<code>POST</code>方法异步请求服务
+         *
+         * @param responseType
+         * @param <T>
+         * @return
+         */
+        public <T> CompletableFuture<T> postAsync(Class<T> responseType) {
+            return callAsync(() -> serviceTemplate.postAsync(getServiceName(), body, params, pathVariable, responseType));
+        }
 
-        HttpEntity entry = (null == body) ? new HttpEntity(headers) : new HttpEntity(body, headers);
+        /**
+         *  使用<code>GET</code>方法请求返回数组的服务，边读边解析
+         *
+         * @param elementType
+         * @param <T>
+         * @return
+         * @throws ServiceException
+         */
+        public <T> Stream<T> stream(Class<T> elementType) throws ServiceException {
+            return call(() -> serviceTemplate.stream(getServiceName(), params, pathVariable, elementType));
+        }
 
-        LOGGER.info("SlothRequest method: POST, namespace: {}, version: {}, service name: {}, request uri: {}.",
-                namespace, version, serviceName, requestUri);
+        /**
+         *  使用<code>GET</code>方法请求服务的所有实例
+         *
+         * @param responseType
+         * @param policy  quorum、单个实例的超时和并发数
+         * @param <T>
+         * @return
+         * @throws ServiceException
+         */
+        public <T> ScatterResult<T> getAll(Class<T> responseType, ScatterPolicy policy) throws ServiceException {
+            return call(() -> serviceTemplate.getAll(getServiceName(), params, pathVariable, responseType, policy));
+        }
 
-        try {
-            ResponseEntity<T> response = restTemplate.exchange(requestUri, HttpMethod.POST, entry, responseType);
-            LOGGER.info("Complete SlothRequest, method: POST, namespace: {}, version: {}, service name: {}, request uri: {}.",
-                    namespace, version, serviceName, requestUri);
-            if (null != response) {
-                return response.getBody();
-            }
-        } catch (RestClientException e) {
-            LOGGER.error("Exception happens, SlothRequest method: POST, namespace: {}, version: {}, service name: {}, request uri: {}.",
-                    namespace, version, serviceName, requestUri);
-            throw new ServiceException(e);
+        /**
+         *  使用<code>POST</code>方法请求服务的所有实例
+         *
+         * @param responseType
+         * @param policy  quorum、单个实例的超时和并发数
+         * @param <T>
+         * @return
+         * @throws ServiceException
+         */
+        public <T> ScatterResult<T> postAll(Class<T> responseType, ScatterPolicy policy) throws ServiceException {
+            return call(() -> serviceTemplate.postAll(getServiceName(), body, params, pathVariable, responseType, policy));
         }
 
-        return null;
-    }
+        /**
+         *  使用<code>GET</code>方法异步请求服务的所有实例
+         *
+         * @param responseType
+         * @param policy  quorum、单个实例的超时和并发数
+         * @param <T>
+         * @return
+         */
+        public <T> CompletableFuture<ScatterResult<T>> getAllAsync(Class<T> responseType, ScatterPolicy policy) {
+            return callAsync(() -> serviceTemplate.getAllAsync(getServiceName(), params, pathVariable, responseType, policy));
+        }
 
-    /**
-     * 封装请求uri
-     *
-     * @param uri  基础uri，例如 http://localhost:8081/platform
-     * @param params 参数列表，例如 {"id": "123456", "type": "2"}
-     * @param pathVariable  路径参数，例如 shops
-     * @return  http://localhost:8081/platform/shops?id=123456&type=2
-     *
-     */
-    private String fetchRequestUri(String uri, Map<String, ?> params, String pathVariable) {
+        /**
+         *  使用<code>POST</code>方法异步请求服务的所有实例
+         *
+         * @param responseType
+         * @param policy  quorum、单个实例的超时和并发数
+         * @param <T>
+         * @return
+         */
+        public <T> CompletableFuture<ScatterResult<T>> postAllAsync(Class<T> responseType, ScatterPolicy policy) {
+            return callAsync(() -> serviceTemplate.postAllAsync(getServiceName(), body, params, pathVariable, responseType, policy));
+        }
 
-        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(uri);
+        // 在本次调用指定的超时内调用服务，之后恢复当前线程之前指定的超时
+        private <T> T call(ServiceCall<T> call) throws ServiceException {
+            final RequestTimeout previous = applyTimeout();
+            try {
+                return call.call();
+            } finally {
+                RequestTimeout.set(previous);
+            }
+        }
 
-        if(StringUtils.isNotEmpty(pathVariable)) {
-            pathVariable = StringUtils.startsWith(pathVariable, IServiceConstant.URI_SPLIT_CHAR) ?
-                    pathVariable : IServiceConstant.URI_SPLIT_CHAR + pathVariable;
-            builder.path(pathVariable);
+        // 异步调用在发起时确定超时及截止时间
+        private <T> T callAsync(Supplier<T> call) {
+            final RequestTimeout previous = applyTimeout();
+            try {
+                return call.get();
+            } finally {
+                RequestTimeout.set(previous);
+            }
         }
 
-        if (MapUtils.isNotEmpty(params)) {
-            for(Map.Entry<String, ?> entry: params.entrySet()) {
-                builder.queryParam(entry.getKey(), entry.getValue());
+        private RequestTimeout applyTimeout() {
+            final RequestTimeout previous = RequestTimeout.current();
+            if(connectTimeout > 0 || readTimeout > 0 || timeout > 0L) {
+                RequestTimeout.set(RequestTimeout.of(connectTimeout, readTimeout, timeout));
             }
+            return previous;
         }
 
-        return builder.build().encode().toUriString();
-    }
+        // 根据 namespace、version和serviceName重新封装服务标识: {namespace}/{version}/{serviceName}
+        private String getServiceName() {
+            if(null == this.serviceName) {
+                throw new IllegalStateException("Service name is required, call request(SlothRequest) first.");
+            }
 
-    // 根据 namespace、version和serviceName重新封装服务标识: {namespace}/{version}/{serviceName}
-    private String getServiceName() {
-        StringBuilder sb = new StringBuilder();
-        if(StringUtils.isNotEmpty(this.namespace)) {
-            sb.append(this.namespace).append(IServiceConstant.URI_SPLIT_CHAR);
-        }
+            StringBuilder sb = new StringBuilder();
+            if(StringUtils.isNotEmpty(this.namespace)) {
+                sb.append(this.namespace).append(IServiceConstant.URI_SPLIT_CHAR);
+            }
 
-        if(StringUtils.isNotEmpty(this.version)) {
-            sb.append(this.version).append(IServiceConstant.URI_SPLIT_CHAR);
+            if(StringUtils.isNotEmpty(this.version)) {
+                sb.append(this.version).append(IServiceConstant.URI_SPLIT_CHAR);
+            }
+
+            sb.append(this.serviceName);
+            return sb.toString();
         }
+    }
+
+    /**
+     * 调用服务
+     */
+    private interface ServiceCall<T> {
 
-        sb.append(this.serviceName);
-        return sb.toString();
+        T call() throws ServiceException;
     }
 
     /**
@@ -230,7 +329,8 @@ public class SlothServiceTemplate {
      * <code>
      *     SlothRequest request = SlothRequest.withServiceName("serviceName")
      *                                        .andParameter("key1", "value1")
-     *                                        .andPath("pathVariable");
+     *                                        .andPath("pathVariable")
+     *                                        .andTimeout(500);
      * </code>
      */
     public static final class SlothRequest {
@@ -254,6 +354,21 @@ public class SlothServiceTemplate {
          */
         private String pathVariable;
 
+        /**
+         * 建立连接的超时，单位毫秒，0 表示使用全局或按服务的配置
+         */
+        private int connectTimeout;
+
+        /**
+         * 读取响应时两次读取之间的超时，单位毫秒，0 表示使用全局或按服务的配置
+         */
+        private int readTimeout;
+
+        /**
+         * 整个调用(含重试、对冲)的超时，从发起调用时开始计算，单位毫秒，0 表示使用全局或按服务的配置
+         */
+        private long timeout;
+
         protected SlothRequest(final String serviceName) {
             this.serviceName = serviceName;
         }
@@ -290,6 +405,21 @@ public class SlothServiceTemplate {
             return this;
         }
 
+        public SlothRequest andConnectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        public SlothRequest andReadTimeout(int readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        public SlothRequest andTimeout(long timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
         public String getServiceName() {
             return serviceName;
         }
@@ -305,5 +435,17 @@ public class SlothServiceTemplate {
         public String getPathVariable() {
             return pathVariable;
         }
+
+        public int getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public int getReadTimeout() {
+            return readTimeout;
+        }
+
+        public long getTimeout() {
+            return timeout;
+        }
     }
-}
\ No newline at end of file
+}
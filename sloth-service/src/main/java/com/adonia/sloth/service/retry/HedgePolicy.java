@@ -0,0 +1,200 @@
+package com.adonia.sloth.service.retry;
+
+import com.adonia.sloth.metrics.SlidingLatencyHistogram;
+import org.springframework.http.HttpMethod;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 对冲请求(hedged request)策略
+ *
+ * 对开启了对冲的服务，<code>GET</code>请求在 delay 毫秒内未返回时，向另一个实例发出相同的请求，取先成功返回的结果。
+ * delay 未配置时使用该服务最近 window 毫秒内首个请求耗时的 percentile 百分位(默认 p95)，样本数不足 minSamples 时不对冲。
+ * 耗时由{@link #record(String, long)}单独记录: 对冲请求先返回时，按首个请求已等待的时间记录，
+ * 因此对冲不会拉低计算 delay 所用的耗时分布。
+ *
+ * 对冲请求数受{@link RetryBudget}限制，只会少量增加服务端的负载。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class HedgePolicy {
+
+    /**
+     * 对所有服务的<code>GET</code>请求开启对冲
+     */
+    public static final String ALL_SERVICES = "*";
+
+    /**
+     * 按耗时分布计算的 delay 的缓存时间，单位毫秒
+     */
+    private static final long DELAY_REFRESH_INTERVAL = 1000L;
+
+    /**
+     * 统计窗口均分的区间数
+     */
+    private static final int WINDOW_INTERVALS = 6;
+
+    private final RetryBudget budget;
+
+    private final ConcurrentMap<String, SlidingLatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, CachedDelay> delays = new ConcurrentHashMap<>();
+
+    /**
+     * 开启对冲的服务名称 {namespace}/{version}/{serviceName}
+     */
+    private Set<String> services = Collections.emptySet();
+
+    private boolean allServices = false;
+
+    /**
+     * 固定的对冲延迟，单位毫秒，0 表示按耗时分布计算
+     */
+    private long delay = 0L;
+
+    private double percentile = 95.0D;
+
+    /**
+     * 按耗时分布计算时的最小延迟，单位毫秒
+     */
+    private long minDelay = 5L;
+
+    private long minSamples = 100L;
+
+    /**
+     * 计算 delay 的耗时统计窗口，单位毫秒
+     */
+    private long window = 60000L;
+
+    public HedgePolicy(RetryBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * 是否对该请求开启对冲，开启时同时累积对冲预算
+     *
+     * @param method  请求方法，只对冲<code>GET</code>请求
+     * @param serviceName  服务名称
+     * @return
+     */
+    public boolean onRequest(HttpMethod method, String serviceName) {
+        if(HttpMethod.GET != method || !(allServices || services.contains(serviceName))) {
+            return false;
+        }
+
+        budget.deposit();
+        return true;
+    }
+
+    /**
+     * 记录开启对冲的请求中首个请求的耗时，只记录成功的调用
+     *
+     * @param serviceName  服务名称
+     * @param nanos  首个请求的耗时，对冲请求先返回时为首个请求已等待的时间，单位纳秒
+     */
+    public void record(String serviceName, long nanos) {
+        if(delay > 0L) {
+            return;
+        }
+
+        SlidingLatencyHistogram latency = latencies.get(serviceName);
+        if(null == latency) {
+            SlidingLatencyHistogram created = new SlidingLatencyHistogram(window, WINDOW_INTERVALS);
+            latency = latencies.putIfAbsent(serviceName, created);
+            if(null == latency) {
+                latency = created;
+            }
+        }
+        latency.record(nanos);
+    }
+
+    /**
+     * @param serviceName  服务名称
+     * @return 对冲延迟，单位毫秒；样本数不足时返回 -1
+     */
+    public long getDelay(String serviceName) {
+        if(delay > 0L) {
+            return delay;
+        }
+
+        final long now = System.currentTimeMillis();
+        CachedDelay cached = delays.get(serviceName);
+        if(null == cached || now >= cached.expiresAt) {
+            SlidingLatencyHistogram latency = latencies.get(serviceName);
+            long value = -1L;
+            if(null != latency && latency.getCount() >= minSamples) {
+                value = Math.max((long) Math.ceil(latency.getPercentile(percentile)), minDelay);
+            }
+
+            cached = new CachedDelay(value, now + DELAY_REFRESH_INTERVAL);
+            delays.put(serviceName, cached);
+        }
+
+        return cached.delay;
+    }
+
+    /**
+     * 预算是否还足够对冲一次，预算不足时无需查找对冲的实例
+     */
+    public boolean hasBudget() {
+        return budget.isAvailable();
+    }
+
+    /**
+     * 发出对冲请求前，从预算中取出一次
+     */
+    public boolean tryAcquire() {
+        return budget.tryWithdraw();
+    }
+
+    public void setServices(String[] services) {
+        Set<String> names = new HashSet<>();
+        if(null != services) {
+            for(String service: services) {
+                if(!service.trim().isEmpty()) {
+                    names.add(service.trim());
+                }
+            }
+        }
+
+        this.allServices = names.contains(ALL_SERVICES);
+        this.services = names;
+    }
+
+    public void setDelay(long delay) {
+        this.delay = delay;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public void setMinDelay(long minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    public void setMinSamples(long minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public void setWindow(long window) {
+        this.window = window;
+    }
+
+    private static final class CachedDelay {
+
+        private final long delay;
+
+        private final long expiresAt;
+
+        private CachedDelay(long delay, long expiresAt) {
+            this.delay = delay;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
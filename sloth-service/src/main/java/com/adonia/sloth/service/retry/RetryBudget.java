@@ -0,0 +1,74 @@
+package com.adonia.sloth.service.retry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 重试预算，限制重试请求占总请求的比例，避免服务端故障时重试放大流量(retry storm)
+ *
+ * 每个请求存入 percent/100 个令牌，每次重试取出一个令牌；令牌最多累积 minRetries 个，
+ * 因此短时间内的重试不超过 minRetries 次，持续的重试不超过请求数的 percent%。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class RetryBudget {
+
+    private static final long SCALE = 1000L;
+
+    private final long deposit;
+
+    private final long maxBalance;
+
+    private final AtomicLong balance;
+
+    /**
+     * @param percent  重试请求占总请求的最大百分比
+     * @param minRetries  可累积的重试次数，同时也是初始的重试次数
+     */
+    public RetryBudget(int percent, int minRetries) {
+        this.deposit = percent * SCALE / 100;
+        this.maxBalance = Math.max(minRetries, 1) * SCALE;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    /**
+     * 发出请求时存入令牌
+     */
+    public void deposit() {
+        if(0L == deposit) {
+            return;
+        }
+
+        long current;
+        do {
+            current = balance.get();
+            if(current >= maxBalance) {
+                return;
+            }
+        } while(!balance.compareAndSet(current, Math.min(current + deposit, maxBalance)));
+    }
+
+    /**
+     * 是否还有令牌，不取出
+     */
+    public boolean isAvailable() {
+        return balance.get() >= SCALE;
+    }
+
+    /**
+     * 重试前取出一个令牌
+     *
+     * @return 预算是否足够
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if(current < SCALE) {
+                return false;
+            }
+        } while(!balance.compareAndSet(current, current - SCALE));
+
+        return true;
+    }
+}
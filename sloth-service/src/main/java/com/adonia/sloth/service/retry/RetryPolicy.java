@@ -0,0 +1,164 @@
+package com.adonia.sloth.service.retry;
+
+import org.apache.curator.utils.ThreadUtils;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务调用失败时，换一个服务实例重试
+ *
+ * <ul>
+ *     <li>连接失败(请求未发出)时，任何请求都可以重试</li>
+ *     <li>其它I/O异常或服务端返回 5xx 时，只重试幂等的请求: <code>GET</code>，以及开启 retryPost 后的 <code>POST</code></li>
+ * </ul>
+ *
+ * 重试前等待一段随机时间(full jitter)，上限为 min(maxBackoff, backoff * 2^重试次数)；
+ * 重试次数同时受{@link RetryBudget}限制。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class RetryPolicy implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RetryPolicy.class);
+
+    private final RetryBudget budget;
+
+    /**
+     * 异步调用重试前的等待
+     */
+    private final ScheduledExecutorService scheduler = ThreadUtils.newSingleThreadScheduledExecutor("SlothRetry");
+
+    /**
+     * 单次调用的最大重试次数，0 表示不重试
+     */
+    private int maxRetries = 2;
+
+    /**
+     * <code>POST</code>请求是否幂等，可以重试
+     */
+    private boolean retryPost = false;
+
+    /**
+     * 重试等待时间的基数，单位毫秒
+     */
+    private long backoff = 20L;
+
+    /**
+     * 重试等待时间的上限，单位毫秒
+     */
+    private long maxBackoff = 200L;
+
+    public RetryPolicy(RetryBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * 每次调用(不含重试)开始时通知，用于累积重试预算
+     */
+    public void onRequest() {
+        budget.deposit();
+    }
+
+    /**
+     * 请求失败后是否可以重试
+     *
+     * @param method  请求方法
+     * @param e  请求异常
+     * @param retries  已重试的次数
+     * @return
+     */
+    public boolean isRetryable(HttpMethod method, Throwable e, int retries) {
+        if(retries >= maxRetries) {
+            return false;
+        }
+
+        if(isConnectFailure(e)) {
+            return true;
+        }
+
+        if(HttpMethod.GET != method && !(retryPost && HttpMethod.POST == method)) {
+            return false;
+        }
+
+        return e instanceof HttpServerErrorException || hasCause(e, IOException.class);
+    }
+
+    /**
+     * 从重试预算中取出一次重试
+     *
+     * @return 预算不足时返回 false
+     */
+    public boolean tryAcquire() {
+        if(budget.tryWithdraw()) {
+            return true;
+        }
+
+        LOGGER.warn("Retry budget exhausted, give up retrying.");
+        return false;
+    }
+
+    /**
+     * @param retries  已重试的次数
+     * @return 重试前的等待时间，单位毫秒
+     */
+    public long backoff(int retries) {
+        final long bound = Math.min(maxBackoff, backoff << Math.min(retries, 16));
+        return (bound <= 0L) ? 0L : ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+
+    /**
+     * 异步调用时，等待一段时间后重试
+     */
+    public void schedule(Runnable retry, long delay) {
+        if(delay <= 0L) {
+            retry.run();
+        } else {
+            scheduler.schedule(retry, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static boolean isConnectFailure(Throwable e) {
+        return hasCause(e, ConnectException.class) || hasCause(e, ConnectTimeoutException.class);
+    }
+
+    private static boolean hasCause(Throwable e, Class<? extends Throwable> type) {
+        for(Throwable cause = e; null != cause; cause = cause.getCause()) {
+            if(type.isInstance(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public void setRetryPost(boolean retryPost) {
+        this.retryPost = retryPost;
+    }
+
+    public void setBackoff(long backoff) {
+        this.backoff = backoff;
+    }
+
+    public void setMaxBackoff(long maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,100 @@
+package com.adonia.sloth.service.scatter;
+
+/**
+ * 向服务的所有实例发出请求(scatter-gather)时的策略，不可变
+ *
+ * <pre>
+ *     ScatterPolicy.all().timeout(500);
+ *     ScatterPolicy.quorum(2).timeout(200).parallelism(4);
+ * </pre>
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public final class ScatterPolicy {
+
+    private static final long DEFAULT_TIMEOUT = 3000L;
+
+    private static final int DEFAULT_PARALLELISM = 16;
+
+    /**
+     * 收到多少个成功的响应后结束，0 表示等待所有实例
+     */
+    private final int quorum;
+
+    /**
+     * 单个实例的超时时间，单位毫秒，0 表示不限制(由连接的读超时控制)
+     */
+    private final long timeout;
+
+    /**
+     * 同时发出的请求数上限，超过时等待已发出的请求完成
+     */
+    private final int parallelism;
+
+    private ScatterPolicy(int quorum, long timeout, int parallelism) {
+        this.quorum = quorum;
+        this.timeout = timeout;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * 等待所有实例的响应
+     *
+     * @return
+     */
+    public static ScatterPolicy all() {
+        return new ScatterPolicy(0, DEFAULT_TIMEOUT, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * 收到指定数量的成功响应后结束，取消其余的请求
+     *
+     * @param quorum  实例数不足时等待所有实例
+     * @return
+     */
+    public static ScatterPolicy quorum(int quorum) {
+        if(quorum <= 0) {
+            throw new IllegalArgumentException("Quorum must be positive: " + quorum);
+        }
+        return new ScatterPolicy(quorum, DEFAULT_TIMEOUT, DEFAULT_PARALLELISM);
+    }
+
+    public ScatterPolicy timeout(long timeout) {
+        return new ScatterPolicy(quorum, Math.max(timeout, 0L), parallelism);
+    }
+
+    public ScatterPolicy parallelism(int parallelism) {
+        if(parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        return new ScatterPolicy(quorum, timeout, parallelism);
+    }
+
+    public int getQuorum() {
+        return quorum;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * 需要的成功响应数
+     *
+     * @param instances  服务实例数
+     * @return
+     */
+    public int getRequired(int instances) {
+        return (quorum <= 0) ? instances : Math.min(quorum, instances);
+    }
+
+    @Override
+    public String toString() {
+        return "ScatterPolicy{quorum=" + quorum + ", timeout=" + timeout + ", parallelism=" + parallelism + '}';
+    }
+}
@@ -0,0 +1,122 @@
+package com.adonia.sloth.service.scatter;
+
+import com.adonia.sloth.model.InstanceDetail;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 向服务的所有实例发出请求(scatter-gather)的结果
+ *
+ * 超时或失败的实例不影响其它实例的结果，调用方按{@link #isComplete()}、{@link #isQuorumReached()}决定是否使用部分结果。
+ *
+ * <pre>
+ *     ScatterResult&lt;Stats&gt; result = template.getAll("sloth.stats/v1/getStats", null, null, Stats.class,
+ *             ScatterPolicy.all().timeout(500));
+ *     long total = result.merge(stats -&gt; stats.stream().mapToLong(Stats::getCount).sum());
+ * </pre>
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public final class ScatterResult<T> {
+
+    private final List<InstanceDetail> instances;
+
+    private final Map<InstanceDetail, T> responses;
+
+    private final Map<InstanceDetail, Throwable> failures;
+
+    private final int required;
+
+    /**
+     * @param instances  请求的所有实例
+     * @param responses  成功响应的实例及响应，按响应的先后顺序
+     * @param failures  失败或超时的实例
+     * @param required  需要的成功响应数
+     */
+    public ScatterResult(List<InstanceDetail> instances, Map<InstanceDetail, T> responses,
+                         Map<InstanceDetail, Throwable> failures, int required) {
+        this.instances = Collections.unmodifiableList(new ArrayList<>(instances));
+        this.responses = Collections.unmodifiableMap(new LinkedHashMap<>(responses));
+        this.failures = Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+        this.required = required;
+    }
+
+    public List<InstanceDetail> getInstances() {
+        return instances;
+    }
+
+    /**
+     * 成功响应的实例及响应，按响应的先后顺序
+     *
+     * @return
+     */
+    public Map<InstanceDetail, T> getResponses() {
+        return responses;
+    }
+
+    /**
+     * 失败或超时的实例及异常
+     *
+     * @return
+     */
+    public Map<InstanceDetail, Throwable> getFailures() {
+        return failures;
+    }
+
+    /**
+     * 达到 quorum 后被取消、或未发出请求的实例
+     *
+     * @return
+     */
+    public List<InstanceDetail> getPending() {
+        List<InstanceDetail> pending = new ArrayList<>();
+        for(InstanceDetail instance: instances) {
+            if(!responses.containsKey(instance) && !failures.containsKey(instance)) {
+                pending.add(instance);
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * 是否所有实例均成功响应
+     *
+     * @return
+     */
+    public boolean isComplete() {
+        return responses.size() == instances.size();
+    }
+
+    /**
+     * 成功的响应是否达到策略要求的数量
+     *
+     * @return
+     */
+    public boolean isQuorumReached() {
+        return responses.size() >= required;
+    }
+
+    /**
+     * 合并成功的响应
+     *
+     * @param merger  合并函数，参数为按响应先后顺序排列的响应
+     * @param <R>
+     * @return
+     */
+    public <R> R merge(Function<? super Collection<T>, ? extends R> merger) {
+        return merger.apply(responses.values());
+    }
+
+    @Override
+    public String toString() {
+        return "ScatterResult{instances=" + instances.size() + ", responses=" + responses.size()
+                + ", failures=" + failures.size() + ", required=" + required + '}';
+    }
+}
@@ -0,0 +1,133 @@
+package com.adonia.sloth.service.timeout;
+
+import com.adonia.sloth.deadline.Deadline;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次服务调用的超时，不可变: 建立连接的超时、读取响应时两次读取之间的超时，以及整个调用(含重试、对冲)的截止时间
+ *
+ * 通过{@link #set(RequestTimeout)}为当前线程发起的调用指定超时，优先于{@link TimeoutPolicy}中的配置，
+ * 例如{@link com.adonia.sloth.service.rest.SlothServiceTemplate.SlothRequest#andTimeout(long)}。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public final class RequestTimeout {
+
+    private static final ThreadLocal<RequestTimeout> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 单位毫秒，0 表示不限制(或未指定)
+     */
+    final int connectTimeout;
+
+    final int readTimeout;
+
+    /**
+     * 为<code>null</code>时不限制
+     */
+    final Deadline deadline;
+
+    RequestTimeout(int connectTimeout, int readTimeout, Deadline deadline) {
+        this.connectTimeout = Math.max(connectTimeout, 0);
+        this.readTimeout = Math.max(readTimeout, 0);
+        this.deadline = deadline;
+    }
+
+    /**
+     * @param connectTimeout  建立连接的超时，单位毫秒，0 表示未指定
+     * @param readTimeout  读取响应的超时，单位毫秒，0 表示未指定
+     * @param timeout  整个调用的超时，从此时开始计算，单位毫秒，0 表示未指定
+     * @return
+     */
+    public static RequestTimeout of(int connectTimeout, int readTimeout, long timeout) {
+        return new RequestTimeout(connectTimeout, readTimeout,
+                (timeout > 0L) ? Deadline.after(timeout, TimeUnit.MILLISECONDS) : null);
+    }
+
+    /**
+     * 当前线程指定的超时
+     *
+     * @return 没有指定时返回<code>null</code>
+     */
+    public static RequestTimeout current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 为当前线程发起的调用指定超时
+     *
+     * @param timeout  为<code>null</code>时清除
+     * @return 之前指定的超时，用于恢复
+     */
+    public static RequestTimeout set(RequestTimeout timeout) {
+        final RequestTimeout previous = CURRENT.get();
+        if(null == timeout) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(timeout);
+        }
+        return previous;
+    }
+
+    /**
+     * 建立连接的超时，不超过剩余的时间
+     *
+     * @return 单位毫秒，0 表示不限制
+     */
+    public int getConnectTimeout() {
+        return limit(connectTimeout);
+    }
+
+    /**
+     * 读取响应的超时，不超过剩余的时间
+     *
+     * @return 单位毫秒，0 表示不限制
+     */
+    public int getReadTimeout() {
+        return limit(readTimeout);
+    }
+
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * 剩余的时间
+     *
+     * @return 单位毫秒，没有截止时间时返回 -1，已过截止时间时返回 0
+     */
+    public long getRemaining() {
+        return (null == deadline) ? -1L : Math.max(deadline.remaining(TimeUnit.MILLISECONDS), 0L);
+    }
+
+    public boolean isExpired() {
+        return null != deadline && deadline.isExpired();
+    }
+
+    /**
+     * 等待一段时间后是否已到截止时间，用于重试前的等待
+     *
+     * @param delay  单位毫秒
+     */
+    public boolean isExpiredAfter(long delay) {
+        return null != deadline && (deadline.isExpired() || delay >= deadline.remaining(TimeUnit.MILLISECONDS));
+    }
+
+    // 剩余的时间不足 1 毫秒时仍取 1 毫秒，0 表示不限制
+    private int limit(int timeout) {
+        if(null == deadline) {
+            return timeout;
+        }
+
+        final long remaining = Math.min(Math.max(getRemaining(), 1L), Integer.MAX_VALUE);
+        return (0 == timeout || timeout > remaining) ? (int) remaining : timeout;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestTimeout{connectTimeout=" + connectTimeout + ", readTimeout=" + readTimeout
+                + ", deadline=" + deadline + '}';
+    }
+}
@@ -0,0 +1,100 @@
+package com.adonia.sloth.service.timeout;
+
+import com.adonia.sloth.deadline.Deadline;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 调用服务的超时策略
+ *
+ * 每次调用的超时按以下顺序确定，整个调用的截止时间取其中最早的:
+ * <ul>
+ *     <li>当前线程通过{@link RequestTimeout#set(RequestTimeout)}指定的超时</li>
+ *     <li>按服务名称配置的读取超时、整个调用的超时</li>
+ *     <li>全局的建立连接、读取响应、整个调用的超时</li>
+ *     <li>当前线程的{@link Deadline}，例如服务端由上游调用传递的剩余时间</li>
+ * </ul>
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class TimeoutPolicy {
+
+    /**
+     * 建立连接(以及从连接池获取连接)的超时，单位毫秒，0 表示未指定，使用 HttpClient 的默认配置
+     */
+    private int connectTimeout = 0;
+
+    /**
+     * 读取响应时两次读取之间的超时，单位毫秒，0 表示未指定，使用 HttpClient 的默认配置
+     */
+    private int readTimeout = 0;
+
+    /**
+     * 整个调用(含重试、对冲)的超时，单位毫秒，0 表示不限制；到达截止时间时中止正在进行的请求
+     */
+    private long timeout = 0L;
+
+    /**
+     * 按服务名称指定的读取超时
+     */
+    private Map<String, Integer> readTimeouts = Collections.emptyMap();
+
+    /**
+     * 按服务名称指定的整个调用的超时
+     */
+    private Map<String, Long> timeouts = Collections.emptyMap();
+
+    /**
+     * 确定本次调用的超时，在发起调用时计算截止时间
+     *
+     * @param serviceName  服务标志名 {namespace}/{version}/{serviceName}
+     * @return
+     */
+    public RequestTimeout resolve(String serviceName) {
+        final RequestTimeout call = RequestTimeout.current();
+
+        int connect = connectTimeout;
+        int read = readTimeout;
+        Integer serviceReadTimeout = readTimeouts.get(serviceName);
+        if(null != serviceReadTimeout) {
+            read = serviceReadTimeout;
+        }
+
+        Deadline deadline = Deadline.current();
+        if(null != call) {
+            connect = (call.connectTimeout > 0) ? call.connectTimeout : connect;
+            read = (call.readTimeout > 0) ? call.readTimeout : read;
+            deadline = Deadline.earlier(deadline, call.deadline);
+        }
+
+        Long serviceTimeout = timeouts.get(serviceName);
+        final long total = (null == serviceTimeout) ? timeout : serviceTimeout;
+        if(total > 0L) {
+            deadline = Deadline.earlier(deadline, Deadline.after(total, TimeUnit.MILLISECONDS));
+        }
+        return new RequestTimeout(connect, read, deadline);
+    }
+
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = Math.max(connectTimeout, 0);
+    }
+
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = Math.max(readTimeout, 0);
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = Math.max(timeout, 0L);
+    }
+
+    public void setReadTimeouts(Map<String, Integer> readTimeouts) {
+        this.readTimeouts = (null == readTimeouts) ? Collections.<String, Integer>emptyMap() : readTimeouts;
+    }
+
+    public void setTimeouts(Map<String, Long> timeouts) {
+        this.timeouts = (null == timeouts) ? Collections.<String, Long>emptyMap() : timeouts;
+    }
+}
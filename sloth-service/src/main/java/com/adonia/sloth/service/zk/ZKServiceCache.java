@@ -0,0 +1,293 @@
+package com.adonia.sloth.service.zk;
+
+import com.adonia.sloth.model.InstanceDetail;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.recipes.cache.ChildData;
+import org.apache.curator.framework.recipes.cache.PathChildrenCache;
+import org.apache.curator.framework.recipes.cache.PathChildrenCacheEvent;
+import org.apache.curator.framework.recipes.cache.PathChildrenCacheListener;
+import org.apache.curator.x.discovery.ServiceInstance;
+import org.apache.curator.x.discovery.details.InstanceSerializer;
+import org.apache.curator.x.discovery.details.JsonInstanceSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * 单个服务名称下的实例缓存
+ *
+ * 基于{@link PathChildrenCache}监听 {servicePath}/{serviceName} 的子节点，zookeeper 通知变更时重建实例列表；
+ * 查询时直接返回不可变的实例快照，不再访问zookeeper，也不加锁。
+ * 首次加载完成前可由本地快照文件({@link #seed(List, long)})或批量查找时读取的节点数据({@link #preload(List)})预先填充，
+ * 查找时不必等待首次加载。
+ * 服务节点不存在时不会创建该节点(查找不写入注册中心)，由{@link ZKServiceFinder}在创建缓存前检查。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+class ZKServiceCache implements PathChildrenCacheListener, Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZKServiceCache.class);
+
+    private static final InstanceSerializer<InstanceDetail> SERIALIZER = new JsonInstanceSerializer<>(InstanceDetail.class);
+
+    private final String serviceName;
+
+    private final PathChildrenCache cache;
+
+    /**
+     * 首次加载完成时结束
+     */
+    private final CompletableFuture<Void> initialized = new CompletableFuture<>();
+
+    /**
+     * 当前可用实例的不可变快照，仅在 zookeeper 通知变更时整体替换
+     */
+    private volatile List<InstanceDetail> instances = Collections.emptyList();
+
+    /**
+     * 实例快照对应的节点数据，用于写入本地快照文件
+     */
+    private volatile List<byte[]> data = Collections.emptyList();
+
+    /**
+     * 实例快照最近一次与zookeeper一致的时间，由本地快照填充时为快照中记录的时间
+     */
+    private volatile long confirmedAt;
+
+    private volatile boolean seeded;
+
+    /**
+     * 上次检查后是否被查找过，用于回收长时间未使用的缓存
+     */
+    private volatile boolean accessed = true;
+
+    /**
+     * 实例快照重建后的回调，参数为服务名称，可为空
+     */
+    private final Consumer<String> refreshListener;
+
+    ZKServiceCache(CuratorFramework zkClient, String path, String serviceName, ExecutorService executor) {
+        this(zkClient, path, serviceName, executor, null);
+    }
+
+    ZKServiceCache(CuratorFramework zkClient, String path, String serviceName, ExecutorService executor,
+                   Consumer<String> refreshListener) {
+        this.serviceName = serviceName;
+        this.refreshListener = refreshListener;
+        this.cache = new PathChildrenCache(zkClient, path, true, false, executor) {
+            // PathChildrenCache 默认在刷新前创建缺失的父节点
+            @Override
+            protected void ensurePath() {
+            }
+        };
+        this.cache.getListenable().addListener(this);
+    }
+
+    /**
+     * 异步启动缓存，首次加载完成后会触发{@link PathChildrenCacheEvent.Type#INITIALIZED}事件
+     *
+     * @throws Exception
+     */
+    void start() throws Exception {
+        cache.start(PathChildrenCache.StartMode.POST_INITIALIZED_EVENT);
+    }
+
+    /**
+     * 等待首次加载完成
+     *
+     * @param timeout 超时时间，单位毫秒
+     * @return 是否已完成首次加载
+     * @throws InterruptedException
+     */
+    boolean awaitInitialized(long timeout) throws InterruptedException {
+        try {
+            initialized.get(timeout, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            return false;
+        }
+    }
+
+    boolean isInitialized() {
+        return initialized.isDone();
+    }
+
+    /**
+     * 首次加载完成的通知，用于异步查找服务
+     *
+     * @return
+     */
+    CompletableFuture<Void> initialized() {
+        return initialized;
+    }
+
+    List<InstanceDetail> getInstances() {
+        if(!accessed) {
+            accessed = true;
+        }
+        return instances;
+    }
+
+    /**
+     * 与{@link #getInstances()}相同，但不记为被查找
+     *
+     * @return
+     */
+    List<InstanceDetail> peekInstances() {
+        return instances;
+    }
+
+    boolean isEmpty() {
+        return instances.isEmpty();
+    }
+
+    /**
+     * 返回上次调用后是否被查找过，并清除标记
+     *
+     * @return
+     */
+    boolean resetAccessed() {
+        final boolean result = accessed;
+        accessed = false;
+        return result;
+    }
+
+    List<byte[]> getData() {
+        return data;
+    }
+
+    long getConfirmedAt() {
+        return confirmedAt;
+    }
+
+    /**
+     * 使用本地快照中的节点数据填充，仅在首次加载完成前有效
+     *
+     * @param data  节点数据
+     * @param confirmedAt  快照中记录的与zookeeper一致的时间
+     */
+    synchronized void seed(List<byte[]> data, long confirmedAt) {
+        if(isInitialized()) {
+            return;
+        }
+
+        List<InstanceDetail> detail = deserialize(data);
+        if(detail.isEmpty()) {
+            return;
+        }
+
+        this.instances = Collections.unmodifiableList(detail);
+        this.data = Collections.unmodifiableList(new ArrayList<>(data));
+        this.confirmedAt = confirmedAt;
+        this.seeded = true;
+        LOGGER.info("Service instances of {} loaded from snapshot, {} instance(s) available.", serviceName, detail.size());
+    }
+
+    /**
+     * 使用批量查找时直接从zookeeper读取的节点数据填充，仅在首次加载完成前有效；没有实例时同样可以查找
+     *
+     * @param data  节点数据
+     */
+    synchronized void preload(List<byte[]> data) {
+        if(isInitialized()) {
+            return;
+        }
+
+        List<InstanceDetail> detail = deserialize(data);
+        this.instances = Collections.unmodifiableList(detail);
+        this.data = Collections.unmodifiableList(new ArrayList<>(data));
+        this.confirmedAt = System.currentTimeMillis();
+        this.seeded = true;
+        LOGGER.debug("Service instances of {} preloaded, {} instance(s) available.", serviceName, detail.size());
+    }
+
+    /**
+     * 是否可以直接查找: 已完成首次加载，或者已由本地快照填充
+     *
+     * @return
+     */
+    boolean isAvailable() {
+        return seeded || isInitialized();
+    }
+
+    @Override
+    public void childEvent(CuratorFramework client, PathChildrenCacheEvent event) throws Exception {
+        switch (event.getType()) {
+            case INITIALIZED:
+            case CHILD_ADDED:
+            case CHILD_UPDATED:
+            case CHILD_REMOVED:
+                // 首次加载过程中逐个节点通知，数据不完整，在 INITIALIZED 时统一重建，避免覆盖本地快照填充的实例
+                if(PathChildrenCacheEvent.Type.INITIALIZED == event.getType() || isInitialized()) {
+                    rebuild();
+                }
+                break;
+            default:
+                break;
+        }
+
+        if(PathChildrenCacheEvent.Type.INITIALIZED == event.getType()) {
+            initialized.complete(null);
+        }
+    }
+
+    // 根据缓存中的节点数据重建实例快照
+    private synchronized void rebuild() {
+        List<ChildData> children = cache.getCurrentData();
+        List<byte[]> current = new ArrayList<>(children.size());
+        for(ChildData child: children) {
+            if(null != child.getData()) {
+                current.add(child.getData());
+            }
+        }
+
+        List<InstanceDetail> detail = deserialize(current);
+        this.instances = Collections.unmodifiableList(detail);
+        this.data = Collections.unmodifiableList(current);
+        this.confirmedAt = System.currentTimeMillis();
+        LOGGER.info("Service instances of {} refreshed, {} instance(s) available.", serviceName, detail.size());
+
+        if(null != refreshListener) {
+            refreshListener.accept(serviceName);
+        }
+    }
+
+    private List<InstanceDetail> deserialize(List<byte[]> data) {
+        List<InstanceDetail> detail = new ArrayList<>(data.size());
+        for(byte[] bytes: data) {
+            try {
+                ServiceInstance<InstanceDetail> instance = SERIALIZER.deserialize(bytes);
+                InstanceDetail payload = instance.getPayload();
+                if(null != payload) {
+                    // 服务端不在实例信息中写入注册时间，使用注册中心记录的时间
+                    if(payload.getRegistrationTime() <= 0L) {
+                        payload.setRegistrationTime(instance.getRegistrationTimeUTC());
+                    }
+                    detail.add(payload);
+                }
+            } catch (Exception e) {
+                LOGGER.warn("Failed to deserialize service instance of service {}.", serviceName, e);
+            }
+        }
+        return detail;
+    }
+
+    @Override
+    public void close() throws IOException {
+        cache.close();
+    }
+}
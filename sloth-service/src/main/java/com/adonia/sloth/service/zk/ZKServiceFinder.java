@@ -1,26 +1,65 @@
 package com.adonia.sloth.service.zk;
 
+import com.adonia.sloth.metrics.ServiceMetricsRegistry;
 import com.adonia.sloth.model.InstanceDetail;
 import com.adonia.sloth.model.ServiceException;
+import com.adonia.sloth.service.ILoadBalancer;
 import com.adonia.sloth.service.IServiceFinder;
+import com.adonia.sloth.service.balance.InstanceStatsRegistry;
+import com.adonia.sloth.service.balance.LocalityPolicy;
+import com.adonia.sloth.service.balance.OutlierDetector;
+import com.adonia.sloth.service.balance.RoundRobinLoadBalancer;
+import com.adonia.sloth.service.balance.SlowStartPolicy;
+import com.adonia.sloth.utils.IServiceConstant;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.IteratorUtils;
+import org.apache.commons.lang.StringUtils;
 import org.apache.curator.framework.CuratorFramework;
-import org.apache.curator.x.discovery.ServiceDiscovery;
-import org.apache.curator.x.discovery.ServiceDiscoveryBuilder;
-import org.apache.curator.x.discovery.ServiceInstance;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.utils.ThreadUtils;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.zookeeper.KeeperException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
-import java.util.Random;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * 从zookeeper注册中心查找服务实例
  *
+ * 每个服务名称在首次查找时创建一个监听zookeeper变更的本地缓存{@link ZKServiceCache}，之后的查找均直接读取本地快照，
+ * 只有zookeeper通知变更时才会重新读取节点数据。实例的选择委托给{@link ILoadBalancer}，可按服务名称分别配置，
+ * 缓存被关闭或回收时释放负载均衡中该服务的状态；
+ * 配置了{@link OutlierDetector}时，先过滤掉被剔除的异常实例；配置了{@link LocalityPolicy}时，优先选择距离较近的实例；
+ * 配置了{@link SlowStartPolicy}时，逐步增加新实例的流量。
+ * 批量查找多个服务时，尚未缓存的服务同时在后台读取子节点和节点数据，总耗时约为两次zookeeper往返。
+ * 服务节点不存在时不创建缓存，直接按未找到实例处理，并在 missingTtl 内不再检查该节点；超过 idleTimeout 未被查找，或加载完成后没有实例的缓存会被关闭并释放。
+ *
+ * 配置了本地快照文件({@link ZKServiceSnapshot})时，实例变更后写入快照；重启后首次查找某一服务时先使用快照中的实例，
+ * 不必等待zookeeper。与zookeeper的连接断开(SUSPENDED/LOST)期间继续使用断开前的实例，超过 maxStaleness 后才查找失败。
+ *
  * @author loulou.liu
  * @create 2016/8/16
  */
@@ -28,26 +67,127 @@ public class ZKServiceFinder implements IServiceFinder, Closeable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ZKServiceFinder.class);
 
-    private final ServiceDiscovery<InstanceDetail> discovery;
+    private static final long SNAPSHOT_SAVE_DELAY = 1000L;
 
-    public ZKServiceFinder(CuratorFramework zkClient, String servicePath) throws ServiceException{
+    private final CuratorFramework zkClient;
 
-        this.discovery = ServiceDiscoveryBuilder.builder(InstanceDetail.class)
-                .basePath(servicePath)
-                .client(zkClient)
-                .build();
-        try {
-            discovery.start();
-        } catch (Exception e) {
-            LOGGER.error("Failed to start service discovery.", e);
-            throw new ServiceException(e);
-        }
+    private final String servicePath;
+
+    /**
+     * 服务实例缓存，key为服务名称 {namespace}/{version}/{serviceName}
+     */
+    private final ConcurrentMap<String, ZKServiceCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * 所有服务缓存共用的事件处理线程，zookeeper的读取均为异步回调，不会阻塞在该线程上
+     */
+    private final ExecutorService cacheExecutor = ThreadUtils.newSingleThreadExecutor("SlothServiceCache");
+
+    /**
+     * 异步查找服务时，用于首次加载的超时控制；同时用于定期回收长时间未使用的缓存、写入本地快照
+     */
+    private final ScheduledExecutorService timeoutScheduler = ThreadUtils.newSingleThreadScheduledExecutor(
+            "SlothServiceLookupTimeout");
+
+    /**
+     * 首次查找某一服务时，等待实例加载完成的超时时间，单位毫秒
+     */
+    private long lookupTimeout = 3000L;
+
+    /**
+     * 缓存的回收周期，单位毫秒: 一个周期内未被查找的缓存被关闭；0 表示不回收
+     */
+    private long idleTimeout = TimeUnit.MINUTES.toMillis(10);
+
+    private final AtomicBoolean evictionScheduled = new AtomicBoolean();
+
+    /**
+     * 注册中心中不存在的服务，value为失效时间(System.nanoTime)；失效前再次查找时直接返回空，不再检查服务节点
+     */
+    private final ConcurrentMap<String, Long> missing = new ConcurrentHashMap<>();
+
+    /**
+     * 不存在的服务的缓存时间，单位毫秒；0 表示不缓存
+     */
+    private long missingTtl = 1000L;
+
+    /**
+     * 默认的负载均衡策略
+     */
+    private ILoadBalancer loadBalancer = new RoundRobinLoadBalancer();
+
+    /**
+     * 按服务名称单独指定的负载均衡策略，key为服务名称 {namespace}/{version}/{serviceName}
+     */
+    private Map<String, ILoadBalancer> loadBalancers = Collections.emptyMap();
+
+    /**
+     * 可通过名称引用的负载均衡策略，key为策略名称
+     */
+    private Map<String, ILoadBalancer> strategies = Collections.emptyMap();
+
+    /**
+     * 按服务名称引用的策略名称，与 strategies 一起解析到 loadBalancers 中
+     */
+    private Map<String, String> strategyNames = Collections.emptyMap();
+
+    /**
+     * 异常实例剔除，为空时不剔除
+     */
+    private OutlierDetector outlierDetector;
+
+    /**
+     * 新实例慢启动，为空时不限制
+     */
+    private SlowStartPolicy slowStartPolicy;
+
+    /**
+     * 就近选择，为空时不考虑实例所在位置
+     */
+    private LocalityPolicy localityPolicy;
+
+    /**
+     * 实例调用统计，实例从所有服务的缓存中消失后移除其统计；为空时不处理
+     */
+    private InstanceStatsRegistry statsRegistry;
+
+    /**
+     * 服务调用统计，实例离开服务后注销其统计；为空时不处理
+     */
+    private ServiceMetricsRegistry metricsRegistry;
+
+    /**
+     * 本地快照，为空时不使用
+     */
+    private ZKServiceSnapshot snapshot;
+
+    /**
+     * 启动时从本地快照读取的实例，key为服务名称，首次使用时读取
+     */
+    private Map<String, ZKServiceSnapshot.Entry> snapshotEntries;
+
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+
+    /**
+     * 实例数据的最长有效期，单位毫秒: 超过的本地快照不再使用，与zookeeper断开超过该时长后查找失败；0 表示不限制
+     */
+    private long maxStaleness = TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * 与zookeeper断开连接的时间，0 表示连接正常
+     */
+    private volatile long disconnectedSince;
+
+    public ZKServiceFinder(CuratorFramework zkClient, String servicePath) throws ServiceException{
+        this.zkClient = zkClient;
+        this.servicePath = servicePath;
+        this.zkClient.getConnectionStateListenable().addListener((client, state) -> onConnectionStateChanged(state));
     }
 
     /**
      * 根据服务标志名称，查找服务实例
      * <p>
-     * N.B. 对于分布式集群场景，同一服务名称，会存在多个实例，这时，会随机从服务列表中选择一个
+     * N.B. 对于分布式集群场景，同一服务名称，会存在多个实例，这时，由该服务对应的负载均衡策略从服务列表中选择一个
      *
      * @param serviceName 服务实例名
      * @return
@@ -56,31 +196,779 @@ public class ZKServiceFinder implements IServiceFinder, Closeable {
     @Override
     public InstanceDetail findService(String serviceName) throws ServiceException {
 
+        InstanceDetail instance = choose(serviceName, getInstances(serviceName));
+        if(null == instance) {
+            return null;
+        }
+
+        LOGGER.debug("Find a service instance {} within service name {}.", instance, serviceName);
+        return instance;
+    }
+
+    @Override
+    public InstanceDetail findService(String serviceName, Collection<InstanceDetail> excludes) throws ServiceException {
+        return chooseExcluding(serviceName, getInstances(serviceName), excludes);
+    }
+
+    /**
+     * 异步查找服务实例，服务实例已在本地缓存时立即返回，否则在首次加载完成后返回
+     *
+     * @param serviceName 服务实例名
+     * @return
+     */
+    @Override
+    public CompletableFuture<InstanceDetail> findServiceAsync(final String serviceName) {
+        // 直接传递查找失败的 ServiceException，不包装为 CompletionException
+        final CompletableFuture<InstanceDetail> future = new CompletableFuture<>();
+        getInstancesAsync(serviceName).whenComplete((instances, e) -> {
+            if(null != e) {
+                future.completeExceptionally(e);
+            } else {
+                future.complete(choose(serviceName, instances));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 异步查找服务实例，跳过指定的实例；服务实例已在本地缓存时立即返回，否则在首次加载完成后返回
+     *
+     * @param serviceName 服务实例名
+     * @param excludes  不再选择的服务实例
+     * @return
+     */
+    @Override
+    public CompletableFuture<InstanceDetail> findServiceAsync(final String serviceName,
+                                                              final Collection<InstanceDetail> excludes) {
+        final CompletableFuture<InstanceDetail> future = new CompletableFuture<>();
+        getInstancesAsync(serviceName).whenComplete((instances, e) -> {
+            if(null != e) {
+                future.completeExceptionally(e);
+            } else {
+                future.complete(chooseExcluding(serviceName, instances, excludes));
+            }
+        });
+        return future;
+    }
+
+    // 跳过 excludes 中的实例后选择
+    private InstanceDetail chooseExcluding(String serviceName, List<InstanceDetail> instances,
+                                           Collection<InstanceDetail> excludes) {
+        if(CollectionUtils.isEmpty(excludes)) {
+            return choose(serviceName, instances);
+        }
+
+        List<InstanceDetail> remaining = new ArrayList<>(instances.size());
+        for(InstanceDetail instance: instances) {
+            if(!isExcluded(instance, excludes)) {
+                remaining.add(instance);
+            }
+        }
+
+        if(remaining.isEmpty()) {
+            LOGGER.debug("No more service instance within service name {} except {}.", serviceName, excludes);
+            return null;
+        }
+
+        return choose(serviceName, instances, remaining);
+    }
+
+    @Override
+    public List<InstanceDetail> findAllServices(String serviceName) throws ServiceException {
+        return getInstances(serviceName);
+    }
+
+    @Override
+    public CompletableFuture<List<InstanceDetail>> findAllServicesAsync(String serviceName) {
+        return getInstancesAsync(serviceName);
+    }
+
+    // 异步获取服务实例快照，已在本地缓存时立即返回，否则在首次加载完成后返回；服务节点不存在时为空
+    private CompletableFuture<List<InstanceDetail>> getInstancesAsync(final String serviceName) {
+        final CompletableFuture<List<InstanceDetail>> future = new CompletableFuture<>();
+        getCacheAsync(serviceName).whenComplete((cache, e) -> {
+            if(null != e) {
+                future.completeExceptionally(e);
+            } else if(null == cache) {
+                future.complete(Collections.<InstanceDetail>emptyList());
+            } else if(cache.isAvailable()) {
+                completeInstances(future, serviceName, cache);
+            } else {
+                cache.initialized().thenRun(() -> completeInstances(future, serviceName, cache));
+            }
+        });
+
+        if(!future.isDone()) {
+            scheduleTimeout(future, serviceName);
+        }
+        return future;
+    }
+
+    // 与同步查找一样，返回前检查实例数据是否已过期
+    private void completeInstances(CompletableFuture<List<InstanceDetail>> future, String serviceName,
+                                   ZKServiceCache cache) {
         try {
-            Collection<ServiceInstance<InstanceDetail>> instances = this.discovery.queryForInstances(serviceName);
+            checkStaleness(serviceName, cache);
+            future.complete(cache.getInstances());
+        } catch (ServiceException se) {
+            future.completeExceptionally(se);
+        }
+    }
 
-            if(CollectionUtils.isEmpty(instances)) {
-                LOGGER.warn("Could not find any available service within name {}.", serviceName);
+    /**
+     * 批量查找服务实例，所有服务均可查找时返回
+     *
+     * @param serviceNames 服务实例名
+     * @return
+     * @throws ServiceException
+     */
+    @Override
+    public Map<String, InstanceDetail> findServices(Collection<String> serviceNames) throws ServiceException {
+        try {
+            return findServicesAsync(serviceNames).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw (cause instanceof ServiceException) ? (ServiceException) cause : new ServiceException(cause);
+        }
+    }
+
+    /**
+     * 异步批量查找服务实例，所有服务均可查找时返回
+     *
+     * 尚未缓存的服务先在后台同时读取子节点及节点数据(Curator 异步回调，请求依次发出、不等待响应)，读取完成后创建缓存并预先填充；
+     * 服务节点不存在的服务不创建缓存。缓存自身的首次加载在共用的事件线程中依次进行，不必等待。
+     *
+     * @param serviceNames 服务实例名
+     * @return
+     */
+    @Override
+    public CompletableFuture<Map<String, InstanceDetail>> findServicesAsync(Collection<String> serviceNames) {
+        // 服务节点不存在时为 null
+        final Map<String, CompletableFuture<ZKServiceCache>> loading = new LinkedHashMap<>();
+        for(final String serviceName: serviceNames) {
+            if(loading.containsKey(serviceName)) {
+                continue;
+            }
+
+            ZKServiceCache cache = caches.get(serviceName);
+            if(null == cache && getSnapshotEntries().containsKey(serviceName)) {
+                try {
+                    cache = createCache(serviceName);
+                } catch (ServiceException e) {
+                    return failed(e);
+                }
+            }
+
+            if(null != cache) {
+                loading.put(serviceName, available(cache));
+                continue;
+            }
+
+            if(isMissing(serviceName)) {
+                loading.put(serviceName, CompletableFuture.<ZKServiceCache>completedFuture(null));
+                continue;
+            }
+
+            loading.put(serviceName, prefetch(serviceName).handle((data, e) -> {
+                if(null == e && null == data) {
+                    markMissing(serviceName);
+                    return CompletableFuture.<ZKServiceCache>completedFuture(null);
+                }
+
+                final ZKServiceCache created;
+                try {
+                    created = createCache(serviceName);
+                } catch (ServiceException se) {
+                    return ZKServiceFinder.<ZKServiceCache>failed(se);
+                }
+
+                // 读取失败时等待缓存自身的首次加载
+                if(null == e) {
+                    created.preload(data);
+                } else {
+                    LOGGER.debug("Failed to prefetch service instances of {}.", serviceName, e);
+                }
+                return available(created);
+            }).thenCompose(future -> future));
+        }
+
+        final CompletableFuture<Map<String, InstanceDetail>> future = new CompletableFuture<>();
+        final Collection<CompletableFuture<ZKServiceCache>> ready = loading.values();
+        CompletableFuture.allOf(ready.toArray(new CompletableFuture<?>[ready.size()])).whenComplete((result, e) -> {
+            if(null != e) {
+                Throwable cause = (e instanceof CompletionException && null != e.getCause()) ? e.getCause() : e;
+                future.completeExceptionally(cause);
+                return;
+            }
+
+            final Map<String, ZKServiceCache> found = new LinkedHashMap<>();
+            for(Map.Entry<String, CompletableFuture<ZKServiceCache>> entry: loading.entrySet()) {
+                if(null != entry.getValue().join()) {
+                    found.put(entry.getKey(), entry.getValue().join());
+                }
+            }
+
+            try {
+                future.complete(choose(found));
+            } catch (ServiceException se) {
+                future.completeExceptionally(se);
+            }
+        });
+
+        if(!future.isDone()) {
+            final List<String> pending = new ArrayList<>();
+            for(Map.Entry<String, CompletableFuture<ZKServiceCache>> entry: loading.entrySet()) {
+                if(!entry.getValue().isDone()) {
+                    pending.add(entry.getKey());
+                }
+            }
+            scheduleTimeout(future, StringUtils.join(pending, ", "));
+        }
+
+        return future;
+    }
+
+    // 缓存可以直接查找时立即结束，否则在首次加载完成后结束
+    private static CompletableFuture<ZKServiceCache> available(ZKServiceCache cache) {
+        return cache.isAvailable() ? CompletableFuture.completedFuture(cache)
+                : cache.initialized().thenApply(result -> cache);
+    }
+
+    /**
+     * 在后台读取服务的子节点及各节点的数据，服务节点不存在时为 null
+     *
+     * N.B. 回调在 zookeeper 的事件线程中执行，只发出请求，不做阻塞操作
+     */
+    private CompletableFuture<List<byte[]>> prefetch(String serviceName) {
+        final CompletableFuture<List<byte[]>> future = new CompletableFuture<>();
+        final String path = ZKPaths.makePath(servicePath, serviceName);
+        try {
+            zkClient.getChildren().inBackground((client, event) -> {
+                final KeeperException.Code code = KeeperException.Code.get(event.getResultCode());
+                if(KeeperException.Code.NONODE == code) {
+                    future.complete(null);
+                    return;
+                }
+                if(KeeperException.Code.OK != code) {
+                    future.completeExceptionally(KeeperException.create(code, path));
+                    return;
+                }
+
+                final List<String> children = event.getChildren();
+                if(children.isEmpty()) {
+                    future.complete(Collections.<byte[]>emptyList());
+                    return;
+                }
+
+                final AtomicReferenceArray<byte[]> data = new AtomicReferenceArray<>(children.size());
+                final AtomicInteger pending = new AtomicInteger(children.size());
+                for(int i = 0; i < children.size(); i++) {
+                    final int index = i;
+                    client.getData().inBackground((c, dataEvent) -> {
+                        final KeeperException.Code dataCode = KeeperException.Code.get(dataEvent.getResultCode());
+                        // 读取期间被删除的实例忽略
+                        if(KeeperException.Code.OK == dataCode) {
+                            data.set(index, dataEvent.getData());
+                        } else if(KeeperException.Code.NONODE != dataCode) {
+                            future.completeExceptionally(KeeperException.create(dataCode, dataEvent.getPath()));
+                        }
+
+                        if(0 == pending.decrementAndGet()) {
+                            List<byte[]> result = new ArrayList<>(data.length());
+                            for(int j = 0; j < data.length(); j++) {
+                                if(null != data.get(j)) {
+                                    result.add(data.get(j));
+                                }
+                            }
+                            future.complete(result);
+                        }
+                    }).forPath(ZKPaths.makePath(path, children.get(i)));
+                }
+            }).forPath(path);
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    // 首次加载在超时时间内未完成时，以异常结束
+    private void scheduleTimeout(CompletableFuture<?> future, String serviceNames) {
+        final ScheduledFuture<?> timeout = timeoutScheduler.schedule(() -> {
+            if(future.completeExceptionally(new ServiceException("Timeout when finding service " + serviceNames,
+                    IServiceConstant.SERVICE_INTERNAL_ERROR))) {
+                LOGGER.error("Timeout when loading service instances with name {}.", serviceNames);
+            }
+        }, lookupTimeout, TimeUnit.MILLISECONDS);
+        future.whenComplete((result, e) -> timeout.cancel(false));
+    }
+
+    private static <T> CompletableFuture<T> failed(ServiceException e) {
+        CompletableFuture<T> failed = new CompletableFuture<>();
+        failed.completeExceptionally(e);
+        return failed;
+    }
+
+    // 各服务分别选择一个实例，未找到实例的服务不在结果中
+    private Map<String, InstanceDetail> choose(Map<String, ZKServiceCache> caches) throws ServiceException {
+        final Map<String, InstanceDetail> instances = new LinkedHashMap<>();
+        for(Map.Entry<String, ZKServiceCache> entry: caches.entrySet()) {
+            checkStaleness(entry.getKey(), entry.getValue());
+            InstanceDetail instance = choose(entry.getKey(), entry.getValue().getInstances());
+            if(null != instance) {
+                instances.put(entry.getKey(), instance);
+            }
+        }
+        return instances;
+    }
+
+    private InstanceDetail choose(String serviceName, List<InstanceDetail> instances) {
+        return choose(serviceName, instances, instances);
+    }
+
+    /**
+     * @param instances  服务实例快照
+     * @param candidates  快照中可选的实例
+     */
+    private InstanceDetail choose(String serviceName, List<InstanceDetail> instances, List<InstanceDetail> candidates) {
+        if(CollectionUtils.isEmpty(candidates)) {
+            LOGGER.warn("Could not find any available service within name {}.", serviceName);
+            return null;
+        }
+
+        if(null != outlierDetector) {
+            candidates = outlierDetector.filter(serviceName, candidates);
+        }
+
+        if(null != localityPolicy) {
+            candidates = localityPolicy.filter(serviceName, instances, candidates);
+        }
+
+        InstanceDetail instance = getLoadBalancer(serviceName).choose(serviceName, candidates);
+        if(null != slowStartPolicy) {
+            instance = slowStartPolicy.admit(candidates, instance);
+        }
+        return instance;
+    }
+
+    // 实例快照在zookeeper变更时会整体重建，因此按监听地址比较
+    private static boolean isExcluded(InstanceDetail instance, Collection<InstanceDetail> excludes) {
+        for(InstanceDetail exclude: excludes) {
+            if(instance.getListenAddress().equals(exclude.getListenAddress())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 尚未缓存的服务先检查服务节点是否存在(本地快照中的服务除外)，不存在时返回 null，不创建缓存
+    private ZKServiceCache getCache(String serviceName) throws ServiceException {
+        ZKServiceCache cache = caches.get(serviceName);
+        if(null != cache) {
+            return cache;
+        }
+
+        if(!getSnapshotEntries().containsKey(serviceName)) {
+            if(isMissing(serviceName)) {
                 return null;
             }
 
-            int index = new Random().nextInt(instances.size());
+            try {
+                if(null == zkClient.checkExists().forPath(ZKPaths.makePath(servicePath, serviceName))) {
+                    LOGGER.debug("Service node of {} does not exist.", serviceName);
+                    markMissing(serviceName);
+                    return null;
+                }
+            } catch (Exception e) {
+                LOGGER.error("Exception happens when finding service with name {}.", serviceName, e);
+                throw new ServiceException(e);
+            }
+        }
+        return createCache(serviceName);
+    }
 
-            Iterator<ServiceInstance<InstanceDetail>> iter = instances.iterator();
-            InstanceDetail instance = IteratorUtils.get(iter, index).getPayload();
+    /**
+     * 与{@link #getCache(String)}相同，在后台检查服务节点是否存在
+     *
+     * N.B. 回调在 zookeeper 的事件线程中执行，缓存的启动只发出请求，不做阻塞操作
+     */
+    private CompletableFuture<ZKServiceCache> getCacheAsync(final String serviceName) {
+        final ZKServiceCache cache = caches.get(serviceName);
+        if(null != cache) {
+            return CompletableFuture.completedFuture(cache);
+        }
+
+        final CompletableFuture<ZKServiceCache> future = new CompletableFuture<>();
+        if(getSnapshotEntries().containsKey(serviceName)) {
+            try {
+                future.complete(createCache(serviceName));
+            } catch (ServiceException e) {
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+
+        if(isMissing(serviceName)) {
+            future.complete(null);
+            return future;
+        }
 
-            LOGGER.info("Find a service instance {} within service name {}.", instance, serviceName);
-            return instance;
+        final String path = ZKPaths.makePath(servicePath, serviceName);
+        try {
+            zkClient.checkExists().inBackground((client, event) -> {
+                final KeeperException.Code code = KeeperException.Code.get(event.getResultCode());
+                if(KeeperException.Code.NONODE == code) {
+                    LOGGER.debug("Service node of {} does not exist.", serviceName);
+                    markMissing(serviceName);
+                    future.complete(null);
+                } else if(KeeperException.Code.OK != code) {
+                    future.completeExceptionally(new ServiceException(KeeperException.create(code, path)));
+                } else {
+                    try {
+                        future.complete(createCache(serviceName));
+                    } catch (ServiceException e) {
+                        future.completeExceptionally(e);
+                    }
+                }
+            }).forPath(path);
         } catch (Exception e) {
+            LOGGER.error("Exception happens when finding service with name {}.", serviceName, e);
+            future.completeExceptionally(new ServiceException(e));
+        }
+        return future;
+    }
+
+    // 服务节点在最近 missingTtl 内确认不存在
+    private boolean isMissing(String serviceName) {
+        final Long expireAt = missing.get(serviceName);
+        if(null == expireAt) {
+            return false;
+        }
+
+        if(System.nanoTime() - expireAt < 0) {
+            return true;
+        }
+        missing.remove(serviceName, expireAt);
+        return false;
+    }
+
+    private void markMissing(String serviceName) {
+        if(missingTtl > 0) {
+            missing.put(serviceName, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(missingTtl));
+            scheduleEviction();
+        }
+    }
+
+    // 获取服务实例快照，首次查找时创建并启动该服务的缓存；服务节点不存在时为空
+    private List<InstanceDetail> getInstances(String serviceName) throws ServiceException {
+        ZKServiceCache cache = getCache(serviceName);
+        if(null == cache) {
+            return Collections.emptyList();
+        }
+
+        if(!cache.isAvailable()) {
+            try {
+                if(!cache.awaitInitialized(lookupTimeout)) {
+                    LOGGER.error("Timeout when loading service instances with name {}.", serviceName);
+                    throw new ServiceException("Timeout when finding service " + serviceName,
+                            IServiceConstant.SERVICE_INTERNAL_ERROR);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServiceException(e);
+            }
+        }
+
+        checkStaleness(serviceName, cache);
+        return cache.getInstances();
+    }
+
+    // 与zookeeper断开后，实例数据可能已过期
+    private void checkStaleness(String serviceName, ZKServiceCache cache) throws ServiceException {
+        final long since = disconnectedSince;
+        if(maxStaleness <= 0 || (0 == since && cache.isInitialized())) {
+            return;
+        }
+
+        // 已由zookeeper加载的实例在断开连接前有效，本地快照中的实例在快照记录的时间有效
+        final long validAt = cache.isInitialized() ? since : cache.getConfirmedAt();
+        if(System.currentTimeMillis() - validAt > maxStaleness) {
+            LOGGER.error("Service instances of {} are stale, disconnected from zookeeper since {}.", serviceName, since);
+            throw new ServiceException("Service instances of " + serviceName + " are stale",
+                    IServiceConstant.SERVICE_INTERNAL_ERROR);
+        }
+    }
+
+    private ZKServiceCache createCache(String serviceName) throws ServiceException {
+        ZKServiceCache cache = new ZKServiceCache(zkClient, ZKPaths.makePath(servicePath, serviceName), serviceName,
+                cacheExecutor, this::onRefresh);
+
+        ZKServiceCache exists = caches.putIfAbsent(serviceName, cache);
+        if(null != exists) {
+            return exists;
+        }
+
+        ZKServiceSnapshot.Entry entry = getSnapshotEntries().get(serviceName);
+        if(null != entry) {
+            cache.seed(entry.getData(), entry.getConfirmedAt());
+        }
+
+        try {
+            cache.start();
+        } catch (Exception e) {
+            caches.remove(serviceName, cache);
             LOGGER.error("Exception happens when finding service with name {}.", serviceName, e);
             throw new ServiceException(e);
         }
+
+        scheduleEviction();
+        return cache;
+    }
+
+    private void scheduleEviction() {
+        if(idleTimeout > 0 && evictionScheduled.compareAndSet(false, true)) {
+            timeoutScheduler.scheduleWithFixedDelay(this::evictIdle, idleTimeout, idleTimeout, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // 关闭一个周期内未被查找，或加载完成后没有实例的缓存；之后再查找时重新创建。同时清理已失效的不存在服务
+    private void evictIdle() {
+        final long now = System.nanoTime();
+        missing.entrySet().removeIf(entry -> now - entry.getValue() >= 0);
+
+        for(Map.Entry<String, ZKServiceCache> entry: caches.entrySet()) {
+            final ZKServiceCache cache = entry.getValue();
+            final boolean idle = !cache.resetAccessed();
+            if(idle || (cache.isInitialized() && cache.isEmpty())) {
+                evict(entry.getKey(), cache);
+            }
+        }
+    }
+
+    private void evict(String serviceName, ZKServiceCache cache) {
+        if(!caches.remove(serviceName, cache)) {
+            return;
+        }
+
+        try {
+            cache.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close service cache of {}.", serviceName, e);
+        }
+        release(serviceName);
+        pruneStats();
+        if(null != metricsRegistry) {
+            metricsRegistry.retainInstances(serviceName, Collections.<InstanceDetail>emptyList());
+        }
+        LOGGER.info("Service cache of {} evicted.", serviceName);
+    }
+
+    // 服务的实例快照重建后调用，在缓存共用的事件线程中执行
+    private void onRefresh(String serviceName) {
+        if(null != snapshot) {
+            scheduleSave();
+        }
+        pruneStats();
+
+        final ZKServiceCache cache = caches.get(serviceName);
+        if(null != metricsRegistry && null != cache) {
+            metricsRegistry.retainInstances(serviceName, cache.peekInstances());
+        }
+    }
+
+    // 同一实例可能发布多个服务，只移除不在任何服务缓存中的实例的统计
+    private void pruneStats() {
+        if(null == statsRegistry) {
+            return;
+        }
+
+        final Set<String> addresses = new HashSet<>();
+        for(ZKServiceCache cache: caches.values()) {
+            for(InstanceDetail instance: cache.peekInstances()) {
+                addresses.add(instance.getListenAddress());
+            }
+        }
+        statsRegistry.retain(addresses);
+    }
+
+    // 关闭服务的缓存后，释放负载均衡中按服务保存的状态
+    private void release(String serviceName) {
+        getLoadBalancer(serviceName).remove(serviceName);
+        if(null != localityPolicy) {
+            localityPolicy.remove(serviceName);
+        }
+    }
+
+    private synchronized Map<String, ZKServiceSnapshot.Entry> getSnapshotEntries() {
+        if(null == snapshotEntries) {
+            snapshotEntries = (null == snapshot) ? Collections.<String, ZKServiceSnapshot.Entry>emptyMap()
+                    : snapshot.load(maxStaleness);
+        }
+        return snapshotEntries;
+    }
+
+    // 实例变更较为集中(例如服务端批量重启)，合并一段时间内的变更后写入
+    private void scheduleSave() {
+        if(saveScheduled.compareAndSet(false, true)) {
+            timeoutScheduler.schedule(() -> {
+                saveScheduled.set(false);
+                saveSnapshot();
+            }, SNAPSHOT_SAVE_DELAY, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void saveSnapshot() {
+        // 保留快照中本次尚未查找过的服务
+        Map<String, ZKServiceSnapshot.Entry> entries = new HashMap<>(getSnapshotEntries());
+
+        final long now = System.currentTimeMillis();
+        for(Map.Entry<String, ZKServiceCache> entry: caches.entrySet()) {
+            ZKServiceCache cache = entry.getValue();
+            if(cache.isInitialized()) {
+                final long confirmedAt = (0 == disconnectedSince) ? now : cache.getConfirmedAt();
+                entries.put(entry.getKey(), new ZKServiceSnapshot.Entry(confirmedAt, cache.getData()));
+            }
+        }
+
+        try {
+            snapshot.save(entries);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to save service snapshot.", e);
+        }
+    }
+
+    private void onConnectionStateChanged(ConnectionState state) {
+        if(ConnectionState.SUSPENDED == state || ConnectionState.LOST == state) {
+            if(0 == disconnectedSince) {
+                disconnectedSince = System.currentTimeMillis();
+                LOGGER.warn("Connection to zookeeper {}, keep using cached service instances.", state);
+            }
+        } else if(state.isConnected()) {
+            disconnectedSince = 0;
+        }
+    }
+
+    private ILoadBalancer getLoadBalancer(String serviceName) {
+        ILoadBalancer balancer = loadBalancers.get(serviceName);
+        return (null == balancer) ? loadBalancer : balancer;
+    }
+
+    public void setLoadBalancer(ILoadBalancer loadBalancer) {
+        this.loadBalancer = loadBalancer;
+    }
+
+    public void setLoadBalancers(Map<String, ILoadBalancer> loadBalancers) {
+        this.loadBalancers = (null == loadBalancers) ? Collections.<String, ILoadBalancer>emptyMap() : loadBalancers;
+        resolveLoadBalancers();
+    }
+
+    /**
+     * @param strategies  可在{@link #setLoadBalancerMapping(String[])}中引用的负载均衡策略，key为策略名称
+     */
+    public void setLoadBalancerStrategies(Map<String, ILoadBalancer> strategies) {
+        this.strategies = (null == strategies) ? Collections.<String, ILoadBalancer>emptyMap() : strategies;
+        resolveLoadBalancers();
+    }
+
+    /**
+     * @param mapping  按服务名称指定的负载均衡策略，每项为 {服务名称}={策略名称}，
+     *                 例如 sloth.person/v1/getPerson=leastRequestLoadBalancer
+     */
+    public void setLoadBalancerMapping(String[] mapping) {
+        Map<String, String> names = new HashMap<>();
+        if(null != mapping) {
+            for(String item: mapping) {
+                if(item.trim().isEmpty()) {
+                    continue;
+                }
+
+                int index = item.indexOf('=');
+                if(index <= 0 || index == item.length() - 1) {
+                    throw new IllegalArgumentException("Invalid load balancer mapping: " + item);
+                }
+                names.put(item.substring(0, index).trim(), item.substring(index + 1).trim());
+            }
+        }
+
+        this.strategyNames = names;
+        resolveLoadBalancers();
+    }
+
+    // 两者均已设置时才能解析，与属性的设置顺序无关
+    private void resolveLoadBalancers() {
+        if(strategyNames.isEmpty() || strategies.isEmpty()) {
+            return;
+        }
+
+        Map<String, ILoadBalancer> resolved = new HashMap<>(loadBalancers);
+        for(Map.Entry<String, String> entry: strategyNames.entrySet()) {
+            ILoadBalancer balancer = strategies.get(entry.getValue());
+            if(null == balancer) {
+                throw new IllegalArgumentException("Unknown load balancer " + entry.getValue()
+                        + " for service " + entry.getKey());
+            }
+            resolved.put(entry.getKey(), balancer);
+        }
+        this.loadBalancers = resolved;
+    }
+
+    public void setOutlierDetector(OutlierDetector outlierDetector) {
+        this.outlierDetector = outlierDetector;
+    }
+
+    public void setStatsRegistry(InstanceStatsRegistry statsRegistry) {
+        this.statsRegistry = statsRegistry;
+    }
+
+    public void setMetricsRegistry(ServiceMetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    public void setLocalityPolicy(LocalityPolicy localityPolicy) {
+        this.localityPolicy = localityPolicy;
+    }
+
+    public void setSlowStartPolicy(SlowStartPolicy slowStartPolicy) {
+        this.slowStartPolicy = slowStartPolicy;
+    }
+
+    public void setLookupTimeout(long lookupTimeout) {
+        this.lookupTimeout = lookupTimeout;
+    }
+
+    /**
+     * @param snapshotFile  本地快照文件的路径，为空时不使用
+     */
+    public void setSnapshotFile(String snapshotFile) {
+        this.snapshot = StringUtils.isBlank(snapshotFile) ? null : new ZKServiceSnapshot(new File(snapshotFile.trim()));
+    }
+
+    public void setMaxStaleness(long maxStaleness) {
+        this.maxStaleness = maxStaleness;
+    }
+
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public void setMissingTtl(long missingTtl) {
+        this.missingTtl = missingTtl;
     }
 
     @Override
     public void close() throws IOException {
-        if(null != discovery) {
-            discovery.close();
+        timeoutScheduler.shutdownNow();
+        if(null != snapshot && !caches.isEmpty()) {
+            saveSnapshot();
+        }
+
+        for(Map.Entry<String, ZKServiceCache> entry: caches.entrySet()) {
+            entry.getValue().close();
+            release(entry.getKey());
         }
+        caches.clear();
+        cacheExecutor.shutdownNow();
     }
 }
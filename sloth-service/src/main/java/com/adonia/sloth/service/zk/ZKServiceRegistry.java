@@ -1,10 +1,16 @@
 package com.adonia.sloth.service.zk;
 
+import com.adonia.sloth.codec.JacksonCodec;
+import com.adonia.sloth.load.LoadReport;
+import com.adonia.sloth.load.ServerLoad;
+import com.adonia.sloth.load.ServiceLoad;
 import com.adonia.sloth.model.InstanceDetail;
 import com.adonia.sloth.model.ServiceException;
 import com.adonia.sloth.utils.IServiceConstant;
+import com.adonia.sloth.utils.ServicePaths;
 import org.apache.commons.lang.StringUtils;
 import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.utils.ThreadUtils;
 import org.apache.curator.x.discovery.ServiceDiscovery;
 import org.apache.curator.x.discovery.ServiceDiscoveryBuilder;
 import org.apache.curator.x.discovery.ServiceInstance;
@@ -12,15 +18,24 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 使用zookeeper提供服务注册
  *
+ * 配置 sloth.service.load.interval 时，按该周期采样{@link com.adonia.sloth.load.LoadFilter}统计的各服务负载，
+ * 与上次发布的相比变化明显时才更新注册中心中的服务实例信息，避免频繁写入 ZooKeeper。
+ *
  * @author loulou.liu
  * @create 2016/8/22
  */
@@ -58,6 +73,55 @@ public class ZKServiceRegistry {
     @Value("${sloth.service.context:/}")
     private String context;
 
+    /**
+     * 服务实例权重,默认<code>100</code>
+     */
+    @Value("${sloth.service.weight:100}")
+    private int weight;
+
+    /**
+     * 服务端支持的编码，按逗号分隔，默认<code>json</code>；
+     * 声明其他编码时需将对应的{@link com.adonia.sloth.codec.CodecHttpMessageConverter}加入 Spring MVC
+     */
+    @Value("${sloth.service.codecs:json}")
+    private String[] codecs;
+
+    /**
+     * 服务端所在的可用区、机架，可为空
+     */
+    @Value("${sloth.service.locality.zone:}")
+    private String zone;
+
+    @Value("${sloth.service.locality.rack:}")
+    private String rack;
+
+    /**
+     * 服务端所在的主机标识，为空时与注册的服务端地址相同；容器部署时可设置为宿主机名称
+     */
+    @Value("${sloth.service.locality.host:}")
+    private String hostLabel;
+
+    /**
+     * 发布服务端负载的周期，单位毫秒，0 表示不发布
+     */
+    @Value("${sloth.service.load.interval:0}")
+    private long loadInterval;
+
+    /**
+     * 负载的变化超过该比例(百分比)时才重新发布
+     */
+    @Value("${sloth.service.load.changePercent:20}")
+    private int loadChangePercent;
+
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+
+    private ScheduledExecutorService loadReporter;
+
+    /**
+     * 进程内发布的所有服务使用同一注册时间，调用端按监听地址判断实例是否处于预热期
+     */
+    private final long registrationTime = System.currentTimeMillis();
+
     @PostConstruct
     public void start() throws ServiceException {
 
@@ -73,10 +137,24 @@ public class ZKServiceRegistry {
             LOGGER.error("Exception happens, failed to start service discovery!", e);
             throw new ServiceException(e);
         }
+
+        if(loadInterval > 0) {
+            loadReporter = ThreadUtils.newSingleThreadScheduledExecutor("SlothLoadReporter");
+            loadReporter.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    reportLoad();
+                }
+            }, loadInterval, loadInterval, TimeUnit.MILLISECONDS);
+        }
     }
 
     @PreDestroy
     public void close() {
+        if(null != loadReporter) {
+            loadReporter.shutdownNow();
+        }
+
         if(null != discovery) {
             try {
                 discovery.close();
@@ -100,12 +178,36 @@ public class ZKServiceRegistry {
      */
     public void register(String host, int port, String namespace, String version, String serviceName, String controllerRequestMapping,
                          String methodRequestMapping) throws ServiceException {
+        register(host, port, namespace, version, serviceName, controllerRequestMapping, methodRequestMapping, 0);
+    }
+
+    /**
+     * 注册服务至注册中心
+     *
+     * @param host                     服务发布时所在服务端IP或者域名
+     * @param port                     服务发布时所在服务端的监听地址
+     * @param namespace                服务命名空间
+     * @param version                  服务版本号
+     * @param serviceName              服务标识名称
+     * @param controllerRequestMapping 服务实现的Controller的对应的映射地址
+     * @param methodRequestMapping     服务实现的方法对应的映射地址
+     * @param maxConcurrency           服务实例可同时处理的请求数，0 表示未声明
+     * @throws ServiceException
+     */
+    public void register(String host, int port, String namespace, String version, String serviceName, String controllerRequestMapping,
+                         String methodRequestMapping, int maxConcurrency) throws ServiceException {
         InstanceDetail instanceDetail = new InstanceDetail.InstanceDetailBuilder()
                 .listenAddress(host + ":" + port)
                 .context(this.context)
                 .controllerRequestMapping(controllerRequestMapping)
                 .methodRequestMapping(methodRequestMapping)
                 .serviceName(serviceName)
+                .weight(this.weight)
+                .codecs(isJsonOnly() ? null : Arrays.asList(this.codecs))
+                .zone(StringUtils.trimToNull(this.zone))
+                .rack(StringUtils.trimToNull(this.rack))
+                .host(StringUtils.trimToNull(this.hostLabel))
+                .maxConcurrency(maxConcurrency)
                 .build();
 
         ServiceInstance<InstanceDetail> serviceInstance = null;
@@ -118,6 +220,7 @@ public class ZKServiceRegistry {
                     .port(port)
                     .name(serviceName)
                     .payload(instanceDetail)
+                    .registrationTimeUTC(this.registrationTime)
                     .build();
         } catch (Exception e) {
             LOGGER.error("Failed to initialize service instance.", e);
@@ -135,6 +238,60 @@ public class ZKServiceRegistry {
             LOGGER.error("Failed to registry service instance {}.", serviceInstance, e);
             throw new ServiceException(e);
         }
+
+        // 不论是否发布负载均按请求路径登记，LoadFilter、DeadlineFilter 据此识别已注册的服务
+        final String path;
+        try {
+            path = UriComponentsBuilder.fromHttpUrl(instanceDetail.getRequestUrl()).build().getPath();
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Invalid request url {} of service {}, its load and deadline will not be tracked.",
+                    instanceDetail.getRequestUrl(), serviceName, e);
+            return;
+        }
+        ServicePaths.register(path);
+        final ServiceLoad load = ServerLoad.register(path);
+        if(loadInterval > 0) {
+            registrations.add(new Registration(serviceInstance, load));
+        }
+    }
+
+    /**
+     * 采样各服务的负载，变化明显时更新注册中心
+     */
+    void reportLoad() {
+        final int cpuLoad = ServerLoad.getCpuLoad();
+        for(Registration registration: registrations) {
+            final LoadReport report = registration.load.sample(cpuLoad);
+            if(!report.differsFrom(registration.published, loadChangePercent)) {
+                continue;
+            }
+
+            report.applyTo(registration.instance.getPayload());
+            try {
+                this.discovery.updateService(registration.instance);
+                registration.published = report;
+            } catch (Exception e) {
+                LOGGER.warn("Failed to update load of service instance {}.", registration.instance.getId(), e);
+            }
+        }
+    }
+
+    // 只支持 json 时不声明编码，与早期版本的服务端一致
+    private boolean isJsonOnly() {
+        return null == codecs || codecs.length == 0
+                || (codecs.length == 1 && JacksonCodec.JSON.equalsIgnoreCase(codecs[0].trim()));
+    }
+
+    /**
+     * 服务注册名称，namespace、version 为空时使用默认值
+     *
+     * @param namespace
+     * @param version
+     * @param serviceName
+     * @return {namespace}/{version}/{serviceName}
+     */
+    public String getServiceName(String namespace, String version, String serviceName) {
+        return buildServiceName(namespace, version, serviceName);
     }
 
     // 服务注册名称: {namespace}/{version}/{serviceName}
@@ -155,4 +312,21 @@ public class ZKServiceRegistry {
         sb.append(serviceName);
         return sb.toString();
     }
+
+    private static final class Registration {
+
+        private final ServiceInstance<InstanceDetail> instance;
+
+        private final ServiceLoad load;
+
+        /**
+         * 最近一次发布到注册中心的负载
+         */
+        private LoadReport published;
+
+        private Registration(ServiceInstance<InstanceDetail> instance, ServiceLoad load) {
+            this.instance = instance;
+            this.load = load;
+        }
+    }
 }
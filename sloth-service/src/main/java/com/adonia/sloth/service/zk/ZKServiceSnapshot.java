@@ -0,0 +1,197 @@
+package com.adonia.sloth.service.zk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * 服务实例的本地快照文件
+ *
+ * 保存各服务在 zookeeper 中的节点数据，启动时用于首次查找，不必等待 zookeeper。文件格式:
+ * <pre>
+ *     magic(int) version(short) 服务数(int)
+ *     { 服务名称(UTF) 确认时间(long) 实例数(int) { 长度(int) 节点数据 } }
+ *     CRC32(long)
+ * </pre>
+ * 先写入同目录下的临时文件再原子替换，进程中途退出不会留下不完整的快照；校验失败或版本不符的文件被忽略。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+class ZKServiceSnapshot {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ZKServiceSnapshot.class);
+
+    private static final int MAGIC = 0x534c5448;
+
+    private static final short VERSION = 1;
+
+    private final File file;
+
+    ZKServiceSnapshot(File file) {
+        this.file = file;
+    }
+
+    /**
+     * 读取快照
+     *
+     * @param maxStaleness  最长有效期，单位毫秒，超过的服务不读取；0 表示不限制
+     * @return 文件不存在或无法读取时为空
+     */
+    Map<String, Entry> load(long maxStaleness) {
+        if(!file.isFile()) {
+            return Collections.emptyMap();
+        }
+
+        try {
+            Map<String, Entry> entries = read(maxStaleness);
+            LOGGER.info("Loaded {} service(s) from snapshot {}.", entries.size(), file);
+            return entries;
+        } catch (IOException e) {
+            LOGGER.warn("Ignore invalid service snapshot {}.", file, e);
+            return Collections.emptyMap();
+        }
+    }
+
+    private Map<String, Entry> read(long maxStaleness) throws IOException {
+        final long now = System.currentTimeMillis();
+        final long length = file.length();
+        final Map<String, Entry> entries = new HashMap<>();
+
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(new FileInputStream(file)), crc))) {
+            if(MAGIC != in.readInt() || VERSION != in.readShort()) {
+                throw new IOException("Unknown snapshot format");
+            }
+
+            final int services = checkLength(in.readInt(), length);
+            for(int i = 0; i < services; i++) {
+                final String serviceName = in.readUTF();
+                final long confirmedAt = in.readLong();
+                final int size = checkLength(in.readInt(), length);
+                List<byte[]> data = new ArrayList<>(size);
+                for(int j = 0; j < size; j++) {
+                    byte[] bytes = new byte[checkLength(in.readInt(), length)];
+                    in.readFully(bytes);
+                    data.add(bytes);
+                }
+
+                if(maxStaleness <= 0 || now - confirmedAt <= maxStaleness) {
+                    entries.put(serviceName, new Entry(confirmedAt, data));
+                }
+            }
+
+            final long expected = crc.getValue();
+            final long actual;
+            try {
+                actual = in.readLong();
+            } catch (EOFException e) {
+                throw new IOException("Truncated snapshot", e);
+            }
+            if(expected != actual) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+        }
+
+        return entries;
+    }
+
+    // 文件损坏时长度字段可能为任意值
+    private static int checkLength(int value, long fileLength) throws IOException {
+        if(value < 0 || value > fileLength) {
+            throw new IOException("Corrupted snapshot");
+        }
+        return value;
+    }
+
+    /**
+     * 写入快照
+     *
+     * @param entries  key为服务名称
+     * @throws IOException
+     */
+    void save(Map<String, Entry> entries) throws IOException {
+        final File dir = file.getAbsoluteFile().getParentFile();
+        if(null != dir && !dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Failed to create directory " + dir);
+        }
+
+        final File temp = new File(dir, file.getName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileOutputStream fos = new FileOutputStream(temp)) {
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(fos), crc));
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(entries.size());
+            for(Map.Entry<String, Entry> entry: entries.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue().confirmedAt);
+                out.writeInt(entry.getValue().data.size());
+                for(byte[] bytes: entry.getValue().data) {
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+            }
+            out.flush();
+
+            // 校验和本身不计入校验
+            DataOutputStream tail = new DataOutputStream(new BufferedOutputStream(fos));
+            tail.writeLong(crc.getValue());
+            tail.flush();
+            fos.getFD().sync();
+        }
+
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static final class Entry {
+
+        /**
+         * 最近一次与 zookeeper 一致的时间
+         */
+        private final long confirmedAt;
+
+        /**
+         * 各实例的节点数据
+         */
+        private final List<byte[]> data;
+
+        Entry(long confirmedAt, List<byte[]> data) {
+            this.confirmedAt = confirmedAt;
+            this.data = data;
+        }
+
+        long getConfirmedAt() {
+            return confirmedAt;
+        }
+
+        List<byte[]> getData() {
+            return data;
+        }
+    }
+}
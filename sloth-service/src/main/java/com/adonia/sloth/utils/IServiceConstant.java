@@ -17,7 +17,19 @@ public interface IServiceConstant {
      */
     String URI_SPLIT_CHAR = "/";
 
+    /**
+     * 调用端请求头，标识请求的服务名称 {namespace}/{version}/{serviceName}
+     */
+    String SERVICE_NAME_HEADER = "X-Sloth-Service";
+
+    /**
+     * 调用端请求头，本次调用剩余的时间(毫秒)，服务端据此设置{@link com.adonia.sloth.deadline.Deadline}
+     */
+    String DEADLINE_HEADER = "X-Sloth-Deadline";
+
     long SERVICE_NOT_FOUND = 404L;
 
     long SERVICE_INTERNAL_ERROR = 500L;
+
+    long SERVICE_TIMEOUT = 504L;
 }
@@ -0,0 +1,83 @@
+package com.adonia.sloth.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.net.UnknownHostException;
+import java.util.Enumeration;
+
+/**
+ * 网络相关工具
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public final class NetUtils {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NetUtils.class);
+
+    private static final String LOCALHOST = "localhost";
+
+    private static volatile String localAddress;
+
+    private NetUtils() {
+    }
+
+    /**
+     * 本机对外的 IPv4 地址: 优先取非回环的内网地址，其次为主机名解析的地址，都获取不到时为<code>localhost</code>
+     *
+     * @return
+     */
+    public static String getLocalAddress() {
+        String address = localAddress;
+        if(null == address) {
+            address = findLocalAddress();
+            localAddress = address;
+        }
+        return address;
+    }
+
+    private static String findLocalAddress() {
+        try {
+            String candidate = null;
+            Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+            while(null != interfaces && interfaces.hasMoreElements()) {
+                NetworkInterface networkInterface = interfaces.nextElement();
+                if(!networkInterface.isUp() || networkInterface.isLoopback() || networkInterface.isVirtual()) {
+                    continue;
+                }
+
+                Enumeration<InetAddress> addresses = networkInterface.getInetAddresses();
+                while(addresses.hasMoreElements()) {
+                    InetAddress address = addresses.nextElement();
+                    if(!(address instanceof Inet4Address) || address.isLoopbackAddress()) {
+                        continue;
+                    }
+                    if(address.isSiteLocalAddress()) {
+                        return address.getHostAddress();
+                    }
+                    if(null == candidate) {
+                        candidate = address.getHostAddress();
+                    }
+                }
+            }
+
+            if(null != candidate) {
+                return candidate;
+            }
+        } catch (SocketException e) {
+            LOGGER.warn("Failed to list network interfaces.", e);
+        }
+
+        try {
+            return InetAddress.getLocalHost().getHostAddress();
+        } catch (UnknownHostException e) {
+            LOGGER.warn("Failed to resolve local host address, use {} instead.", LOCALHOST, e);
+            return LOCALHOST;
+        }
+    }
+}
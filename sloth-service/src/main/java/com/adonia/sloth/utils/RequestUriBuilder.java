@@ -0,0 +1,136 @@
+package com.adonia.sloth.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * 请求uri组装
+ *
+ * 服务实例的基础uri已预先编码并缓存，这里只对路径参数和请求参数按RFC 3986编码后追加到基础uri之后，
+ * 编码规则与<code>UriComponentsBuilder.encode()</code>一致；组装过程复用线程内的缓冲区。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public final class RequestUriBuilder {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * 路径中无需编码的字符
+     */
+    private static final boolean[] PATH_CHARS = new boolean[128];
+
+    /**
+     * 请求参数中无需编码的字符
+     */
+    private static final boolean[] QUERY_PARAM_CHARS = new boolean[128];
+
+    private static final int MAX_BUFFER_SIZE = 8192;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(256);
+        }
+    };
+
+    static {
+        // pchar = unreserved | sub-delims | ':' | '@'
+        final String pchar = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789-._~!$&'()*+,;=:@";
+        for(char c: pchar.toCharArray()) {
+            PATH_CHARS[c] = true;
+            QUERY_PARAM_CHARS[c] = true;
+        }
+
+        PATH_CHARS['/'] = true;
+
+        QUERY_PARAM_CHARS['/'] = true;
+        QUERY_PARAM_CHARS['?'] = true;
+        QUERY_PARAM_CHARS['='] = false;
+        QUERY_PARAM_CHARS['&'] = false;
+        // 与 UriComponentsBuilder 一致，请求参数中的 '+' 也需编码，避免服务端解析为空格
+        QUERY_PARAM_CHARS['+'] = false;
+    }
+
+    private RequestUriBuilder() {
+    }
+
+    /**
+     * 封装请求uri
+     *
+     * @param encodedUri  已编码的基础uri，例如 http://localhost:8081/platform
+     * @param params 参数列表，例如 {"id": "123456", "type": "2"}
+     * @param pathVariable  路径参数，例如 shops
+     * @return  http://localhost:8081/platform/shops?id=123456&type=2
+     */
+    public static String build(String encodedUri, Map<String, ?> params, String pathVariable) {
+        final boolean hasPath = (null != pathVariable && !pathVariable.isEmpty());
+        final boolean hasParams = (null != params && !params.isEmpty());
+        if(!hasPath && !hasParams) {
+            return encodedUri;
+        }
+
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        sb.append(encodedUri);
+
+        if(hasPath) {
+            final boolean endsWithSplit = encodedUri.endsWith(IServiceConstant.URI_SPLIT_CHAR);
+            final boolean startsWithSplit = pathVariable.startsWith(IServiceConstant.URI_SPLIT_CHAR);
+            if(endsWithSplit && startsWithSplit) {
+                sb.setLength(sb.length() - 1);
+            } else if(!endsWithSplit && !startsWithSplit) {
+                sb.append(IServiceConstant.URI_SPLIT_CHAR);
+            }
+            encode(sb, pathVariable, PATH_CHARS);
+        }
+
+        if(hasParams) {
+            char separator = '?';
+            for(Map.Entry<String, ?> entry: params.entrySet()) {
+                sb.append(separator);
+                encode(sb, entry.getKey(), QUERY_PARAM_CHARS);
+
+                Object value = entry.getValue();
+                if(null != value) {
+                    sb.append('=');
+                    encode(sb, value.toString(), QUERY_PARAM_CHARS);
+                }
+                separator = '&';
+            }
+        }
+
+        String uri = sb.toString();
+        if(sb.capacity() > MAX_BUFFER_SIZE) {
+            BUFFER.remove();
+        }
+        return uri;
+    }
+
+    // 对需要编码的字符按UTF-8编码为 %XX
+    private static void encode(StringBuilder sb, String source, boolean[] allowed) {
+        final int length = source.length();
+        for(int i = 0; i < length; i++) {
+            char c = source.charAt(i);
+            if(c < 128) {
+                if(allowed[c]) {
+                    sb.append(c);
+                } else {
+                    appendEscaped(sb, c);
+                }
+                continue;
+            }
+
+            int end = (Character.isHighSurrogate(c) && i + 1 < length) ? i + 2 : i + 1;
+            for(byte b: source.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+                appendEscaped(sb, b & 0xFF);
+            }
+            i = end - 1;
+        }
+    }
+
+    private static void appendEscaped(StringBuilder sb, int b) {
+        sb.append('%').append(HEX[(b >> 4) & 0x0F]).append(HEX[b & 0x0F]);
+    }
+}
@@ -0,0 +1,93 @@
+package com.adonia.sloth.utils;
+
+import org.apache.commons.lang.StringUtils;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按服务的请求路径保存数据，并按请求的 URI 查找
+ *
+ * 路径中含有<code>{var}</code>或通配符时按{@link AntPathMatcher}匹配，仅在精确匹配不到时使用。
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class ServicePathTable<T> {
+
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final ConcurrentMap<String, T> paths = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, T> patterns = new ConcurrentHashMap<>();
+
+    /**
+     * 登记服务的请求路径，路径已登记时返回之前的数据
+     *
+     * @param path  服务的请求路径，包含 context，例如: "/platform/api/hello"
+     * @param value  路径对应的数据
+     * @return 路径对应的数据
+     */
+    public T register(String path, T value) {
+        path = normalize(path);
+        // 当前版本的 AntPathMatcher#isPattern 不识别 {var}
+        final boolean pattern = PATH_MATCHER.isPattern(path) || path.indexOf('{') >= 0;
+        final T exists = (pattern ? patterns : paths).putIfAbsent(path, value);
+        return (null == exists) ? value : exists;
+    }
+
+    /**
+     * 查找请求对应的数据
+     *
+     * @param requestUri  请求的 URI，包含 context
+     * @return 不是已登记的服务时返回 null
+     */
+    public T find(String requestUri) {
+        if(paths.isEmpty() && patterns.isEmpty()) {
+            return null;
+        }
+
+        final String path = normalize(requestUri);
+        T value = paths.get(path);
+        if(null != value || patterns.isEmpty()) {
+            return value;
+        }
+
+        for(Map.Entry<String, T> entry: patterns.entrySet()) {
+            if(PATH_MATCHER.match(entry.getKey(), path)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    public void clear() {
+        paths.clear();
+        patterns.clear();
+    }
+
+    // 合并重复的 "/"，去掉末尾的 "/"
+    private static String normalize(String path) {
+        if(StringUtils.isEmpty(path)) {
+            return "/";
+        }
+
+        final StringBuilder sb = new StringBuilder(path.length() + 1);
+        if('/' != path.charAt(0)) {
+            sb.append('/');
+        }
+        for(int i = 0; i < path.length(); i++) {
+            final char c = path.charAt(i);
+            if('/' != c || 0 == sb.length() || '/' != sb.charAt(sb.length() - 1)) {
+                sb.append(c);
+            }
+        }
+        if(sb.length() > 1 && '/' == sb.charAt(sb.length() - 1)) {
+            sb.setLength(sb.length() - 1);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,34 @@
+package com.adonia.sloth.utils;
+
+/**
+ * 服务端进程内已注册服务的请求路径
+ *
+ * 注册服务时登记，{@link com.adonia.sloth.deadline.DeadlineFilter}等 Servlet Filter 据此只处理已注册服务的请求。
+ *
+ * N.B. Filter 由 Servlet 容器创建，因此使用进程内共享的静态实例
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public final class ServicePaths {
+
+    private static final ServicePathTable<Boolean> PATHS = new ServicePathTable<>();
+
+    private ServicePaths() {
+    }
+
+    /**
+     * @param path  服务的请求路径，包含 context，例如: "/platform/api/hello"
+     */
+    public static void register(String path) {
+        PATHS.register(path, Boolean.TRUE);
+    }
+
+    /**
+     * @param requestUri  请求的 URI，包含 context
+     * @return 是否为已注册服务的请求
+     */
+    public static boolean contains(String requestUri) {
+        return null != PATHS.find(requestUri);
+    }
+}
@@ -0,0 +1,94 @@
+package com.adonia.sloth.codec;
+
+import com.adonia.sloth.model.InstanceDetail;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * 编码协商测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class CodecRegistryTest {
+
+    private static final URI REQUEST_URI = URI.create("http://localhost:8080/persons");
+
+    private JacksonCodec smile;
+
+    private CodecRegistry registry;
+
+    @Before
+    public void setUp() {
+        smile = JacksonCodec.smile();
+        registry = new CodecRegistry(Collections.<ICodec>singletonList(smile));
+    }
+
+    @Test
+    public void testNegotiate() {
+        Assert.assertEquals(JacksonCodec.JSON, registry.negotiate(instance()).getName());
+        Assert.assertEquals(JacksonCodec.JSON, registry.negotiate(instance(JacksonCodec.JSON)).getName());
+        Assert.assertEquals(JacksonCodec.JSON, registry.negotiate(instance("protobuf")).getName());
+        Assert.assertSame(smile, registry.negotiate(instance(JacksonCodec.JSON, JacksonCodec.SMILE)));
+    }
+
+    @Test
+    public void testSmileExchange() throws IOException {
+        RestTemplate template = new RestTemplate();
+        registry.registerConverters(template);
+        registry.registerConverters(template);
+        MockRestServiceServer server = MockRestServiceServer.bindTo(template).build();
+
+        Map<String, Object> person = new HashMap<>();
+        person.put("name", "leo");
+        person.put("age", 3);
+        byte[] encoded = encode(person);
+
+        server.expect(once(), requestTo(REQUEST_URI))
+                .andExpect(content().contentType(JacksonCodec.APPLICATION_SMILE))
+                .andExpect(content().bytes(encoded))
+                .andRespond(withSuccess(encoded, JacksonCodec.APPLICATION_SMILE));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(JacksonCodec.APPLICATION_SMILE);
+        headers.setAccept(Arrays.asList(JacksonCodec.APPLICATION_SMILE, MediaType.APPLICATION_JSON));
+        Map result = template.exchange(REQUEST_URI, HttpMethod.POST, new HttpEntity<>(person, headers), Map.class).getBody();
+        server.verify();
+
+        Assert.assertEquals(person, result);
+    }
+
+    private byte[] encode(Object value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        smile.write(value, out);
+        return out.toByteArray();
+    }
+
+    private static InstanceDetail instance(String... codecs) {
+        return new InstanceDetail.InstanceDetailBuilder()
+                .serviceName("getPerson")
+                .listenAddress("localhost:8080")
+                .codecs((0 == codecs.length) ? null : Arrays.asList(codecs))
+                .build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.adonia.sloth.codec;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * 流式读写测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class StreamingHttpMessageConverterTest {
+
+    private CodecRegistry registry;
+
+    private StreamingHttpMessageConverter converter;
+
+    @Before
+    public void setUp() {
+        registry = new CodecRegistry(Collections.<ICodec>singletonList(JacksonCodec.smile()));
+        converter = new StreamingHttpMessageConverter(registry);
+    }
+
+    @Test
+    public void testCanWrite() {
+        Assert.assertTrue(converter.canWrite(Stream.class, MediaType.APPLICATION_JSON));
+        Assert.assertTrue(converter.canWrite(Iterator.class, JacksonCodec.APPLICATION_SMILE));
+        Assert.assertFalse(converter.canWrite(List.class, MediaType.APPLICATION_JSON));
+        Assert.assertFalse(converter.canRead(Stream.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void testStreamRoundTrip() throws IOException {
+        for(MediaType mediaType: Arrays.asList(MediaType.APPLICATION_JSON, JacksonCodec.APPLICATION_SMILE)) {
+            final AtomicBoolean closed = new AtomicBoolean();
+            MockHttpOutputMessage output = new MockHttpOutputMessage();
+            converter.write(IntStream.range(0, 1000).boxed().onClose(() -> closed.set(true)), mediaType, output);
+
+            Assert.assertTrue(closed.get());
+            Assert.assertNull(output.getHeaders().get("Content-Length"));
+
+            ICodec codec = registry.getCodec(output.getHeaders().getContentType());
+            Assert.assertEquals(mediaType, codec.getMediaType());
+            Assert.assertEquals(1000, toList(codec.readValues(Integer.class,
+                    new ByteArrayInputStream(output.getBodyAsBytes()))).size());
+        }
+    }
+
+    @Test
+    public void testReadLineDelimitedValues() throws IOException {
+        byte[] body = "{\"name\":\"leo\"}\n{\"name\":\"lou\"}\n".getBytes(StandardCharsets.UTF_8);
+        List<Person> persons = toList(registry.getDefaultCodec().readValues(Person.class, new ByteArrayInputStream(body)));
+
+        Assert.assertEquals(2, persons.size());
+        Assert.assertEquals("lou", persons.get(1).name);
+    }
+
+    private static <T> List<T> toList(Iterator<T> iterator) {
+        List<T> list = new ArrayList<>();
+        while(iterator.hasNext()) {
+            list.add(iterator.next());
+        }
+        return list;
+    }
+
+    public static class Person {
+
+        public String name;
+    }
+}
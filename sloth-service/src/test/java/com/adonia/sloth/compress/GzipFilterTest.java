@@ -0,0 +1,263 @@
+package com.adonia.sloth.compress;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.DispatcherType;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 服务端压缩测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class GzipFilterTest {
+
+    private GzipFilter filter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Before
+    public void setUp() {
+        filter = new GzipFilter();
+        filter.setMinResponseSize(1024);
+
+        request = new MockHttpServletRequest("POST", "/persons");
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    public void testCompressLargeResponse() throws Exception {
+        byte[] body = body(4096);
+        filter.doFilter(request, response, chain(body));
+
+        Assert.assertEquals("gzip", response.getHeader("Content-Encoding"));
+        Assert.assertArrayEquals(body, decompress(response.getContentAsByteArray()));
+    }
+
+    @Test
+    public void testSmallResponseIsNotCompressed() throws Exception {
+        byte[] body = body(100);
+        filter.doFilter(request, response, chain(body));
+
+        Assert.assertNull(response.getHeader("Content-Encoding"));
+        Assert.assertEquals(100, response.getContentLength());
+        Assert.assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testNotAccepted() throws Exception {
+        byte[] body = body(4096);
+        for(String encoding: Arrays.asList("gzip;q=0, deflate", "gzip; q=0.0", "deflate, GZIP;q=0.000")) {
+            request = new MockHttpServletRequest("GET", "/persons");
+            request.addHeader("Accept-Encoding", encoding);
+            response = new MockHttpServletResponse();
+            filter.doFilter(request, response, chain(body));
+
+            Assert.assertNull(encoding, response.getHeader("Content-Encoding"));
+            Assert.assertArrayEquals(body, response.getContentAsByteArray());
+        }
+
+        // q 值不为 0 时仍然压缩
+        request = new MockHttpServletRequest("GET", "/persons");
+        request.addHeader("Accept-Encoding", "gzip;q=0.01");
+        response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain(body));
+        Assert.assertEquals("gzip", response.getHeader("Content-Encoding"));
+    }
+
+    @Test
+    public void testNonBlockingWriteIsNotCompressed() throws Exception {
+        final byte[] body = body(4096);
+        final WriteListener listener = new WriteListener() {
+            @Override
+            public void onWritePossible() {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        };
+        final WriteListener[] registered = new WriteListener[1];
+
+        filter.doFilter(request, new HttpServletResponseWrapper(response) {
+            @Override
+            public ServletOutputStream getOutputStream() throws IOException {
+                final ServletOutputStream out = super.getOutputStream();
+                return new ServletOutputStream() {
+                    @Override
+                    public boolean isReady() {
+                        return true;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        registered[0] = writeListener;
+                    }
+
+                    @Override
+                    public void write(int b) throws IOException {
+                        out.write(b);
+                    }
+                };
+            }
+        }, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                ServletOutputStream out = resp.getOutputStream();
+                out.write(body, 0, 100);
+                // 缓存的数据在设置 WriteListener 时写出
+                out.setWriteListener(listener);
+                Assert.assertTrue(out.isReady());
+                out.write(body, 100, body.length - 100);
+            }
+        }));
+
+        Assert.assertSame(listener, registered[0]);
+        Assert.assertNull(response.getHeader("Content-Encoding"));
+        Assert.assertArrayEquals(body, response.getContentAsByteArray());
+    }
+
+    @Test
+    public void testAsyncComplete() throws Exception {
+        final byte[] body = body(4096);
+        // 容器在 complete() 时提交响应，记录此时已写出的数据
+        final byte[][] committed = new byte[1][];
+        request = new MockHttpServletRequest("GET", "/persons") {
+            @Override
+            public AsyncContext startAsync(ServletRequest req, ServletResponse resp) {
+                setAsyncStarted(true);
+                MockAsyncContext context = new MockAsyncContext(req, resp) {
+                    @Override
+                    public void complete() {
+                        committed[0] = response.getContentAsByteArray();
+                        super.complete();
+                    }
+                };
+                setAsyncContext(context);
+                return context;
+            }
+        };
+        request.addHeader("Accept-Encoding", "gzip");
+        request.setAsyncSupported(true);
+
+        final AsyncContext[] started = new AsyncContext[1];
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                started[0] = req.startAsync(req, resp);
+            }
+        }));
+        Assert.assertTrue(request.isAsyncStarted());
+
+        // 之后在其它线程中写出响应并 complete()
+        started[0].getResponse().getOutputStream().write(body);
+        started[0].complete();
+
+        Assert.assertEquals("gzip", response.getHeader("Content-Encoding"));
+        Assert.assertArrayEquals(body, decompress(committed[0]));
+    }
+
+    @Test
+    public void testAsyncDispatch() throws Exception {
+        final byte[] body = body(4096);
+        request.setAsyncSupported(true);
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                req.startAsync();
+            }
+        }));
+        Assert.assertEquals(0, response.getContentAsByteArray().length);
+
+        // startAsync() 后分派的是原始的请求和响应，ASYNC 分派结束时结束压缩
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.getOutputStream().write(body);
+            }
+        }));
+
+        Assert.assertEquals("gzip", response.getHeader("Content-Encoding"));
+        Assert.assertArrayEquals(body, decompress(response.getContentAsByteArray()));
+    }
+
+    @Test
+    public void testDecompressRequest() throws Exception {
+        final byte[] body = body(4096);
+        request.addHeader("Content-Encoding", "gzip");
+        request.setContent(compress(body));
+
+        final byte[][] received = new byte[1][];
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                Assert.assertNull(req.getHeader("Content-Encoding"));
+                Assert.assertEquals(-1, req.getContentLength());
+                received[0] = StreamUtils.copyToByteArray(req.getInputStream());
+            }
+        }));
+
+        Assert.assertArrayEquals(body, received[0]);
+    }
+
+    private static MockFilterChain chain(final byte[] body) {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentLength(body.length);
+                OutputStream out = resp.getOutputStream();
+                out.write(body, 0, body.length / 2);
+                // flush 不会在决定是否压缩前提交响应
+                out.flush();
+                out.write(body, body.length / 2, body.length - body.length / 2);
+                out.flush();
+            }
+        });
+    }
+
+    private static byte[] body(int size) {
+        byte[] body = new byte[size];
+        Arrays.fill(body, (byte) 'a');
+        return body;
+    }
+
+    private static byte[] compress(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] body) throws IOException {
+        return StreamUtils.copyToByteArray(new GZIPInputStream(new ByteArrayInputStream(body)));
+    }
+}
@@ -0,0 +1,111 @@
+package com.adonia.sloth.deadline;
+
+import com.adonia.sloth.model.InstanceDetail;
+import com.adonia.sloth.service.zk.ZKServiceRegistry;
+import com.adonia.sloth.utils.IServiceConstant;
+import org.apache.curator.x.discovery.ServiceDiscovery;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 服务端截止时间测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class DeadlineFilterTest {
+
+    private static final String PATH = "/deadline/persons/detail";
+
+    private DeadlineFilter filter;
+
+    private AtomicReference<Deadline> seen;
+
+    @Before
+    public void setUp() throws Exception {
+        // 经由注册中心注册服务，使用默认配置(不发布负载)
+        ZKServiceRegistry registry = new ZKServiceRegistry();
+        ReflectionTestUtils.setField(registry, "discovery", discovery());
+        ReflectionTestUtils.setField(registry, "context", "/");
+        ReflectionTestUtils.setField(registry, "codecs", new String[]{"json"});
+        registry.register("localhost", 8080, null, null, "getPersonDetail", "/deadline/persons", "/detail");
+
+        filter = new DeadlineFilter();
+        seen = new AtomicReference<>();
+    }
+
+    @Test
+    public void testPropagate() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(PATH, "500"), response, chain());
+
+        long remaining = seen.get().remaining(TimeUnit.MILLISECONDS);
+        Assert.assertTrue(remaining > 0L && remaining <= 500L);
+        Assert.assertEquals(200, response.getStatus());
+        // 处理结束后清除
+        Assert.assertNull(Deadline.current());
+    }
+
+    @Test
+    public void testExpired() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(PATH, "0"), response, chain());
+
+        Assert.assertNull(seen.get());
+        Assert.assertEquals(504, response.getStatus());
+    }
+
+    @Test
+    public void testIgnored() throws Exception {
+        // 没有请求头、无效的请求头、不是已注册的服务
+        for(MockHttpServletRequest request: new MockHttpServletRequest[]{request(PATH, null), request(PATH, "abc"),
+                request("/deadline/other", "0")}) {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, chain());
+            Assert.assertNull(seen.get());
+            Assert.assertEquals(200, response.getStatus());
+        }
+    }
+
+    private MockHttpServletRequest request(String path, String deadline) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if(null != deadline) {
+            request.addHeader(IServiceConstant.DEADLINE_HEADER, deadline);
+        }
+        return request;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ServiceDiscovery<InstanceDetail> discovery() {
+        return (ServiceDiscovery<InstanceDetail>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ServiceDiscovery.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        return null;
+                    }
+                });
+    }
+
+    private MockFilterChain chain() {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                seen.set(Deadline.current());
+            }
+        });
+    }
+}
@@ -0,0 +1,179 @@
+package com.adonia.sloth.index;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * 编译期索引与反射扫描结果一致
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class SlothServiceProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File sources;
+
+    private File classes;
+
+    @Before
+    public void setUp() throws IOException {
+        sources = folder.newFolder("src");
+        classes = folder.newFolder("classes");
+    }
+
+    @Test
+    public void testIndexMatchesReflection() throws Exception {
+        source("demo/PersonController.java",
+                "package demo;",
+                "import com.adonia.sloth.annotation.SlothService;",
+                "import org.springframework.web.bind.annotation.*;",
+                "@RestController",
+                "@RequestMapping(\"/persons\")",
+                "@SlothService(namespace = \"demo\", version = \"v1\", excludes = {\"update\"}, excludePattern = \"internal.*\",",
+                "        maxConcurrency = 100)",
+                "public class PersonController {",
+                "    @RequestMapping(value = \"/add\", method = RequestMethod.POST) public String add() { return null; }",
+                "    @SlothService(serviceName = \"getById\", maxConcurrency = 20) @GetMapping(\"/detail\") public String get() { return null; }",
+                "    @RequestMapping public String list() { return null; }",
+                "    @RequestMapping(path = \"/{id}\", method = RequestMethod.POST) public String update() { return null; }",
+                "    @RequestMapping(\"/internal\") public String internalStats() { return null; }",
+                "    public String noMapping() { return null; }",
+                "}");
+        source("demo/OrderController.java",
+                "package demo;",
+                "import com.adonia.sloth.annotation.SlothService;",
+                "import org.springframework.web.bind.annotation.*;",
+                "@RestController",
+                "public class OrderController {",
+                "    @SlothService @RequestMapping(\"/orders\") public String orders() { return null; }",
+                "    @RequestMapping(\"/other\") public String other() { return null; }",
+                "}");
+        // Class 及方法上的映射、方法上的 @SlothService 在接口中声明
+        source("demo/ItemApi.java",
+                "package demo;",
+                "import com.adonia.sloth.annotation.SlothService;",
+                "import org.springframework.web.bind.annotation.*;",
+                "@RequestMapping(\"/items\")",
+                "public interface ItemApi {",
+                "    @SlothService(serviceName = \"findItem\") @GetMapping(\"/find\") String find();",
+                "    @PostMapping(\"/save\") String save();",
+                "}");
+        source("demo/ItemController.java",
+                "package demo;",
+                "import com.adonia.sloth.annotation.SlothService;",
+                "import org.springframework.web.bind.annotation.*;",
+                "@RestController",
+                "@SlothService(version = \"v2\")",
+                "public class ItemController implements ItemApi {",
+                "    @Override public String find() { return null; }",
+                "    @Override public String save() { return null; }",
+                "}");
+
+        compile("demo/PersonController.java", "demo/OrderController.java", "demo/ItemApi.java",
+                "demo/ItemController.java");
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classes.toURI().toURL()},
+                getClass().getClassLoader())) {
+            ServiceIndex index = ServiceIndex.load(classLoader);
+            Assert.assertNotNull(index);
+
+            for(String className: Arrays.asList("demo.PersonController", "demo.OrderController", "demo.ItemController")) {
+                Assert.assertTrue(index.contains(className));
+                List<ServiceRoute> expected = ServiceRouteScanner.scan(classLoader.loadClass(className));
+                Assert.assertEquals(new HashSet<>(expected), new HashSet<>(index.getRoutes(className)));
+            }
+
+            List<ServiceRoute> routes = index.getRoutes("demo.PersonController");
+            Assert.assertEquals(3, routes.size());
+            Assert.assertTrue(routes.contains(new ServiceRoute("demo.PersonController", "get", "demo", "v1",
+                    "getById", "/persons", "/detail", 20)));
+            Assert.assertTrue(routes.contains(new ServiceRoute("demo.PersonController", "add", "demo", "v1",
+                    "add", "/persons", "/add", 100)));
+            Assert.assertEquals(Collections.singletonList(new ServiceRoute("demo.OrderController", "orders", "", "",
+                    "orders", "", "/orders")), index.getRoutes("demo.OrderController"));
+            Assert.assertEquals(new HashSet<>(Arrays.asList(
+                    new ServiceRoute("demo.ItemController", "find", "", "v2", "findItem", "/items", "/find"),
+                    new ServiceRoute("demo.ItemController", "save", "", "v2", "save", "/items", "/save"))),
+                    new HashSet<>(index.getRoutes("demo.ItemController")));
+        }
+    }
+
+    @Test
+    public void testNoRoutes() throws Exception {
+        // 没有映射任何请求的 Controller
+        source("demo/EmptyController.java",
+                "package demo;",
+                "import com.adonia.sloth.annotation.SlothService;",
+                "@SlothService",
+                "public class EmptyController {",
+                "    public String list() { return null; }",
+                "}");
+
+        compile("demo/EmptyController.java");
+        Assert.assertFalse(new File(classes, ServiceIndex.LOCATION).exists());
+    }
+
+    @Test
+    public void testNoIndex() throws IOException {
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classes.toURI().toURL()}, null)) {
+            Assert.assertNull(ServiceIndex.load(classLoader));
+        }
+    }
+
+    @Test
+    public void testParseLine() {
+        ServiceRoute route = new ServiceRoute("demo.A", "list", "", "v1", "list", "/a", "");
+        Assert.assertEquals(route, ServiceRoute.parse(route.toLine()));
+
+        route = new ServiceRoute("demo.A", "list", "", "v1", "list", "/a", "", 50);
+        Assert.assertEquals(route, ServiceRoute.parse(route.toLine()));
+
+        // 旧版本生成的索引没有 maxConcurrency
+        Assert.assertEquals(0, ServiceRoute.parse("demo.A\tlist\t\tv1\tlist\t/a\t").getMaxConcurrency());
+    }
+
+    private void source(String path, String... lines) throws IOException {
+        File file = new File(sources, path);
+        Assert.assertTrue(file.getParentFile().mkdirs() || file.getParentFile().isDirectory());
+        Files.write(file.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+
+    private void compile(String... paths) throws IOException {
+        File[] files = new File[paths.length];
+        for(int i = 0; i < paths.length; i++) {
+            files[i] = new File(sources, paths[i]);
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(files);
+            List<String> options = Arrays.asList("-d", classes.getPath(),
+                    "-classpath", System.getProperty("java.class.path"));
+
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, units);
+            task.setProcessors(Collections.singletonList(new SlothServiceProcessor()));
+            Assert.assertTrue(task.call());
+        }
+    }
+}
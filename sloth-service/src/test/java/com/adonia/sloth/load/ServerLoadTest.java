@@ -0,0 +1,59 @@
+package com.adonia.sloth.load;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * 服务端负载统计测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class ServerLoadTest {
+
+    @After
+    public void tearDown() {
+        ServerLoad.clear();
+    }
+
+    @Test
+    public void testFind() {
+        Assert.assertNull(ServerLoad.find("/persons/detail"));
+
+        ServiceLoad detail = ServerLoad.register("//persons/detail");
+        ServiceLoad update = ServerLoad.register("/persons/{id}/update/");
+
+        Assert.assertSame(detail, ServerLoad.register("/persons/detail"));
+        Assert.assertSame(detail, ServerLoad.find("/persons/detail/"));
+        Assert.assertSame(update, ServerLoad.find("/persons/12/update"));
+        Assert.assertNull(ServerLoad.find("/persons/list"));
+    }
+
+    @Test
+    public void testSample() {
+        ServiceLoad load = ServerLoad.register("/persons/detail");
+        load.onRequestStart();
+        load.onRequestStart();
+        load.onRequestEnd(5000000L);
+
+        LoadReport report = load.sample(30);
+        Assert.assertEquals(1, report.getInFlight());
+        Assert.assertEquals(5, report.getP99Latency());
+        Assert.assertEquals(30, report.getCpuLoad());
+
+        // 没有新的请求时沿用上次的 p99
+        Assert.assertEquals(5, load.sample(30).getP99Latency());
+    }
+
+    @Test
+    public void testDiffersFrom() {
+        LoadReport report = new LoadReport(10, 20, 50);
+        Assert.assertTrue(report.differsFrom(null, 20));
+        Assert.assertFalse(report.differsFrom(new LoadReport(9, 18, 47), 20));
+        Assert.assertTrue(report.differsFrom(new LoadReport(7, 20, 50), 20));
+        Assert.assertTrue(report.differsFrom(new LoadReport(10, -1, 50), 20));
+        // 变化比例超过阈值，但小于最小变化量
+        Assert.assertFalse(new LoadReport(1, 1, 0).differsFrom(new LoadReport(0, 0, 4), 20));
+    }
+}
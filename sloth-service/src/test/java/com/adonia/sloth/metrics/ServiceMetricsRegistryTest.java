@@ -0,0 +1,91 @@
+package com.adonia.sloth.metrics;
+
+import com.adonia.sloth.model.InstanceDetail;
+import org.apache.http.pool.PoolStats;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 服务调用统计的 MBean 注册测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class ServiceMetricsRegistryTest {
+
+    private static final String SERVICE_NAME = "sloth.person/v1/getPerson";
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    private final ServiceMetricsRegistry registry = new ServiceMetricsRegistry();
+
+    @After
+    public void tearDown() {
+        registry.close();
+    }
+
+    @Test
+    public void testRetainInstances() throws Exception {
+        InstanceDetail first = instance("localhost:8001");
+        InstanceDetail second = instance("localhost:8002");
+        registry.record(SERVICE_NAME, first, 0L, 1L, 1L, 2L, true);
+        registry.record(SERVICE_NAME, second, 0L, 1L, 1L, 2L, true);
+        Assert.assertTrue(mBeanServer.isRegistered(objectName(first)));
+        Assert.assertTrue(mBeanServer.isRegistered(objectName(second)));
+
+        // 实例离开服务后注销
+        registry.retainInstances(SERVICE_NAME, Collections.singletonList(second));
+        Assert.assertFalse(mBeanServer.isRegistered(objectName(first)));
+        Assert.assertTrue(mBeanServer.isRegistered(objectName(second)));
+
+        // 重新加入后再次注册
+        registry.record(SERVICE_NAME, first, 0L, 1L, 1L, 2L, true);
+        Assert.assertTrue(mBeanServer.isRegistered(objectName(first)));
+
+        registry.retainInstances(SERVICE_NAME, Collections.<InstanceDetail>emptyList());
+        Assert.assertFalse(mBeanServer.isRegistered(objectName(first)));
+        Assert.assertFalse(mBeanServer.isRegistered(objectName(second)));
+        Assert.assertEquals(3L, registry.getServiceMetrics(SERVICE_NAME).getRequestCount());
+    }
+
+    @Test
+    public void testConnectionPools() throws Exception {
+        ConnectionPoolStats pool = new ConnectionPoolStats() {
+            @Override
+            public PoolStats getTotalStats() {
+                return new PoolStats(3, 1, 2, 200);
+            }
+
+            @Override
+            public Map<String, PoolStats> getRouteStats() {
+                return Collections.singletonMap("http://localhost:8001", new PoolStats(3, 1, 2, 50));
+            }
+        };
+        registry.setConnectionPools(Collections.singletonMap("slothRequestFactory", pool));
+
+        ObjectName name = new ObjectName("com.adonia.sloth:type=ConnectionPool,name=\"slothRequestFactory\"");
+        Assert.assertEquals(3, mBeanServer.getAttribute(name, "Leased"));
+        Assert.assertEquals(1, mBeanServer.getAttribute(name, "Pending"));
+        Assert.assertArrayEquals(new String[] {"http://localhost:8001 [leased: 3; pending: 1; available: 2; max: 50]"},
+                (String[]) mBeanServer.getAttribute(name, "RouteStats"));
+
+        registry.close();
+        Assert.assertFalse(mBeanServer.isRegistered(name));
+    }
+
+    private static InstanceDetail instance(String listenAddress) {
+        return new InstanceDetail.InstanceDetailBuilder().serviceName("getPerson").listenAddress(listenAddress).build();
+    }
+
+    private static ObjectName objectName(InstanceDetail instance) throws Exception {
+        return new ObjectName("com.adonia.sloth:type=InstanceMetrics,service=" + ObjectName.quote(SERVICE_NAME)
+                + ",instance=" + ObjectName.quote(instance.getListenAddress()));
+    }
+}
@@ -0,0 +1,62 @@
+package com.adonia.sloth.model;
+
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * 服务实例序列化测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class InstanceDetailTest {
+
+    private static final String[] COMPATIBLE = {"serviceName", "listenAddress", "context", "controllerRequestMapping",
+            "methodRequestMapping", "requestUrl"};
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void testDefaultsOmitted() throws Exception {
+        InstanceDetail instance = builder().build();
+
+        // 取默认值时只写入早期版本的调用端可识别的属性
+        Map<?, ?> json = mapper.readValue(mapper.writeValueAsBytes(instance), Map.class);
+        Assert.assertEquals(COMPATIBLE.length, json.size());
+        Assert.assertTrue(json.keySet().containsAll(Arrays.asList(COMPATIBLE)));
+
+        InstanceDetail read = mapper.readValue(mapper.writeValueAsBytes(instance), InstanceDetail.class);
+        Assert.assertEquals(InstanceDetail.DEFAULT_WEIGHT, read.getWeight());
+        Assert.assertEquals(-1, read.getInFlight());
+        Assert.assertNull(read.getCodecs());
+    }
+
+    @Test
+    public void testNonDefaultsWritten() throws Exception {
+        InstanceDetail instance = builder().weight(50).codecs(Arrays.asList("smile", "json")).zone("z1")
+                .maxConcurrency(10).build();
+        instance.setInFlight(0);
+
+        Map<?, ?> json = mapper.readValue(mapper.writeValueAsBytes(instance), Map.class);
+        Assert.assertEquals(COMPATIBLE.length + 5, json.size());
+
+        InstanceDetail read = mapper.readValue(mapper.writeValueAsBytes(instance), InstanceDetail.class);
+        Assert.assertEquals(50, read.getWeight());
+        Assert.assertEquals(Arrays.asList("smile", "json"), read.getCodecs());
+        Assert.assertEquals("z1", read.getZone());
+        Assert.assertEquals(10, read.getMaxConcurrency());
+        Assert.assertEquals(0, read.getInFlight());
+    }
+
+    private InstanceDetail.InstanceDetailBuilder builder() {
+        return new InstanceDetail.InstanceDetailBuilder()
+                .listenAddress("localhost:8080")
+                .serviceName("getPerson")
+                .controllerRequestMapping("/persons")
+                .methodRequestMapping("/detail");
+    }
+}
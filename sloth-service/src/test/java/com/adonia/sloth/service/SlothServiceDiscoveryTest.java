@@ -0,0 +1,67 @@
+package com.adonia.sloth.service;
+
+import com.adonia.sloth.annotation.SlothService;
+import com.adonia.sloth.index.ServiceIndex;
+import com.adonia.sloth.index.ServiceRoute;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 服务自动发现测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class SlothServiceDiscoveryTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testControllerNotInIndex() throws Exception {
+        // classpath 下存在其他 jar 的索引，但不包含该 Controller(编译时未执行注解处理器)
+        File classes = folder.newFolder("classes");
+        File file = new File(classes, ServiceIndex.LOCATION);
+        Assert.assertTrue(file.getParentFile().mkdirs());
+        Files.write(file.toPath(), Collections.singletonList(
+                new ServiceRoute("demo.Other", "list", "", "", "list", "/other", "").toLine()), StandardCharsets.UTF_8);
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classes.toURI().toURL()}, null)) {
+            ServiceIndex index = ServiceIndex.load(classLoader);
+            Assert.assertNotNull(index);
+
+            List<ServiceRoute> routes = SlothServiceDiscovery.getRoutes(MethodOnlyController.class, index);
+            Assert.assertEquals(Collections.singletonList(new ServiceRoute(MethodOnlyController.class.getName(),
+                    "detail", "", "", "getDetail", "/method-only", "/detail")), routes);
+        }
+    }
+
+    @RestController
+    @RequestMapping("/method-only")
+    public static class MethodOnlyController {
+
+        @SlothService(serviceName = "getDetail")
+        @GetMapping("/detail")
+        public String detail() {
+            return null;
+        }
+
+        @GetMapping("/other")
+        public String other() {
+            return null;
+        }
+    }
+}
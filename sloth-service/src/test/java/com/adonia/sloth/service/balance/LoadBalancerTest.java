@@ -0,0 +1,122 @@
+package com.adonia.sloth.service.balance;
+
+import com.adonia.sloth.model.InstanceDetail;
+import com.adonia.sloth.service.ILoadBalancer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 负载均衡策略测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class LoadBalancerTest {
+
+    private static final String SERVICE_NAME = "sloth.person/v1/getPerson";
+
+    @Test
+    public void testRoundRobin() {
+        List<InstanceDetail> instances = instances(3);
+        Map<InstanceDetail, Integer> counts = choose(new RoundRobinLoadBalancer(), instances, 300);
+
+        for(InstanceDetail instance: instances) {
+            Assert.assertEquals(100, counts.get(instance).intValue());
+        }
+    }
+
+    @Test
+    public void testRoundRobinRemove() {
+        List<InstanceDetail> instances = instances(3);
+        RoundRobinLoadBalancer balancer = new RoundRobinLoadBalancer();
+        InstanceDetail first = balancer.choose(SERVICE_NAME, instances);
+        Assert.assertNotSame(first, balancer.choose(SERVICE_NAME, instances));
+
+        // 移除后重新从起始位置轮询
+        balancer.remove(SERVICE_NAME);
+        Assert.assertSame(first, balancer.choose(SERVICE_NAME, instances));
+    }
+
+    @Test
+    public void testPowerOfTwoChoices() {
+        InstanceStatsRegistry registry = new InstanceStatsRegistry();
+        List<InstanceDetail> instances = instances(2);
+        registry.getStats(instances.get(0)).onRequestStart();
+
+        Map<InstanceDetail, Integer> counts = choose(new PowerOfTwoChoicesLoadBalancer(registry), instances, 100);
+        Assert.assertNull(counts.get(instances.get(0)));
+        Assert.assertEquals(100, counts.get(instances.get(1)).intValue());
+    }
+
+    @Test
+    public void testWeightedRandom() {
+        List<InstanceDetail> instances = instances(2);
+        instances.get(0).setWeight(0);
+
+        Map<InstanceDetail, Integer> counts = choose(new WeightedRandomLoadBalancer(), instances, 100);
+        Assert.assertNull(counts.get(instances.get(0)));
+        Assert.assertEquals(100, counts.get(instances.get(1)).intValue());
+    }
+
+    @Test
+    public void testLoadAware() {
+        LoadAwareLoadBalancer balancer = new LoadAwareLoadBalancer();
+        List<InstanceDetail> instances = instances(2);
+        InstanceDetail large = instances.get(0);
+        InstanceDetail small = instances.get(1);
+
+        // 未上报负载时按权重
+        Assert.assertEquals(100, balancer.getWeight(small, 0, Integer.MAX_VALUE), 0.001);
+
+        // 按容量分配
+        large.setMaxConcurrency(300);
+        small.setMaxConcurrency(100);
+        Assert.assertEquals(150, balancer.getWeight(large, 200, Integer.MAX_VALUE), 0.001);
+        Assert.assertEquals(50, balancer.getWeight(small, 200, Integer.MAX_VALUE), 0.001);
+
+        // 使用率取并发数与 CPU 中较高的一个
+        large.setInFlight(150);
+        large.setCpuLoad(20);
+        Assert.assertEquals(75, balancer.getWeight(large, 200, Integer.MAX_VALUE), 0.001);
+        large.setCpuLoad(100);
+        Assert.assertEquals(150 * LoadAwareLoadBalancer.MIN_FACTOR, balancer.getWeight(large, 200, Integer.MAX_VALUE), 0.001);
+
+        // 耗时较高的实例
+        small.setP99Latency(9);
+        Assert.assertEquals(25, balancer.getWeight(small, 200, 4), 0.001);
+
+        large.setCpuLoad(-1);
+        large.setInFlight(0);
+        large.setP99Latency(4);
+        Map<InstanceDetail, Integer> counts = choose(balancer, instances, 10000);
+        // 150 : 25
+        Assert.assertTrue("small got " + counts.get(small), counts.get(small) > 1000 && counts.get(small) < 1900);
+    }
+
+    private Map<InstanceDetail, Integer> choose(ILoadBalancer balancer, List<InstanceDetail> instances, int times) {
+        Map<InstanceDetail, Integer> counts = new HashMap<>();
+        for(int i = 0; i < times; i++) {
+            InstanceDetail instance = balancer.choose(SERVICE_NAME, instances);
+            Integer count = counts.get(instance);
+            counts.put(instance, (null == count) ? 1 : count + 1);
+        }
+        return counts;
+    }
+
+    private List<InstanceDetail> instances(int size) {
+        List<InstanceDetail> instances = new ArrayList<>(size);
+        for(int i = 0; i < size; i++) {
+            instances.add(new InstanceDetail.InstanceDetailBuilder()
+                    .serviceName("getPerson")
+                    .listenAddress("localhost:" + (8080 + i))
+                    .methodRequestMapping("/persons")
+                    .build());
+        }
+        return instances;
+    }
+}
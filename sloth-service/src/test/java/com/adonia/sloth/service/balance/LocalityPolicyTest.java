@@ -0,0 +1,102 @@
+package com.adonia.sloth.service.balance;
+
+import com.adonia.sloth.model.InstanceDetail;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 就近选择测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class LocalityPolicyTest {
+
+    private static final String SERVICE_NAME = "sloth.person/v1/getPerson";
+
+    private InstanceStatsRegistry registry;
+
+    private LocalityPolicy policy;
+
+    private InstanceDetail sameHost;
+
+    private InstanceDetail sameRack;
+
+    private InstanceDetail sameZone;
+
+    private InstanceDetail remote;
+
+    private List<InstanceDetail> instances;
+
+    @Before
+    public void setUp() {
+        registry = new InstanceStatsRegistry();
+        policy = new LocalityPolicy(registry);
+        policy.setEnabled(true);
+        policy.setZone("nj-a");
+        policy.setRack("r1");
+        policy.setHost("10.0.0.1");
+
+        sameHost = instance(1, "nj-a", "r1", "10.0.0.1");
+        sameRack = instance(2, "nj-a", "r1", "10.0.0.2");
+        sameZone = instance(3, "nj-a", "r2", "10.0.1.3");
+        remote = instance(4, "sh-b", "r1", "10.1.0.4");
+        instances = Arrays.asList(remote, sameZone, sameRack, sameHost);
+    }
+
+    @Test
+    public void testDistance() {
+        Assert.assertEquals(0, policy.getDistance(sameHost));
+        Assert.assertEquals(1, policy.getDistance(sameRack));
+        Assert.assertEquals(2, policy.getDistance(sameZone));
+        Assert.assertEquals(3, policy.getDistance(remote));
+        Assert.assertEquals(3, policy.getDistance(instance(5, null, null, null)));
+    }
+
+    @Test
+    public void testPreferSameHost() {
+        Assert.assertEquals(Arrays.asList(sameHost), policy.filter(SERVICE_NAME, instances, instances));
+
+        policy.setEnabled(false);
+        Assert.assertSame(instances, policy.filter(SERVICE_NAME, instances, instances));
+    }
+
+    @Test
+    public void testSpillOverWhenUnhealthy() {
+        policy.setMinHealthyPercent(50);
+
+        // 同机架的 2 个实例中 1 个可用
+        List<InstanceDetail> available = new ArrayList<>(instances);
+        available.remove(sameHost);
+        Assert.assertEquals(Arrays.asList(sameRack), policy.filter(SERVICE_NAME, instances, available));
+
+        // 同可用区的 3 个实例中只有 1 个可用，低于 50%
+        available.remove(sameRack);
+        Assert.assertSame(available, policy.filter(SERVICE_NAME, instances, available));
+    }
+
+    @Test
+    public void testSpillOverWhenOverloaded() {
+        policy.setMaxInFlight(2);
+        for(int i = 0; i < 3; i++) {
+            registry.getStats(sameHost).onRequestStart();
+        }
+
+        Assert.assertEquals(Arrays.asList(sameRack, sameHost), policy.filter(SERVICE_NAME, instances, instances));
+    }
+
+    private static InstanceDetail instance(int index, String zone, String rack, String host) {
+        return new InstanceDetail.InstanceDetailBuilder()
+                .serviceName("getPerson")
+                .listenAddress("localhost:" + (8080 + index))
+                .zone(zone)
+                .rack(rack)
+                .host(host)
+                .build();
+    }
+}
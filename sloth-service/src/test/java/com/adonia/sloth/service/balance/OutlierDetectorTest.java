@@ -0,0 +1,166 @@
+package com.adonia.sloth.service.balance;
+
+import com.adonia.sloth.model.InstanceDetail;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 异常实例剔除测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class OutlierDetectorTest {
+
+    private static final String SERVICE_NAME = "sloth.person/v1/getPerson";
+
+    private InstanceStatsRegistry registry;
+
+    private OutlierDetector detector;
+
+    private List<InstanceDetail> instances;
+
+    @Before
+    public void setUp() {
+        registry = new InstanceStatsRegistry();
+        detector = new OutlierDetector(registry);
+        detector.setConsecutiveErrors(3);
+        detector.setBaseEjectionTime(50L);
+
+        instances = new ArrayList<>();
+        for(int i = 0; i < 4; i++) {
+            instances.add(new InstanceDetail.InstanceDetailBuilder()
+                    .serviceName("getPerson")
+                    .listenAddress("localhost:" + (8080 + i))
+                    .methodRequestMapping("/persons")
+                    .build());
+        }
+    }
+
+    @Test
+    public void testHealthyInstancesAreNotCopied() {
+        fail(instances.get(0), 2);
+        Assert.assertSame(instances, detector.filter(SERVICE_NAME, instances));
+    }
+
+    @Test
+    public void testEjectAndProbe() throws InterruptedException {
+        InstanceDetail sick = instances.get(1);
+        fail(sick, 3);
+
+        List<InstanceDetail> available = detector.filter(SERVICE_NAME, instances);
+        Assert.assertEquals(3, available.size());
+        Assert.assertFalse(available.contains(sick));
+
+        Thread.sleep(60L);
+
+        // 剔除到期后只放行一次探测请求
+        List<InstanceDetail> probe = detector.filter(SERVICE_NAME, instances);
+        Assert.assertEquals(1, probe.size());
+        Assert.assertSame(sick, probe.get(0));
+        Assert.assertFalse(detector.filter(SERVICE_NAME, instances).contains(sick));
+
+        InstanceStats stats = registry.getStats(sick);
+        boolean probing = stats.onRequestStart();
+        Assert.assertTrue(probing);
+        stats.onRequestComplete(true, 1000L, probing);
+
+        Assert.assertSame(instances, detector.filter(SERVICE_NAME, instances));
+        Assert.assertFalse(stats.isEjected());
+    }
+
+    @Test
+    public void testOnlyProbeDecides() throws InterruptedException {
+        InstanceDetail sick = instances.get(1);
+        InstanceStats stats = registry.getStats(sick);
+        // 剔除前发出的请求
+        boolean earlier = stats.onRequestStart();
+        fail(sick, 3);
+        detector.filter(SERVICE_NAME, instances);
+
+        Thread.sleep(60L);
+        Assert.assertSame(sick, detector.filter(SERVICE_NAME, instances).get(0));
+        boolean probe = stats.onRequestStart();
+        Assert.assertFalse(earlier);
+        Assert.assertTrue(probe);
+
+        // 先结束的旧请求成功，不影响探测结果
+        stats.onRequestComplete(true, 1000L, earlier);
+        Assert.assertFalse(detector.filter(SERVICE_NAME, instances).contains(sick));
+
+        stats.onRequestComplete(false, 1000L, probe);
+        Assert.assertFalse(detector.filter(SERVICE_NAME, instances).contains(sick));
+        Assert.assertTrue(stats.getEjectedUntil() - System.currentTimeMillis() > 60L);
+    }
+
+    @Test
+    public void testSkippedProbe() throws InterruptedException {
+        InstanceDetail sick = instances.get(1);
+        fail(sick, 3);
+        detector.filter(SERVICE_NAME, instances);
+
+        Thread.sleep(60L);
+        Assert.assertSame(sick, detector.filter(SERVICE_NAME, instances).get(0));
+
+        // 由本地缓存返回的请求不计入统计，探测请求重新放行
+        InstanceStats stats = registry.getStats(sick);
+        final int requests = stats.getWindowRequests();
+        boolean skipped = stats.onRequestStart();
+        Assert.assertTrue(skipped);
+        stats.onRequestSkipped(skipped);
+        Assert.assertEquals(0, stats.getInFlight());
+        Assert.assertEquals(requests, stats.getWindowRequests());
+
+        boolean probe = stats.onRequestStart();
+        Assert.assertTrue(probe);
+        stats.onRequestComplete(true, 1000L, probe);
+        Assert.assertSame(instances, detector.filter(SERVICE_NAME, instances));
+    }
+
+    @Test
+    public void testFailedProbeEjectsAgain() throws InterruptedException {
+        InstanceDetail sick = instances.get(1);
+        fail(sick, 3);
+        detector.filter(SERVICE_NAME, instances);
+
+        Thread.sleep(60L);
+        Assert.assertSame(sick, detector.filter(SERVICE_NAME, instances).get(0));
+        fail(sick, 1);
+
+        Assert.assertFalse(detector.filter(SERVICE_NAME, instances).contains(sick));
+        Assert.assertTrue(registry.getStats(sick).getEjectedUntil() - System.currentTimeMillis() > 60L);
+    }
+
+    @Test
+    public void testMaxEjectionPercent() {
+        for(InstanceDetail instance: instances) {
+            fail(instance, 3);
+        }
+
+        // 4 个实例最多剔除 50%
+        Assert.assertEquals(2, detector.filter(SERVICE_NAME, instances).size());
+        Assert.assertEquals(2, detector.filter(SERVICE_NAME, instances).size());
+    }
+
+    @Test
+    public void testErrorRate() {
+        detector.setMinRequests(10);
+        InstanceStats stats = registry.getStats(instances.get(2));
+        for(int i = 0; i < 10; i++) {
+            stats.onRequestComplete(0 == i % 2, 1000L, stats.onRequestStart());
+        }
+
+        Assert.assertFalse(detector.filter(SERVICE_NAME, instances).contains(instances.get(2)));
+    }
+
+    private void fail(InstanceDetail instance, int times) {
+        InstanceStats stats = registry.getStats(instance);
+        for(int i = 0; i < times; i++) {
+            stats.onRequestComplete(false, 1000L, stats.onRequestStart());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.adonia.sloth.service.balance;
+
+import com.adonia.sloth.model.InstanceDetail;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 新实例慢启动测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class SlowStartPolicyTest {
+
+    private static final String SERVICE_NAME = "sloth.person/v1/getPerson";
+
+    private static final long WINDOW = 10000L;
+
+    private SlowStartPolicy policy;
+
+    @Before
+    public void setUp() {
+        policy = new SlowStartPolicy(new InstanceStatsRegistry());
+        policy.setWindow(WINDOW);
+    }
+
+    @Test
+    public void testWeightFactor() {
+        final long now = System.currentTimeMillis();
+
+        Assert.assertEquals(0.25, policy.getWeightFactor(instance(1, now - WINDOW / 4), now), 0.001);
+        Assert.assertEquals(1.0, policy.getWeightFactor(instance(2, now - WINDOW), now), 0.001);
+        // 旧版本服务端
+        Assert.assertEquals(1.0, policy.getWeightFactor(instance(3, 0L), now), 0.001);
+        // 服务端时钟超前时，从调用端首次发现该实例开始预热
+        InstanceDetail ahead = instance(4, now + WINDOW * 10);
+        Assert.assertEquals(0.1, policy.getWeightFactor(ahead, now), 0.001);
+        Assert.assertEquals(1.0, policy.getWeightFactor(ahead, now + WINDOW), 0.001);
+
+        policy.setAggression(2.0);
+        Assert.assertEquals(0.5, policy.getWeightFactor(instance(5, now - WINDOW / 4), now), 0.001);
+    }
+
+    @Test
+    public void testAdmit() {
+        final long now = System.currentTimeMillis();
+        List<InstanceDetail> instances = new ArrayList<>();
+        instances.add(instance(1, now - WINDOW * 2));
+        instances.add(instance(2, now - WINDOW / 4));
+
+        RoundRobinLoadBalancer balancer = new RoundRobinLoadBalancer();
+        int warming = 0;
+        for(int i = 0; i < 4000; i++) {
+            InstanceDetail chosen = policy.admit(instances, balancer.choose(SERVICE_NAME, instances));
+            if(chosen == instances.get(1)) {
+                warming++;
+            }
+        }
+
+        // 约 4000 * 50% * 25%
+        Assert.assertTrue("warming instance got " + warming, warming > 300 && warming < 700);
+    }
+
+    @Test
+    public void testAllInstancesWarming() {
+        final long now = System.currentTimeMillis();
+        List<InstanceDetail> instances = new ArrayList<>();
+        instances.add(instance(1, now));
+        instances.add(instance(2, now));
+
+        RoundRobinLoadBalancer balancer = new RoundRobinLoadBalancer();
+        for(int i = 0; i < 100; i++) {
+            InstanceDetail chosen = balancer.choose(SERVICE_NAME, instances);
+            Assert.assertSame(chosen, policy.admit(instances, chosen));
+        }
+    }
+
+    private static InstanceDetail instance(int index, long registrationTime) {
+        return new InstanceDetail.InstanceDetailBuilder()
+                .serviceName("getPerson")
+                .listenAddress("localhost:" + (8080 + index))
+                .registrationTime(registrationTime)
+                .build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.adonia.sloth.service.cache;
+
+import com.adonia.sloth.utils.IServiceConstant;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.Collections;
+
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * 响应缓存测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class ResponseCacheInterceptorTest {
+
+    private static final String SERVICE_NAME = "sloth.person/v1/getPerson";
+
+    private static final URI REQUEST_URI = URI.create("http://localhost:8080/persons?id=1");
+
+    private ResponseCache cache;
+
+    private RestTemplate template;
+
+    private MockRestServiceServer server;
+
+    @Before
+    public void setUp() {
+        cache = new ResponseCache(1024 * 1024);
+        cache.setEnabled(true);
+
+        template = new RestTemplate();
+        template.setInterceptors(Collections.<ClientHttpRequestInterceptor>singletonList(new ResponseCacheInterceptor(cache)));
+        server = MockRestServiceServer.bindTo(template).build();
+    }
+
+    @After
+    public void tearDown() {
+        cache.close();
+    }
+
+    @Test
+    public void testMaxAge() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("max-age=60");
+        server.expect(once(), requestTo(REQUEST_URI)).andRespond(withSuccess("\"leo\"", MediaType.APPLICATION_JSON).headers(headers));
+
+        ResponseCacheInterceptor.reset();
+        Assert.assertEquals("\"leo\"", get());
+        Assert.assertFalse(ResponseCacheInterceptor.isHit());
+
+        // 直接由缓存返回，调用方据此不计入调用统计
+        Assert.assertEquals("\"leo\"", get());
+        Assert.assertTrue(ResponseCacheInterceptor.isHit());
+        server.verify();
+
+        Assert.assertEquals(1L, cache.getMissCount());
+        Assert.assertEquals(1L, cache.getHitCount());
+
+        ResponseCacheInterceptor.reset();
+        Assert.assertFalse(ResponseCacheInterceptor.isHit());
+    }
+
+    @Test
+    public void testRevalidate() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("no-cache");
+        headers.setETag("\"v1\"");
+        server.expect(once(), requestTo(REQUEST_URI)).andRespond(withSuccess("\"leo\"", MediaType.APPLICATION_JSON).headers(headers));
+        server.expect(once(), requestTo(REQUEST_URI)).andExpect(header(HttpHeaders.IF_NONE_MATCH, "\"v1\""))
+                .andRespond(withStatus(HttpStatus.NOT_MODIFIED));
+
+        ResponseCacheInterceptor.reset();
+        Assert.assertEquals("\"leo\"", get());
+        Assert.assertEquals("\"leo\"", get());
+        server.verify();
+
+        // 304 校验请求已发往服务端
+        Assert.assertFalse(ResponseCacheInterceptor.isHit());
+        Assert.assertEquals(1L, cache.getRevalidationCount());
+        Assert.assertEquals(1L, cache.getNotModifiedCount());
+    }
+
+    @Test
+    public void testNoStore() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("no-store");
+        headers.setETag("\"v1\"");
+        server.expect(requestTo(REQUEST_URI)).andRespond(withSuccess("\"leo\"", MediaType.APPLICATION_JSON).headers(headers));
+        server.expect(requestTo(REQUEST_URI)).andRespond(withSuccess("\"leo\"", MediaType.APPLICATION_JSON).headers(headers));
+
+        get();
+        get();
+        server.verify();
+        Assert.assertEquals(0L, cache.getSize());
+    }
+
+    @Test
+    public void testServiceTtl() {
+        cache.setTtl(1000L);
+        cache.setTtls(Collections.singletonMap(SERVICE_NAME, 5000L));
+
+        Assert.assertEquals(5000L, cache.getTtl(SERVICE_NAME, new HttpHeaders()));
+        Assert.assertEquals(1000L, cache.getTtl("sloth.person/v1/addPerson", new HttpHeaders()));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("public, max-age=30");
+        Assert.assertEquals(30000L, cache.getTtl(SERVICE_NAME, headers));
+    }
+
+    @Test
+    public void testRegisterInterceptor() {
+        RestTemplate restTemplate = new RestTemplate();
+        ResponseCache disabled = new ResponseCache(1024);
+        disabled.registerInterceptor(restTemplate);
+        Assert.assertTrue(restTemplate.getInterceptors().isEmpty());
+
+        cache.registerInterceptor(restTemplate);
+        cache.registerInterceptor(restTemplate);
+        Assert.assertEquals(1, restTemplate.getInterceptors().size());
+        Assert.assertTrue(restTemplate.getInterceptors().get(0) instanceof ResponseCacheInterceptor);
+    }
+
+    private String get() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(IServiceConstant.SERVICE_NAME_HEADER, SERVICE_NAME);
+        return template.exchange(REQUEST_URI, HttpMethod.GET, new HttpEntity<>(headers), String.class).getBody();
+    }
+}
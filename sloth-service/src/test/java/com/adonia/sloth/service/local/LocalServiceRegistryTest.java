@@ -0,0 +1,232 @@
+package com.adonia.sloth.service.local;
+
+import com.adonia.sloth.model.ServiceException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 进程内调用测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class LocalServiceRegistryTest {
+
+    private LocalServiceRegistry registry;
+
+    private PersonController controller;
+
+    @Before
+    public void setUp() {
+        registry = new LocalServiceRegistry();
+        registry.setEnabled(true);
+        controller = new PersonController();
+    }
+
+    @Test
+    public void testRegister() {
+        Assert.assertTrue(registry.register("sloth.person/v1/getPerson", controller, "getPerson"));
+        Assert.assertTrue(registry.register("sloth.person/v1/addPerson", controller, "addPerson"));
+        // 重载、不支持的参数均通过 HTTP 调用
+        Assert.assertFalse(registry.register("sloth.person/v1/findPerson", controller, "findPerson"));
+        Assert.assertFalse(registry.register("sloth.person/v1/getHeader", controller, "getHeader"));
+
+        Assert.assertNotNull(registry.find("sloth.person/v1/getPerson", HttpMethod.GET));
+        Assert.assertNotNull(registry.find("sloth.person/v1/getPerson", HttpMethod.POST));
+        Assert.assertNull(registry.find("sloth.person/v1/addPerson", HttpMethod.GET));
+        Assert.assertNull(registry.find("sloth.person/v1/findPerson", HttpMethod.GET));
+
+        LocalServiceRegistry disabled = new LocalServiceRegistry();
+        Assert.assertFalse(disabled.register("sloth.person/v1/getPerson", controller, "getPerson"));
+        Assert.assertNull(disabled.find("sloth.person/v1/getPerson", HttpMethod.GET));
+    }
+
+    @Test
+    public void testBinding() throws ServiceException {
+        registry.register("sloth.person/v1/getPerson", controller, "getPerson");
+        LocalService service = registry.find("sloth.person/v1/getPerson", HttpMethod.GET);
+
+        Map<String, Object> params = new HashMap<>();
+        params.put("name", "sloth");
+        params.put("age", "3");
+        Person person = service.invoke(params, "12", null, Person.class);
+        Assert.assertEquals("12", person.getId());
+        Assert.assertEquals("sloth", person.getName());
+        Assert.assertEquals(3, person.getAge());
+        Assert.assertEquals("vip", person.getType());
+
+        // 与 HTTP 调用一样，按 json 转换为调用端的响应类型
+        Map<?, ?> map = service.invoke(Collections.singletonMap("name", "sloth"), "12", null, Map.class);
+        Assert.assertEquals("sloth", map.get("name"));
+        Assert.assertEquals(0, map.get("age"));
+        Assert.assertEquals("{\"id\":\"12\",\"name\":\"sloth\",\"age\":0,\"type\":\"vip\"}",
+                service.invoke(Collections.singletonMap("name", "sloth"), "12", null, String.class));
+
+        try {
+            service.invoke(Collections.singletonMap("age", "3"), "12", null, Person.class);
+            Assert.fail();
+        } catch (ServiceException e) {
+            Assert.assertTrue(e.getMessage().contains("'name'"));
+        }
+        try {
+            service.invoke(Collections.singletonMap("name", "sloth"), null, null, Person.class);
+            Assert.fail();
+        } catch (ServiceException e) {
+            Assert.assertTrue(e.getMessage().contains("'id'"));
+        }
+    }
+
+    @Test
+    public void testRequestBody() throws ServiceException {
+        registry.register("sloth.person/v1/addPerson", controller, "addPerson");
+        LocalService service = registry.find("sloth.person/v1/addPerson", HttpMethod.POST);
+
+        Person person = new Person("12", "sloth");
+        Assert.assertSame(person, service.invoke(null, null, person, Person.class));
+        Assert.assertEquals(1, person.getAge());
+
+        // 请求体类型不同时按 json 转换
+        Map<String, Object> body = new HashMap<>();
+        body.put("id", "13");
+        body.put("name", "adonia");
+        Person added = service.invoke(null, null, body, Person.class);
+        Assert.assertEquals("adonia", added.getName());
+        Assert.assertEquals(1, added.getAge());
+
+        registry.setCopy(true);
+        person = new Person("12", "sloth");
+        added = service.invoke(null, null, person, Person.class);
+        Assert.assertNotSame(person, added);
+        Assert.assertEquals(0, person.getAge());
+        Assert.assertEquals(1, added.getAge());
+    }
+
+    @Test
+    public void testStream() throws ServiceException {
+        registry.register("sloth.person/v1/listPersons", controller, "listPersons");
+        LocalService service = registry.find("sloth.person/v1/listPersons", HttpMethod.GET);
+
+        List<String> names = service.stream(Collections.singletonMap("names", "a,b"), null, Map.class)
+                .map(person -> (String) person.get("name"))
+                .collect(Collectors.toList());
+        Assert.assertEquals(Arrays.asList("a", "b"), names);
+    }
+
+    @Test(expected = ServiceException.class)
+    public void testException() throws ServiceException {
+        registry.register("sloth.person/v1/deletePerson", controller, "deletePerson");
+        registry.find("sloth.person/v1/deletePerson", HttpMethod.POST).invoke(null, "12", null, Void.class);
+    }
+
+    @RestController
+    @RequestMapping("/persons")
+    public static class PersonController {
+
+        @RequestMapping("/detail")
+        public Person getPerson(@PathVariable("id") String id, @RequestParam("name") String name, Integer age,
+                                @RequestParam(value = "type", defaultValue = "vip") String type) {
+            Person person = new Person(id, name);
+            person.setAge((null == age) ? 0 : age);
+            person.setType(type);
+            return person;
+        }
+
+        @RequestMapping(value = "/add", method = RequestMethod.POST)
+        public Person addPerson(@RequestBody Person person) {
+            person.setAge(person.getAge() + 1);
+            return person;
+        }
+
+        @RequestMapping("/list")
+        public List<Person> listPersons(@RequestParam("names") List<String> names) {
+            return names.stream().map(name -> new Person(name, name)).collect(Collectors.toList());
+        }
+
+        @RequestMapping("/find")
+        public Person findPerson(@RequestParam("id") String id) {
+            return new Person(id, null);
+        }
+
+        @RequestMapping("/findByName")
+        public Person findPerson(@RequestParam("name") String name, @RequestParam("type") String type) {
+            return new Person(null, name);
+        }
+
+        @RequestMapping("/header")
+        public String getHeader(@RequestHeader("X-Sloth-Service") String serviceName) {
+            return serviceName;
+        }
+
+        @RequestMapping(value = "/delete", method = RequestMethod.POST)
+        public void deletePerson(@PathVariable("id") String id) {
+            throw new IllegalStateException("Person " + id + " is in use");
+        }
+    }
+
+    public static class Person {
+
+        private String id;
+
+        private String name;
+
+        private int age;
+
+        private String type;
+
+        public Person() {
+        }
+
+        public Person(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.adonia.sloth.service.rest;
+
+import com.adonia.sloth.service.timeout.RequestTimeout;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.pool.PoolStats;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * 连接池请求工厂的测试: 连接池统计、默认超时与本次调用超时的合并
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class PooledClientHttpRequestFactoryTest {
+
+    private HttpServer httpServer;
+
+    private PooledClientHttpRequestFactory factory;
+
+    @Before
+    public void setUp() throws Exception {
+        httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        httpServer.createContext("/persons", exchange -> {
+            byte[] response = "leo".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, response.length);
+            try(OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        });
+        httpServer.start();
+
+        factory = new PooledClientHttpRequestFactory(10, 5, 30000L, 2000, 0, 3000, 1000);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        factory.destroy();
+        httpServer.stop(0);
+    }
+
+    @Test
+    public void testRouteStats() throws Exception {
+        final int port = httpServer.getAddress().getPort();
+        try(ClientHttpResponse response = factory.createRequest(
+                new URI("http://localhost:" + port + "/persons"), HttpMethod.GET).execute()) {
+            Assert.assertEquals("leo", StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8));
+        }
+
+        // 读取完的连接归还连接池
+        Map<String, PoolStats> routes = factory.getRouteStats();
+        Assert.assertEquals(1, routes.size());
+        PoolStats stats = routes.get("http://localhost:" + port);
+        Assert.assertNotNull(stats);
+        Assert.assertEquals(0, stats.getLeased());
+        Assert.assertEquals(1, stats.getAvailable());
+        Assert.assertEquals(5, stats.getMax());
+
+        Assert.assertEquals(0, factory.getTotalStats().getLeased());
+        Assert.assertEquals(10, factory.getTotalStats().getMax());
+    }
+
+    @Test
+    public void testRequestConfig() {
+        final RequestConfig defaults = RequestConfigHolder.createDefault(3000, 1000);
+        Assert.assertNull(RequestConfigHolder.createContext(defaults));
+
+        // 只指定读取超时时，保留默认的连接超时
+        RequestConfig previous = RequestConfigHolder.set(RequestTimeout.of(0, 500, 0L));
+        try {
+            RequestConfig config = HttpClientContext.adapt(RequestConfigHolder.createContext(defaults)).getRequestConfig();
+            Assert.assertEquals(3000, config.getConnectTimeout());
+            Assert.assertEquals(1000, config.getConnectionRequestTimeout());
+            Assert.assertEquals(500, config.getSocketTimeout());
+        } finally {
+            RequestConfigHolder.reset(previous);
+        }
+
+        // 获取连接的超时只会缩短
+        previous = RequestConfigHolder.set(RequestTimeout.of(200, 0, 0L));
+        try {
+            RequestConfig config = HttpClientContext.adapt(RequestConfigHolder.createContext(defaults)).getRequestConfig();
+            Assert.assertEquals(200, config.getConnectTimeout());
+            Assert.assertEquals(200, config.getConnectionRequestTimeout());
+            Assert.assertEquals(-1, config.getSocketTimeout());
+        } finally {
+            RequestConfigHolder.reset(previous);
+        }
+
+        previous = RequestConfigHolder.set(RequestTimeout.of(5000, 0, 0L));
+        try {
+            RequestConfig config = HttpClientContext.adapt(RequestConfigHolder.createContext(defaults)).getRequestConfig();
+            Assert.assertEquals(5000, config.getConnectTimeout());
+            Assert.assertEquals(1000, config.getConnectionRequestTimeout());
+        } finally {
+            RequestConfigHolder.reset(previous);
+        }
+        Assert.assertNull(RequestConfigHolder.createContext(defaults));
+    }
+}
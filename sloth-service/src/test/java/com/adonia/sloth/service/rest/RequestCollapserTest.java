@@ -0,0 +1,208 @@
+package com.adonia.sloth.service.rest;
+
+import com.adonia.sloth.model.ServiceException;
+import com.adonia.sloth.service.rest.RequestCollapser.RequestKey;
+import com.adonia.sloth.service.timeout.RequestTimeout;
+import com.adonia.sloth.utils.IServiceConstant;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 合并并发请求测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class RequestCollapserTest {
+
+    private static final String SERVICE_NAME = "sloth.person/v1/getPerson";
+
+    private static final RequestTimeout NO_TIMEOUT = RequestTimeout.of(0, 0, 0L);
+
+    private final RequestCollapser collapser = new RequestCollapser();
+
+    @Test
+    public void testCollapsible() {
+        Assert.assertFalse(collapser.isCollapsible(HttpMethod.GET, SERVICE_NAME));
+
+        collapser.setServices(new String[]{SERVICE_NAME});
+        Assert.assertTrue(collapser.isCollapsible(HttpMethod.GET, SERVICE_NAME));
+        Assert.assertFalse(collapser.isCollapsible(HttpMethod.POST, SERVICE_NAME));
+    }
+
+    @Test
+    public void testKey() {
+        Assert.assertEquals(new RequestKey(SERVICE_NAME, Collections.singletonMap("id", "1"), null, String.class),
+                new RequestKey(SERVICE_NAME, Collections.singletonMap("id", "1"), null, String.class));
+        Assert.assertEquals(new RequestKey(SERVICE_NAME, null, null, String.class),
+                new RequestKey(SERVICE_NAME, Collections.<String, Object>emptyMap(), null, String.class));
+        Assert.assertNotEquals(new RequestKey(SERVICE_NAME, Collections.singletonMap("id", "1"), null, String.class),
+                new RequestKey(SERVICE_NAME, Collections.singletonMap("id", "2"), null, String.class));
+        Assert.assertNotEquals(new RequestKey(SERVICE_NAME, null, "1", String.class),
+                new RequestKey(SERVICE_NAME, null, null, String.class));
+        Assert.assertNotEquals(new RequestKey(SERVICE_NAME, null, null, String.class),
+                new RequestKey(SERVICE_NAME, null, null, Object.class));
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        final int threads = 20;
+        final RequestKey key = new RequestKey(SERVICE_NAME, Collections.singletonMap("id", "1"), null, String.class);
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> collapser.execute(key, NO_TIMEOUT, () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "leo";
+            })));
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            for(int i = 1; i < threads; i++) {
+                results.add(executor.submit(() -> collapser.execute(key, NO_TIMEOUT, () -> {
+                    calls.incrementAndGet();
+                    return "duplicate";
+                })));
+            }
+
+            // 等待其余线程进入等待状态
+            while(collapser.getCollapsedCount() < threads - 1) {
+                Thread.sleep(1L);
+            }
+            release.countDown();
+
+            for(Future<String> result: results) {
+                Assert.assertEquals("leo", result.get(5, TimeUnit.SECONDS));
+            }
+            Assert.assertEquals(1, calls.get());
+
+            // 请求结束后不再合并
+            Assert.assertEquals("again", collapser.execute(key, NO_TIMEOUT, () -> "again"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExceptionShared() throws Exception {
+        final RequestKey key = new RequestKey(SERVICE_NAME, null, null, String.class);
+        final CompletableFuture<String> leader = new CompletableFuture<>();
+
+        CompletableFuture<String> first = collapser.executeAsync(key, () -> leader);
+        CompletableFuture<String> second = collapser.executeAsync(key, () -> {
+            throw new IllegalStateException("should be collapsed");
+        });
+        leader.completeExceptionally(new ServiceException("Service Not Found!", 404L));
+
+        Assert.assertTrue(first.isCompletedExceptionally());
+        Assert.assertTrue(second.isCompletedExceptionally());
+        Assert.assertEquals(1L, collapser.getCollapsedCount());
+    }
+
+    @Test
+    public void testFailureShared() throws Exception {
+        // 合并的请求与发出请求的线程抛出同一个异常，Error 同样结束等待中的请求，而不是一直等待
+        assertFailureShared(new AssertionError("leader failed"));
+        assertFailureShared(new IllegalStateException("leader failed"));
+        assertFailureShared(new ServiceException("Service Not Found!", 404L));
+    }
+
+    private void assertFailureShared(final Throwable failure) throws Exception {
+        final RequestKey key = new RequestKey(SERVICE_NAME, null, null, String.class);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final long collapsed = collapser.getCollapsedCount();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> collapser.execute(key, NO_TIMEOUT, () -> {
+                started.countDown();
+                await(release);
+                if(failure instanceof ServiceException) {
+                    throw (ServiceException) failure;
+                }
+                if(failure instanceof Error) {
+                    throw (Error) failure;
+                }
+                throw (RuntimeException) failure;
+            }));
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Future<String> second = executor.submit(() -> collapser.execute(key, NO_TIMEOUT, () -> "duplicate"));
+            while(collapser.getCollapsedCount() <= collapsed) {
+                Thread.sleep(1L);
+            }
+            release.countDown();
+
+            for(Future<String> result: Arrays.asList(first, second)) {
+                try {
+                    result.get(5, TimeUnit.SECONDS);
+                    Assert.fail();
+                } catch (ExecutionException e) {
+                    Assert.assertSame(failure, e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWaitUntilDeadline() throws Exception {
+        final RequestKey key = new RequestKey(SERVICE_NAME, null, null, String.class);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> first = executor.submit(() -> collapser.execute(key, NO_TIMEOUT, () -> {
+                started.countDown();
+                await(release);
+                return "leo";
+            }));
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // 等待的请求在自身的截止时间到达时超时，不影响正在进行的请求
+            final long start = System.nanoTime();
+            try {
+                collapser.execute(key, RequestTimeout.of(0, 0, 100L), () -> "duplicate");
+                Assert.fail();
+            } catch (ServiceException e) {
+                Assert.assertEquals(IServiceConstant.SERVICE_TIMEOUT, e.getErrorCode());
+            }
+            Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100L));
+
+            release.countDown();
+            Assert.assertEquals("leo", first.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.adonia.sloth.service.rest;
+
+import com.adonia.sloth.model.InstanceDetail;
+import com.adonia.sloth.model.ServiceException;
+import com.adonia.sloth.service.IServiceFinder;
+import com.adonia.sloth.service.retry.RetryBudget;
+import com.adonia.sloth.service.retry.RetryPolicy;
+import com.adonia.sloth.service.scatter.ScatterPolicy;
+import com.adonia.sloth.service.scatter.ScatterResult;
+import com.adonia.sloth.service.timeout.RequestTimeout;
+import com.adonia.sloth.utils.IServiceConstant;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.TestingServer;
+import org.apache.curator.x.discovery.ServiceDiscovery;
+import org.apache.curator.x.discovery.ServiceDiscoveryBuilder;
+import org.apache.curator.x.discovery.ServiceInstance;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.config.PropertyPlaceholderConfigurer;
+import org.springframework.context.support.GenericXmlApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 异步调用的重试、退避等待、截止时间，scatter-gather 超时及流式读取的测试，连接内嵌zookeeper和本地HTTP服务
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class RestServiceTemplateAsyncTest {
+
+    private static final String SERVICE_PATH = "/sloth/service";
+
+    private static final long BACKOFF = 200L;
+
+    private TestingServer zkServer;
+
+    private CuratorFramework zkClient;
+
+    private ServiceDiscovery<InstanceDetail> discovery;
+
+    private final List<HttpServer> httpServers = new ArrayList<>();
+
+    private GenericXmlApplicationContext context;
+
+    private RestServiceTemplate template;
+
+    /**
+     * flaky 服务的请求次数，两个实例共用: 每次调用的第一次请求失败，重试的请求成功
+     */
+    private final AtomicInteger flakyHits = new AtomicInteger();
+
+    private final List<Integer> flakyPorts = new ArrayList<>();
+
+    /**
+     * endless 服务写响应体失败，即客户端断开连接时结束
+     */
+    private final CountDownLatch endlessClosed = new CountDownLatch(1);
+
+    @Before
+    public void setUp() throws Exception {
+        zkServer = new TestingServer();
+        zkClient = CuratorFrameworkFactory.newClient(zkServer.getConnectString(), new RetryOneTime(100));
+        zkClient.start();
+        discovery = ServiceDiscoveryBuilder.builder(InstanceDetail.class)
+                .client(zkClient)
+                .basePath(SERVICE_PATH)
+                .build();
+        discovery.start();
+
+        for(int i = 0; i < 2; i++) {
+            register("v1/flaky", startServer(this::flaky));
+        }
+        register("v1/slow", startServer(this::slow));
+        register("v1/endless", startServer(this::endless));
+
+        context = new GenericXmlApplicationContext();
+        context.load("classpath:META-INF/spring/sloth.service.xml");
+
+        Properties properties = new Properties();
+        properties.setProperty("sloth.service.zkServerUri", zkServer.getConnectString());
+        properties.setProperty("sloth.service.path", SERVICE_PATH);
+        PropertyPlaceholderConfigurer configurer = new PropertyPlaceholderConfigurer();
+        configurer.setProperties(properties);
+        context.addBeanFactoryPostProcessor(configurer);
+        context.refresh();
+
+        // 固定的退避时间，便于校验
+        template = context.getBean(RestServiceTemplate.class);
+        ReflectionTestUtils.setField(template, "retryPolicy", new RetryPolicy(new RetryBudget(10, 10)) {
+            @Override
+            public long backoff(int retries) {
+                return BACKOFF;
+            }
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        RequestTimeout.set(null);
+        context.close();
+        discovery.close();
+        zkClient.close();
+        for(HttpServer httpServer: httpServers) {
+            httpServer.stop(0);
+        }
+        zkServer.close();
+    }
+
+    @Test
+    public void testRetryWithBackoff() throws Exception {
+        for(int i = 0; i < 3; i++) {
+            final long start = System.nanoTime();
+            Assert.assertEquals("leo", template.getAsync("v1/flaky", String.class).get(5, TimeUnit.SECONDS));
+            Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(BACKOFF));
+        }
+
+        // 重试时换一个实例
+        Assert.assertEquals(6, flakyHits.get());
+        synchronized(flakyPorts) {
+            for(int i = 0; i < flakyPorts.size(); i += 2) {
+                Assert.assertNotEquals(flakyPorts.get(i), flakyPorts.get(i + 1));
+            }
+        }
+    }
+
+    @Test
+    public void testRetryLookupAsync() throws Exception {
+        // 失败回调在I/O线程中执行，重试时不能使用阻塞的查找
+        final IServiceFinder finder = context.getBean(IServiceFinder.class);
+        ReflectionTestUtils.setField(template, "serviceFinder", new IServiceFinder() {
+            @Override
+            public InstanceDetail findService(String serviceName) {
+                throw new AssertionError("Blocking lookup of " + serviceName);
+            }
+
+            @Override
+            public InstanceDetail findService(String serviceName, Collection<InstanceDetail> excludes) {
+                throw new AssertionError("Blocking lookup of " + serviceName);
+            }
+
+            @Override
+            public CompletableFuture<InstanceDetail> findServiceAsync(String serviceName) {
+                return finder.findServiceAsync(serviceName);
+            }
+
+            @Override
+            public CompletableFuture<InstanceDetail> findServiceAsync(String serviceName,
+                                                                      Collection<InstanceDetail> excludes) {
+                return finder.findServiceAsync(serviceName, excludes);
+            }
+        });
+
+        Assert.assertEquals("leo", template.getAsync("v1/flaky", String.class).get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(2, flakyHits.get());
+    }
+
+    @Test
+    public void testNoRetryBeyondDeadline() throws Exception {
+        // 退避等待后已过截止时间，不再重试
+        RequestTimeout.set(RequestTimeout.of(0, 0, BACKOFF / 2));
+        try {
+            template.getAsync("v1/flaky", String.class).get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof ServiceException);
+        }
+        Assert.assertEquals(1, flakyHits.get());
+    }
+
+    @Test
+    public void testAbortAtDeadline() throws Exception {
+        RequestTimeout.set(RequestTimeout.of(0, 0, 300L));
+        final long start = System.nanoTime();
+        try {
+            template.getAsync("v1/slow", String.class).get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof ServiceException);
+            Assert.assertEquals(IServiceConstant.SERVICE_TIMEOUT, ((ServiceException) e.getCause()).getErrorCode());
+        }
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    public void testScatterTimeout() throws Exception {
+        final long start = System.nanoTime();
+        ScatterResult<String> result = template.getAllAsync("v1/slow", null, null, String.class,
+                ScatterPolicy.all().timeout(300L)).get(5, TimeUnit.SECONDS);
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        // 单个实例超时以 SERVICE_TIMEOUT 计入失败
+        Assert.assertTrue(result.getResponses().isEmpty());
+        Assert.assertEquals(1, result.getFailures().size());
+        Throwable failure = result.getFailures().values().iterator().next();
+        Assert.assertTrue(failure instanceof ServiceException);
+        Assert.assertEquals(IServiceConstant.SERVICE_TIMEOUT, ((ServiceException) failure).getErrorCode());
+    }
+
+    // 关闭时读完剩余的响应体会一直阻塞
+    @Test(timeout = 10000L)
+    public void testCloseGzipStreamEarly() throws Exception {
+        Stream<Integer> stream = template.stream("v1/endless", Integer.class);
+        Iterator<Integer> elements = stream.iterator();
+        for(int i = 0; i < 3; i++) {
+            Assert.assertEquals(i, elements.next().intValue());
+        }
+
+        final long start = System.nanoTime();
+        stream.close();
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+
+        // 关闭时断开连接，不读完剩余的响应体
+        Assert.assertTrue(endlessClosed.await(5, TimeUnit.SECONDS));
+    }
+
+    private void flaky(HttpExchange exchange) throws IOException {
+        synchronized(flakyPorts) {
+            flakyPorts.add(exchange.getLocalAddress().getPort());
+        }
+        if(1 == flakyHits.incrementAndGet() % 2) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+        respond(exchange);
+    }
+
+    private void slow(HttpExchange exchange) throws IOException {
+        try {
+            Thread.sleep(2000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        respond(exchange);
+    }
+
+    // 压缩的、无限长的 JSON 数组
+    private void endless(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        exchange.sendResponseHeaders(200, 0);
+        try(OutputStream out = new GZIPOutputStream(exchange.getResponseBody(), true)) {
+            out.write('[');
+            for(int i = 0; ; i++) {
+                out.write(((0 == i) ? String.valueOf(i) : "," + i).getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        } catch (IOException e) {
+            endlessClosed.countDown();
+            throw e;
+        }
+    }
+
+    private static void respond(HttpExchange exchange) throws IOException {
+        byte[] response = "leo".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain;charset=UTF-8");
+        exchange.sendResponseHeaders(200, response.length);
+        try(OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private int startServer(Handler handler) throws IOException {
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        httpServer.createContext("/", handler::handle);
+        httpServer.start();
+        httpServers.add(httpServer);
+        return httpServer.getAddress().getPort();
+    }
+
+    private void register(String serviceName, int port) throws Exception {
+        InstanceDetail instanceDetail = new InstanceDetail.InstanceDetailBuilder()
+                .listenAddress("localhost:" + port)
+                .controllerRequestMapping("/persons")
+                .serviceName(serviceName)
+                .build();
+
+        discovery.registerService(ServiceInstance.<InstanceDetail>builder()
+                .address("localhost")
+                .port(port)
+                .name(serviceName)
+                .payload(instanceDetail)
+                .build());
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+}
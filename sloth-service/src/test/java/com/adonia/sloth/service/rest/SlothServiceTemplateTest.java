@@ -0,0 +1,100 @@
+package com.adonia.sloth.service.rest;
+
+import com.adonia.sloth.service.IServiceTemplate;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * SlothServiceTemplate 并发调用测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class SlothServiceTemplateTest {
+
+    private static final int THREADS = 200;
+
+    private static final int CALLS_PER_THREAD = 500;
+
+    private SlothServiceTemplate template;
+
+    @Before
+    public void setUp() {
+        // 直接返回实际收到的请求参数，用于校验并发调用之间没有相互干扰
+        IServiceTemplate echo = (IServiceTemplate) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[]{IServiceTemplate.class},
+                (proxy, method, args) -> (null == args) ? method.getName()
+                        : method.getName() + " " + Arrays.toString(Arrays.copyOf(args, args.length - 1)));
+
+        template = new SlothServiceTemplate();
+        ReflectionTestUtils.setField(template, "serviceTemplate", echo);
+    }
+
+    @Test
+    public void testConcurrentCalls() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<Integer>> results = new ArrayList<>(THREADS);
+        for(int i = 0; i < THREADS; i++) {
+            final int thread = i;
+            results.add(executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    start.await();
+                    for(int j = 0; j < CALLS_PER_THREAD; j++) {
+                        final String id = thread + "-" + j;
+                        if(0 == j % 2) {
+                            String response = template.namespace("ns" + thread)
+                                    .version("v" + j)
+                                    .request(SlothServiceTemplate.SlothRequest.withServiceName("getPerson")
+                                            .andParameter("id", id)
+                                            .andPath(id))
+                                    .get(String.class);
+                            Assert.assertEquals("get [ns" + thread + "/v" + j + "/getPerson, {id=" + id + "}, " + id + "]",
+                                    response);
+                        } else {
+                            String response = template.request(SlothServiceTemplate.SlothRequest.withServiceName("addPerson")
+                                            .andBody(id))
+                                    .version("v" + thread)
+                                    .post(String.class);
+                            Assert.assertEquals("post [v" + thread + "/addPerson, " + id + ", null, null]", response);
+                        }
+                    }
+                    return CALLS_PER_THREAD;
+                }
+            }));
+        }
+
+        start.countDown();
+        int calls = 0;
+        for(Future<Integer> result: results) {
+            calls += result.get();
+        }
+        executor.shutdown();
+
+        Assert.assertEquals(THREADS * CALLS_PER_THREAD, calls);
+    }
+
+    @Test
+    public void testRequestIsCopied() throws Exception {
+        SlothServiceTemplate.SlothRequest request = SlothServiceTemplate.SlothRequest.withServiceName("getPerson")
+                .andParameter("id", "1");
+        SlothServiceTemplate.SlothCall call = template.request(request);
+
+        request.andParameter("id", "2").andPath("detail");
+        Assert.assertEquals("get [getPerson, {id=1}, null]", call.get(String.class));
+    }
+}
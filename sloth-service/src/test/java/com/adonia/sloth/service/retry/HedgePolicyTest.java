@@ -0,0 +1,79 @@
+package com.adonia.sloth.service.retry;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对冲请求策略测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class HedgePolicyTest {
+
+    private static final String SERVICE_NAME = "sloth.person/v1/getPerson";
+
+    @Test
+    public void testOptIn() {
+        HedgePolicy policy = new HedgePolicy(new RetryBudget(5, 5));
+        Assert.assertFalse(policy.onRequest(HttpMethod.GET, SERVICE_NAME));
+
+        policy.setServices(new String[]{SERVICE_NAME});
+        Assert.assertTrue(policy.onRequest(HttpMethod.GET, SERVICE_NAME));
+        Assert.assertFalse(policy.onRequest(HttpMethod.POST, SERVICE_NAME));
+        Assert.assertFalse(policy.onRequest(HttpMethod.GET, "sloth.person/v1/addPerson"));
+
+        policy.setServices(new String[]{HedgePolicy.ALL_SERVICES});
+        Assert.assertTrue(policy.onRequest(HttpMethod.GET, "sloth.person/v1/addPerson"));
+    }
+
+    @Test
+    public void testBudget() {
+        HedgePolicy policy = new HedgePolicy(new RetryBudget(5, 2));
+        // 只检查预算时不取出
+        Assert.assertTrue(policy.hasBudget());
+        Assert.assertTrue(policy.hasBudget());
+
+        Assert.assertTrue(policy.tryAcquire());
+        Assert.assertTrue(policy.tryAcquire());
+        Assert.assertFalse(policy.hasBudget());
+        Assert.assertFalse(policy.tryAcquire());
+    }
+
+    @Test
+    public void testAdaptiveDelay() {
+        HedgePolicy policy = new HedgePolicy(new RetryBudget(5, 5));
+        policy.setMinSamples(100L);
+
+        // 样本不足时不对冲
+        Assert.assertEquals(-1L, policy.getDelay(SERVICE_NAME));
+
+        HedgePolicy fresh = new HedgePolicy(new RetryBudget(5, 5));
+        for(int i = 1; i <= 100; i++) {
+            fresh.record(SERVICE_NAME, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        long delay = fresh.getDelay(SERVICE_NAME);
+        Assert.assertTrue("p95 delay: " + delay, delay >= 94L && delay <= 97L);
+
+        fresh.setDelay(20L);
+        Assert.assertEquals(20L, fresh.getDelay(SERVICE_NAME));
+    }
+
+    @Test
+    public void testDelayWindow() throws InterruptedException {
+        HedgePolicy policy = new HedgePolicy(new RetryBudget(5, 5));
+        policy.setMinSamples(10L);
+        policy.setWindow(60L);
+        for(int i = 0; i < 10; i++) {
+            policy.record(SERVICE_NAME, TimeUnit.MILLISECONDS.toNanos(200));
+        }
+        Assert.assertTrue(policy.getDelay(SERVICE_NAME) >= 200L);
+
+        // 窗口过后旧的耗时不再计入
+        Thread.sleep(1100L);
+        Assert.assertEquals(-1L, policy.getDelay(SERVICE_NAME));
+    }
+}
@@ -0,0 +1,79 @@
+package com.adonia.sloth.service.retry;
+
+import org.apache.http.conn.HttpHostConnectException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+/**
+ * 重试策略测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class RetryPolicyTest {
+
+    @Test
+    public void testRetryable() throws IOException {
+        RetryPolicy policy = new RetryPolicy(new RetryBudget(10, 10));
+        ResourceAccessException refused = new ResourceAccessException("refused",
+                new HttpHostConnectException(new ConnectException("Connection refused"), null));
+        ResourceAccessException timeout = new ResourceAccessException("timeout", new SocketTimeoutException());
+        HttpServerErrorException serverError = new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+
+        try {
+            Assert.assertTrue(policy.isRetryable(HttpMethod.GET, refused, 0));
+            Assert.assertTrue(policy.isRetryable(HttpMethod.POST, refused, 0));
+            Assert.assertTrue(policy.isRetryable(HttpMethod.GET, timeout, 1));
+            Assert.assertTrue(policy.isRetryable(HttpMethod.GET, serverError, 0));
+
+            // POST 默认不幂等，请求可能已被处理
+            Assert.assertFalse(policy.isRetryable(HttpMethod.POST, timeout, 0));
+            Assert.assertFalse(policy.isRetryable(HttpMethod.POST, serverError, 0));
+            Assert.assertFalse(policy.isRetryable(HttpMethod.GET, new HttpClientErrorException(HttpStatus.NOT_FOUND), 0));
+            Assert.assertFalse(policy.isRetryable(HttpMethod.GET, refused, 2));
+
+            policy.setRetryPost(true);
+            Assert.assertTrue(policy.isRetryable(HttpMethod.POST, serverError, 0));
+        } finally {
+            policy.close();
+        }
+    }
+
+    @Test
+    public void testBudget() {
+        RetryBudget budget = new RetryBudget(10, 2);
+        Assert.assertTrue(budget.tryWithdraw());
+        Assert.assertTrue(budget.tryWithdraw());
+        Assert.assertFalse(budget.tryWithdraw());
+
+        // 每 10 个请求允许一次重试
+        for(int i = 0; i < 9; i++) {
+            budget.deposit();
+        }
+        Assert.assertFalse(budget.tryWithdraw());
+        budget.deposit();
+        Assert.assertTrue(budget.tryWithdraw());
+    }
+
+    @Test
+    public void testBackoff() throws IOException {
+        RetryPolicy policy = new RetryPolicy(new RetryBudget(10, 10));
+        try {
+            for(int i = 0; i < 100; i++) {
+                Assert.assertTrue(policy.backoff(0) <= 20L);
+                Assert.assertTrue(policy.backoff(10) <= 200L);
+            }
+        } finally {
+            policy.close();
+        }
+    }
+}
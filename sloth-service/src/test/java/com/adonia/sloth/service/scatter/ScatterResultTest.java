@@ -0,0 +1,73 @@
+package com.adonia.sloth.service.scatter;
+
+import com.adonia.sloth.model.InstanceDetail;
+import com.adonia.sloth.model.ServiceException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * scatter-gather 策略及结果测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class ScatterResultTest {
+
+    @Test
+    public void testPolicy() {
+        Assert.assertEquals(3, ScatterPolicy.all().getRequired(3));
+        Assert.assertEquals(2, ScatterPolicy.quorum(2).getRequired(3));
+        // 实例数不足时等待所有实例
+        Assert.assertEquals(1, ScatterPolicy.quorum(2).getRequired(1));
+
+        ScatterPolicy policy = ScatterPolicy.quorum(2).timeout(-1L).parallelism(4);
+        Assert.assertEquals(0L, policy.getTimeout());
+        Assert.assertEquals(4, policy.getParallelism());
+        Assert.assertEquals(2, policy.getQuorum());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidQuorum() {
+        ScatterPolicy.quorum(0);
+    }
+
+    @Test
+    public void testPartialResult() {
+        List<InstanceDetail> instances = instances(3);
+        Map<InstanceDetail, Integer> responses = new LinkedHashMap<>();
+        responses.put(instances.get(2), 3);
+        responses.put(instances.get(0), 1);
+        Map<InstanceDetail, Throwable> failures = Collections.singletonMap(instances.get(1),
+                new ServiceException("Timeout", 500));
+
+        ScatterResult<Integer> result = new ScatterResult<>(instances, responses, failures, 3);
+        Assert.assertFalse(result.isComplete());
+        Assert.assertFalse(result.isQuorumReached());
+        Assert.assertTrue(result.getPending().isEmpty());
+        Assert.assertEquals(4, result.merge(values -> values.stream().mapToInt(Integer::intValue).sum()).intValue());
+        // 按响应的先后顺序
+        Assert.assertEquals(instances.get(2), result.getResponses().keySet().iterator().next());
+
+        result = new ScatterResult<>(instances, responses, Collections.emptyMap(), 2);
+        Assert.assertTrue(result.isQuorumReached());
+        Assert.assertEquals(Collections.singletonList(instances.get(1)), result.getPending());
+    }
+
+    private List<InstanceDetail> instances(int size) {
+        List<InstanceDetail> instances = new ArrayList<>(size);
+        for(int i = 0; i < size; i++) {
+            instances.add(new InstanceDetail.InstanceDetailBuilder()
+                    .serviceName("getPerson")
+                    .listenAddress("localhost:" + (8080 + i))
+                    .methodRequestMapping("/persons")
+                    .build());
+        }
+        return instances;
+    }
+}
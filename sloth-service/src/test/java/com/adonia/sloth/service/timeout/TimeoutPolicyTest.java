@@ -0,0 +1,84 @@
+package com.adonia.sloth.service.timeout;
+
+import com.adonia.sloth.deadline.Deadline;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 调用超时策略测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class TimeoutPolicyTest {
+
+    private static final String SERVICE_NAME = "sloth.person/v1/getPerson";
+
+    private TimeoutPolicy policy;
+
+    @Before
+    public void setUp() {
+        policy = new TimeoutPolicy();
+        policy.setConnectTimeout(1000);
+        policy.setReadTimeout(10000);
+    }
+
+    @After
+    public void tearDown() {
+        Deadline.set(null);
+        RequestTimeout.set(null);
+    }
+
+    @Test
+    public void testDefaults() {
+        RequestTimeout timeout = policy.resolve(SERVICE_NAME);
+        Assert.assertEquals(1000, timeout.getConnectTimeout());
+        Assert.assertEquals(10000, timeout.getReadTimeout());
+        Assert.assertNull(timeout.getDeadline());
+        Assert.assertEquals(-1L, timeout.getRemaining());
+        Assert.assertFalse(timeout.isExpired());
+        Assert.assertFalse(timeout.isExpiredAfter(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testPerServiceAndPerCall() {
+        policy.setReadTimeouts(Collections.singletonMap(SERVICE_NAME, 2000));
+        policy.setTimeouts(Collections.singletonMap(SERVICE_NAME, 5000L));
+
+        RequestTimeout timeout = policy.resolve(SERVICE_NAME);
+        Assert.assertEquals(2000, timeout.getReadTimeout());
+        Assert.assertTrue(timeout.getRemaining() > 4000L);
+        Assert.assertEquals(10000, policy.resolve("sloth.person/v1/addPerson").getReadTimeout());
+
+        // 本次调用指定的超时优先，截止时间取最早的
+        RequestTimeout.set(RequestTimeout.of(0, 300, 200L));
+        timeout = policy.resolve(SERVICE_NAME);
+        Assert.assertTrue(timeout.getConnectTimeout() <= 200);
+        Assert.assertTrue(timeout.getReadTimeout() <= 200);
+        Assert.assertTrue(timeout.getRemaining() <= 200L);
+    }
+
+    @Test
+    public void testInheritDeadline() {
+        Deadline.set(Deadline.after(100, TimeUnit.MILLISECONDS));
+        RequestTimeout timeout = policy.resolve(SERVICE_NAME);
+        Assert.assertTrue(timeout.getRemaining() <= 100L);
+        Assert.assertTrue(timeout.getConnectTimeout() <= 100);
+        // 重试前的等待不能达到截止时间
+        Assert.assertFalse(timeout.isExpiredAfter(0L));
+        Assert.assertTrue(timeout.isExpiredAfter(100L));
+
+        Deadline.set(Deadline.after(-1, TimeUnit.MILLISECONDS));
+        timeout = policy.resolve(SERVICE_NAME);
+        Assert.assertTrue(timeout.isExpired());
+        Assert.assertTrue(timeout.isExpiredAfter(0L));
+        Assert.assertEquals(0L, timeout.getRemaining());
+        // 剩余时间不足时仍取 1 毫秒，0 表示不限制
+        Assert.assertEquals(1, timeout.getReadTimeout());
+    }
+}
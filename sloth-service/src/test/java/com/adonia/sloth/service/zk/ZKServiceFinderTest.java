@@ -0,0 +1,63 @@
+package com.adonia.sloth.service.zk;
+
+import com.adonia.sloth.service.ILoadBalancer;
+import com.adonia.sloth.service.balance.RoundRobinLoadBalancer;
+import com.adonia.sloth.service.balance.WeightedRandomLoadBalancer;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.retry.RetryOneTime;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 按服务名称指定负载均衡策略的测试，不连接zookeeper
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class ZKServiceFinderTest {
+
+    private static final String SERVICE_NAME = "sloth.person/v1/getPerson";
+
+    @Test
+    public void testLoadBalancerMapping() throws Exception {
+        ILoadBalancer weighted = new WeightedRandomLoadBalancer();
+        Map<String, ILoadBalancer> strategies = new HashMap<>();
+        strategies.put("roundRobinLoadBalancer", new RoundRobinLoadBalancer());
+        strategies.put("weightedRandomLoadBalancer", weighted);
+
+        // 与属性的设置顺序无关
+        ZKServiceFinder finder = finder();
+        finder.setLoadBalancerMapping(new String[] {" " + SERVICE_NAME + " = weightedRandomLoadBalancer", ""});
+        finder.setLoadBalancerStrategies(strategies);
+
+        Assert.assertSame(weighted, getLoadBalancer(finder, SERVICE_NAME));
+        Assert.assertNotSame(weighted, getLoadBalancer(finder, "sloth.person/v1/other"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownLoadBalancer() throws Exception {
+        ZKServiceFinder finder = finder();
+        finder.setLoadBalancerStrategies(
+                Collections.<String, ILoadBalancer>singletonMap("roundRobinLoadBalancer", new RoundRobinLoadBalancer()));
+        finder.setLoadBalancerMapping(new String[] {SERVICE_NAME + "=leastRequestLoadBalancer"});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMapping() throws Exception {
+        finder().setLoadBalancerMapping(new String[] {SERVICE_NAME});
+    }
+
+    private static ZKServiceFinder finder() throws Exception {
+        return new ZKServiceFinder(CuratorFrameworkFactory.newClient("localhost:2181", new RetryOneTime(1)),
+                "/sloth/service");
+    }
+
+    private static ILoadBalancer getLoadBalancer(ZKServiceFinder finder, String serviceName) {
+        return ReflectionTestUtils.invokeMethod(finder, "getLoadBalancer", serviceName);
+    }
+}
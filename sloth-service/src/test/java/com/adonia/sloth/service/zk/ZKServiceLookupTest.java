@@ -0,0 +1,259 @@
+package com.adonia.sloth.service.zk;
+
+import com.adonia.sloth.model.InstanceDetail;
+import com.adonia.sloth.model.ServiceException;
+import org.apache.curator.framework.CuratorFramework;
+import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.state.ConnectionState;
+import org.apache.curator.retry.RetryOneTime;
+import org.apache.curator.test.TestingServer;
+import org.apache.curator.utils.ZKPaths;
+import org.apache.curator.x.discovery.ServiceDiscovery;
+import org.apache.curator.x.discovery.ServiceDiscoveryBuilder;
+import org.apache.curator.x.discovery.ServiceInstance;
+import org.apache.curator.x.discovery.details.JsonInstanceSerializer;
+import org.apache.zookeeper.ZooDefs;
+import org.apache.zookeeper.data.ACL;
+import org.apache.zookeeper.data.Id;
+import org.apache.zookeeper.server.auth.DigestAuthenticationProvider;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 连接内嵌zookeeper的服务查找测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class ZKServiceLookupTest {
+
+    private static final String SERVICE_PATH = "/sloth/service";
+
+    private static final String SERVICE_NAME = "v1/getPerson";
+
+    private static final String OTHER_SERVICE_NAME = "v1/listPersons";
+
+    private static final String UNKNOWN_SERVICE_NAME = "v1/unknown";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private TestingServer zkServer;
+
+    private CuratorFramework zkClient;
+
+    private ServiceDiscovery<InstanceDetail> discovery;
+
+    private ZKServiceFinder finder;
+
+    @Before
+    public void setUp() throws Exception {
+        zkServer = new TestingServer();
+        zkClient = CuratorFrameworkFactory.newClient(zkServer.getConnectString(), new RetryOneTime(100));
+        // 连接事件处理完之后再创建 finder，以免连接事件在测试中途重置连接状态
+        final CountDownLatch connected = new CountDownLatch(1);
+        zkClient.getConnectionStateListenable().addListener((client, state) -> {
+            if(ConnectionState.CONNECTED == state) {
+                connected.countDown();
+            }
+        });
+        zkClient.start();
+        Assert.assertTrue(connected.await(5, TimeUnit.SECONDS));
+        discovery = ServiceDiscoveryBuilder.builder(InstanceDetail.class)
+                .client(zkClient)
+                .basePath(SERVICE_PATH)
+                .build();
+        discovery.start();
+
+        finder = new ZKServiceFinder(zkClient, SERVICE_PATH);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        finder.close();
+        discovery.close();
+        zkClient.close();
+        zkServer.close();
+    }
+
+    @Test
+    public void testMissingServiceCached() throws Exception {
+        finder.setMissingTtl(500L);
+        Assert.assertNull(finder.findService(SERVICE_NAME));
+
+        // 缓存时间内不再检查服务节点
+        register(SERVICE_NAME, 8080);
+        Assert.assertNull(finder.findService(SERVICE_NAME));
+        Assert.assertNull(finder.findServiceAsync(SERVICE_NAME).get());
+
+        Thread.sleep(600L);
+        Assert.assertEquals("localhost:8080", finder.findService(SERVICE_NAME).getListenAddress());
+    }
+
+    @Test
+    public void testMissingServiceNotCached() throws Exception {
+        finder.setMissingTtl(0L);
+        Assert.assertNull(finder.findServiceAsync(SERVICE_NAME).get());
+
+        register(SERVICE_NAME, 8080);
+        Assert.assertEquals("localhost:8080", finder.findServiceAsync(SERVICE_NAME).get().getListenAddress());
+    }
+
+    @Test
+    public void testStaleAfterFirstLoad() throws Exception {
+        register(SERVICE_NAME, 8080);
+
+        // 模拟与zookeeper断开已超过 maxStaleness，首次加载完成后异步查找同样检查
+        finder.setMaxStaleness(1000L);
+        ReflectionTestUtils.setField(finder, "disconnectedSince", System.currentTimeMillis() - 2000L);
+        try {
+            finder.findServiceAsync(SERVICE_NAME).get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof ServiceException);
+            Assert.assertTrue(e.getCause().getMessage().contains("stale"));
+        }
+
+        try {
+            finder.findService(SERVICE_NAME);
+            Assert.fail();
+        } catch (ServiceException e) {
+            Assert.assertTrue(e.getMessage().contains("stale"));
+        }
+    }
+
+    @Test
+    public void testFindServicesMixed() throws Exception {
+        register(SERVICE_NAME, 8080);
+        register(OTHER_SERVICE_NAME, 8081);
+
+        // 服务节点不存在的服务不在结果中
+        Map<String, InstanceDetail> found = finder.findServicesAsync(
+                Arrays.asList(SERVICE_NAME, UNKNOWN_SERVICE_NAME, OTHER_SERVICE_NAME)).get(5, TimeUnit.SECONDS);
+        Assert.assertEquals(Arrays.asList(SERVICE_NAME, OTHER_SERVICE_NAME), Arrays.asList(found.keySet().toArray()));
+        Assert.assertEquals("localhost:8080", found.get(SERVICE_NAME).getListenAddress());
+        Assert.assertEquals("localhost:8081", found.get(OTHER_SERVICE_NAME).getListenAddress());
+
+        // 已缓存的服务直接查找
+        found = finder.findServices(Arrays.asList(OTHER_SERVICE_NAME, UNKNOWN_SERVICE_NAME));
+        Assert.assertEquals(Collections.singleton(OTHER_SERVICE_NAME), found.keySet());
+    }
+
+    @Test
+    public void testFindServicesMissingNode() throws Exception {
+        finder.setMissingTtl(500L);
+        Assert.assertTrue(finder.findServices(Collections.singletonList(SERVICE_NAME)).isEmpty());
+        Map<?, ?> caches = (Map<?, ?>) ReflectionTestUtils.getField(finder, "caches");
+        Assert.assertFalse(caches.containsKey(SERVICE_NAME));
+
+        // 缓存时间内不再读取服务节点
+        register(SERVICE_NAME, 8080);
+        Assert.assertTrue(finder.findServices(Collections.singletonList(SERVICE_NAME)).isEmpty());
+
+        Thread.sleep(600L);
+        Assert.assertEquals("localhost:8080",
+                finder.findServices(Collections.singletonList(SERVICE_NAME)).get(SERVICE_NAME).getListenAddress());
+    }
+
+    @Test
+    public void testFindServicesFromSnapshot() throws Exception {
+        File file = new File(folder.newFolder("snapshot"), "services.snapshot");
+        byte[] data = new JsonInstanceSerializer<>(InstanceDetail.class).serialize(instance(SERVICE_NAME, 9090));
+        new ZKServiceSnapshot(file).save(Collections.singletonMap(SERVICE_NAME,
+                new ZKServiceSnapshot.Entry(System.currentTimeMillis(), Collections.singletonList(data))));
+
+        // 连接不上zookeeper时，快照中的服务仍可立即查找
+        int port;
+        try(ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        CuratorFramework offlineClient = CuratorFrameworkFactory.newClient("127.0.0.1:" + port, new RetryOneTime(100));
+        offlineClient.start();
+        ZKServiceFinder offlineFinder = new ZKServiceFinder(offlineClient, SERVICE_PATH);
+        try {
+            offlineFinder.setSnapshotFile(file.getPath());
+            offlineFinder.setLookupTimeout(300L);
+
+            Map<String, InstanceDetail> found = offlineFinder.findServicesAsync(Collections.singletonList(SERVICE_NAME))
+                    .get(100, TimeUnit.MILLISECONDS);
+            Assert.assertEquals("localhost:9090", found.get(SERVICE_NAME).getListenAddress());
+
+            // 快照之外的服务需读取zookeeper，超时后以异常结束
+            try {
+                offlineFinder.findServicesAsync(Arrays.asList(SERVICE_NAME, UNKNOWN_SERVICE_NAME)).get(5, TimeUnit.SECONDS);
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof ServiceException);
+            }
+        } finally {
+            offlineFinder.close();
+            offlineClient.close();
+        }
+    }
+
+    @Test
+    public void testFindServicesPrefetchFailed() throws Exception {
+        // 服务节点只允许授权的客户端读取，批量查找时读取子节点的回调以异常结束
+        final String auth = "sloth:secret";
+        CuratorFramework adminClient = CuratorFrameworkFactory.builder()
+                .connectString(zkServer.getConnectString())
+                .retryPolicy(new RetryOneTime(100))
+                .authorization("digest", auth.getBytes(StandardCharsets.UTF_8))
+                .build();
+        adminClient.start();
+        try {
+            ACL acl = new ACL(ZooDefs.Perms.ALL, new Id("digest", DigestAuthenticationProvider.generateDigest(auth)));
+            adminClient.create().creatingParentsIfNeeded().withACL(Collections.singletonList(acl))
+                    .forPath(ZKPaths.makePath(SERVICE_PATH, SERVICE_NAME));
+        } finally {
+            adminClient.close();
+        }
+        register(OTHER_SERVICE_NAME, 8081);
+
+        finder.setLookupTimeout(300L);
+        try {
+            finder.findServicesAsync(Arrays.asList(OTHER_SERVICE_NAME, SERVICE_NAME)).get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof ServiceException);
+        }
+
+        // 其他服务不受影响
+        Assert.assertEquals("localhost:8081", finder.findServices(Collections.singletonList(OTHER_SERVICE_NAME))
+                .get(OTHER_SERVICE_NAME).getListenAddress());
+    }
+
+    private void register(String serviceName, int port) throws Exception {
+        discovery.registerService(instance(serviceName, port));
+    }
+
+    private static ServiceInstance<InstanceDetail> instance(String serviceName, int port) throws Exception {
+        InstanceDetail instanceDetail = new InstanceDetail.InstanceDetailBuilder()
+                .listenAddress("localhost:" + port)
+                .controllerRequestMapping("/persons")
+                .serviceName(serviceName)
+                .build();
+
+        return ServiceInstance.<InstanceDetail>builder()
+                .address("localhost")
+                .port(port)
+                .name(serviceName)
+                .payload(instanceDetail)
+                .build();
+    }
+}
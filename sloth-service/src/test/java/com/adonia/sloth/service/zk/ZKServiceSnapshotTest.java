@@ -0,0 +1,89 @@
+package com.adonia.sloth.service.zk;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地快照文件测试
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class ZKServiceSnapshotTest {
+
+    private static final String SERVICE_NAME = "sloth.person/v1/getPerson";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+
+    private ZKServiceSnapshot snapshot;
+
+    @Before
+    public void setUp() throws IOException {
+        file = new File(folder.newFolder("snapshot"), "services.snapshot");
+        snapshot = new ZKServiceSnapshot(file);
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        Assert.assertTrue(snapshot.load(0).isEmpty());
+
+        final long now = System.currentTimeMillis();
+        Map<String, ZKServiceSnapshot.Entry> entries = new HashMap<>();
+        entries.put(SERVICE_NAME, new ZKServiceSnapshot.Entry(now, data("{\"a\":1}", "{\"b\":2}")));
+        entries.put("sloth.person/v1/stale", new ZKServiceSnapshot.Entry(now - TimeUnit.HOURS.toMillis(2),
+                data("{\"c\":3}")));
+        snapshot.save(entries);
+        Assert.assertFalse(new File(file.getParentFile(), file.getName() + ".tmp").exists());
+
+        Map<String, ZKServiceSnapshot.Entry> loaded = snapshot.load(TimeUnit.HOURS.toMillis(1));
+        Assert.assertEquals(Collections.singleton(SERVICE_NAME), loaded.keySet());
+        Assert.assertEquals(now, loaded.get(SERVICE_NAME).getConfirmedAt());
+        List<byte[]> data = loaded.get(SERVICE_NAME).getData();
+        Assert.assertEquals(2, data.size());
+        Assert.assertArrayEquals("{\"b\":2}".getBytes(StandardCharsets.UTF_8), data.get(1));
+
+        Assert.assertEquals(2, snapshot.load(0).size());
+    }
+
+    @Test
+    public void testCorrupted() throws IOException {
+        snapshot.save(Collections.singletonMap(SERVICE_NAME,
+                new ZKServiceSnapshot.Entry(System.currentTimeMillis(), data("{\"a\":1}"))));
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(raf.length() - 12);
+            raf.write('x');
+        }
+        Assert.assertTrue(snapshot.load(0).isEmpty());
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 4);
+        }
+        Assert.assertTrue(snapshot.load(0).isEmpty());
+    }
+
+    private static List<byte[]> data(String... values) {
+        byte[][] data = new byte[values.length][];
+        for(int i = 0; i < values.length; i++) {
+            data[i] = values[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return Arrays.asList(data);
+    }
+}
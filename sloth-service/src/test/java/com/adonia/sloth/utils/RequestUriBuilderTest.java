@@ -0,0 +1,60 @@
+package com.adonia.sloth.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 请求uri组装测试，结果须与 UriComponentsBuilder 一致
+ *
+ * @author loulou.liu
+ * @create 2026/10/18
+ */
+public class RequestUriBuilderTest {
+
+    private static final String BASE = "http://localhost:8081/platform/persons";
+
+    @Test
+    public void testWithoutParameters() {
+        Assert.assertEquals(BASE, RequestUriBuilder.build(BASE, null, null));
+    }
+
+    @Test
+    public void testPathVariable() {
+        assertSame(BASE, null, "detail");
+        assertSame(BASE, null, "/detail/1");
+        assertSame(BASE + "/", null, "/detail");
+        assertSame(BASE, null, "名字 with space");
+    }
+
+    @Test
+    public void testParameters() {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("id", "123456");
+        params.put("location", "NJ, JS");
+        params.put("q", "a=b&c+d/e?f#g%h");
+        params.put("name", "柳😀");
+        params.put("empty", null);
+        params.put("age", 25);
+
+        assertSame(BASE, params, null);
+        assertSame(BASE, params, "detail");
+    }
+
+    private void assertSame(String base, Map<String, ?> params, String pathVariable) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(base);
+        if(null != pathVariable) {
+            builder.path(pathVariable.startsWith("/") ? pathVariable : "/" + pathVariable);
+        }
+        if(null != params) {
+            for(Map.Entry<String, ?> entry: params.entrySet()) {
+                builder.queryParam(entry.getKey(), entry.getValue());
+            }
+        }
+
+        Assert.assertEquals(builder.build().encode().toUriString(), RequestUriBuilder.build(base, params, pathVariable));
+    }
+}